@@ -23,7 +23,10 @@ public class ASTBasicTerm extends ASTTerm
   } 
 
   public void setTag(String t)
-  { tag = t; } 
+  { if (frozen) 
+    { throw new IllegalStateException("Cannot change tag of frozen term " + this + ", use thaw()"); } 
+    tag = t; 
+  } 
 
   public String getTag()
   { return tag; } 
@@ -66,8 +69,8 @@ public class ASTBasicTerm extends ASTTerm
 
   public ASTTerm replaceCobolIdentifiers()
   { if ("FILLER".equals(value))
-    { ASTTerm.cobolFillerCount++; 
-      return new ASTBasicTerm(tag, "FILLER_F" + ASTTerm.cobolFillerCount); 
+    { ASTTerm.ctx().cobolFillerCount++; 
+      return new ASTBasicTerm(tag, "FILLER_F" + ASTTerm.ctx().cobolFillerCount); 
     } 
     
     if (tag.equals("cobolWord") ||
@@ -75,14 +78,14 @@ public class ASTBasicTerm extends ASTTerm
         tag.equals("specialRegister"))
     { String vtrim = value.trim(); 
       String vsub = 
-        vtrim.replace("-", ASTTerm.cobolHyphenReplacement); 
+        vtrim.replace("-", ASTTerm.ctx().cobolHyphenReplacement); 
       return new ASTBasicTerm(tag,vsub);
     } 
 
     if (tag.equals("numericLiteral"))
     { String vtrim = value.trim(); 
       String vsub = vtrim.replace(",", 
-                      ASTTerm.cobolCommaReplacement);
+                      ASTTerm.ctx().cobolCommaReplacement);
       if (vsub.startsWith("."))
       { vsub = "0" + vsub; }  
       return new ASTBasicTerm(tag,vsub);
@@ -170,7 +173,10 @@ public class ASTBasicTerm extends ASTTerm
   } 
 
   public void setValue(String v)
-  { value = v; } 
+  { if (frozen) 
+    { throw new IllegalStateException("Cannot change value of frozen term " + this + ", use thaw()"); } 
+    value = v; 
+  } 
 
   public String getValue()
   { return value; } 
@@ -189,6 +195,9 @@ public class ASTBasicTerm extends ASTTerm
     return false; 
   } 
 
+  public int hashCode()
+  { return 31*tag.hashCode() + value.hashCode(); } 
+
 
   public String toJSON()
   { String res = "{ \"root\" : \"" + value + "\", \"children\" : [] }"; 
@@ -204,6 +213,9 @@ public class ASTBasicTerm extends ASTTerm
   public String evaluationLiteralForm()
   { return value; } 
 
+  public ASTTerm thaw()
+  { return new ASTBasicTerm(tag,value); } 
+
   public Vector tokenSequence()
   { Vector res = new Vector(); 
     res.add("\"" + value + "\""); 
@@ -227,6 +239,13 @@ public class ASTBasicTerm extends ASTTerm
 
   public String cg(CGSpec cgs)
   { Vector rules = cgs.getRulesForCategory(tag); 
+    if (CGRuleProfiler.enabled) 
+    { CGRuleProfiler.enter(); 
+      try 
+      { return cgRules(cgs,rules); } 
+      finally 
+      { CGRuleProfiler.exit(); } 
+    } 
     return cgRules(cgs,rules); 
   } 
 
@@ -241,8 +260,13 @@ public class ASTBasicTerm extends ASTTerm
       Vector tokens = r.lhsTokens; 
       Vector vars = r.getVariables(); 
 
+      if (CGRuleProfiler.enabled) 
+      { CGRuleProfiler.attempt(tag,r); } 
+
       if (vars.size() > 1 || tokens.size() > 1)
       { // System.out.println("> Rule " + r + " has too many variables/tokens to match basic term " + this); 
+        if (CGRuleProfiler.enabled) 
+        { CGRuleProfiler.structuralReject(tag,r); } 
         continue; 
       } 
       
@@ -295,10 +319,17 @@ public class ASTBasicTerm extends ASTTerm
 
         if (r.satisfiesAllConditions(args,eargs,ents,cgs)) 
              // r.satisfiesConditions(eargs,ents,cgs))
-        { System.out.println(">>>> Applying basic term " + tag + " rule " + r + " for " + this); 
+        { if (CGRuleProfiler.trace) 
+          { System.out.println(">>>> Applying basic term " + tag + " rule " + r + " for " + this); } 
+          if (CGRuleProfiler.enabled) 
+          { CGRuleProfiler.applied(tag,r); } 
           return r.applyRule(args,eargs,cgs); 
         }  
+        else if (CGRuleProfiler.enabled) 
+        { CGRuleProfiler.conditionFailure(tag,r); } 
       }   
+      else if (CGRuleProfiler.enabled) 
+      { CGRuleProfiler.structuralReject(tag,r); } 
     } 
 
 
@@ -306,7 +337,8 @@ public class ASTBasicTerm extends ASTTerm
     { Vector tagrules = cgs.getRulesForCategory(tag);
       if (tagrules.equals(rules)) 
       { return toString(); }
-      System.out.println(">> Applying default rule _0 |-->_0 to " + this);  
+      if (CGRuleProfiler.trace) 
+      { System.out.println(">> Applying default rule _0 |-->_0 to " + this); } 
       return this.cgRules(cgs,tagrules); 
     } 
 
@@ -1796,8 +1828,8 @@ public class ASTBasicTerm extends ASTTerm
   } 
 
   public String toKM3type()
-  { if (ASTTerm.entities == null) 
-    { ASTTerm.entities = new Vector(); } 
+  { if (ASTTerm.ctx().entities == null) 
+    { ASTTerm.ctx().entities = new Vector(); } 
 	
     if ("typeTypeOrVoid".equals(tag) && 
         "void".equals(value))
@@ -1815,12 +1847,12 @@ public class ASTBasicTerm extends ASTTerm
 
       Entity ent = 
         (Entity) ModelElement.lookupByName(value,
-                                           ASTTerm.entities); 
+                                           ASTTerm.ctx().entities); 
       if (ent != null) 
       { modelElement = new Type(ent); } 
       else if (Entity.validEntityName(value))
       { ent = new Entity(value); 
-        ASTTerm.entities.add(ent);
+        ASTTerm.ctx().entities.add(ent);
         modelElement = new Type(ent); 
       }
  
@@ -1830,7 +1862,7 @@ public class ASTBasicTerm extends ASTTerm
 
     if ("primary".equals(tag)) // enum
     { Type typ = (Type) ModelElement.lookupByName(value,
-                                           ASTTerm.enumtypes); 
+                                           ASTTerm.ctx().enumtypes); 
       if (typ != null) 
       { modelElement = typ;
         ASTTerm.setType(this, "OclType"); 
@@ -1847,12 +1879,12 @@ public class ASTBasicTerm extends ASTTerm
  
       Entity ent = 
         (Entity) ModelElement.lookupByName(value,
-                                           ASTTerm.entities); 
+                                           ASTTerm.ctx().entities); 
       if (ent != null) 
       { modelElement = new Type(ent); } 
       else if (Entity.validEntityName(value))
       { ent = new Entity(value); 
-        ASTTerm.entities.add(ent);
+        ASTTerm.ctx().entities.add(ent);
         modelElement = new Type(ent);  
       }
 
@@ -2575,7 +2607,7 @@ public class ASTBasicTerm extends ASTTerm
 
     if ("typeParameter".equals(tag) || 
         "classOrInterfaceType".equals(tag))
-    { modelElement = Type.getTypeFor(value, enumtypes, entities); 
+    { modelElement = Type.getTypeFor(value, ctx().enumtypes, ctx().entities); 
 
       if (modelElement == null)
       { modelElement = new Type(value, null); }  
@@ -2846,7 +2878,7 @@ public class ASTBasicTerm extends ASTTerm
   } 
 
   public String getType()
-  { String type = (String) types.get(value); 
+  { String type = (String) ctx().types.get(value); 
     if (type != null) 
     { return type; } 
     else if (tag.equals("integerLiteral"))
@@ -3038,7 +3070,7 @@ public class ASTBasicTerm extends ASTTerm
       if ("e".equals(vv))
       { return; } 
 
-      Object val = ASTTerm.mathoclvars.get(vv); 
+      Object val = ASTTerm.ctx().mathoclvars.get(vv); 
       if (val == null) 
       { // JOptionPane.showMessageDialog(null, 
         //   "Warning!: variable " + vv + " does not have a definition",   "",
@@ -0,0 +1,391 @@
+/******************************
+* Copyright (c) 2003--2025 Kevin Lano
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0
+*
+* SPDX-License-Identifier: EPL-2.0
+* *****************************/
+
+import java.util.Vector;
+import java.io.*;
+import java.util.concurrent.*;
+
+/* Batch reverse-engineering of a directory of AST dumps,
+   one file per source file, into one KM3 model. Files are
+   translated by toKM3 concurrently, each in its own
+   TranslationContext, so that their entities, types and
+   metafeatures do not interfere. The entities and enum
+   types of the files are then merged sequentially, in
+   file path order, so the merged model does not depend on
+   the thread scheduling:
+     - the first entity of a name is kept, later entities
+       of the same name only add the attributes, operations
+       and stereotypes which it does not already have, and
+       its superclass if it has none;
+     - the first enumeration of a name is kept.
+   References to the discarded entities and enumerations
+   (superclasses, subclasses, feature owners and types,
+   association ends) are then replaced by the kept ones. */
+
+public class ASTBatchTranslator
+{ int threads;
+
+  Vector results = new Vector(); // of FileResult, in path order
+  Vector entities = new Vector(); // merged model
+  Vector enumtypes = new Vector();
+
+  long elapsedTime = 0; // milliseconds
+  long nodeCount = 0;
+  int failedFiles = 0;
+
+  public ASTBatchTranslator(int nthreads)
+  { threads = Math.max(1,nthreads); }
+
+  public ASTBatchTranslator()
+  { this(Runtime.getRuntime().availableProcessors()); }
+
+  public Vector getEntities()
+  { return entities; }
+
+  public Vector getEnumtypes()
+  { return enumtypes; }
+
+  public Vector getResults()
+  { return results; }
+
+  public static Vector astFiles(File dir)
+  { // The AST files in dir and its subdirectories,
+    // in path order. Hidden files and .astb caches are
+    // not included.
+
+    Vector res = new Vector();
+    collectFiles(dir,res);
+    java.util.Collections.sort(res);
+    return res;
+  }
+
+  private static void collectFiles(File dir, Vector res)
+  { File[] fs = dir.listFiles();
+    if (fs == null)
+    { return; }
+    for (int i = 0; i < fs.length; i++)
+    { File f = fs[i];
+      String nme = f.getName();
+      if (nme.startsWith("."))
+      { continue; }
+      if (f.isDirectory())
+      { collectFiles(f,res); }
+      else if (!nme.endsWith(".astb"))
+      { res.add(f); }
+    }
+  }
+
+  public void translateDirectory(File dir)
+  { translateFiles(astFiles(dir)); }
+
+  public void translateFiles(Vector files)
+  { long t1 = System.currentTimeMillis();
+
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    Vector futures = new Vector();
+    for (int i = 0; i < files.size(); i++)
+    { final File f = (File) files.get(i);
+      futures.add(pool.submit(new Callable()
+        { public Object call()
+          { return translateFile(f); }
+        }));
+    }
+
+    results = new Vector();
+    try
+    { for (int i = 0; i < futures.size(); i++)
+      { Future fut = (Future) futures.get(i);
+        results.add(fut.get());
+      }
+    }
+    catch (Exception ex)
+    { System.err.println("!! Batch translation interrupted: " + ex); }
+    finally
+    { pool.shutdown(); }
+
+    merge();
+
+    long t2 = System.currentTimeMillis();
+    elapsedTime = t2 - t1;
+  }
+
+  public static FileResult translateFile(File f)
+  { final FileResult res = new FileResult(f);
+    final TranslationContext ctx = new TranslationContext();
+    ctx.setEntities(new Vector());
+    ctx.setEnumtypes(new Vector());
+
+    ctx.run(new Runnable()
+      { public void run()
+        { ASTDumpReader reader = null;
+          try
+          { reader = new ASTDumpReader(res.file);
+            while (reader.hasNext())
+            { ASTTerm trm = (ASTTerm) reader.next();
+              res.trees++;
+              res.nodes += trm.termSize();
+              res.km3.append(trm.toKM3());
+              res.km3.append("\n");
+            }
+          }
+          catch (Throwable ex)
+          { res.error = ex; }
+          finally
+          { if (reader != null)
+            { try { reader.close(); }
+              catch (IOException _ex) { }
+            }
+          }
+        }
+      });
+
+    res.entities = ctx.getEntities();
+    res.enumtypes = ctx.getEnumtypes();
+    return res;
+  }
+
+  private void merge()
+  { entities = new Vector();
+    enumtypes = new Vector();
+    nodeCount = 0;
+    failedFiles = 0;
+
+    java.util.Map entitiesByName = new java.util.HashMap();
+    java.util.Map typesByName = new java.util.HashMap();
+    java.util.Map replaced = new java.util.IdentityHashMap();
+      // discarded Entity or Type --> the kept one
+
+    for (int i = 0; i < results.size(); i++)
+    { FileResult fr = (FileResult) results.get(i);
+      nodeCount += fr.nodes;
+      if (fr.error != null)
+      { System.err.println("!! Error translating " + fr.file + ": " + fr.error);
+        failedFiles++;
+      }
+
+      for (int j = 0; j < fr.enumtypes.size(); j++)
+      { Type tt = (Type) fr.enumtypes.get(j);
+        Type existing = (Type) typesByName.get(tt.getName());
+        if (existing == null)
+        { typesByName.put(tt.getName(), tt);
+          enumtypes.add(tt);
+        }
+        else if (existing != tt)
+        { replaced.put(tt, existing); }
+      }
+
+      for (int j = 0; j < fr.entities.size(); j++)
+      { Object obj = fr.entities.get(j);
+        if (!(obj instanceof Entity))
+        { continue; }
+        Entity ent = (Entity) obj;
+        Entity existing = (Entity) entitiesByName.get(ent.getName());
+        if (existing == null)
+        { entitiesByName.put(ent.getName(), ent);
+          entities.add(ent);
+        }
+        else if (existing != ent)
+        { mergeEntity(existing,ent);
+          replaced.put(ent, existing);
+        }
+      }
+    }
+
+    if (replaced.size() > 0)
+    { remapReferences(replaced); }
+  }
+
+  private static void mergeEntity(Entity target, Entity ent)
+  { Vector atts = ent.getAttributes();
+    for (int i = 0; i < atts.size(); i++)
+    { Attribute att = (Attribute) atts.get(i);
+      if (!target.hasAttribute(att.getName()))
+      { target.addAttribute(att); }
+    }
+
+    Vector ops = ent.getOperations();
+    Vector sigs = new Vector();
+    Vector targetops = target.getOperations();
+    for (int i = 0; i < targetops.size(); i++)
+    { BehaviouralFeature bf = (BehaviouralFeature) targetops.get(i);
+      sigs.add(bf.getSignature());
+    }
+    for (int i = 0; i < ops.size(); i++)
+    { BehaviouralFeature bf = (BehaviouralFeature) ops.get(i);
+      if (!sigs.contains(bf.getSignature()))
+      { target.addOperation(bf); }
+    }
+
+    Vector stereos = ent.getStereotypes();
+    for (int i = 0; i < stereos.size(); i++)
+    { String st = (String) stereos.get(i);
+      if (!target.hasStereotype(st))
+      { target.addStereotype(st); }
+    }
+
+    if (target.getSuperclass() == null && ent.getSuperclass() != null)
+    { target.setSuperclass(ent.getSuperclass()); }
+  }
+
+  private void remapReferences(java.util.Map replaced)
+  { for (int i = 0; i < entities.size(); i++)
+    { Entity ent = (Entity) entities.get(i);
+
+      Entity sup = ent.getSuperclass();
+      if (replaced.containsKey(sup))
+      { Entity newsup = (Entity) replaced.get(sup);
+        ent.setSuperclass(newsup);
+        if (!newsup.getSubclasses().contains(ent))
+        { newsup.getSubclasses().add(ent); }
+      }
+
+      Vector subs = ent.getSubclasses();
+      Vector newsubs = new Vector();
+      for (int j = 0; j < subs.size(); j++)
+      { Object sub = subs.get(j);
+        if (replaced.containsKey(sub))
+        { sub = replaced.get(sub); }
+        if (sub != ent && !newsubs.contains(sub))
+        { newsubs.add(sub); }
+      }
+      subs.clear();
+      subs.addAll(newsubs);
+
+      Vector atts = ent.getAttributes();
+      for (int j = 0; j < atts.size(); j++)
+      { Attribute att = (Attribute) atts.get(j);
+        if (replaced.containsKey(att.getEntity()))
+        { att.setEntity(ent); } // moved from the duplicate
+        remapAttributeTypes(att,replaced);
+      }
+
+      Vector ops = ent.getOperations();
+      for (int j = 0; j < ops.size(); j++)
+      { BehaviouralFeature bf = (BehaviouralFeature) ops.get(j);
+        if (replaced.containsKey(bf.getEntity()))
+        { bf.setEntity(ent); }
+
+        Type rt = bf.getResultType();
+        Type newrt = remapType(rt,replaced);
+        if (newrt != rt)
+        { bf.setResultType(newrt); }
+        Type et = bf.getElementType();
+        Type newet = remapType(et,replaced);
+        if (newet != et)
+        { bf.setElementType(newet); }
+
+        Vector pars = bf.getParameters();
+        for (int k = 0; pars != null && k < pars.size(); k++)
+        { remapAttributeTypes((Attribute) pars.get(k),replaced); }
+      }
+
+      Vector asts = ent.getAssociations();
+      for (int j = 0; j < asts.size(); j++)
+      { Association ast = (Association) asts.get(j);
+        if (replaced.containsKey(ast.getEntity1()))
+        { ast.setEntity1((Entity) replaced.get(ast.getEntity1())); }
+        if (replaced.containsKey(ast.getEntity2()))
+        { ast.setEntity2((Entity) replaced.get(ast.getEntity2())); }
+      }
+    }
+  }
+
+  private static void remapAttributeTypes(Attribute att,
+                                          java.util.Map replaced)
+  { Type t = att.getType();
+    Type newt = remapType(t,replaced);
+    if (newt != t)
+    { att.setType(newt); }
+    Type et = att.getElementType();
+    Type newet = remapType(et,replaced);
+    if (newet != et)
+    { att.setElementType(newet); }
+  }
+
+  private static Type remapType(Type t, java.util.Map replaced)
+  { // t, with its element and key types remapped, or
+    // the kept type if t is or denotes a discarded one
+
+    if (t == null)
+    { return null; }
+    if (replaced.containsKey(t))
+    { return (Type) replaced.get(t); }
+
+    Entity ent = t.getEntity();
+    if (ent != null && replaced.containsKey(ent))
+    { return new Type((Entity) replaced.get(ent)); }
+
+    Type et = t.getElementType();
+    if (et != null && et != t)
+    { Type newet = remapType(et,replaced);
+      if (newet != et)
+      { t.setElementType(newet); }
+    }
+
+    Type kt = t.getKeyType();
+    if (kt != null && kt != t)
+    { Type newkt = remapType(kt,replaced);
+      if (newkt != kt)
+      { t.setKeyType(newkt); }
+    }
+    return t;
+  }
+
+  public void saveKM3(PrintWriter out, String packageName)
+  { out.println("package " + packageName + " { ");
+
+    for (int i = 0; i < enumtypes.size(); i++)
+    { Type tt = (Type) enumtypes.get(i);
+      tt.saveKM3(out);
+    }
+
+    for (int i = 0; i < entities.size(); i++)
+    { Entity ee = (Entity) entities.get(i);
+      ee.saveKM3(out);
+    }
+
+    out.println("}");
+  }
+
+  public String report()
+  { double secs = elapsedTime/1000.0;
+    if (secs <= 0)
+    { secs = 0.001; }
+    return results.size() + " files (" + failedFiles + " failed), " +
+           nodeCount + " AST nodes in " + secs + "s using " +
+           threads + " threads: " +
+           ((long) (results.size()/secs)) + " files/sec, " +
+           ((long) (nodeCount/secs)) + " nodes/sec; " +
+           entities.size() + " classes, " + enumtypes.size() +
+           " enumerations in merged model";
+  }
+
+
+  public static class FileResult
+  { File file;
+    int trees = 0;
+    long nodes = 0;
+    StringBuffer km3 = new StringBuffer();
+    Vector entities = new Vector();
+    Vector enumtypes = new Vector();
+    Throwable error = null;
+
+    FileResult(File f)
+    { file = f; }
+
+    public File getFile()
+    { return file; }
+
+    public String getKM3()
+    { return km3.toString(); }
+
+    public Throwable getError()
+    { return error; }
+  }
+}
@@ -0,0 +1,252 @@
+/******************************
+* Copyright (c) 2003--2025 Kevin Lano
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0
+*
+* SPDX-License-Identifier: EPL-2.0
+* *****************************/
+
+import java.util.Vector;
+import java.io.*;
+
+/* Compact binary encoding of ASTTerm trees, in preorder:
+     node      ::= varint (count*4 + kind)  strings
+     kind      ::= 0 null | 1 symbol | 2 basic | 3 composite
+   where count is the number of subterms of a composite
+   term, which follow it. A symbol has one string, a
+   basic term two (tag, value), a composite term one
+   (tag). Each string is a varint reference into the
+   string table of the stream: 0 for a new string, given
+   as a varint length and UTF-8 bytes and added to the
+   table, or i > 0 for the i-th string of the table.
+
+   One ASTBinaryFormat holds the string table of one
+   stream, for writing or for reading. Trees are read and
+   written with explicit stacks, so deep trees cannot
+   overflow the Java stack.
+
+   Each string byte and each term takes at least one byte
+   of the stream, so counts and lengths greater than the
+   length of the input, or negative, are rejected with an
+   IOException. Buffers are allocated as the input is
+   read, so a corrupt length of a stream of unknown
+   length fails at its end instead of exhausting memory. */
+
+public class ASTBinaryFormat
+{ static final int MAGIC = 0x41535442; // "ASTB"
+  static final int FORMAT_VERSION = 1;
+
+  static final int NULL_TERM = 0;
+  static final int SYMBOL_TERM = 1;
+  static final int BASIC_TERM = 2;
+  static final int COMPOSITE_TERM = 3;
+
+  static final int CHUNK = 65536;
+
+  java.util.Map stringIndex = new java.util.HashMap();
+    // String --> Integer, when writing
+  Vector strings = new Vector(); // of String, when reading
+  long limit = Long.MAX_VALUE; // length of the input, when reading
+
+  public static void writeTerms(Vector trees, DataOutput out)
+    throws IOException
+  { out.writeInt(MAGIC);
+    out.writeInt(FORMAT_VERSION);
+    writeVarint(trees.size(), out);
+    ASTBinaryFormat fmt = new ASTBinaryFormat();
+    for (int i = 0; i < trees.size(); i++)
+    { fmt.writeTerm((ASTTerm) trees.get(i), out); }
+  }
+
+  public static Vector readTerms(DataInput in) throws IOException
+  { return readTerms(in,Long.MAX_VALUE); }
+
+  public static Vector readTerms(DataInput in, long limit)
+    throws IOException
+  { // limit is the length of the input, if known
+
+    int magic = in.readInt();
+    int version = in.readInt();
+    if (magic != MAGIC || version != FORMAT_VERSION)
+    { throw new IOException("Not an AST binary file, version " +
+                            FORMAT_VERSION);
+    }
+
+    ASTBinaryFormat fmt = new ASTBinaryFormat();
+    fmt.limit = limit;
+    int n = fmt.readCount(in);
+    Vector res = new Vector(Math.min(n,1024));
+    for (int i = 0; i < n; i++)
+    { ASTTerm trm = fmt.readTerm(in);
+      if (ASTTermFactory.isEnabled())
+      { trm = ASTTermFactory.intern(trm); }
+      if (trm != null && ASTTerm.freezeParsedTerms)
+      { trm.freeze(); }
+      res.add(trm);
+    }
+    return res;
+  }
+
+  public void writeTerm(ASTTerm tree, DataOutput out)
+    throws IOException
+  { Vector stack = new Vector();
+    stack.add(tree);
+
+    while (stack.size() > 0)
+    { ASTTerm t = (ASTTerm) stack.remove(stack.size() - 1);
+
+      if (t == null)
+      { writeVarint(NULL_TERM, out); }
+      else if (t instanceof ASTSymbolTerm)
+      { writeVarint(SYMBOL_TERM, out);
+        writeString(((ASTSymbolTerm) t).getSymbol(), out);
+      }
+      else if (t instanceof ASTBasicTerm)
+      { writeVarint(BASIC_TERM, out);
+        writeString(t.getTag(), out);
+        writeString(((ASTBasicTerm) t).getValue(), out);
+      }
+      else
+      { Vector trms = t.getTerms();
+        writeVarint(trms.size()*4 + COMPOSITE_TERM, out);
+        writeString(t.getTag(), out);
+        for (int i = trms.size() - 1; i >= 0; i--)
+        { stack.add(trms.get(i)); }
+      }
+    }
+  }
+
+  public ASTTerm readTerm(DataInput in) throws IOException
+  { Vector stack = new Vector(); // of Frame, unfinished terms
+
+    while (true)
+    { int code = readVarint(in);
+      int kind = code & 3;
+      int count = code >>> 2;
+
+      ASTTerm trm = null;
+      if (kind == SYMBOL_TERM)
+      { trm = new ASTSymbolTerm(readString(in)); }
+      else if (kind == BASIC_TERM)
+      { String tag = readString(in);
+        trm = new ASTBasicTerm(tag,readString(in));
+      }
+      else if (kind == COMPOSITE_TERM)
+      { if (count > limit)
+        { throw new IOException("Invalid term count " + count); }
+        String tag = readString(in);
+        if (count > 0)
+        { stack.add(new Frame(tag,count));
+          continue;
+        }
+        trm = new ASTCompositeTerm(tag,new Vector());
+      }
+
+      // trm is complete, add it to the enclosing terms
+      while (stack.size() > 0)
+      { Frame top = (Frame) stack.get(stack.size() - 1);
+        top.terms.add(trm);
+        if (top.terms.size() < top.count)
+        { break; }
+        stack.remove(stack.size() - 1);
+        trm = new ASTCompositeTerm(top.tag,top.terms);
+      }
+
+      if (stack.size() == 0)
+      { return trm; }
+    }
+  }
+
+  private void writeString(String s, DataOutput out)
+    throws IOException
+  { if (s == null)
+    { s = ""; }
+    Integer ind = (Integer) stringIndex.get(s);
+    if (ind != null)
+    { writeVarint(ind.intValue(), out);
+      return;
+    }
+
+    stringIndex.put(s, Integer.valueOf(stringIndex.size() + 1));
+    writeVarint(0, out);
+    byte[] bytes = s.getBytes("UTF-8");
+    writeVarint(bytes.length, out);
+    out.write(bytes);
+  }
+
+  private String readString(DataInput in) throws IOException
+  { int ind = readVarint(in);
+    if (ind > 0)
+    { if (ind > strings.size())
+      { throw new IOException("Invalid string reference " + ind); }
+      return (String) strings.get(ind - 1);
+    }
+
+    int len = readCount(in);
+    byte[] bytes;
+    if (len <= CHUNK)
+    { bytes = new byte[len];
+      in.readFully(bytes);
+    }
+    else
+    { ByteArrayOutputStream buf = new ByteArrayOutputStream(CHUNK);
+      byte[] chunk = new byte[CHUNK];
+      for (int left = len; left > 0; )
+      { int k = Math.min(left,CHUNK);
+        in.readFully(chunk,0,k);
+        buf.write(chunk,0,k);
+        left -= k;
+      }
+      bytes = buf.toByteArray();
+    }
+    String s = new String(bytes,"UTF-8");
+    strings.add(s);
+    return s;
+  }
+
+  private int readCount(DataInput in) throws IOException
+  { // A count or length, of at most limit elements
+
+    int n = readVarint(in);
+    if (n < 0 || n > limit)
+    { throw new IOException("Invalid count " + n); }
+    return n;
+  }
+
+  public static void writeVarint(int x, DataOutput out)
+    throws IOException
+  { // 7 bits per byte, low bits first, x >= 0
+    while ((x & ~0x7F) != 0)
+    { out.writeByte((x & 0x7F) | 0x80);
+      x = x >>> 7;
+    }
+    out.writeByte(x);
+  }
+
+  public static int readVarint(DataInput in) throws IOException
+  { int res = 0;
+    int shift = 0;
+    while (shift < 32)
+    { int b = in.readUnsignedByte();
+      res = res | ((b & 0x7F) << shift);
+      if ((b & 0x80) == 0)
+      { return res; }
+      shift += 7;
+    }
+    throw new IOException("Invalid varint");
+  }
+
+
+  static class Frame
+  { String tag;
+    int count;
+    Vector terms;
+
+    Frame(String t, int n)
+    { tag = t;
+      count = n;
+      terms = new Vector(Math.min(n,64));
+    }
+  }
+}
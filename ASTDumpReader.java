@@ -0,0 +1,271 @@
+/******************************
+* Copyright (c) 2003--2025 Kevin Lano
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0
+*
+* SPDX-License-Identifier: EPL-2.0
+* *****************************/
+
+import java.util.Vector;
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/* Iterator over the top-level ASTTerms of a file of AST
+   dumps, (tag1 ...) (tag2 ...) ... The file is memory
+   mapped in windows of windowSize bytes, and lexed
+   directly from the mapped bytes in the same way as
+   Compiler2.nospacelexicalanalysisText. Only the tokens
+   of the current tree are held, so the memory used
+   depends on the largest tree, not on the file size. */
+
+public class ASTDumpReader implements java.util.Iterator, Closeable
+{ static int windowSize = 64*1024*1024;
+
+  RandomAccessFile file;
+  FileChannel channel;
+  long fileSize;
+  MappedByteBuffer window = null;
+  long windowStart = 0;
+  long position = 0;
+  int pushedBack = -1;
+
+  String encoding = "UTF-8";
+
+  Compiler2 compiler = new Compiler2();
+  ASTTerm nextTerm = null;
+  boolean finished = false;
+  int treeCount = 0;
+  int failedTrees = 0; // token groups which are not ASTs
+
+  // Lexer state
+  boolean instring = false;
+  boolean inchar = false;
+  char prev = ' ';
+  int depth = 0;
+  ByteArrayOutputStream token = new ByteArrayOutputStream();
+  boolean intoken = false;
+
+  public ASTDumpReader(File f) throws IOException
+  { file = new RandomAccessFile(f,"r");
+    channel = file.getChannel();
+    fileSize = channel.size();
+  }
+
+  public ASTDumpReader(File f, String enc) throws IOException
+  { this(f);
+    encoding = enc;
+  }
+
+  public static void setWindowSize(int sz)
+  { windowSize = sz; }
+
+  public int getTreeCount()
+  { return treeCount; }
+
+  public int getFailedTrees()
+  { return failedTrees; }
+
+  public boolean hasNext()
+  { if (nextTerm == null && !finished)
+    { advance(); }
+    return nextTerm != null;
+  }
+
+  public Object next()
+  { if (!hasNext())
+    { throw new java.util.NoSuchElementException(); }
+    ASTTerm res = nextTerm;
+    nextTerm = null;
+    return res;
+  }
+
+  public void remove()
+  { throw new UnsupportedOperationException(); }
+
+  public void close() throws IOException
+  { finished = true;
+    window = null;
+    channel.close();
+    file.close();
+  }
+
+  public int translate(CGSpec spec, Writer out) throws IOException
+  { // Parse, cg and write one tree at a time. The cg_cache
+    // of spec is cleared after each tree.
+
+    int count = 0;
+    TranslationContext ctx = TranslationContext.current();
+    while (hasNext())
+    { ASTTerm trm = (ASTTerm) next();
+      out.write(trm.cg(spec));
+      out.write("\n");
+      count++;
+      synchronized (ctx.cg_cache)
+      { ctx.cg_cache.remove(spec); }
+    }
+    out.flush();
+    return count;
+  }
+
+  private void advance()
+  { try
+    { while (true)
+      { Vector lexs = readTree();
+        if (lexs == null)
+        { close();
+          return;
+        }
+
+        ASTTerm trm = compiler.parseGeneralAST(lexs);
+        if (trm != null)
+        { nextTerm = trm;
+          treeCount++;
+          return;
+        }
+        failedTrees++;
+      }
+    }
+    catch (IOException ex)
+    { System.err.println("!! Error reading AST dump: " + ex);
+      finished = true;
+    }
+  }
+
+  private int read() throws IOException
+  { // The next byte, or -1 at the end of the file
+
+    if (pushedBack >= 0)
+    { int res = pushedBack;
+      pushedBack = -1;
+      return res;
+    }
+
+    if (position >= fileSize)
+    { return -1; }
+
+    if (window == null || position >= windowStart + window.limit())
+    { long len = Math.min((long) windowSize, fileSize - position);
+      window = channel.map(FileChannel.MapMode.READ_ONLY,position,len);
+      windowStart = position;
+    }
+
+    int res = window.get((int) (position - windowStart)) & 0xFF;
+    position++;
+    return res;
+  }
+
+  private Vector readTree() throws IOException
+  { // The tokens of the next top-level tree or symbol,
+    // or null if there are none.
+
+    Vector lexs = new Vector();
+
+    while (true)
+    { int b = read();
+      if (b < 0)
+      { endToken(lexs);
+        instring = false;
+        inchar = false;
+        depth = 0;
+        if (lexs.size() > 0)
+        { return lexs; }
+        return null;
+      }
+
+      char c = (char) b;
+
+      if (depth == 0 && !instring && !inchar &&
+          startsToken(c) && (lexs.size() > 0 || intoken))
+      { endToken(lexs);
+        if (lexs.size() > 0)
+        { pushedBack = b; // starts the next tree
+          return lexs;
+        }
+      }
+
+      if (c == '\"' && prev != '\\')
+      { if (inchar)
+        { append(b); }
+        else if (instring)
+        { instring = false;
+          append(b);
+          endToken(lexs);
+        }
+        else
+        { instring = true;
+          endToken(lexs);
+          append(b);
+        }
+      }
+      else if (instring)
+      { append(b); }
+      else if (c == '\'' && prev != '\\')
+      { if (inchar)
+        { inchar = false;
+          append(b);
+          endToken(lexs);
+        }
+        else
+        { inchar = true;
+          endToken(lexs);
+          append(b);
+        }
+      }
+      else if (inchar)
+      { append(b); }
+      else if (c == '(' || c == ')' || c == '{' || c == '}' ||
+               c == '[' || c == ']')
+      { endToken(lexs);
+        append(b);
+        endToken(lexs);
+        if (c == '(')
+        { depth++; }
+        else if (c == ')')
+        { depth--;
+          if (depth <= 0)
+          { depth = 0;
+            prev = c;
+            return lexs;
+          }
+        }
+      }
+      else if (c == ' ' || c == '\n' || c == '\t' || c == '\r')
+      { endToken(lexs); }
+      else
+      { append(b); }
+
+      if (prev == '\\' && c == '\\')
+      { prev = ' '; } // an escaped backslash
+      else
+      { prev = c; }
+    }
+  }
+
+  private boolean startsToken(char c)
+  { // c outside a string starts a new token, at top level
+
+    if (c == ' ' || c == '\n' || c == '\t' || c == '\r')
+    { return false; }
+    if (c == '(' || c == ')' || c == '{' || c == '}' ||
+        c == '[' || c == ']')
+    { return true; }
+    if ((c == '\"' || c == '\'') && prev != '\\')
+    { return true; }
+    return !intoken;
+  }
+
+  private void append(int b)
+  { token.write(b);
+    intoken = true;
+  }
+
+  private void endToken(Vector lexs) throws IOException
+  { if (!intoken)
+    { return; }
+    lexs.add(token.toString(encoding));
+    token.reset();
+    intoken = false;
+  }
+}
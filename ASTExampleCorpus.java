@@ -0,0 +1,257 @@
+/******************************
+* Copyright (c) 2003--2025 Kevin Lano
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0
+*
+* SPDX-License-Identifier: EPL-2.0
+* *****************************/
+
+import java.util.Vector;
+
+/* Index of the source and target example ASTs used for
+   transformation learning (MTBE). The learning procedures of
+   ASTTerm visit each group of examples with the same entity
+   (tag and arity, or tagFunction) once, instead of each
+   example, and the correspondences of a ModelSpecification
+   built from examples are recorded by entity and the literal
+   forms of the trees, so that ASTTerm.matchingTrees,
+   treeconcatenations and the other tree mapping checks find
+   corresponding example trees by hashing.
+
+   A corpus is not complete by default: when it has no
+   answer, the model is asked. ASTTerm.examplesToModel only
+   sets it complete when the corpus was made by that call,
+   ie., the correspondences of the model were all built from
+   the examples. The corpus then also answers that trees do
+   not correspond, without searching the model. If
+   correspondences are added to the model in other ways,
+   setComplete(false).
+
+   Groups are LinkedHashMaps in order of first occurrence, so
+   that entities and matchings are created in the same order
+   as from the examples. */
+
+public class ASTExampleCorpus
+{ private ModelSpecification model;
+  private java.util.Map correspondences = new java.util.HashMap();
+    // String entity name --> (String source literal -->
+    //                         Set of String target literals)
+  private java.util.Map anyTargets = new java.util.HashMap();
+    // String source literal --> Set of String target
+    // literals, for all entities
+  private java.util.Map firstTargets = new java.util.HashMap();
+    // String source literal --> ASTTerm target of its
+    // first example
+  private int size = 0;
+  private boolean complete = false;
+
+  public ASTExampleCorpus(ModelSpecification mod)
+  { model = mod; }
+
+  public static ASTExampleCorpus corpusFor(ModelSpecification mod)
+  { // The corpus of mod in the current translation
+    // context, a new one if mod has none yet
+
+    java.util.Map corpora = ASTTerm.ctx().exampleCorpora;
+    synchronized (corpora)
+    { ASTExampleCorpus res = (ASTExampleCorpus) corpora.get(mod);
+      if (res == null)
+      { res = new ASTExampleCorpus(mod);
+        corpora.put(mod, res);
+      }
+      return res;
+    }
+  }
+
+  public static ASTExampleCorpus currentCorpus(ModelSpecification mod)
+  { // The recorded corpus for mod, or null
+
+    java.util.Map corpora = ASTTerm.ctx().exampleCorpora;
+    synchronized (corpora)
+    { return (ASTExampleCorpus) corpora.get(mod); }
+  }
+
+  public int size()
+  { return size; }
+
+  public boolean isComplete()
+  { return complete; }
+
+  public void setComplete(boolean b)
+  { complete = b; }
+
+  public void addExample(String sentname, ASTTerm s, ASTTerm t)
+  { java.util.Map bySource =
+      (java.util.Map) correspondences.get(sentname);
+    if (bySource == null)
+    { bySource = new java.util.HashMap();
+      correspondences.put(sentname, bySource);
+    }
+
+    String slit = s.literalForm();
+    if (!firstTargets.containsKey(slit))
+    { firstTargets.put(slit, t); }
+
+    String tlit = t.literalForm();
+    if (addTarget(bySource, slit, tlit))
+    { size++; }
+    addTarget(anyTargets, slit, tlit);
+  }
+
+  private static boolean addTarget(java.util.Map bySource,
+                                   String slit, String tlit)
+  { java.util.Set targets = (java.util.Set) bySource.get(slit);
+    if (targets == null)
+    { targets = new java.util.HashSet();
+      bySource.put(slit, targets);
+    }
+    return targets.add(tlit);
+  }
+
+  public ASTTerm getCorrespondingTree(ASTTerm xx)
+  { // The target of the first example with source xx
+
+    if (xx == null)
+    { return null; }
+    return (ASTTerm) firstTargets.get(xx.literalForm());
+  }
+
+  public boolean correspondingTrees(Entity sent, ASTTerm xx,
+                                    ASTTerm yy)
+  { // xx and yy are an example pair of sent
+
+    if (sent == null || xx == null || yy == null)
+    { return false; }
+
+    java.util.Map bySource =
+      (java.util.Map) correspondences.get(sent.getName());
+    return hasTarget(bySource, xx, yy);
+  }
+
+  public boolean correspondingTrees(ASTTerm xx, ASTTerm yy)
+  { // xx and yy are an example pair of some entity
+
+    if (xx == null || yy == null)
+    { return false; }
+    return hasTarget(anyTargets, xx, yy);
+  }
+
+  private static boolean hasTarget(java.util.Map bySource,
+                                   ASTTerm xx, ASTTerm yy)
+  { if (bySource == null)
+    { return false; }
+    java.util.Set targets =
+      (java.util.Set) bySource.get(xx.literalForm());
+    return targets != null && targets.contains(yy.literalForm());
+  }
+
+
+  /* Lookups for ASTTerm, by the corpus of mod if it is
+     complete, otherwise also by mod */
+
+  public static ASTTerm correspondingTree(ASTTerm xx,
+                                         ModelSpecification mod)
+  { ASTExampleCorpus corpus = currentCorpus(mod);
+    ASTTerm res = null;
+    if (corpus != null)
+    { res = corpus.getCorrespondingTree(xx);
+      if (res != null || corpus.complete)
+      { return res; }
+    }
+    return mod.getCorrespondingTree(xx);
+  }
+
+  public static boolean correspondingTrees(Entity sent,
+                   ASTTerm xx, ASTTerm yy, ModelSpecification mod)
+  { ASTExampleCorpus corpus = currentCorpus(mod);
+    if (corpus != null)
+    { if (corpus.correspondingTrees(sent, xx, yy))
+      { return true; }
+      if (corpus.complete)
+      { return false; }
+    }
+    return mod.correspondingTrees(sent, xx, yy);
+  }
+
+  public static boolean correspondingTrees(ASTTerm xx,
+                   ASTTerm yy, ModelSpecification mod)
+  { ASTExampleCorpus corpus = currentCorpus(mod);
+    if (corpus != null)
+    { if (corpus.correspondingTrees(xx, yy))
+      { return true; }
+      if (corpus.complete)
+      { return false; }
+    }
+    return mod.correspondingTrees(xx, yy);
+  }
+
+
+  /* Groups of examples */
+
+  public static String tagArityKey(ASTTerm t)
+  { return t.getTag() + "_" + t.arity(); }
+
+  public static java.util.Map groupByTagArity(Vector asts)
+  { // tag_n --> Vector of the terms, for terms with n > 0
+
+    java.util.Map res = new java.util.LinkedHashMap();
+    for (int i = 0; i < asts.size(); i++)
+    { ASTTerm t = (ASTTerm) asts.get(i);
+      if (t.arity() > 0)
+      { addToGroup(res, tagArityKey(t), t); }
+    }
+    return res;
+  }
+
+  public static java.util.Map groupByTagFunction(Vector asts)
+  { // tagFunction --> Vector of the terms, for terms with
+    // n > 0
+
+    java.util.Map res = new java.util.LinkedHashMap();
+    for (int i = 0; i < asts.size(); i++)
+    { ASTTerm t = (ASTTerm) asts.get(i);
+      if (t.arity() > 0)
+      { addToGroup(res, t.tagFunction(), t); }
+    }
+    return res;
+  }
+
+  public static java.util.Map groupPairs(Vector sasts, Vector tasts,
+                                         boolean deep)
+  { // [source entity name, target entity name] --> Vector
+    // of the Integer indexes of corresponding examples with
+    // non-zero arities. The source entity is the tagFunction
+    // if deep, otherwise tag_n; the target entity is
+    // tag$T_m.
+
+    java.util.Map res = new java.util.LinkedHashMap();
+    for (int i = 0; i < sasts.size() && i < tasts.size(); i++)
+    { ASTTerm s = (ASTTerm) sasts.get(i);
+      ASTTerm t = (ASTTerm) tasts.get(i);
+
+      int n = s.arity();
+      int m = t.arity();
+      if (n > 0 && m > 0)
+      { Vector key = new Vector();
+        if (deep)
+        { key.add(s.tagFunction()); }
+        else
+        { key.add(s.getTag() + "_" + n); }
+        key.add(t.getTag() + "$T_" + m);
+        addToGroup(res, key, Integer.valueOf(i));
+      }
+    }
+    return res;
+  }
+
+  private static void addToGroup(java.util.Map groups, Object key,
+                                 Object x)
+  { Vector group = (Vector) groups.get(key);
+    if (group == null)
+    { group = new Vector();
+      groups.put(key, group);
+    }
+    group.add(x);
+  }
+}
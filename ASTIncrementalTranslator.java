@@ -0,0 +1,184 @@
+/******************************
+* Copyright (c) 2003--2025 Kevin Lano
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0
+*
+* SPDX-License-Identifier: EPL-2.0
+* *****************************/
+
+import java.util.Vector;
+
+/* Incremental CSTL translation for an edit-translate
+   loop. The translations of the composite terms of the
+   previous tree are recorded by their structural hashes.
+   A new (re-parsed) tree is diffed against them top-down:
+   a subtree equal to a recorded one, whose translation
+   did not change the context and whose context signature
+   is still the same, is unchanged, and its translation is
+   put in the cg_cache for the new subtree. Other composite
+   terms are dirty, ie., changed or the ancestors of
+   changes, and cg() only applies the cgRules to these.
+
+   Signatures are compared with those at the end of the
+   previous translation, so a change of context made by
+   the translation of a dirty term is not seen by the
+   unchanged terms translated after it. */
+
+public class ASTIncrementalTranslator
+{ CGSpec cgs;
+
+  ASTTerm previous = null;
+  java.util.Map recorded = new java.util.HashMap();
+    // structural hash -> Vector of Translation
+
+  java.util.Map hashes = new java.util.IdentityHashMap();
+  Vector changedTerms = new Vector();
+  int reusedTerms = 0;
+
+  public ASTIncrementalTranslator(CGSpec spec)
+  { cgs = spec; }
+
+  public String translate(ASTTerm tree)
+  { changedTerms = new Vector();
+    reusedTerms = 0;
+    hashes = new java.util.IdentityHashMap();
+    structuralHash(tree);
+
+    diff(tree);
+
+    String res = tree.cg(cgs);
+
+    if (previous != null && previous != tree)
+    { ASTTerm.removeCg_cache(cgs,previous); }
+    previous = tree;
+    record(tree);
+    hashes = new java.util.IdentityHashMap();
+    return res;
+  }
+
+  public void translate(ASTTerm tree, Appendable out)
+    throws java.io.IOException
+  { out.append(translate(tree)); }
+
+  public Vector getChangedTerms()
+  { // The dirty composite terms of the last tree
+    return changedTerms;
+  }
+
+  public int getReusedTerms()
+  { // The maximal unchanged subtrees of the last tree
+    return reusedTerms;
+  }
+
+  public void reset()
+  { // Forgets the previous tree and its translations
+
+    if (previous != null)
+    { ASTTerm.removeCg_cache(cgs,previous); }
+    previous = null;
+    recorded = new java.util.HashMap();
+  }
+
+  private int structuralHash(ASTTerm t)
+  { // As ASTCompositeTerm.hashCode, computed once for
+    // each subterm of the tree.
+
+    if (!(t instanceof ASTCompositeTerm))
+    { return t.hashCode(); }
+
+    int res = ((ASTCompositeTerm) t).getTag().hashCode();
+    Vector trms = t.getTerms();
+    for (int i = 0; i < trms.size(); i++)
+    { ASTTerm sub = (ASTTerm) trms.get(i);
+      res = 31*res + (sub == null ? 0 : structuralHash(sub));
+    }
+    hashes.put(t, Integer.valueOf(res));
+    return res;
+  }
+
+  private void diff(ASTTerm t)
+  { if (!(t instanceof ASTCompositeTerm))
+    { return; }
+
+    Translation tr = lookup(t);
+    if (tr != null &&
+        tr.signature.equals(t.cgContextSignature()))
+    { ASTTerm.putCg_cache(cgs,t,tr.result,null,true);
+      reusedTerms++;
+      return;
+    }
+
+    changedTerms.add(t);
+    Vector trms = t.getTerms();
+    for (int i = 0; i < trms.size(); i++)
+    { ASTTerm sub = (ASTTerm) trms.get(i);
+      if (sub != null)
+      { diff(sub); }
+    }
+  }
+
+  private Translation lookup(ASTTerm t)
+  { Vector bucket = (Vector) recorded.get(hashes.get(t));
+    if (bucket == null)
+    { return null; }
+    for (int i = 0; i < bucket.size(); i++)
+    { Translation tr = (Translation) bucket.get(i);
+      if (tr.term.equals(t))
+      { return tr; }
+    }
+    return null;
+  }
+
+  private void record(ASTTerm tree)
+  { // The reusable translations of tree, replacing
+    // those of the previous tree. The hashes of tree
+    // are those of translate.
+
+    recorded = new java.util.HashMap();
+    record(tree,false);
+  }
+
+  private void record(ASTTerm t, boolean parentEffectFree)
+  { // parentEffectFree if the translation of the parent
+    // of t did not change the context, so neither did t's.
+
+    if (!(t instanceof ASTCompositeTerm))
+    { return; }
+
+    String res = ASTTerm.getCg_cache(cgs,t);
+    boolean effectFree = res != null &&
+      (parentEffectFree || ASTTerm.isEffectFreeCg_cache(cgs,t));
+
+    if (effectFree)
+    { Integer h = (Integer) hashes.get(t);
+      if (lookup(t) == null)
+      { Vector bucket = (Vector) recorded.get(h);
+        if (bucket == null)
+        { bucket = new Vector();
+          recorded.put(h,bucket);
+        }
+        bucket.add(new Translation(t,res,t.cgContextSignature()));
+      }
+    }
+
+    Vector trms = t.getTerms();
+    for (int i = 0; i < trms.size(); i++)
+    { ASTTerm sub = (ASTTerm) trms.get(i);
+      if (sub != null)
+      { record(sub,effectFree); }
+    }
+  }
+
+  static class Translation
+  { ASTTerm term;
+    String result;
+    String signature; // at the end of its translation
+
+    Translation(ASTTerm t, String res, String sig)
+    { term = t;
+      result = res;
+      signature = sig;
+    }
+  }
+}
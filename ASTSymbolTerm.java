@@ -70,8 +70,8 @@ public class ASTSymbolTerm extends ASTTerm
 
   public ASTTerm replaceCobolIdentifiers()
   { if ("FILLER".equals(symbol))
-    { ASTTerm.cobolFillerCount++; 
-      return new ASTSymbolTerm("FILLER_F" + ASTTerm.cobolFillerCount); 
+    { ASTTerm.ctx().cobolFillerCount++; 
+      return new ASTSymbolTerm("FILLER_F" + ASTTerm.ctx().cobolFillerCount); 
     } 
     return this; 
   } 
@@ -103,7 +103,8 @@ public class ASTSymbolTerm extends ASTTerm
   { return symbol; } 
 
   public String cgRules(CGSpec cgs, Vector rules)
-  { System.out.println(">>> cgRules for " + this + " " + rules); 
+  { if (CGRuleProfiler.trace) 
+    { System.out.println(">>> cgRules for " + this + " " + rules); } 
 
     if (rules == null) 
     { return symbol; } 
@@ -113,7 +114,8 @@ public class ASTSymbolTerm extends ASTTerm
       Vector tokens = r.lhsTokens; 
       Vector vars = r.getVariables(); 
 
-      System.out.println("> Rule " + r + " has tokens " + tokens + " variables " + vars);
+      if (CGRuleProfiler.trace) 
+      { System.out.println("> Rule " + r + " has tokens " + tokens + " variables " + vars); } 
 
       if (vars.size() > 1 || tokens.size() > 1)
       { // System.out.println("> Rule " + r + " has too many variables/tokens to match basic term " + this); 
@@ -205,6 +207,9 @@ public class ASTSymbolTerm extends ASTTerm
     return false; 
   } 
 
+  public int hashCode()
+  { return symbol.hashCode(); } 
+
   public String literalForm()
   { return symbol; } 
 
@@ -215,6 +220,9 @@ public class ASTSymbolTerm extends ASTTerm
   public String evaluationLiteralForm()
   { return symbol; } 
 
+  public ASTTerm thaw()
+  { return new ASTSymbolTerm(symbol); } 
+
   public int arity()
   { return 0; } 
 
@@ -439,7 +447,7 @@ public class ASTSymbolTerm extends ASTTerm
  
     if (modelElement == null) 
     { Entity ee = (Entity) ModelElement.lookupByName(symbol,
-                                   ASTTerm.entities); 
+                                   ASTTerm.ctx().entities); 
       if (ee != null) 
       { modelElement = new Type(ee); 
         expression = new BasicExpression((Type) modelElement);
@@ -447,7 +455,7 @@ public class ASTSymbolTerm extends ASTTerm
       } 
 
       Type tt = (Type) ModelElement.lookupByName(symbol, 
-                                       ASTTerm.enumtypes); 
+                                       ASTTerm.ctx().enumtypes); 
       if (tt != null) 
       { modelElement = tt; 
         expression = new BasicExpression((Type) modelElement);
@@ -28,73 +28,54 @@ public abstract class ASTTerm
   Vector modelElements = null;   
   Vector expressions = null; // for parameter/argument lists
 
-  static Vector requiredLibraries = new Vector(); 
-
-  static String packageName = null; 
-  static Vector enumtypes; 
-  static Vector entities; 
-  static Vector functionsInScope; 
-
-  static Vector cobolClasses = new Vector(); 
-
-  static Entity currentClass = null; // Current context class
-
-  static java.util.Map metafeatures; 
-  static { metafeatures = new java.util.HashMap(); } 
-     // String --> Vector(String), 
-     // eg., recording the conceptual
-     // type of the element & stereotypes. 
-
-  static java.util.Map types = new java.util.HashMap(); 
-     // String --> String for general type of identifiers
-     // valid at the scope of the current term. 
-
-  static java.util.Map elementTypes = new java.util.HashMap(); 
-     // String --> String for general elementType 
-     // of identifiers
-     // valid at the scope of the current term. 
-
-  static java.util.Map cg_cache = new java.util.HashMap(); 
-     // CGSpec --> (ASTTerm --> String)
-     // But invalid to do this if the denotation needs to 
-     // change, eg., a[x] is different for array/map a
-
-  static java.util.Map mathoclvars; 
-  static 
-  { mathoclvars = new java.util.HashMap(); }  
-     // String --> ASTTerm
-
-  static Vector mathocltheorems; 
-  static 
-  { mathocltheorems = new Vector(); }  
-     // pairs [concl,premise]
-
-  static Vector mathoclrewrites; 
-  static 
-  { mathoclrewrites = new Vector(); }  
-     // pairs [lhs,rhs]
-
-  static int mathoclfunctionIndex; 
-
-  static String cobolHyphenReplacement; 
-  static 
-  { cobolHyphenReplacement = "_"; } // or "$" for Java
-
-  static String cobolCommaReplacement; 
-  static 
-  { cobolCommaReplacement = "."; } 
-
-  static int cobolFillerCount; 
-  static 
-  { cobolFillerCount = 0; } 
-
-  static Vector cobolDataDescriptionDataNames; 
-  static
-  { cobolDataDescriptionDataNames = new Vector(); } 
-
-  static Vector cobolAmbiguousDataNames; 
-  static
-  { cobolAmbiguousDataNames = new Vector(); } 
+  boolean frozen = false; 
+    // Frozen terms are immutable, and memoize their 
+    // literal forms, toString, termSize, hashCode and 
+    // cgContextSignature. 
+
+  Vector cgSignatureKeys = null; 
+  SignatureEntry cgSignatureCache = null; 
+
+  static boolean freezeParsedTerms = false; 
+    // If true, Compiler2.parseGeneralAST freezes its results
+
+  // The translation state (entities, types, metafeatures,
+  // cg_cache, mathocl & cobol data, etc) is held in the 
+  // TranslationContext of the current thread, ctx(). 
+
+  static boolean parallelCg = false; 
+  static int parallelCgThreshold = 500; 
+  static java.util.concurrent.ForkJoinPool cgPool = null; 
+    // In parallel cg mode, arguments of a matched rule 
+    // with termSize() >= parallelCgThreshold are 
+    // translated as ForkJoin tasks, each in a child() 
+    // of the translation context. 
+
+  static boolean mathOCLDialogs = 
+    !java.awt.GraphicsEnvironment.isHeadless(); 
+    // If false, the progress messages of the MathOCL 
+    // solvers are printed instead of shown in dialogs. 
+
+  static int proofSearchTimeLimit = 1000; 
+  static int proofSearchGoalLimit = 5000; 
+    // Bounds on the search of attemptProof for a chain of 
+    // theorem and rewrite steps which proves the goal. 
+
+  static boolean memoSymbolicEvaluation = true; 
+  static int symbolicMemoLimit = 100000; 
+    // Results of symbolicEvaluation of composite terms are 
+    // memoised in ctx().symbolicEvaluationMemo, so that 
+    // repeated subterms are only simplified once. The memo 
+    // is cleared when it reaches symbolicMemoLimit entries. 
+
+  static boolean exactPolynomials = false; 
+    // If true, polynomials in the variable with numeric 
+    // coefficients are expanded, grouped and divided by 
+    // RationalPolynomial, and symbolicAddition and 
+    // symbolicMultiplication of polynomials over identifiers 
+    // by SymbolicPolynomial. Results are then in canonical 
+    // form, descending powers with exact coefficients, and 
+    // polynomialDivision divides completely. 
 
   static Vector cqueryfunctions = new Vector(); 
   static
@@ -165,6 +146,9 @@ public abstract class ASTTerm
     cqueryfunctions.add("gmtime"); 
   }
 
+  public static TranslationContext ctx()
+  { return TranslationContext.current(); } 
+
   public abstract String toString(); 
 
   public abstract String getTag(); 
@@ -202,6 +186,29 @@ public abstract class ASTTerm
 
   public abstract String evaluationLiteralForm();
 
+  public void appendLiteralForm(StringBuffer sb)
+  { sb.append(literalForm()); } 
+
+  public void appendLiteralFormSpaces(StringBuffer sb)
+  { sb.append(literalFormSpaces()); } 
+
+  public void appendText(StringBuffer sb)
+  { sb.append(toString()); } 
+
+  public void freeze()
+  { frozen = true; } 
+
+  public boolean isFrozen()
+  { return frozen; } 
+
+  public static void setFreezeParsedTerms(boolean b)
+  { freezeParsedTerms = b; } 
+
+  public abstract ASTTerm thaw(); 
+    // A mutable copy of this term. Operations such as 
+    // substituteEq and removeWhitespaceTerms already 
+    // return new (unfrozen) terms. 
+
   public static Vector getLiteralForms(Vector trms) 
   { Vector res = new Vector(); 
     for (int i = 0; i < trms.size(); i++) 
@@ -212,19 +219,227 @@ public abstract class ASTTerm
   } 
 
   public static void putCg_cache(CGSpec cgs, ASTTerm trm, String res)
-  { java.util.Map cgsmap = (java.util.Map) cg_cache.get(cgs); 
-    if (cgsmap == null) 
-    { cgsmap = new java.util.HashMap(); }  
-    cgsmap.put(trm, res); 
-    cg_cache.put(cgs, cgsmap); 
+  { putCg_cache(cgs,trm,res,null); } 
+
+  public static void putCg_cache(CGSpec cgs, ASTTerm trm, 
+                                 String res, long effects)
+  { // res is the translation of trm, begun when the 
+    // effectVersion of the context was effects. It is 
+    // shared with equal terms only if trm is frozen and 
+    // its translation did not change the context, eg., 
+    // by rule actions or fresh names. 
+
+    boolean effectFree = 
+      effects >= 0 && effects == ctx().effectVersion(); 
+    String sig = null; 
+    if (trm.frozen && effectFree)
+    { sig = trm.cgContextSignature(); } 
+    putCg_cache(cgs,trm,res,sig,effectFree); 
+  } 
+
+  public static void putCg_cache(CGSpec cgs, ASTTerm trm, 
+                                 String res, String sig)
+  { // sig is the current cgContextSignature of frozen 
+    // trm, for an entry shared by the equal terms, or 
+    // null for an entry of trm itself. 
+
+    putCg_cache(cgs,trm,res,sig,sig != null); 
+  } 
+
+  public static void putCg_cache(CGSpec cgs, ASTTerm trm, 
+                                 String res, String sig, 
+                                 boolean effectFree)
+  { // effectFree if the translation of trm did not 
+    // change the context, so that it can be reused 
+    // without being repeated. 
+
+    Vector entry = new Vector(); 
+    entry.add(res); 
+    entry.add(sig); 
+    entry.add(Boolean.valueOf(effectFree)); 
+
+    Object key = trm; 
+    if (sig == null) 
+    { key = new IdentityKey(trm); } 
+
+    synchronized (ctx().cg_cache) 
+    { java.util.Map cgsmap = (java.util.Map) ctx().cg_cache.get(cgs); 
+      if (cgsmap == null) 
+      { cgsmap = new java.util.HashMap(); }  
+      cgsmap.put(key, entry); 
+      ctx().cg_cache.put(cgs, cgsmap); 
+    } 
   } 
 
   public static String getCg_cache(CGSpec cgs, ASTTerm trm)
-  { java.util.Map cgsmap = (java.util.Map) cg_cache.get(cgs); 
-    if (cgsmap == null) 
-    { return null; }  
-    String res = (String) cgsmap.get(trm); 
-    return res; 
+  { return getCg_cache(cgs,trm,null); } 
+
+  public static String getCg_cache(CGSpec cgs, ASTTerm trm, 
+                                   String sig)
+  { // The result for trm itself, or else, for a frozen 
+    // trm, the result shared by the equal terms which 
+    // had the same cgContextSignature. sig is the 
+    // current signature of trm, computed here if needed. 
+
+    Vector entry = cgCacheEntry(cgs, new IdentityKey(trm)); 
+    if (entry != null) 
+    { return (String) entry.get(0); } 
+    if (!trm.frozen) 
+    { return null; } 
+
+    entry = cgCacheEntry(cgs,trm); 
+    if (entry == null) 
+    { return null; } 
+
+    if (sig == null) 
+    { sig = trm.cgContextSignature(); } 
+    if (sig.equals(entry.get(1)))
+    { return (String) entry.get(0); } 
+    return null; // context-sensitive term in a new context 
+  } 
+
+  public static boolean isEffectFreeCg_cache(CGSpec cgs, 
+                                            ASTTerm trm)
+  { // The cached result of trm did not change the 
+    // context. Shared entries are always effect-free. 
+
+    Vector entry = cgCacheEntry(cgs, new IdentityKey(trm)); 
+    if (entry != null) 
+    { return entry.size() > 2 && 
+             Boolean.TRUE.equals(entry.get(2)); 
+    } 
+    return trm.frozen && getCg_cache(cgs,trm) != null; 
+  } 
+
+  public static void removeCg_cache(CGSpec cgs, ASTTerm trm)
+  { // Removes the entries of trm and its subterms 
+    // themselves from the cg_cache of the context, eg., 
+    // when trm is no longer used. Shared entries are kept. 
+
+    synchronized (ctx().cg_cache) 
+    { java.util.Map cgsmap = (java.util.Map) ctx().cg_cache.get(cgs); 
+      if (cgsmap != null) 
+      { removeCg_cache(cgsmap,trm); } 
+    } 
+  } 
+
+  private static void removeCg_cache(java.util.Map cgsmap, 
+                                     ASTTerm trm)
+  { cgsmap.remove(new IdentityKey(trm)); 
+    if (trm instanceof ASTCompositeTerm) 
+    { Vector trms = trm.getTerms(); 
+      for (int i = 0; i < trms.size(); i++) 
+      { ASTTerm tt = (ASTTerm) trms.get(i); 
+        if (tt != null) 
+        { removeCg_cache(cgsmap,tt); } 
+      } 
+    } 
+  } 
+
+  private static Vector cgCacheEntry(CGSpec cgs, Object key)
+  { Vector entry = null; // a child() context also 
+                         // reads the cache of its parent
+    for (TranslationContext tc = ctx(); 
+         tc != null && entry == null; tc = tc.parent) 
+    { synchronized (tc.cg_cache) 
+      { java.util.Map cgsmap = (java.util.Map) tc.cg_cache.get(cgs); 
+        if (cgsmap != null) 
+        { entry = (Vector) cgsmap.get(key); }  
+      }
+    } 
+    return entry; 
+  } 
+
+  static final class IdentityKey
+  { // cg_cache key of a term which is not shared: its 
+    // hash is not kept, so it is not hashed structurally
+
+    final ASTTerm term; 
+
+    IdentityKey(ASTTerm t) 
+    { term = t; } 
+
+    public boolean equals(Object obj) 
+    { return obj instanceof IdentityKey && 
+             ((IdentityKey) obj).term == term; 
+    } 
+
+    public int hashCode() 
+    { return System.identityHashCode(term); } 
+  } 
+
+  public String cgContextSignature()
+  { // The types, element types and metafeatures of 
+    // this term and its identifiers, as used by the 
+    // CSTL conditions, after the contextKey of the 
+    // context. For a frozen term the identifiers and 
+    // the signature are kept, the signature until the 
+    // stateVersion or contextKey of the context changes. 
+
+    TranslationContext tc = ctx(); 
+    long version = tc.stateVersion(); 
+    String ckey = tc.contextKey(); 
+    SignatureEntry cached = cgSignatureCache; 
+    if (cached != null && cached.context == tc && 
+        version >= 0 && cached.version == version && 
+        cached.contextKey.equals(ckey)) 
+    { return cached.signature; } 
+
+    Vector keys = cgSignatureKeys; 
+    if (keys == null) 
+    { keys = new Vector(); 
+      keys.add(literalForm()); 
+      ASTTerm.leafValues(this,keys); 
+      if (frozen) 
+      { cgSignatureKeys = keys; } 
+    } 
+
+    StringBuffer res = new StringBuffer(ckey); 
+    res.append("|"); 
+    for (int i = 0; i < keys.size(); i++) 
+    { String key = (String) keys.get(i); 
+      Object typ = tc.types.get(key); 
+      Object etyp = tc.elementTypes.get(key); 
+      Object mf = tc.metafeatures.get(key); 
+      if (typ == null && etyp == null && mf == null) 
+      { continue; } 
+      res.append(key + ":" + typ + ":" + etyp + ":" + mf + ";"); 
+    } 
+
+    String sig = res.toString(); 
+    if (frozen && version >= 0) 
+    { cgSignatureCache = new SignatureEntry(tc,version,ckey,sig); } 
+    return sig; 
+  } 
+
+  static final class SignatureEntry
+  { final TranslationContext context; 
+    final long version; 
+    final String contextKey; 
+    final String signature; 
+
+    SignatureEntry(TranslationContext c, long v, String k, 
+                   String s) 
+    { context = c; 
+      version = v; 
+      contextKey = k; 
+      signature = s; 
+    } 
+  } 
+
+  private static void leafValues(ASTTerm trm, Vector res)
+  { if (trm instanceof ASTBasicTerm) 
+    { res.add(((ASTBasicTerm) trm).getValue()); } 
+    else if (trm instanceof ASTSymbolTerm) 
+    { res.add(((ASTSymbolTerm) trm).getSymbol()); } 
+    else if (trm instanceof ASTCompositeTerm) 
+    { Vector trms = trm.getTerms(); 
+      for (int i = 0; i < trms.size(); i++) 
+      { ASTTerm tt = (ASTTerm) trms.get(i); 
+        if (tt != null) 
+        { leafValues(tt,res); } 
+      } 
+    } 
   } 
 
   public abstract ASTTerm removeWhitespaceTerms();
@@ -410,11 +625,11 @@ public abstract class ASTTerm
 
   public void addStereotype(String str) 
   { String lit = literalForm(); 
-    Object stereo = ASTTerm.metafeatures.get(lit); 
+    Object stereo = ASTTerm.ctx().metafeatures.get(lit); 
     Vector stereotypes = new Vector(); 
     if (stereo == null)  
     { stereotypes.add(str); 
-      ASTTerm.metafeatures.put(lit,stereotypes); 
+      ASTTerm.ctx().metafeatures.put(lit,stereotypes); 
       return; 
     } 
     else if (!(stereo instanceof Vector)) 
@@ -427,7 +642,7 @@ public abstract class ASTTerm
     if (stereotypes.contains(str)) {} 
     else 
     { stereotypes.add(str); 
-      ASTTerm.metafeatures.put(lit,stereotypes);
+      ASTTerm.ctx().metafeatures.put(lit,stereotypes);
     }
 
     // JOptionPane.showMessageDialog(null, 
@@ -443,10 +658,10 @@ public abstract class ASTTerm
   } 
 
   public static void addStereo(String lit, String str)
-  { Object mfs = ASTTerm.metafeatures.get(lit); 
+  { Object mfs = ASTTerm.ctx().metafeatures.get(lit); 
     if (mfs == null) 
     { mfs = new Vector(); 
-      ASTTerm.metafeatures.put(lit, mfs); 
+      ASTTerm.ctx().metafeatures.put(lit, mfs); 
     } 
 
     if (mfs instanceof Vector)
@@ -456,7 +671,7 @@ public abstract class ASTTerm
       if (stereotypes.contains(str)) {} 
       else 
       { stereotypes.add(0,str); 
-        ASTTerm.metafeatures.put(lit, stereotypes); 
+        ASTTerm.ctx().metafeatures.put(lit, stereotypes); 
       }
     } 
 
@@ -465,7 +680,7 @@ public abstract class ASTTerm
     //          JOptionPane.INFORMATION_MESSAGE); 
 
     System.out.println("*** " + lit + " metafeature values set to " +
-                       ASTTerm.metafeatures.get(lit));  
+                       ASTTerm.ctx().metafeatures.get(lit));  
 
   } 
 
@@ -479,13 +694,13 @@ public abstract class ASTTerm
 
 
   public static void setTaggedValue(String lit, String mf, String val) 
-  { Object mfs = ASTTerm.metafeatures.get(lit); 
+  { Object mfs = ASTTerm.ctx().metafeatures.get(lit); 
     // System.out.println("*** " + lit + " has tagged values: " + 
     //                    mfs); 
 
     if (mfs == null) 
     { mfs = new Vector(); 
-      ASTTerm.metafeatures.put(lit,mfs); 
+      ASTTerm.ctx().metafeatures.put(lit,mfs); 
     }
 
     if (mfs instanceof Vector)
@@ -500,7 +715,7 @@ public abstract class ASTTerm
         { newstereos.add(stereo); } 
       } 
       newstereos.add(mf + "=" + val); 
-      ASTTerm.metafeatures.put(lit,newstereos); 
+      ASTTerm.ctx().metafeatures.put(lit,newstereos); 
       System.out.println("*** Set " + lit + 
                          " tagged values: " + 
                          newstereos); 
@@ -511,10 +726,10 @@ public abstract class ASTTerm
   public void removeStereotype(String str) 
   { String lit = literalForm(); 
     
-    Object mfs = ASTTerm.metafeatures.get(lit); 
+    Object mfs = ASTTerm.ctx().metafeatures.get(lit); 
     if (mfs == null) 
     { mfs = new Vector(); 
-      ASTTerm.metafeatures.put(lit,mfs); 
+      ASTTerm.ctx().metafeatures.put(lit,mfs); 
     }
    
     if (mfs instanceof Vector)
@@ -523,34 +738,35 @@ public abstract class ASTTerm
       Vector removed = new Vector(); 
       removed.add(str); 
       stereotypes.removeAll(removed);
-      ASTTerm.metafeatures.put(lit,stereotypes);  
+      ASTTerm.ctx().metafeatures.put(lit,stereotypes);  
     } 
 
     System.out.println(">>> " + lit + " metafeature values = " +
-                       ASTTerm.metafeatures.get(lit));  
+                       ASTTerm.ctx().metafeatures.get(lit));  
   } 
 
   public static void removeStereo(String lit, String str) 
-  { if (ASTTerm.metafeatures.get(lit) instanceof Vector)
+  { if (ASTTerm.ctx().metafeatures.get(lit) instanceof Vector)
     { 
       Vector stereotypes = 
-        (Vector) ASTTerm.metafeatures.get(lit); 
+        (Vector) ASTTerm.ctx().metafeatures.get(lit); 
       if (stereotypes == null) 
       { stereotypes = new Vector(); 
-        ASTTerm.metafeatures.put(lit,stereotypes); 
+        ASTTerm.ctx().metafeatures.put(lit,stereotypes); 
       } 
       Vector removed = new Vector(); 
       removed.add(str); 
       stereotypes.removeAll(removed);
+      ASTTerm.ctx().metafeatures.put(lit,stereotypes); 
     }   
 
     System.out.println("*** " + lit + " metafeature values= " +
-                       ASTTerm.metafeatures.get(lit));  
+                       ASTTerm.ctx().metafeatures.get(lit));  
   } 
 
   public boolean hasStereotype(String str) 
   { String lit = literalForm(); 
-    Object mfs = ASTTerm.metafeatures.get(lit); 
+    Object mfs = ASTTerm.ctx().metafeatures.get(lit); 
     if (mfs == null) 
     { return false; } 
  
@@ -564,7 +780,7 @@ public abstract class ASTTerm
 
   public static String getStereotypeValue(String lit)
   { Object stereo = 
-      ASTTerm.metafeatures.get(lit); 
+      ASTTerm.ctx().metafeatures.get(lit); 
     System.out.println(">>>--- Global variable " +  lit + 
                        " has value " + stereo);
     System.out.println();   
@@ -578,11 +794,11 @@ public abstract class ASTTerm
   { System.out.println(">>>--- Global variable " +  lit + 
                        " set to " + val);  
     System.out.println(); 
-    ASTTerm.metafeatures.put(lit,val); 
+    ASTTerm.ctx().metafeatures.put(lit,val); 
   } 
 
   public static Vector getStereotypes(String lit) 
-  { Object mfs = ASTTerm.metafeatures.get(lit); 
+  { Object mfs = ASTTerm.ctx().metafeatures.get(lit); 
     if (mfs == null)
     { return new Vector(); }
     if (mfs instanceof Vector)
@@ -596,15 +812,15 @@ public abstract class ASTTerm
   public static boolean hasTaggedValue(ASTTerm trm, String str) 
   { String lit = trm.literalForm();
     System.out.println("*** " + lit + " has tagged values: " + 
-                       ASTTerm.metafeatures.get(lit)); 
+                       ASTTerm.ctx().metafeatures.get(lit)); 
 
-    if (ASTTerm.metafeatures.get(lit) instanceof Vector)
+    if (ASTTerm.ctx().metafeatures.get(lit) instanceof Vector)
     { 
       Vector stereotypes = 
-        (Vector) ASTTerm.metafeatures.get(lit); 
+        (Vector) ASTTerm.ctx().metafeatures.get(lit); 
       if (stereotypes == null) 
       { stereotypes = new Vector(); 
-        ASTTerm.metafeatures.put(lit,stereotypes); 
+        ASTTerm.ctx().metafeatures.put(lit,stereotypes); 
       } 
 
       for (int x = 0; x < stereotypes.size(); x++) 
@@ -619,15 +835,15 @@ public abstract class ASTTerm
 
   public static String getTaggedValue(ASTTerm trm, String str) 
   { String lit = trm.literalForm(); 
-    Object mfs = ASTTerm.metafeatures.get(lit); 
+    Object mfs = ASTTerm.ctx().metafeatures.get(lit); 
     if (mfs == null) 
     { mfs = new Vector(); 
-      ASTTerm.metafeatures.put(lit,mfs); 
+      ASTTerm.ctx().metafeatures.put(lit,mfs); 
     } 
 
     // JOptionPane.showMessageDialog(null, 
     //   "Looking up: " + str + " of: " + lit + 
-    //           " in: " + ASTTerm.metafeatures,   "",
+    //           " in: " + ASTTerm.ctx().metafeatures,   "",
     //           JOptionPane.INFORMATION_MESSAGE);
 
     // System.out.println("*** " + lit + 
@@ -649,7 +865,7 @@ public abstract class ASTTerm
   } 
 
   public static String getTaggedValue(String lit, String str) 
-  { Object mfs = ASTTerm.metafeatures.get(lit); 
+  { Object mfs = ASTTerm.ctx().metafeatures.get(lit); 
      
     if (mfs instanceof Vector)
     { Vector stereotypes = (Vector) mfs; 
@@ -668,7 +884,7 @@ public abstract class ASTTerm
   public static String cgtlOperation(String opname, Vector eargs)
   { System.out.println(">>> External operation: " + opname + " on " + eargs); 
 
-    /* System.out.println(">>> metafeatures: " + ASTTerm.metafeatures); 
+    /* System.out.println(">>> metafeatures: " + ASTTerm.ctx().metafeatures); 
     System.out.println(); */ 
 
     if ("symbolicAddition".equals(opname) && 
@@ -757,7 +973,7 @@ public abstract class ASTTerm
       ASTTerm vbl = (ASTTerm) eargs.get(0); 
       ASTTerm expr = (ASTTerm) eargs.get(1); 
       String var = vbl.literalForm(); 
-      ASTTerm def = (ASTTerm) ASTTerm.mathoclvars.get(var); 
+      ASTTerm def = (ASTTerm) ASTTerm.ctx().mathoclvars.get(var); 
       if (def == null) 
       { return "  Substitute " + var + " in " + 
                expr.literalFormSpaces(); 
@@ -879,13 +1095,173 @@ public abstract class ASTTerm
   } 
 
   public static void addRequiredLibrary(String lib) 
-  { if (requiredLibraries.contains(lib)) {}
-    else 
-    { requiredLibraries.add(lib); } 
+  { synchronized (ctx().requiredLibraries) 
+    { if (ctx().requiredLibraries.contains(lib)) {}
+      else 
+      { ctx().requiredLibraries.add(lib); } 
+    } 
+  } 
+
+  public static void setParallelCg(boolean b, int threshold)
+  { parallelCg = b; 
+    parallelCgThreshold = threshold; 
+  } 
+
+  int cgSize()
+  { // termSize(), as an estimate of the translation 
+    // work for parallel cg. 
+    return termSize(); 
+  } 
+
+  static synchronized java.util.concurrent.ForkJoinPool getCgPool()
+  { if (cgPool == null) 
+    { cgPool = new java.util.concurrent.ForkJoinPool(); } 
+    return cgPool; 
+  } 
+
+  public static Vector cgArguments(CGSpec cgs, Vector eargs)
+  { // The cg results of the matched terms or lists 
+    // of terms eargs, in order. 
+
+    if (parallelCg) 
+    { CGArgumentsTask task = new CGArgumentsTask(cgs,eargs); 
+      if (java.util.concurrent.ForkJoinTask.inForkJoinPool())
+      { return task.computeArguments(); } 
+      return (Vector) getCgPool().invoke(task); 
+    } 
+
+    Vector args = new Vector(); 
+    for (int p = 0; p < eargs.size(); p++)
+    { Object obj = eargs.get(p);
+      if (obj instanceof ASTTerm) 
+      { ASTTerm term = (ASTTerm) obj;  
+        String textp = term.cg(cgs); 
+        args.add(textp);
+      } 
+      else if (obj instanceof Vector) 
+      { Vector vterms = (Vector) obj; 
+        String textp = ""; 
+        for (int q = 0; q < vterms.size(); q++) 
+        { ASTTerm vterm = (ASTTerm) vterms.get(q); 
+          textp = textp + vterm.cg(cgs); 
+        } 
+        args.add(textp); 
+      }     
+    }
+    return args;  
+  } 
+
+  static class CGArgumentsTask 
+    extends java.util.concurrent.RecursiveTask
+  { CGSpec cgs; 
+    Vector eargs; 
+    TranslationContext context; // of the creating thread
+
+    CGArgumentsTask(CGSpec c, Vector es)
+    { cgs = c; 
+      eargs = es; 
+      context = ASTTerm.ctx(); 
+    } 
+
+    protected Vector compute()
+    { TranslationContext old = TranslationContext.bind(context); 
+      try 
+      { return computeArguments(); } 
+      finally 
+      { TranslationContext.restore(old); } 
+    } 
+
+    Vector computeArguments()
+    { // Large terms are forked, small ones done in 
+      // this thread, then all are joined in order. 
+      // Each forked task works in a copy of the context 
+      // as it is at the fork. Its result and changes 
+      // are taken in order if no preceding term changed 
+      // the context, otherwise the term is translated 
+      // again here. So the result and the final context 
+      // are those of the sequential translation. 
+
+      Vector items = new Vector(); 
+      for (int p = 0; p < eargs.size(); p++)
+      { Object obj = eargs.get(p);
+        if (obj instanceof ASTTerm) 
+        { items.add(obj); } 
+        else if (obj instanceof Vector) 
+        { items.addAll((Vector) obj); } 
+      } 
+
+      int n = items.size(); 
+      String[] results = new String[n]; 
+      CGTermTask[] forked = new CGTermTask[n]; 
+
+      TranslationContext tc = ASTTerm.ctx(); 
+      for (int i = 0; i < n; i++) 
+      { ASTTerm trm = (ASTTerm) items.get(i); 
+        if (trm.cgSize() >= parallelCgThreshold) 
+        { forked[i] = new CGTermTask(cgs,trm,tc.child()); 
+          forked[i].fork(); 
+        } 
+      } 
+
+      for (int i = 0; i < n; i++) 
+      { ASTTerm trm = (ASTTerm) items.get(i); 
+        if (forked[i] == null) 
+        { results[i] = trm.cg(cgs); } 
+        else 
+        { String res = (String) forked[i].join(); 
+          TranslationContext child = forked[i].context; 
+          if (tc.isCurrentFor(child)) 
+          { tc.mergeChild(child); 
+            results[i] = res; 
+          } 
+          else 
+          { results[i] = trm.cg(cgs); } 
+        } 
+      } 
+
+      Vector args = new Vector(); 
+      int i = 0; 
+      for (int p = 0; p < eargs.size(); p++)
+      { Object obj = eargs.get(p);
+        if (obj instanceof ASTTerm) 
+        { args.add(results[i]); 
+          i++; 
+        } 
+        else if (obj instanceof Vector) 
+        { int m = ((Vector) obj).size(); 
+          StringBuffer textp = new StringBuffer(); 
+          for (int q = 0; q < m; q++, i++) 
+          { textp.append(results[i]); } 
+          args.add(textp.toString()); 
+        } 
+      } 
+      return args; 
+    } 
+  } 
+
+  static class CGTermTask 
+    extends java.util.concurrent.RecursiveTask
+  { CGSpec cgs; 
+    ASTTerm term; 
+    TranslationContext context; // a child() of the creator's
+
+    CGTermTask(CGSpec c, ASTTerm t, TranslationContext tc)
+    { cgs = c; 
+      term = t; 
+      context = tc; 
+    } 
+
+    protected Object compute()
+    { TranslationContext old = TranslationContext.bind(context); 
+      try 
+      { return term.cg(cgs); } 
+      finally 
+      { TranslationContext.restore(old); } 
+    } 
   } 
 
   public static Vector getRequiredLibraries()
-  { return requiredLibraries; } 
+  { return ctx().requiredLibraries; } 
 
   public abstract ASTTerm removeOuterTag();
   /* For symbol terms return null; basic terms the 
@@ -911,6 +1287,33 @@ public abstract class ASTTerm
 
   public abstract String cg(CGSpec cgs); 
 
+  public void cg(CGSpec cgs, Appendable out) 
+    throws IOException
+  { // Writes the cg result to out. Overridden where 
+    // the output can be streamed piece by piece. 
+    out.append(cg(cgs)); 
+  } 
+
+  public static void cgToFile(ASTTerm trm, CGSpec cgs, File file)
+  { // Output is written to file as it is generated, 
+    // instead of first building the complete String. 
+
+    Writer out = null; 
+    try
+    { out = new BufferedWriter(new FileWriter(file)); 
+      trm.cg(cgs,out); 
+    } 
+    catch (IOException _ex) 
+    { System.err.println("!! Error writing to " + file + ": " + _ex); } 
+    finally 
+    { if (out != null) 
+      { try { out.close(); } 
+        catch (IOException _ex) 
+        { System.err.println("!! Error closing " + file + ": " + _ex); } 
+      } 
+    } 
+  } 
+
   public abstract String cgRules(CGSpec cgs, Vector rules); 
 
   public abstract java.util.Set allMathMetavariables(); 
@@ -959,7 +1362,7 @@ public abstract class ASTTerm
   public abstract String postSideEffect(); 
 
   public boolean hasMetafeature(String f) 
-  { Object mf = metafeatures.get(f); 
+  { Object mf = ctx().metafeatures.get(f); 
     if (mf instanceof String)
     { String val = (String) mf; 
       return val != null;
@@ -968,10 +1371,10 @@ public abstract class ASTTerm
   } 
 
   public void setMetafeature(String f, String val) 
-  { metafeatures.put(f,val); } 
+  { ctx().metafeatures.put(f,val); } 
 
   public String getMetafeatureValue(String f) 
-  { Object mf = metafeatures.get(f); 
+  { Object mf = ctx().metafeatures.get(f); 
     if (mf instanceof String)
     { String val = (String) mf; 
       return val;  
@@ -982,27 +1385,27 @@ public abstract class ASTTerm
 
   public static void setType(ASTTerm t, String val) 
   { String f = t.literalForm(); 
-    types.put(f,val); 
+    ctx().types.put(f,val); 
   } 
 
   public static void setElementType(ASTTerm t, String val) 
   { String f = t.literalForm(); 
-    elementTypes.put(f,val); 
+    ctx().elementTypes.put(f,val); 
   } 
 
   public static void setType(String f, String val) 
-  { types.put(f,val); } 
+  { ctx().types.put(f,val); } 
 
   public static void setElementType(String f, String val) 
-  { elementTypes.put(f,val); } 
+  { ctx().elementTypes.put(f,val); } 
 
   public static String getType(String f) 
-  { String val = (String) types.get(f); 
+  { String val = (String) ctx().types.get(f); 
     return val;  
   } 
 
   public static String getType(ASTTerm t) 
-  { String val = (String) types.get(t.literalForm());
+  { String val = (String) ctx().types.get(t.literalForm());
     if (val == null && t instanceof ASTBasicTerm) 
     { ASTBasicTerm bt = (ASTBasicTerm) t; 
       return bt.getType(); 
@@ -1018,15 +1421,15 @@ public abstract class ASTTerm
   { String val = ASTTerm.getType(t);
     if (val != null)
     { Type typ = Type.getTypeFor(val, 
-                        ASTTerm.enumtypes, ASTTerm.entities); 
+                        ASTTerm.ctx().enumtypes, ASTTerm.ctx().entities); 
       if (typ != null && typ.elementType != null) 
       { return typ.elementType + ""; } 
     } 
-    val = (String) elementTypes.get(t.literalForm()); 
+    val = (String) ctx().elementTypes.get(t.literalForm()); 
     if (val != null) 
     { Type etyp = 
          Type.getTypeFor(val, 
-                      ASTTerm.enumtypes, ASTTerm.entities); 
+                      ASTTerm.ctx().enumtypes, ASTTerm.ctx().entities); 
       if (etyp != null) 
       { return etyp + ""; } 
     } 
@@ -1082,8 +1485,8 @@ public abstract class ASTTerm
 
     if ("Entity".equals(str) || 
         "Class".equals(str))
-    { if (metafeatures != null) 
-      { Vector vv = (Vector) metafeatures.get(alit); 
+    { if (ctx().metafeatures != null) 
+      { Vector vv = (Vector) ctx().metafeatures.get(alit); 
         if (vv != null && vv.contains(str))
         { return true; }
       }
@@ -2578,7 +2981,8 @@ public abstract class ASTTerm
           if (xx == null) 
           { return false; } 
           else if (xx.equals(yvect)) { } 
-          else if (mod.correspondingTrees(sent, xx, yvect)) { } 
+          else if (ASTExampleCorpus.correspondingTrees(
+                                   sent, xx, yvect, mod)) { } 
           else  
           { return false; }
         }
@@ -2593,9 +2997,8 @@ public abstract class ASTTerm
       { return false; } 
       else if (xx.equals(yy)) 
       { return true; } 
-      else if (mod.correspondingTrees(sent, xx, yy)) 
-      { return true; } 
-      return false; 
+
+      return ASTExampleCorpus.correspondingTrees(sent, xx, yy, mod); 
     }
 
  /* 
@@ -2664,7 +3067,7 @@ public abstract class ASTTerm
           { ASTCompositeTerm ct = (ASTCompositeTerm) yvect; 
             ASTTerm ct0 = (ASTTerm) ct.getTerms().get(0); 
             if (xx.equals(ct0) || 
-                mod.correspondingTrees(sent, xx, ct0)) 
+                ASTExampleCorpus.correspondingTrees(sent, xx, ct0, mod)) 
             { System.out.println(">>> corresponding trees: " + 
                                  xx + " " + ct0); 
             } 
@@ -2761,7 +3164,7 @@ public abstract class ASTTerm
  
       for (int j = 0; j < xxterms.size(); j++) 
       { ASTTerm xj = (ASTTerm) xxterms.get(j); 
-        ASTTerm tj = mod.getCorrespondingTree(xj);
+        ASTTerm tj = ASTExampleCorpus.correspondingTree(xj,mod);
  
         System.out.println(">>^^>> Corresponding tree of " + xj + " is " + tj); 
  
@@ -2796,7 +3199,8 @@ public abstract class ASTTerm
  
           for (int j = 0; j < xxterms.size(); j++) 
           { ASTTerm xj = (ASTTerm) xxterms.get(j); 
-            ASTTerm tj = mod.getCorrespondingTree(xj);
+            ASTTerm tj = 
+              ASTExampleCorpus.correspondingTree(xj,mod);
  
             // System.out.println(">>^^>> Corresponding tree of " + xj + " is " + tj); 
  
@@ -2900,7 +3304,7 @@ public abstract class ASTTerm
  
             for (int j = 0; j < xxterms.size(); j++) 
             { ASTTerm xj = (ASTTerm) xxterms.get(j); 
-              ASTTerm tj = mod.getCorrespondingTree(xj);
+              ASTTerm tj = ASTExampleCorpus.correspondingTree(xj,mod);
  
               // System.out.println(">>^^>> Corresponding tree of " + xj + " is " + tj); 
  
@@ -2922,7 +3326,7 @@ public abstract class ASTTerm
           
           for (int j = 0; j < xxterms.size(); j++) 
           { ASTTerm xj = (ASTTerm) xxterms.get(j); 
-            ASTTerm tj = mod.getCorrespondingTree(xj);
+            ASTTerm tj = ASTExampleCorpus.correspondingTree(xj,mod);
   
             if (xj instanceof ASTSymbolTerm)
             { if (AuxMath.isConstantSeq(xtermvectors[j]))
@@ -3018,7 +3422,7 @@ public abstract class ASTTerm
 
           for (int j = 0; j < xxterms.size(); j++) 
           { ASTTerm xj = (ASTTerm) xxterms.get(j); 
-            ASTTerm tj = mod.getCorrespondingTree(xj);
+            ASTTerm tj = ASTExampleCorpus.correspondingTree(xj,mod);
  
             // System.out.println(">>^^>> Corresponding tree of " + xj + " is " + tj); 
  
@@ -3089,7 +3493,7 @@ public abstract class ASTTerm
  
           for (int j = 0; j < xxterms.size(); j++) 
           { ASTTerm xj = (ASTTerm) xxterms.get(j); 
-            ASTTerm tj = mod.getCorrespondingTree(xj);
+            ASTTerm tj = ASTExampleCorpus.correspondingTree(xj,mod);
  
             // System.out.println(">>^^>> Corresponding tree of " + xj + " is " + tj); 
  
@@ -3177,7 +3581,7 @@ public abstract class ASTTerm
  
           for (int j = 0; j < xxterms.size(); j++) 
           { ASTTerm xj = (ASTTerm) xxterms.get(j); 
-            ASTTerm tj = mod.getCorrespondingTree(xj);
+            ASTTerm tj = ASTExampleCorpus.correspondingTree(xj,mod);
  
             // System.out.println(">><<>> Corresponding tree of " + xj + " is " + tj); 
  
@@ -3278,7 +3682,7 @@ public abstract class ASTTerm
  
           for (int j = 0; j < xxterms.size(); j++) 
           { ASTTerm xj = (ASTTerm) xxterms.get(j); 
-            ASTTerm tj = mod.getCorrespondingTree(xj);
+            ASTTerm tj = ASTExampleCorpus.correspondingTree(xj,mod);
  
             if (xj instanceof ASTSymbolTerm) 
             { xtermvectors[j].add(xj); } 
@@ -3304,7 +3708,7 @@ public abstract class ASTTerm
           
         for (int j = 0; j < xx0terms.size(); j++) 
         { ASTTerm xj = (ASTTerm) xx0terms.get(j); 
-          ASTTerm tj = mod.getCorrespondingTree(xj);
+          ASTTerm tj = ASTExampleCorpus.correspondingTree(xj,mod);
   
           if (xj instanceof ASTSymbolTerm)
           { if (AuxMath.isConstantSeq(xtermvectors[j]))
@@ -3439,7 +3843,7 @@ public abstract class ASTTerm
  
           for (int j = 0; j < xxterms.size(); j++) 
           { ASTTerm xj = (ASTTerm) xxterms.get(j); 
-            ASTTerm tj = mod.getCorrespondingTree(xj);
+            ASTTerm tj = ASTExampleCorpus.correspondingTree(xj,mod);
  
             if (xj instanceof ASTSymbolTerm) 
             { xtermvectors[j].add(xj); } 
@@ -3465,7 +3869,7 @@ public abstract class ASTTerm
           
         for (int j = 0; j < xx0terms.size(); j++) 
         { ASTTerm xj = (ASTTerm) xx0terms.get(j); 
-          ASTTerm tj = mod.getCorrespondingTree(xj);
+          ASTTerm tj = ASTExampleCorpus.correspondingTree(xj,mod);
   
           if (xj instanceof ASTSymbolTerm)
           { if (AuxMath.isConstantSeq(xtermvectors[j]))
@@ -3576,7 +3980,7 @@ public abstract class ASTTerm
           
           for (int j = 0; j < xxterms.size(); j++) 
           { ASTTerm xj = (ASTTerm) xxterms.get(j); 
-            ASTTerm tj = mod.getCorrespondingTree(xj);
+            ASTTerm tj = ASTExampleCorpus.correspondingTree(xj,mod);
   
             if (xj instanceof ASTSymbolTerm)
             { pars.add(
@@ -3649,7 +4053,7 @@ public abstract class ASTTerm
 
           for (int j = 0; j < xxterms.size(); j++) 
           { ASTTerm xj = (ASTTerm) xxterms.get(j); 
-            ASTTerm tj = mod.getCorrespondingTree(xj);
+            ASTTerm tj = ASTExampleCorpus.correspondingTree(xj,mod);
   
             if (xj instanceof ASTSymbolTerm)
             { } 
@@ -3716,7 +4120,7 @@ public abstract class ASTTerm
 
           for (int j = 0; j < xxterms.size(); j++) 
           { ASTTerm xj = (ASTTerm) xxterms.get(j); 
-            ASTTerm tj = mod.getCorrespondingTree(xj);
+            ASTTerm tj = ASTExampleCorpus.correspondingTree(xj,mod);
   
             if (xj instanceof ASTSymbolTerm)
             { } 
@@ -3752,7 +4156,7 @@ public abstract class ASTTerm
     
         for (int j = 0; j < xx0terms.size(); j++) 
         { ASTTerm xj = (ASTTerm) xx0terms.get(j); 
-          ASTTerm tj = mod.getCorrespondingTree(xj);
+          ASTTerm tj = ASTExampleCorpus.correspondingTree(xj,mod);
         
           if (xj instanceof ASTSymbolTerm)
           { pars.add(
@@ -3907,7 +4311,7 @@ public abstract class ASTTerm
           { ASTCompositeTerm ct = (ASTCompositeTerm) yvect; 
             ASTTerm ct0 = (ASTTerm) ct.getTerms().get(0); 
             if (xx.equals(ct0) || 
-                mod.correspondingTrees(sent, xx, ct0)) { } 
+                ASTExampleCorpus.correspondingTrees(sent, xx, ct0, mod)) { } 
             else 
             { return false; } 
           } 
@@ -3987,7 +4391,7 @@ public abstract class ASTTerm
           ASTCompositeTerm xt = (ASTCompositeTerm) xx; 
           ASTTerm xt0 = (ASTTerm) xt.getTerms().get(0); 
           if (xt0.equals(ct0) || 
-              mod.correspondingTrees(sent,xt0,ct0)) 
+              ASTExampleCorpus.correspondingTrees(sent,xt0,ct0,mod)) 
           { System.out.println(">> Corresponding terms: " + xt0 + " " + ct0); } 
           else 
           { return false; } 
@@ -4042,7 +4446,7 @@ public abstract class ASTTerm
         // String yylit = yy.literalForm(); 
 
         if (xx.equals(yy) || 
-            mod.correspondingTrees(xx,yy)) 
+            ASTExampleCorpus.correspondingTrees(xx,yy,mod)) 
         { System.out.println(">>-- Corresponding terms: " + xx + " " + yy); } 
         else 
         { jmatch = false; } 
@@ -4339,45 +4743,47 @@ public abstract class ASTTerm
 
     Type treeType = new Type("OclAny", null); 
 
-    for (int i = 0; i < asts.size(); i++) 
-    { ASTTerm t = (ASTTerm) asts.get(i); 
+    java.util.Map groups = ASTExampleCorpus.groupByTagArity(asts); 
+    java.util.Iterator iter = groups.values().iterator(); 
+    while (iter.hasNext())
+    { // one term of each tag and arity > 0
+      ASTTerm t = (ASTTerm) ((Vector) iter.next()).get(0); 
       String tg = t.getTag() + suff; 
       int n = t.arity(); 
-      if (n > 0) 
-      { Entity ee = (Entity) ModelElement.lookupByName(tg,es); 
-        if (ee == null) 
-        { ee = new Entity(tg);
 
-          System.out.println("Created entity: "  + tg); 
+      Entity ee = (Entity) ModelElement.lookupByName(tg,es); 
+      if (ee == null) 
+      { ee = new Entity(tg);
+
+        System.out.println("Created entity: "  + tg); 
  
-          if (suff.equals(""))
-          { ee.addStereotype("source"); } 
-          else 
-          { ee.addStereotype("target"); } 
+        if (suff.equals(""))
+        { ee.addStereotype("source"); } 
+        else 
+        { ee.addStereotype("target"); } 
            
-          ee.setAbstract(true); 
-          Attribute astatt = 
-            new Attribute("ast", treeType, ModelElement.INTERNAL); 
-          ee.addAttribute(astatt); 
-          es.add(ee); 
-        } 
+        ee.setAbstract(true); 
+        Attribute astatt = 
+          new Attribute("ast", treeType, ModelElement.INTERNAL); 
+        ee.addAttribute(astatt); 
+        es.add(ee); 
+      } 
 
-        String enname = tg + "_" + n; 
-        Entity en = 
-          (Entity) ModelElement.lookupByName(enname,es);
-        if (en == null) 
-        { en = new Entity(enname); 
+      String enname = tg + "_" + n; 
+      Entity en = 
+        (Entity) ModelElement.lookupByName(enname,es);
+      if (en == null) 
+      { en = new Entity(enname); 
 
-          if (suff.equals(""))
-          { en.addStereotype("source"); } 
-          else 
-          { en.addStereotype("target"); } 
+        if (suff.equals(""))
+        { en.addStereotype("source"); } 
+        else 
+        { en.addStereotype("target"); } 
 
-          en.setSuperclass(ee); 
-          ee.addSubclass(en); 
-          System.out.println("Created entity: "  + enname); 
-          es.add(en); 
-        } 
+        en.setSuperclass(ee); 
+        ee.addSubclass(en); 
+        System.out.println("Created entity: "  + enname); 
+        es.add(en); 
       } 
     } 
   } 
@@ -4389,45 +4795,46 @@ public abstract class ASTTerm
 
     Type treeType = new Type("OclAny", null); 
 
-    for (int i = 0; i < asts.size(); i++) 
-    { ASTTerm t = (ASTTerm) asts.get(i); 
+    java.util.Map groups = ASTExampleCorpus.groupByTagFunction(asts); 
+    java.util.Iterator iter = groups.values().iterator(); 
+    while (iter.hasNext())
+    { // one term of each tagFunction, arity > 0
+      ASTTerm t = (ASTTerm) ((Vector) iter.next()).get(0); 
       String tg = t.tagFunction() + suff; 
       String tgsup = t.getTag() + suff; 
-      int n = t.arity(); 
-      if (n > 0) 
-      { Entity sup = (Entity) ModelElement.lookupByName(tgsup,es); 
-        if (sup == null) 
-        { sup = new Entity(tgsup);
 
-          System.out.println("Created entity: "  + sup); 
+      Entity sup = (Entity) ModelElement.lookupByName(tgsup,es); 
+      if (sup == null) 
+      { sup = new Entity(tgsup);
+
+        System.out.println("Created entity: "  + sup); 
  
-          if (suff.equals(""))
-          { sup.addStereotype("source"); } 
-          else 
-          { sup.addStereotype("target"); } 
+        if (suff.equals(""))
+        { sup.addStereotype("source"); } 
+        else 
+        { sup.addStereotype("target"); } 
            
-          sup.setAbstract(true); 
-          Attribute astatt = 
-            new Attribute("ast", treeType, ModelElement.INTERNAL); 
-          sup.addAttribute(astatt); 
-          es.add(sup); 
-        } 
+        sup.setAbstract(true); 
+        Attribute astatt = 
+          new Attribute("ast", treeType, ModelElement.INTERNAL); 
+        sup.addAttribute(astatt); 
+        es.add(sup); 
+      } 
 
-        Entity ee = (Entity) ModelElement.lookupByName(tg,es); 
-        if (ee == null) 
-        { ee = new Entity(tg);
+      Entity ee = (Entity) ModelElement.lookupByName(tg,es); 
+      if (ee == null) 
+      { ee = new Entity(tg);
 
-          System.out.println("Created entity: "  + tg); 
+        System.out.println("Created entity: "  + tg); 
  
-          if (suff.equals(""))
-          { ee.addStereotype("source"); } 
-          else 
-          { ee.addStereotype("target"); } 
+        if (suff.equals(""))
+        { ee.addStereotype("source"); } 
+        else 
+        { ee.addStereotype("target"); } 
            
-          ee.setSuperclass(sup); 
-          sup.addSubclass(ee); 
-          es.add(ee); 
-        } 
+        ee.setSuperclass(sup); 
+        sup.addSubclass(ee); 
+        es.add(ee); 
       } 
     } 
   } 
@@ -4437,62 +4844,43 @@ public abstract class ASTTerm
   { // For corresponding s, t create entity matching
     // s.tag_s.arity |--> t.tag$T_t.arity. 
 
-    Vector ems = new Vector(); 
-
-    for (int i = 0; i < sasts.size() && i < tasts.size(); i++) 
-    { ASTTerm s = (ASTTerm) sasts.get(i); 
-      ASTTerm t = (ASTTerm) tasts.get(i); 
-      
-      int n = s.arity(); 
-      int m = t.arity(); 
-
-      if (n > 0 && m > 0) 
-      { String sentname = s.getTag() + "_" + n; 
-        Entity sent = 
-          (Entity) ModelElement.lookupByName(sentname,es); 
-        String tentname = t.getTag() + "$T_" + m; 
-        Entity tent = 
-          (Entity) ModelElement.lookupByName(tentname,es); 
-        if (sent != null && tent != null) 
-        { EntityMatching em = 
-            new EntityMatching(sent,tent); 
-          if (ems.contains(em)) { }
-          else 
-          { ems.add(em); }  
-        } 
-      } 
-    } 
-    return ems; 
+    java.util.Map groups = 
+      ASTExampleCorpus.groupPairs(sasts, tasts, false); 
+    return ASTTerm.entityMatchingsOfGroups(groups, es); 
   } 
 
   public static Vector deepEntityMatchingsFromASTs(Vector sasts, 
                          Vector tasts, Vector es)
   { // For corresponding s, t create entity matching
-    // s.tag_s.arity |--> t.tag$T_t.arity. 
+    // s.tagFunction |--> t.tag$T_t.arity. 
 
-    Vector ems = new Vector(); 
+    java.util.Map groups = 
+      ASTExampleCorpus.groupPairs(sasts, tasts, true); 
+    return ASTTerm.entityMatchingsOfGroups(groups, es); 
+  } 
 
-    for (int i = 0; i < sasts.size() && i < tasts.size(); i++) 
-    { ASTTerm s = (ASTTerm) sasts.get(i); 
-      ASTTerm t = (ASTTerm) tasts.get(i); 
-      
-      int n = s.arity(); 
-      int m = t.arity(); 
+  private static Vector entityMatchingsOfGroups(java.util.Map groups, 
+                                                Vector es)
+  { // One matching for each group of examples with the 
+    // same source and target entities 
 
-      if (n > 0 && m > 0) 
-      { String sentname = s.tagFunction(); // Assume it is deep 
-        Entity sent = 
-          (Entity) ModelElement.lookupByName(sentname,es); 
-        String tentname = t.getTag() + "$T_" + m; 
-        Entity tent = 
-          (Entity) ModelElement.lookupByName(tentname,es); 
-        if (sent != null && tent != null) 
-        { EntityMatching em = 
-            new EntityMatching(sent,tent); 
-          if (ems.contains(em)) { }
-          else 
-          { ems.add(em); }  
-        } 
+    Vector ems = new Vector(); 
+
+    java.util.Iterator iter = groups.keySet().iterator(); 
+    while (iter.hasNext())
+    { Vector key = (Vector) iter.next(); 
+      String sentname = (String) key.get(0); 
+      Entity sent = 
+        (Entity) ModelElement.lookupByName(sentname,es); 
+      String tentname = (String) key.get(1); 
+      Entity tent = 
+        (Entity) ModelElement.lookupByName(tentname,es); 
+      if (sent != null && tent != null) 
+      { EntityMatching em = 
+          new EntityMatching(sent,tent); 
+        if (ems.contains(em)) { }
+        else 
+        { ems.add(em); }  
       } 
     } 
     return ems; 
@@ -4508,47 +4896,36 @@ public abstract class ASTTerm
     // t_inst.ast = t
     // s_inst |-> t_inst 
 
-    for (int i = 0; i < sasts.size() && i < tasts.size(); i++) 
-    { ASTTerm s = (ASTTerm) sasts.get(i); 
-      ASTTerm t = (ASTTerm) tasts.get(i); 
-      
-      int n = s.arity(); 
-      int m = t.arity(); 
-
-      if (n > 0 && m > 0) 
-      { String sentname = s.getTag() + "_" + n; 
-        String tentname = t.getTag() + "$T_" + m; 
-        String sinst = sentname.toLowerCase() + "_" + i; 
-        String tinst = tentname.toLowerCase() + "_" + i; 
-        Entity sent = 
-          (Entity) ModelElement.lookupByName(sentname,es); 
-        ObjectSpecification sobj = 
-          new ObjectSpecification(sinst,sentname); 
-        sobj.setEntity(sent);
-        sobj.setValue("ast", s); 
-        Entity tent = 
-          (Entity) ModelElement.lookupByName(tentname,es); 
-        ObjectSpecification tobj = 
-          new ObjectSpecification(tinst,tentname); 
-        tobj.setEntity(tent);
-        tobj.setValue("ast", t); 
-        mod.addObject(sobj); 
-        mod.addObject(tobj); 
-        mod.addCorrespondence(sobj,tobj); 
-      } 
-    } 
+    ASTTerm.examplesToModel(sasts, tasts, es, mod, false); 
   } 
 
   public static void deepModelSpecificationFromASTs(Vector sasts, 
                          Vector tasts, Vector es, 
                          ModelSpecification mod)
   { // For corresponding s, t create instances
-    // s_inst : s.tag_s.arity 
+    // s_inst : s.tagFunction 
     // s_inst.ast = s
     // t_inst : t.tag$T_t.arity
     // t_inst.ast = t
     // s_inst |-> t_inst 
 
+    ASTTerm.examplesToModel(sasts, tasts, es, mod, true); 
+  } 
+
+  private static void examplesToModel(Vector sasts, 
+                         Vector tasts, Vector es, 
+                         ModelSpecification mod, boolean deep)
+  { // Each entity is looked up once, and the correspondences 
+    // are also recorded in the example corpus of mod. The 
+    // corpus is complete only if it is made here, so that 
+    // mod has no correspondences other than the examples. 
+
+    boolean fromEmpty = 
+      ASTExampleCorpus.currentCorpus(mod) == null; 
+    ASTExampleCorpus corpus = ASTExampleCorpus.corpusFor(mod); 
+    java.util.Map entities = new java.util.HashMap(); 
+      // String --> Entity 
+
     for (int i = 0; i < sasts.size() && i < tasts.size(); i++) 
     { ASTTerm s = (ASTTerm) sasts.get(i); 
       ASTTerm t = (ASTTerm) tasts.get(i); 
@@ -4557,18 +4934,20 @@ public abstract class ASTTerm
       int m = t.arity(); 
 
       if (n > 0 && m > 0) 
-      { String sentname = s.tagFunction(); 
+      { String sentname = s.getTag() + "_" + n; 
+        if (deep) 
+        { sentname = s.tagFunction(); } 
         String tentname = t.getTag() + "$T_" + m; 
         String sinst = sentname.toLowerCase() + "_" + i; 
         String tinst = tentname.toLowerCase() + "_" + i; 
         Entity sent = 
-          (Entity) ModelElement.lookupByName(sentname,es); 
+          ASTTerm.lookupEntity(sentname,es,entities); 
         ObjectSpecification sobj = 
           new ObjectSpecification(sinst,sentname); 
         sobj.setEntity(sent);
         sobj.setValue("ast", s); 
         Entity tent = 
-          (Entity) ModelElement.lookupByName(tentname,es); 
+          ASTTerm.lookupEntity(tentname,es,entities); 
         ObjectSpecification tobj = 
           new ObjectSpecification(tinst,tentname); 
         tobj.setEntity(tent);
@@ -4576,8 +4955,21 @@ public abstract class ASTTerm
         mod.addObject(sobj); 
         mod.addObject(tobj); 
         mod.addCorrespondence(sobj,tobj); 
+        corpus.addExample(sentname, s, t); 
       } 
     } 
+
+    if (fromEmpty) 
+    { corpus.setComplete(true); } 
+  } 
+
+  private static Entity lookupEntity(String ename, Vector es, 
+                                     java.util.Map entities)
+  { if (entities.containsKey(ename))
+    { return (Entity) entities.get(ename); } 
+    Entity res = (Entity) ModelElement.lookupByName(ename,es); 
+    entities.put(ename, res); 
+    return res; 
   } 
 
   public static Vector randomBasicASTTermsForTag(String tag, 
@@ -6132,7 +6524,30 @@ public abstract class ASTTerm
     return lit; // for numbers only 
   }  
 
+  public static void setMemoSymbolicEvaluation(boolean b)
+  { memoSymbolicEvaluation = b; } 
+
+  public static void setExactPolynomials(boolean b)
+  { exactPolynomials = b; } 
+
   public static String symbolicEvaluation(ASTTerm e1)
+  { if (!memoSymbolicEvaluation || 
+        !(e1 instanceof ASTCompositeTerm))
+    { return ASTTerm.symbolicEvaluation0(e1); } 
+
+    java.util.Map memo = ASTTerm.ctx().symbolicEvaluationMemo; 
+    String res = (String) memo.get(e1); 
+    if (res != null) 
+    { return res; } 
+
+    res = ASTTerm.symbolicEvaluation0(e1); 
+    if (memo.size() >= symbolicMemoLimit)
+    { memo.clear(); } 
+    memo.put(e1, res); 
+    return res; 
+  } 
+
+  private static String symbolicEvaluation0(ASTTerm e1)
   { String a = ""; 
     String e1lit = e1.literalForm(); 
 
@@ -6247,11 +6662,84 @@ public abstract class ASTTerm
   } 
 
   public static String symbolicDeterminant(ASTTerm m)
-  { // convert m to a Vector of Vector of numbers
-    // and apply AuxMath.determinant
+  { // convert m to a Vector of Vector of element terms 
+    // and compute the determinant exactly by fraction-free 
+    // elimination. Numeric results are printed as doubles.
+
+    Vector mrows = ASTTerm.mathOCLmatrixRows(m);
+    if (mrows == null) 
+    { mrows = ASTTerm.mathOCLsequenceElements(m);
+      return "" + AuxMath.determinant(mrows.size(), mrows);
+    } 
+
+    SymbolicPolynomial det = 
+      SymbolicPolynomial.determinant(mrows, new Vector()); 
+    if (det.isConstant())
+    { java.math.BigInteger[] val = det.constantValue(); 
+      return "" + 
+        new java.math.BigDecimal(val[0]).divide(
+          new java.math.BigDecimal(val[1]), 
+          java.math.MathContext.DECIMAL64).doubleValue(); 
+    } 
+    return det.toMathOCL();  
+  } 
 
-    Vector mrows = ASTTerm.mathOCLsequenceElements(m);
-    return "" + AuxMath.determinant(mrows.size(), mrows);  
+  public static String symbolicDeterminant(int msize, Vector m)
+  { // m is a Vector of rows of MathOCL coefficient strings
+    
+    Vector rows = new Vector(); 
+    for (int i = 0; i < msize && i < m.size(); i++) 
+    { rows.add(m.get(i)); } 
+    return SymbolicPolynomial.determinant(
+                        rows, new Vector()).toMathOCL(); 
+  } 
+
+  public static Vector mathOCLmatrixRows(ASTTerm t)
+  { // The rows of a sequence of sequences, each row a 
+    // Vector of its element terms. null if t is not 
+    // a square matrix. 
+
+    Vector rows = ASTTerm.mathOCLsequenceTerms(t); 
+    if (rows == null) 
+    { return null; } 
+
+    Vector res = new Vector(); 
+    for (int i = 0; i < rows.size(); i++) 
+    { Vector row = 
+        ASTTerm.mathOCLsequenceTerms((ASTTerm) rows.get(i)); 
+      if (row == null || row.size() != rows.size()) 
+      { return null; } 
+      res.add(row); 
+    } 
+    return res; 
+  } 
+
+  private static Vector mathOCLsequenceTerms(ASTTerm t)
+  { // The element terms of a setExpression, or null
+
+    String tg = t.getTag();
+    Vector trms = t.getTerms(); 
+
+    if (trms.size() == 1)
+    { return ASTTerm.mathOCLsequenceTerms((ASTTerm) trms.get(0)); } 
+
+    if (!"setExpression".equals(tg) || trms.size() < 2)
+    { return null; } 
+
+    Vector res = new Vector(); 
+    ASTTerm elems = (ASTTerm) trms.get(1); 
+    if ("}".equals(elems.literalForm()))
+    { return res; } 
+
+    Vector elemterms = elems.getTerms(); 
+    for (int j = 0; j < elemterms.size(); j++) 
+    { ASTTerm et = (ASTTerm) elemterms.get(j);
+      if (et.getTerms().size() == 0 && 
+          ",".equals(et.literalForm()))
+      { continue; } 
+      res.add(et); 
+    } 
+    return res; 
   } 
 
   public static Vector mathOCLsequenceElements(ASTTerm t)
@@ -6368,7 +6856,13 @@ public abstract class ASTTerm
   }  
 
   public static String symbolicAddition(ASTTerm e1, ASTTerm e2)
-  { String a = ASTTerm.symbolicEvaluation(e1); 
+  { if (exactPolynomials)
+    { String res = ASTTerm.exactSymbolicOperation(e1,"+",e2); 
+      if (res != null) 
+      { return res; } 
+    } 
+
+    String a = ASTTerm.symbolicEvaluation(e1); 
     String b = ASTTerm.symbolicEvaluation(e2); 
 
     if (ASTTerm.isMathOCLSubtraction(e1))
@@ -6518,7 +7012,13 @@ public abstract class ASTTerm
   }  
      
   public static String symbolicMultiplication(ASTTerm e1, ASTTerm e2)
-  { String a = ASTTerm.symbolicEvaluation(e1); 
+  { if (exactPolynomials)
+    { String res = ASTTerm.exactSymbolicOperation(e1,"*",e2); 
+      if (res != null) 
+      { return res; } 
+    } 
+
+    String a = ASTTerm.symbolicEvaluation(e1); 
     String b = ASTTerm.symbolicEvaluation(e2); 
 
 
@@ -7113,6 +7613,13 @@ public abstract class ASTTerm
   { // Assume that it is in plain polynomial form, no products
     // of polynomials. 
 
+    if (exactPolynomials) 
+    { String v = var.literalForm(); 
+      RationalPolynomial poly = RationalPolynomial.fromMathOCL(expr,v); 
+      if (poly != null && poly.degree() > 0) 
+      { return poly.toMathOCL(v); } 
+    } 
+
     Vector powers = ASTTerm.powersOf(var,expr);
     Vector vars = new Vector();
     vars.add(var);  
@@ -7142,7 +7649,14 @@ public abstract class ASTTerm
   } // Normalises a polynomial
 
   public static String expressAsPolynomial(ASTTerm trm, ASTTerm var)
-  { if (ASTTerm.isMathOCLDivision(trm))
+  { if (exactPolynomials) 
+    { String v = var.literalForm(); 
+      RationalPolynomial poly = RationalPolynomial.fromMathOCL(trm,v); 
+      if (poly != null) 
+      { return poly.toMathOCL(v); } 
+    } 
+
+    if (ASTTerm.isMathOCLDivision(trm))
     { ASTTerm num = ASTTerm.mathOCLNumerator(trm); 
       ASTTerm den = ASTTerm.mathOCLDenominator(trm); 
       return ASTTerm.polynomialDivision(num,den,var); 
@@ -7159,6 +7673,12 @@ public abstract class ASTTerm
   public static String polynomialMultiplication(ASTTerm p, ASTTerm q, ASTTerm var)
   { // result = p*q with terms expressed as coef*var^{pow}
 
+    if (exactPolynomials) 
+    { String res = ASTTerm.exactPolynomialMultiplication(p,q,var); 
+      if (res != null) 
+      { return res; } 
+    } 
+
     String ptg = p.getTag();
     Vector pargs = p.getTerms(); 
 
@@ -7262,6 +7782,12 @@ public abstract class ASTTerm
     // cP is coefP of maxp, cQ is coefQ of maxq
     // So P/Q = (cP/cQ)*(x^{n}) + R/Q
 
+    if (exactPolynomials) 
+    { String res = ASTTerm.polynomialLongDivision(p,q,var); 
+      if (res != null) 
+      { return res; } 
+    } 
+
     Vector powersP = ASTTerm.powersOf(var,p);
     Vector powersQ = ASTTerm.powersOf(var,q);
     
@@ -7365,6 +7891,73 @@ public abstract class ASTTerm
            q.literalFormSpaces() + ")"; 
   } 
 
+  public static String exactPolynomialMultiplication(
+                              ASTTerm p, ASTTerm q, ASTTerm var)
+  { // p*q in canonical form, or null if p and q are not 
+    // both polynomials in var with numeric coefficients 
+
+    String v = var.literalForm(); 
+    RationalPolynomial pp = RationalPolynomial.fromMathOCL(p,v); 
+    if (pp == null) 
+    { return null; } 
+    RationalPolynomial qq = RationalPolynomial.fromMathOCL(q,v); 
+    if (qq == null) 
+    { return null; } 
+
+    if (pp.degree() > 0 || qq.degree() > 0)
+    { return pp.multiply(qq).toMathOCL(v); } 
+    return null; 
+  } 
+
+  public static String polynomialLongDivision(
+                              ASTTerm p, ASTTerm q, ASTTerm var)
+  { // P/Q = D + R/Q with degree of R < degree of Q, or null 
+    // if P and Q are not both polynomials in var with 
+    // numeric coefficients 
+
+    String v = var.literalForm(); 
+    RationalPolynomial pp = RationalPolynomial.fromMathOCL(p,v); 
+    if (pp == null) 
+    { return null; } 
+    RationalPolynomial qq = RationalPolynomial.fromMathOCL(q,v); 
+    if (qq == null || qq.isZero()) 
+    { return null; } 
+
+    if (pp.degree() == 0 && qq.degree() == 0)
+    { return null; } 
+
+    if (pp.degree() < qq.degree())
+    { return "(" + p.literalFormSpaces() + ")/(" + 
+             q.literalFormSpaces() + ")"; 
+    } 
+
+    RationalPolynomial[] qr = pp.divide(qq); 
+    String quot = qr[0].toMathOCL(v); 
+    if (qr[1].isZero())
+    { return quot; } 
+    return quot + " + (" + qr[1].toMathOCL(v) + ")/(" + 
+           q.literalFormSpaces() + ")"; 
+  } 
+
+  private static String exactSymbolicOperation(ASTTerm e1, 
+                                     String opr, ASTTerm e2)
+  { // e1 + e2 or e1 * e2 in canonical form, or null if 
+    // they are not both polynomials over identifiers 
+
+    Vector atms = new Vector(); 
+    SymbolicPolynomial p1 = SymbolicPolynomial.fromMathOCL(e1,atms); 
+    SymbolicPolynomial p2 = SymbolicPolynomial.fromMathOCL(e2,atms); 
+    for (int i = 0; i < atms.size(); i++) 
+    { String atm = (String) atms.get(i); 
+      if (!ASTTerm.isMathOCLIdentifier(atm))
+      { return null; } 
+    } 
+
+    if ("*".equals(opr))
+    { return p1.multiply(p2).toMathOCL(); } 
+    return p1.add(p2).toMathOCL(); 
+  } 
+
   public static boolean mathOCLNeedsBracket(ASTTerm trm)
   { if (trm instanceof ASTBasicTerm) 
     { return false; } 
@@ -9282,8 +9875,10 @@ public abstract class ASTTerm
       assumptionlits.add(assump.literalFormSpaces()); 
     } 
 
-    Vector thms = ASTTerm.mathocltheorems;
-    Vector rewrites = ASTTerm.mathoclrewrites; 
+    Vector thms = 
+      ASTTerm.ctx().mathocltheoremIndex.candidates(succ);
+    Vector rewrites = 
+      ASTTerm.ctx().mathoclrewriteIndex.subtermCandidates(succ); 
  
     /* JOptionPane.showMessageDialog(null, 
        "### Rewrites: " + rewrites,   "",
@@ -9310,6 +9905,9 @@ public abstract class ASTTerm
     if (ASTTerm.containsContradictions(assumptions))
     { return "  Simplify true\n"; } 
 
+    if (ASTTerm.searchProof(succ, assumptionlits, alit))
+    { return "  Simplify true\n"; } 
+
     for (int i = 0; i < thms.size(); i++) 
     { Vector thm = (Vector) thms.get(i); // [concl,premise]
       ASTTerm concl = (ASTTerm) thm.get(0); 
@@ -9429,7 +10027,7 @@ public abstract class ASTTerm
       ASTTerm lhs = (ASTTerm) rewrite.get(0); 
       boolean isIn = ASTTerm.isSubterm(lhs,succ);
 
-      System.out.println("###### is subterm: " + lhs + " of " + succ + " " + isIn); 
+      // System.out.println("###### is subterm: " + lhs + " of " + succ + " " + isIn); 
 
       if (isIn) // replace lhs by its definition
       { String vv = lhs.literalForm(); 
@@ -9453,8 +10051,10 @@ public abstract class ASTTerm
           lhs + " in " + succ,   "",
           JOptionPane.INFORMATION_MESSAGE); */ 
 
-        if (binds != null) // substitute rhs[binds] for 
-        {                  // lhs[binds] in succ
+        if (binds != null && 
+            binds.keySet().containsAll(
+                          lhs.allMathMetavariables())) 
+        { // substitute rhs[binds] for lhs[binds] in succ
           ASTTerm actualrhs = 
             rhs.instantiate(binds); 
           ASTTerm actuallhs = 
@@ -9484,6 +10084,144 @@ public abstract class ASTTerm
     return "  Simplify (" + alit + ") => " + slitspaces; 
   } 
 
+  public static void setProofSearchLimits(int millis, int goals)
+  { proofSearchTimeLimit = millis; 
+    proofSearchGoalLimit = goals; 
+  } 
+
+  public static boolean searchProof(ASTTerm succ, 
+                          Vector assumptionlits, String alit)
+  { // Breadth-first search for a chain of theorem and 
+    // rewrite steps from succ to goals which are true or 
+    // assumptions. A goal is the Vector of its open 
+    // conjuncts, and steps are applied to the first of 
+    // these. Goals already visited are not expanded 
+    // again, so cyclic rewrites do not loop. The search 
+    // stops after proofSearchTimeLimit ms or 
+    // proofSearchGoalLimit goals. 
+
+    long deadline = 
+      System.currentTimeMillis() + proofSearchTimeLimit; 
+    java.util.Set visited = new java.util.HashSet(); 
+    java.util.LinkedList queue = new java.util.LinkedList(); 
+
+    Vector start = ASTTerm.openConjuncts(succ, assumptionlits, alit); 
+    if (start.size() == 0)
+    { return true; } 
+    visited.add(ASTTerm.goalKey(start)); 
+    queue.add(start); 
+
+    while (queue.size() > 0 && 
+           visited.size() < proofSearchGoalLimit && 
+           System.currentTimeMillis() < deadline)
+    { Vector goal = (Vector) queue.removeFirst(); 
+      ASTTerm first = (ASTTerm) goal.get(0); 
+
+      Vector steps = ASTTerm.proofSteps(first); 
+      for (int i = 0; i < steps.size(); i++) 
+      { ASTTerm step = (ASTTerm) steps.get(i); 
+        Vector next = 
+          ASTTerm.openConjuncts(step, assumptionlits, alit);
+        for (int j = 1; j < goal.size(); j++) 
+        { ASTTerm g = (ASTTerm) goal.get(j); 
+          if (!next.contains(g))
+          { next.add(g); } 
+        } 
+
+        if (next.size() == 0)
+        { return true; } 
+
+        String key = ASTTerm.goalKey(next); 
+        if (!visited.contains(key))
+        { visited.add(key); 
+          queue.add(next); 
+        } 
+      } 
+    } 
+
+    return false; 
+  } 
+
+  private static Vector openConjuncts(ASTTerm goal, 
+                          Vector assumptionlits, String alit)
+  { Vector res = new Vector(); 
+    Vector conjs = ASTTerm.mathOCLConjuncts(goal); 
+    for (int i = 0; i < conjs.size(); i++) 
+    { ASTTerm conj = (ASTTerm) conjs.get(i); 
+      String clit = conj.literalFormSpaces(); 
+      if ("true".equals(clit) || clit.equals(alit) || 
+          assumptionlits.contains(clit))
+      { } 
+      else if (!res.contains(conj))
+      { res.add(conj); } 
+    } 
+    return res; 
+  } 
+
+  private static String goalKey(Vector goal)
+  { Vector lits = new Vector(); 
+    for (int i = 0; i < goal.size(); i++) 
+    { lits.add(((ASTTerm) goal.get(i)).literalForm()); } 
+    java.util.Collections.sort(lits); 
+    return "" + lits; 
+  } 
+
+  public static Vector proofSteps(ASTTerm goal)
+  { // The goals which imply goal by one theorem or 
+    // rewrite step. 
+
+    Vector res = new Vector(); 
+
+    Vector thms = 
+      ASTTerm.ctx().mathocltheoremIndex.candidates(goal);
+    for (int i = 0; i < thms.size(); i++) 
+    { Vector thm = (Vector) thms.get(i); // [concl,premise]
+      ASTTerm concl = (ASTTerm) thm.get(0); 
+      ASTTerm premise = (ASTTerm) thm.get(1); 
+
+      java.util.HashMap binds = 
+         goal.fullMatch(concl, new java.util.HashMap()); 
+      if (binds != null) 
+      { res.add(premise.instantiate(binds)); } 
+    } 
+
+    Vector rewrites = 
+      ASTTerm.ctx().mathoclrewriteIndex.subtermCandidates(goal);
+    for (int y = 0; y < rewrites.size(); y++) 
+    { Vector rewrite = (Vector) rewrites.get(y); 
+      ASTTerm lhs = (ASTTerm) rewrite.get(0); 
+      ASTTerm rhs = (ASTTerm) rewrite.get(1); 
+
+      if (ASTTerm.isSubterm(lhs,goal))
+      { res.add(goal.mathOCLSubstitute(lhs.literalForm(),rhs)); 
+        continue; 
+      } 
+
+      java.util.HashMap binds = 
+        goal.hasMatch(lhs, new java.util.HashMap()); 
+      if (binds != null && 
+          binds.keySet().containsAll(lhs.allMathMetavariables()))
+      { ASTTerm actuallhs = lhs.instantiate(binds); 
+        res.add(goal.mathOCLSubstitute(
+                  actuallhs.literalForm(), rhs.instantiate(binds))); 
+      } 
+    } 
+
+    return res; 
+  } 
+
+  public static void setMathOCLDialogs(boolean b)
+  { mathOCLDialogs = b; } 
+
+  public static void mathOCLMessage(String msg)
+  { if (mathOCLDialogs)
+    { JOptionPane.showMessageDialog(null, msg, "", 
+                       JOptionPane.INFORMATION_MESSAGE); 
+    } 
+    else 
+    { System.out.println(msg); } 
+  } 
+
   public static String solveEquations(ASTTerm exprs, ASTTerm vars)
   { Vector exprTerms = exprs.getTerms(); 
     Vector varTerms = vars.getTerms();
@@ -9519,22 +10257,16 @@ public abstract class ASTTerm
       double maxdp = VectorUtil.vectorMaximum(diffsR); 
       double mindp = VectorUtil.vectorMinimum(diffsR); 
           
-      JOptionPane.showMessageDialog(null, 
-         ">>> Var powers of " + vx0 + " are: " +  
+      ASTTerm.mathOCLMessage(">>> Var powers of " + vx0 + " are: " +  
          powersR + " from: " + minp + " to: " + maxp + 
-         " Differentials: " + diffsR + " highest: " + maxdp, 
-         "", 
-         JOptionPane.INFORMATION_MESSAGE); 
+         " Differentials: " + diffsR + " highest: " + maxdp); 
 
       if (maxp == 2 && minp >= 0 && maxdp == 0) 
       { String coefsq = ASTTerm.coefficientOfSquare(var0, expr0); 
         String coefvar = ASTTerm.coefficientOf(var0, expr0); 
         String cnsts = 
               ASTTerm.constantTerms(varTerms,expr0);
-        JOptionPane.showMessageDialog(null, 
-            ">>> This is a quadratic formula, solving using quadratic solver. Coefficients: " + coefsq + " ; " + coefvar + " ; " + cnsts, 
-            "", 
-            JOptionPane.INFORMATION_MESSAGE);
+        ASTTerm.mathOCLMessage(">>> This is a quadratic formula, solving using quadratic solver. Coefficients: " + coefsq + " ; " + coefvar + " ; " + cnsts);
 
         String quadformula1 = 
             AuxMath.quadraticFormula1(coefsq, coefvar, cnsts); 
@@ -9572,12 +10304,9 @@ public abstract class ASTTerm
         dvars.add(vpow); 
         String dcnst = ASTTerm.constantTerms(dvars,expr0);
 
-        JOptionPane.showMessageDialog(null, 
-              ">>> This is an explicit n-power equation: " + 
+        ASTTerm.mathOCLMessage(">>> This is an explicit n-power equation: " + 
               vpow + 
-              " " + ncoef + " " + dcnst, 
-              "", 
-              JOptionPane.INFORMATION_MESSAGE);
+              " " + ncoef + " " + dcnst);
          return "  Simplify " + vx0 + " = (-(" + dcnst + ")/" + 
                                    ncoef + ")^{1/" + maxp + "}\n"; 
       } 
@@ -9598,12 +10327,9 @@ public abstract class ASTTerm
         dvars.add(vpow); 
         String dcnst = ASTTerm.constantTerms(dvars,expr0);
 
-        JOptionPane.showMessageDialog(null, 
-              ">>> This is an explicit n-power equation in " + 
+        ASTTerm.mathOCLMessage(">>> This is an explicit n-power equation in " + 
               vpow + 
-              " Coefficient: " + ncoef + " Constant: " + dcnst, 
-              "", 
-              JOptionPane.INFORMATION_MESSAGE);
+              " Coefficient: " + ncoef + " Constant: " + dcnst);
          return "  Simplify " + vx0 + " = (-(" + dcnst + ")/" + 
                                    ncoef + ")^{1/" + minp + "}\n"; 
       } 
@@ -9630,14 +10356,11 @@ public abstract class ASTTerm
  
         String dMcoef = ASTTerm.coefficientOf(maxDpow,expr0); 
 
-        JOptionPane.showMessageDialog(null, 
-           ">>> This is differential equation with one differential term: Differentials: " + 
+        ASTTerm.mathOCLMessage(">>> This is differential equation with one differential term: Differentials: " + 
            diffsR + 
            " Powers: " + dpowers + " of: " + vdiff + 
            " Contains x: " + hasX + " Constant: " + dcnst + 
-           " Min power: " + mindpp + " Max power: " + maxdpp, 
-           "", 
-           JOptionPane.INFORMATION_MESSAGE);
+           " Min power: " + mindpp + " Max power: " + maxdpp);
 
         
         if (maxdpp == 1 && mindpp >= 0) // linear
@@ -9705,13 +10428,10 @@ public abstract class ASTTerm
         ddvars.add(vdiff); 
         String dcnst = ASTTerm.constantTerms(ddvars,expr0);
 
-        JOptionPane.showMessageDialog(null, 
-           ">>> General differential equation " + 
+        ASTTerm.mathOCLMessage(">>> General differential equation " + 
            "Differentials: " + vdiffs + " All coefficients: " + alldcoefs + " All powers: " + alldpowers + 
            " Max diff: " + vdiff + " Coef: " + dcoef + 
-           " Powers: " + vdiffpowers + " Has x: " + hasX + " Constant: " + dcnst, 
-           "", 
-           JOptionPane.INFORMATION_MESSAGE);
+           " Powers: " + vdiffpowers + " Has x: " + hasX + " Constant: " + dcnst);
 
         double maxvdiffp = 
            VectorUtil.vectorMaximum(vdiffpowers); 
@@ -9737,8 +10457,8 @@ public abstract class ASTTerm
           { // Solution is 
             // "A*e^{-(" + coeff + ")/(" + coefd1 + ")}"; 
 
-            mathoclfunctionIndex++; 
-            String A = "A" + mathoclfunctionIndex; 
+            ctx().mathoclfunctionIndex++; 
+            String A = "A" + ctx().mathoclfunctionIndex; 
 
             return 
               "  Define " + A + "\n" + 
@@ -9748,8 +10468,8 @@ public abstract class ASTTerm
           else 
           { // Solution is above + g
             // for g = -dcnst/coeff or g = -dcnst*x/coefd1
-            mathoclfunctionIndex++; 
-            String A = "A" + mathoclfunctionIndex; 
+            ctx().mathoclfunctionIndex++; 
+            String A = "A" + ctx().mathoclfunctionIndex; 
 
             if ("0".equals(coeff) || "0.0".equals(coeff))
             { return 
@@ -9841,9 +10561,9 @@ public abstract class ASTTerm
             }  
           } 
           
-          mathoclfunctionIndex++; 
-          String A = "A" + mathoclfunctionIndex; 
-          String B = "B" + mathoclfunctionIndex; 
+          ctx().mathoclfunctionIndex++; 
+          String A = "A" + ctx().mathoclfunctionIndex; 
+          String B = "B" + ctx().mathoclfunctionIndex; 
 
           if (quadf1.equals(quadf2))
           { return 
@@ -9876,9 +10596,9 @@ public abstract class ASTTerm
           } 
 
           String Jvalue = "e^{ " + coeff + " dx}";
-          ASTTerm.mathoclfunctionIndex++; 
-          String J = "J" + ASTTerm.mathoclfunctionIndex + "(x)"; 
-          String A = "A" + ASTTerm.mathoclfunctionIndex; 
+          ASTTerm.ctx().mathoclfunctionIndex++; 
+          String J = "J" + ASTTerm.ctx().mathoclfunctionIndex + "(x)"; 
+          String A = "A" + ASTTerm.ctx().mathoclfunctionIndex; 
 
           String integralTerm = 
             "(1/" + J + ")*( (" + cc + ")*" + J + " dx) +"; 
@@ -9893,16 +10613,17 @@ public abstract class ASTTerm
         return "  Solve " + exprs.literalForm() + " for " + vars.literalForm() + "\n";
       } 
       else 
-      { JOptionPane.showMessageDialog(null, 
-              ">>> Unrecognised formula", 
-              "", 
-              JOptionPane.INFORMATION_MESSAGE);
+      { ASTTerm.mathOCLMessage(">>> Unrecognised formula");
           return "  Solve " + exprs.literalForm() + " for " + vars.literalForm() + "\n";
       } 
     }  
 
     /* Simultaneous and quadratic equations */ 
 
+    String exact = LinearEquationSolver.solve(exprTerms,varTerms); 
+    if (exact != null) 
+    { return exact; } // linear with numeric coefficients
+
     for (int i = 0; i < varTerms.size(); i++) 
     { ASTTerm var = (ASTTerm) varTerms.get(i); 
 
@@ -9983,11 +10704,11 @@ public abstract class ASTTerm
       } 
       else if (msize % 2 == 0) 
       { divisorString = "(" + 
-          AuxMath.symbolicDeterminant(msize, divisorMatrix) + ")"; 
+          ASTTerm.symbolicDeterminant(msize, divisorMatrix) + ")"; 
       } 
       else  
       { divisorString = "(-1*(" + 
-          AuxMath.symbolicDeterminant(msize, divisorMatrix) + "))"; 
+          ASTTerm.symbolicDeterminant(msize, divisorMatrix) + "))"; 
       } 
 
   /* 
@@ -10034,7 +10755,7 @@ public abstract class ASTTerm
         else 
         { varNumeratorString = 
             factor + "*" + 
-            AuxMath.symbolicDeterminant(msize, varMatrix);
+            ASTTerm.symbolicDeterminant(msize, varMatrix);
         } 
 
       /* 
@@ -10387,7 +11108,7 @@ public abstract class ASTTerm
     ASTTerm.addStereo("x", "int");  
     ASTTerm.setTaggedValue("x", "defined", "false");
     ASTTerm.addStereo("x", "String");  
-    System.out.println(ASTTerm.metafeatures.get("x"));
+    System.out.println(ASTTerm.ctx().metafeatures.get("x"));
 
     System.out.println(ASTTerm.isIntegerValued(0.5)); 
     System.out.println(ASTTerm.isIntegerValued(0.0)); 
@@ -0,0 +1,98 @@
+/******************************
+* Copyright (c) 2003--2025 Kevin Lano
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0
+*
+* SPDX-License-Identifier: EPL-2.0
+* *****************************/
+
+import java.util.Vector;
+
+/* Hash-consing of ASTTerms: structurally equal terms
+   are represented by a single shared instance, so that
+   the cg_cache and other term-keyed maps are shared
+   between equal subtrees. Terms obtained from here are
+   frozen, use thaw() for a mutable copy.
+
+   The table holds its terms weakly, so a term is dropped
+   when it is no longer used elsewhere, and is shared by
+   all threads. */
+
+public class ASTTermFactory
+{ static boolean enabled = false;
+    // If true, Compiler2.parseGeneralAST interns its results
+
+  static java.util.Map table =
+    java.util.Collections.synchronizedMap(
+                                new java.util.WeakHashMap());
+    // ASTTerm --> WeakReference of the canonical instance
+
+  public static void setEnabled(boolean b)
+  { enabled = b; }
+
+  public static boolean isEnabled()
+  { return enabled; }
+
+  public static ASTTerm symbolTerm(String s)
+  { return canonical(new ASTSymbolTerm(s)); }
+
+  public static ASTTerm basicTerm(String t, String v)
+  { return canonical(new ASTBasicTerm(t,v)); }
+
+  public static ASTTerm compositeTerm(String t, Vector subterms)
+  { Vector newterms = new Vector();
+    for (int i = 0; i < subterms.size(); i++)
+    { ASTTerm sub = (ASTTerm) subterms.get(i);
+      if (sub == null)
+      { newterms.add(null); }
+      else
+      { newterms.add(intern(sub)); }
+    }
+    return canonical(new ASTCompositeTerm(t,newterms));
+  }
+
+  public static ASTTerm intern(ASTTerm trm)
+  { // Replaces trm and all its subterms by their
+    // canonical instances.
+
+    if (trm == null)
+    { return null; }
+
+    ASTTerm existing = lookup(trm);
+    if (existing != null)
+    { return existing; }
+
+    if (trm instanceof ASTCompositeTerm)
+    { ASTCompositeTerm ct = (ASTCompositeTerm) trm;
+      return compositeTerm(ct.getTag(), ct.getTerms());
+    }
+
+    return canonical(trm);
+  }
+
+  private static ASTTerm lookup(ASTTerm trm)
+  { java.lang.ref.WeakReference ref =
+      (java.lang.ref.WeakReference) table.get(trm);
+    if (ref == null)
+    { return null; }
+    return (ASTTerm) ref.get();
+  }
+
+  private static ASTTerm canonical(ASTTerm trm)
+  { trm.freeze();
+    synchronized (table)
+    { ASTTerm existing = lookup(trm);
+      if (existing != null)
+      { return existing; }
+      table.put(trm, new java.lang.ref.WeakReference(trm));
+      return trm;
+    }
+  }
+
+  public static int size()
+  { return table.size(); }
+
+  public static void clear()
+  { table.clear(); }
+}
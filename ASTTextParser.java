@@ -0,0 +1,261 @@
+/******************************
+* Copyright (c) 2003--2025 Kevin Lano
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0
+*
+* SPDX-License-Identifier: EPL-2.0
+* *****************************/
+
+import java.util.Vector;
+import java.io.*;
+
+/* Single-pass parsers for the bracketed AST text of
+   Compiler2.parseGeneralAST and Compiler2.parseAST. An
+   explicit stack replaces the recursion over token
+   ranges, so the time is linear in the number of tokens
+   and deep nesting cannot overflow the Java stack.
+
+   For bracket-balanced input the terms are the same as
+   those of the recursive parsers: a ( followed by a
+   simple identifier opens a term, closed by its matching
+   ), any other ( and its matching ) are symbols. Null
+   is returned for other input, and Compiler2 then uses
+   the recursive parser.
+
+   cg/astdumptest.txt is a corpus of AST dumps, one per
+   line, on which both parsers are compared by
+   checkCorpus. Run as:  java ASTTextParser [file] */
+
+public class ASTTextParser
+{ public static ASTTerm parseGeneralAST(TokenStream lexicals, int st, int en)
+  { if (lexicals == null || lexicals.size() == 0 || st > en)
+    { return null; }
+
+    String[] toks = tokens(lexicals,st,en);
+    int n = toks.length;
+
+    if (n == 1)
+    { return new ASTSymbolTerm(toks[0]); }
+
+    if (n < 3 || !"(".equals(toks[0]) || !")".equals(toks[n-1]) ||
+        "(".equals(toks[1]) || ")".equals(toks[1]))
+    { return null; }
+
+    Vector stack = new Vector();
+    stack.add(new Frame(toks[1],0));
+
+    for (int i = 2; i < n; i++)
+    { if (stack.size() == 0)
+      { return null; } // the first term ends before en
+
+      Frame top = (Frame) stack.get(stack.size() - 1);
+      String tok = toks[i];
+
+      if ("(".equals(tok))
+      { if (i + 1 < n && Compiler2.isSimpleIdentifier(toks[i+1]))
+        { stack.add(new Frame(toks[i+1],i));
+          i++;
+        }
+        else
+        { top.owner.terms.add(new ASTSymbolTerm("("));
+          stack.add(new Frame(top.owner));
+        }
+      }
+      else if (")".equals(tok))
+      { stack.remove(stack.size() - 1);
+        if (top.owner != top)
+        { top.owner.terms.add(new ASTSymbolTerm(")")); }
+        else
+        { ASTTerm trm = generalTerm(top,i,toks);
+          if (stack.size() == 0)
+          { if (i == n - 1)
+            { return trm; }
+            return null;
+          }
+          Frame container = (Frame) stack.get(stack.size() - 1);
+          container.owner.terms.add(trm);
+        }
+      }
+      else
+      { top.owner.terms.add(new ASTSymbolTerm(tok)); }
+    }
+    return null; // unclosed terms
+  }
+
+  private static ASTTerm generalTerm(Frame f, int end, String[] toks)
+  { if (end == f.start + 2)
+    { return new ASTSymbolTerm(f.tag); } // ( tag )
+
+    if (end == f.start + 3 && Compiler2.isSimpleIdentifier(f.tag))
+    { return new ASTBasicTerm(f.tag,toks[end-1]); } // ( tag value )
+
+    return new ASTCompositeTerm(f.tag,f.terms);
+  }
+
+  public static ASTTerm parseAST(TokenStream lexicals, int st, int en)
+  { // Every ( opens a term ( tag value ) or ( tag t1 ... tn )
+
+    if (lexicals == null || st < 0 || en >= lexicals.size() ||
+        st + 2 > en)
+    { return null; }
+
+    String[] toks = tokens(lexicals,st,en);
+    int n = toks.length;
+    Vector stack = new Vector();
+
+    for (int i = 0; i < n; i++)
+    { String tok = toks[i];
+
+      if ("(".equals(tok))
+      { if (i + 1 >= n || "(".equals(toks[i+1]) ||
+            ")".equals(toks[i+1]))
+        { return null; }
+        stack.add(new Frame(toks[i+1],i));
+        i++;
+      }
+      else if (")".equals(tok))
+      { if (stack.size() == 0)
+        { return null; }
+        Frame top = (Frame) stack.remove(stack.size() - 1);
+        ASTTerm trm = null;
+        if (i <= top.start + 3)
+        { trm = new ASTBasicTerm(top.tag,toks[i-1]); }
+        else if (top.tokenCount > 0)
+        { return null; }
+        else
+        { trm = new ASTCompositeTerm(top.tag,top.terms); }
+
+        if (stack.size() == 0)
+        { if (i == n - 1)
+          { return trm; }
+          return null;
+        }
+        Frame container = (Frame) stack.get(stack.size() - 1);
+        container.terms.add(trm);
+      }
+      else
+      { if (stack.size() == 0)
+        { return null; }
+        Frame top = (Frame) stack.get(stack.size() - 1);
+        top.tokenCount++;
+      }
+    }
+    return null;
+  }
+
+  public static boolean sameAsRecursive(String astText)
+  { // For regression checks on AST dumps: the linear and
+    // recursive parsers give equal terms.
+
+    Compiler2 c = new Compiler2();
+    c.nospacelexicalanalysisText(astText);
+    int sz = c.lexicals.size();
+    ASTTerm t1 =
+      ASTTextParser.parseGeneralAST(c.getTokenStream(),0,sz-1);
+    ASTTerm t2 = c.parseGeneralASTRecursive(0,sz-1);
+    if (t1 == null)
+    { return true; } // the recursive parser is used
+    return sameTerms(t1,t2);
+  }
+
+  private static boolean sameTerms(ASTTerm t1, ASTTerm t2)
+  { return t1.equals(t2) && (t1 + "").equals(t2 + ""); }
+
+  public static int checkCorpus(File dumps)
+  { // Parses each AST dump line of dumps by the linear
+    // and recursive forms of parseGeneralAST and parseAST,
+    // and reports the lines where they differ. Returns
+    // the number of differences, -1 if dumps is unreadable.
+
+    int lineNo = 0;
+    int trees = 0;
+    int generalFallbacks = 0;
+    int astFallbacks = 0;
+    int failures = 0;
+
+    try
+    { BufferedReader br = new BufferedReader(new FileReader(dumps));
+      String line = br.readLine();
+      while (line != null)
+      { lineNo++;
+        if (line.trim().length() > 0)
+        { trees++;
+          Compiler2 c = new Compiler2();
+          c.nospacelexicalanalysisText(line);
+          int sz = c.lexicals.size();
+          TokenStream toks = c.getTokenStream();
+
+          ASTTerm g1 = ASTTextParser.parseGeneralAST(toks,0,sz-1);
+          ASTTerm g2 = c.parseGeneralASTRecursive(0,sz-1);
+          if (g1 == null)
+          { generalFallbacks++; }
+          else if (!sameTerms(g1,g2))
+          { System.err.println("!! " + dumps + ":" + lineNo +
+              ": parseGeneralAST gives " + g1 + " instead of " + g2);
+            failures++;
+          }
+
+          ASTTerm a1 = ASTTextParser.parseAST(toks,0,sz-1);
+          if (a1 == null)
+          { astFallbacks++; }
+          else
+          { ASTTerm a2 = c.parseASTRecursive(0,sz-1);
+            if (!sameTerms(a1,a2))
+            { System.err.println("!! " + dumps + ":" + lineNo +
+                ": parseAST gives " + a1 + " instead of " + a2);
+              failures++;
+            }
+          }
+        }
+        line = br.readLine();
+      }
+      br.close();
+    }
+    catch (IOException _ex)
+    { System.err.println("!! Cannot read " + dumps);
+      return -1;
+    }
+
+    System.out.println(">>> " + trees + " ASTs in " + dumps + ", " +
+        failures + " differences. Recursive parser used for " +
+        generalFallbacks + " by parseGeneralAST, " +
+        astFallbacks + " by parseAST");
+    return failures;
+  }
+
+  public static void main(String[] args)
+  { String f = "cg/astdumptest.txt";
+    if (args.length > 0)
+    { f = args[0]; }
+    if (checkCorpus(new File(f)) != 0)
+    { System.exit(1); }
+  }
+
+  private static String[] tokens(TokenStream lexicals, int st, int en)
+  { String[] res = new String[en - st + 1];
+    for (int i = st; i <= en; i++)
+    { res[i - st] = lexicals.text(i); }
+    return res;
+  }
+
+
+  static class Frame
+  { String tag = null;
+    int start = 0;   // index of the opening (
+    Vector terms = new Vector();
+    int tokenCount = 0;
+    Frame owner; // the term Frame receiving subterms
+
+    Frame(String t, int s)
+    { tag = t;
+      start = s;
+      owner = this;
+    }
+
+    Frame(Frame container)
+    { // a ( which is a symbol
+      owner = container;
+    }
+  }
+}
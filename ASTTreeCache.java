@@ -0,0 +1,142 @@
+/******************************
+* Copyright (c) 2003--2025 Kevin Lano
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0
+*
+* SPDX-License-Identifier: EPL-2.0
+* *****************************/
+
+import java.util.Vector;
+import java.io.*;
+
+/* Directory of pre-parsed AST dump files. The trees of a
+   text dump  f  are stored in ASTBinaryFormat in the
+   cache directory, with the path, length and
+   modification time of  f. Later loads of an unchanged  f
+   read the binary form instead of lexing and parsing the
+   text. */
+
+public class ASTTreeCache
+{ File directory;
+
+  static boolean enabled = true;
+
+  public ASTTreeCache(File dir)
+  { directory = dir; }
+
+  public static void setEnabled(boolean b)
+  { enabled = b; }
+
+  public File cacheFile(File astFile) throws IOException
+  { String path = astFile.getCanonicalPath();
+    return new File(directory, astFile.getName() + "." +
+                    Integer.toHexString(path.hashCode()) + ".astb");
+  }
+
+  public Vector loadASTs(File astFile)
+  { // The top-level ASTTerms of the text dump astFile
+
+    File cache = null;
+    String stamp = null;
+
+    if (enabled)
+    { try
+      { cache = cacheFile(astFile);
+        stamp = stamp(astFile);
+        if (cache.exists())
+        { Vector res = readCache(cache,stamp);
+          if (res != null)
+          { return res; }
+        }
+      }
+      catch (IOException _ex)
+      { cache = null; }
+    }
+
+    Vector res = parseASTs(astFile);
+    if (cache != null && res != null)
+    { writeCache(cache,stamp,res); }
+    return res;
+  }
+
+  public static Vector parseASTs(File astFile)
+  { Vector res = new Vector();
+    try
+    { ASTDumpReader reader = new ASTDumpReader(astFile);
+      while (reader.hasNext())
+      { res.add(reader.next()); }
+      reader.close();
+    }
+    catch (IOException _ex)
+    { System.err.println("!! Cannot read ASTs from " + astFile + ": " + _ex);
+      return null;
+    }
+    return res;
+  }
+
+  private static String stamp(File astFile) throws IOException
+  { return astFile.getCanonicalPath() + " " + astFile.length() +
+           " " + astFile.lastModified();
+  }
+
+  public static Vector readCache(File cache, String stamp)
+  { // null if the cache is stale or unreadable
+
+    try
+    { DataInputStream in =
+        new DataInputStream(
+          new BufferedInputStream(
+            new FileInputStream(cache), 65536));
+      try
+      { String storedStamp = in.readUTF();
+        if (!stamp.equals(storedStamp))
+        { return null; }
+        return ASTBinaryFormat.readTerms(in,cache.length());
+      }
+      finally
+      { in.close(); }
+    }
+    catch (IOException _ex)
+    { System.err.println("! Ignoring AST cache " + cache + ": " + _ex);
+      return null;
+    }
+    catch (RuntimeException _ex)
+    { // eg., a corrupt tree which the term classes reject
+      System.err.println("! Ignoring AST cache " + cache + ": " + _ex);
+      return null;
+    }
+  }
+
+  public void writeCache(File cache, String stamp, Vector trees)
+  { if (!directory.exists())
+    { directory.mkdirs(); }
+
+    try
+    { DataOutputStream out =
+        new DataOutputStream(
+          new BufferedOutputStream(
+            new FileOutputStream(cache), 65536));
+      try
+      { out.writeUTF(stamp);
+        ASTBinaryFormat.writeTerms(trees,out);
+      }
+      finally
+      { out.close(); }
+    }
+    catch (IOException _ex)
+    { System.err.println("! Unable to write AST cache " + cache + ": " + _ex);
+      cache.delete();
+    }
+  }
+
+  public void clear()
+  { File[] files = directory.listFiles();
+    if (files == null)
+    { return; }
+    for (int i = 0; i < files.length; i++)
+    { if (files[i].getName().endsWith(".astb"))
+      { files[i].delete(); }
+    }
+  }
+}
@@ -136,7 +136,7 @@ public class Association extends ModelElement
   }
 
   public void setName(String nme)
-  { name = nme; } 
+  { super.setName(nme); } 
 
   public void setEntity1(Entity e1)
   { entity1 = e1; } 
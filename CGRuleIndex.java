@@ -0,0 +1,218 @@
+/******************************
+* Copyright (c) 2003--2025 Kevin Lano
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0
+*
+* SPDX-License-Identifier: EPL-2.0
+* *****************************/
+
+import java.util.Vector;
+
+/* Discrimination tree over the LHS tokens of a CSTL rule
+   category. Rules are indexed by arity and by the literal
+   tokens at fixed positions (up to the first _* or _+),
+   so that ASTCompositeTerm.cgRules only attempts rules
+   which can structurally match a term. Candidates are
+   returned in their original order, so first-match
+   semantics are unchanged.
+
+   Indexes are held by the identity of their rule Vector,
+   weakly, so that the index of a CGSpec which is no longer
+   used is released with it. An index keeps the rules it
+   was compiled from, not the Vector, and is compiled again
+   if the Vector no longer has the same rules in the same
+   order. If a rule itself is changed, invalidate(rs). */
+
+public class CGRuleIndex
+{ static java.util.Map indexes = new java.util.HashMap();
+    // RulesKey --> CGRuleIndex
+  static java.lang.ref.ReferenceQueue released =
+    new java.lang.ref.ReferenceQueue();
+
+  Object[] rules; // the CGRules, as compiled
+
+  java.util.Map fixedArity = new java.util.HashMap();
+    // Integer --> DiscriminationNode, for rules without _*, _+
+
+  DiscriminationNode variadic = new DiscriminationNode();
+    // prefixes of rules with _* or _+
+
+  int[] minArity; // for each rule, the least number of terms matched
+
+  public CGRuleIndex(Vector rs)
+  { compile(rs); }
+
+  public static synchronized CGRuleIndex getIndex(Vector rs)
+  { removeReleased();
+
+    RulesKey key = new RulesKey(rs,null);
+    CGRuleIndex res = (CGRuleIndex) indexes.get(key);
+    if (res == null)
+    { res = new CGRuleIndex(rs);
+      indexes.put(new RulesKey(rs,released),res);
+    }
+    else if (!res.isFor(rs))
+    { res.compile(rs); } // the rules of the category changed
+    return res;
+  }
+
+  public static synchronized void invalidate(Vector rs)
+  { indexes.remove(new RulesKey(rs,null)); }
+
+  public static synchronized void clear()
+  { indexes.clear();
+    removeReleased();
+  }
+
+  private static void removeReleased()
+  { java.lang.ref.Reference ref = released.poll();
+    while (ref != null)
+    { indexes.remove(ref);
+      ref = released.poll();
+    }
+  }
+
+  private boolean isFor(Vector rs)
+  { // rs still has the compiled rules, in order
+
+    if (rs.size() != rules.length)
+    { return false; }
+    for (int i = 0; i < rules.length; i++)
+    { if (rs.get(i) != rules[i])
+      { return false; }
+    }
+    return true;
+  }
+
+  private void compile(Vector rs)
+  { fixedArity = new java.util.HashMap();
+    variadic = new DiscriminationNode();
+    rules = rs.toArray();
+    int compiledSize = rules.length;
+    minArity = new int[compiledSize];
+
+    for (int i = 0; i < compiledSize; i++)
+    { CGRule r = (CGRule) rules[i];
+      Vector tokens = r.lhsTokens;
+      Vector vars = r.getVariables();
+      minArity[i] = tokens.size();
+
+      if (vars.contains("_*") || vars.contains("_+"))
+      { DiscriminationNode node = variadic;
+        for (int j = 0; j < tokens.size(); j++)
+        { String tok = (String) tokens.get(j);
+          if ("_*".equals(tok) || "_+".equals(tok))
+          { break; }
+          node = node.extend(tok,vars.contains(tok));
+        }
+        node.ruleIndexes.add(Integer.valueOf(i));
+      }
+      else
+      { Integer n = Integer.valueOf(tokens.size());
+        DiscriminationNode node =
+          (DiscriminationNode) fixedArity.get(n);
+        if (node == null)
+        { node = new DiscriminationNode();
+          fixedArity.put(n,node);
+        }
+        for (int j = 0; j < tokens.size(); j++)
+        { String tok = (String) tokens.get(j);
+          node = node.extend(tok,vars.contains(tok));
+        }
+        node.ruleIndexes.add(Integer.valueOf(i));
+      }
+    }
+  }
+
+  public Vector candidateRules(String[] lits)
+  { // The rules, in order, which could match a term
+    // whose subterms have literal forms lits.
+
+    int n = lits.length;
+    java.util.TreeSet found = new java.util.TreeSet();
+
+    DiscriminationNode fixed =
+      (DiscriminationNode) fixedArity.get(Integer.valueOf(n));
+    if (fixed != null)
+    { fixed.collect(lits,0,found,true); }
+    variadic.collect(lits,0,found,false);
+
+    Vector res = new Vector();
+    java.util.Iterator iter = found.iterator();
+    while (iter.hasNext())
+    { int i = ((Integer) iter.next()).intValue();
+      if (minArity[i] <= n)
+      { res.add(rules[i]); }
+    }
+    return res;
+  }
+
+
+  static class RulesKey extends java.lang.ref.WeakReference
+  { // Weak key of a rule Vector, by identity. A removed
+    // key is only equal to itself.
+
+    final int hash;
+
+    RulesKey(Vector rs, java.lang.ref.ReferenceQueue q)
+    { super(rs,q);
+      hash = System.identityHashCode(rs);
+    }
+
+    public boolean equals(Object obj)
+    { if (obj == this)
+      { return true; }
+      if (!(obj instanceof RulesKey))
+      { return false; }
+      Object rs = get();
+      return rs != null && rs == ((RulesKey) obj).get();
+    }
+
+    public int hashCode()
+    { return hash; }
+  }
+
+  static class DiscriminationNode
+  { java.util.Map literalChildren = new java.util.HashMap();
+      // String --> DiscriminationNode
+    DiscriminationNode variableChild = null;
+    Vector ruleIndexes = new Vector(); // rules ending here
+
+    DiscriminationNode extend(String tok, boolean isVariable)
+    { if (isVariable)
+      { if (variableChild == null)
+        { variableChild = new DiscriminationNode(); }
+        return variableChild;
+      }
+
+      DiscriminationNode child =
+        (DiscriminationNode) literalChildren.get(tok);
+      if (child == null)
+      { child = new DiscriminationNode();
+        literalChildren.put(tok,child);
+      }
+      return child;
+    }
+
+    void collect(String[] lits, int pos,
+                 java.util.Set found, boolean exact)
+    { // exact: all of lits must be consumed, otherwise
+      // any prefix path of lits is a candidate.
+
+      if (!exact || pos == lits.length)
+      { found.addAll(ruleIndexes); }
+
+      if (pos >= lits.length)
+      { return; }
+
+      DiscriminationNode child =
+        (DiscriminationNode) literalChildren.get(lits[pos]);
+      if (child != null)
+      { child.collect(lits,pos+1,found,exact); }
+
+      if (variableChild != null)
+      { variableChild.collect(lits,pos+1,found,exact); }
+    }
+  }
+}
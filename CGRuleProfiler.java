@@ -0,0 +1,240 @@
+/******************************
+* Copyright (c) 2003--2025 Kevin Lano
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0
+*
+* SPDX-License-Identifier: EPL-2.0
+* *****************************/
+
+import java.util.Vector;
+import java.io.*;
+
+/* Instrumentation of the CSTL engine: per-CGRule counts
+   of match attempts, structural rejects, condition
+   failures and applications, with cumulative self time
+   (time of the term translations where the rule was
+   applied, excluding nested translations), and cg_cache
+   hits per category. Disabled by default; the trace
+   flag enables the console messages of cgRules. */
+
+public class CGRuleProfiler
+{ static boolean enabled = false;
+  static boolean trace = false;
+
+  static java.util.Map ruleStats = new java.util.IdentityHashMap();
+    // CGRule --> RuleStats
+  static Vector ruleOrder = new Vector(); // RuleStats, in order met
+
+  static java.util.Map cacheHits = new java.util.TreeMap();
+    // category --> Integer
+
+  static ThreadLocal frames = new ThreadLocal();
+    // Vector of Frame, for the cg calls in progress
+
+  public static void setEnabled(boolean b)
+  { enabled = b; }
+
+  public static void setTrace(boolean b)
+  { trace = b; }
+
+  public static synchronized void reset()
+  { ruleStats = new java.util.IdentityHashMap();
+    ruleOrder = new Vector();
+    cacheHits = new java.util.TreeMap();
+  }
+
+  private static RuleStats getStats(String category, CGRule r)
+  { RuleStats res = (RuleStats) ruleStats.get(r);
+    if (res == null)
+    { res = new RuleStats(category, r + "");
+      ruleStats.put(r,res);
+      ruleOrder.add(res);
+    }
+    return res;
+  }
+
+  public static synchronized void attempt(String category, CGRule r)
+  { getStats(category,r).attempts++; }
+
+  public static synchronized void structuralReject(String category, CGRule r)
+  { getStats(category,r).structuralRejects++; }
+
+  public static synchronized void conditionFailure(String category, CGRule r)
+  { getStats(category,r).conditionFailures++; }
+
+  public static void applied(String category, CGRule r)
+  { synchronized (CGRuleProfiler.class)
+    { getStats(category,r).applications++; }
+
+    Vector stack = (Vector) frames.get();
+    if (stack != null && stack.size() > 0)
+    { Frame top = (Frame) stack.get(stack.size() - 1);
+      if (top.rule == null)
+      { top.category = category;
+        top.rule = r;
+      }
+    }
+  }
+
+  public static synchronized void cacheHit(String category)
+  { Integer n = (Integer) cacheHits.get(category);
+    if (n == null)
+    { cacheHits.put(category, new Integer(1)); }
+    else
+    { cacheHits.put(category, new Integer(n.intValue() + 1)); }
+  }
+
+  public static void enter()
+  { // Start of the translation of a term
+
+    Vector stack = (Vector) frames.get();
+    if (stack == null)
+    { stack = new Vector();
+      frames.set(stack);
+    }
+    stack.add(new Frame(System.nanoTime()));
+  }
+
+  public static void exit()
+  { // End of the translation of a term: its time less
+    // that of nested translations is the self time of
+    // the (first) rule applied to it.
+
+    Vector stack = (Vector) frames.get();
+    if (stack == null || stack.size() == 0)
+    { return; }
+
+    Frame top = (Frame) stack.remove(stack.size() - 1);
+    long elapsed = System.nanoTime() - top.start;
+
+    if (top.rule != null)
+    { synchronized (CGRuleProfiler.class)
+      { getStats(top.category,top.rule).selfTime +=
+          elapsed - top.childTime;
+      }
+    }
+
+    if (stack.size() > 0)
+    { Frame parent = (Frame) stack.get(stack.size() - 1);
+      parent.childTime += elapsed;
+    }
+  }
+
+  public static synchronized void dumpCSV(PrintWriter out)
+  { out.println("category,rule,attempts,structuralRejects,conditionFailures,applications,selfTimeMs");
+    for (int i = 0; i < ruleOrder.size(); i++)
+    { RuleStats st = (RuleStats) ruleOrder.get(i);
+      out.println(csvString(st.category) + "," +
+                  csvString(st.rule) + "," +
+                  st.attempts + "," + st.structuralRejects + "," +
+                  st.conditionFailures + "," + st.applications + "," +
+                  (st.selfTime / 1000000.0));
+    }
+    out.println();
+    out.println("category,cacheHits");
+    java.util.Iterator iter = cacheHits.keySet().iterator();
+    while (iter.hasNext())
+    { String cat = (String) iter.next();
+      out.println(csvString(cat) + "," + cacheHits.get(cat));
+    }
+    out.flush();
+  }
+
+  public static synchronized void dumpJSON(PrintWriter out)
+  { out.println("{ \"rules\" : [");
+    for (int i = 0; i < ruleOrder.size(); i++)
+    { RuleStats st = (RuleStats) ruleOrder.get(i);
+      out.print("  { \"category\" : " + jsonString(st.category) +
+                ", \"rule\" : " + jsonString(st.rule) +
+                ", \"attempts\" : " + st.attempts +
+                ", \"structuralRejects\" : " + st.structuralRejects +
+                ", \"conditionFailures\" : " + st.conditionFailures +
+                ", \"applications\" : " + st.applications +
+                ", \"selfTimeMs\" : " + (st.selfTime / 1000000.0) + " }");
+      if (i < ruleOrder.size() - 1)
+      { out.println(","); }
+      else
+      { out.println(); }
+    }
+    out.println("  ],");
+    out.print("  \"cacheHits\" : { ");
+    java.util.Iterator iter = cacheHits.keySet().iterator();
+    while (iter.hasNext())
+    { String cat = (String) iter.next();
+      out.print(jsonString(cat) + " : " + cacheHits.get(cat));
+      if (iter.hasNext())
+      { out.print(", "); }
+    }
+    out.println(" }");
+    out.println("}");
+    out.flush();
+  }
+
+  public static void writeReport(String filename)
+  { // JSON if filename ends with .json, otherwise CSV
+
+    try
+    { PrintWriter out = new PrintWriter(
+                          new BufferedWriter(
+                            new FileWriter(filename)));
+      if (filename.endsWith(".json"))
+      { dumpJSON(out); }
+      else
+      { dumpCSV(out); }
+      out.close();
+    }
+    catch (IOException _ex)
+    { System.err.println("!! Unable to write profile to " + filename); }
+  }
+
+  private static String csvString(String s)
+  { return "\"" + s.replace("\"", "\"\"") + "\""; }
+
+  private static String jsonString(String s)
+  { StringBuffer sb = new StringBuffer("\"");
+    for (int i = 0; i < s.length(); i++)
+    { char c = s.charAt(i);
+      if (c == '"' || c == '\\')
+      { sb.append("\\" + c); }
+      else if (c == '\n')
+      { sb.append("\\n"); }
+      else if (c == '\r')
+      { sb.append("\\r"); }
+      else if (c == '\t')
+      { sb.append("\\t"); }
+      else if (c < ' ')
+      { sb.append(" "); }
+      else
+      { sb.append(c); }
+    }
+    sb.append("\"");
+    return sb.toString();
+  }
+
+
+  static class RuleStats
+  { String category;
+    String rule;
+    long attempts = 0;
+    long structuralRejects = 0;
+    long conditionFailures = 0;
+    long applications = 0;
+    long selfTime = 0; // nanoseconds
+
+    RuleStats(String cat, String r)
+    { category = cat;
+      rule = r;
+    }
+  }
+
+  static class Frame
+  { long start;
+    long childTime = 0;
+    String category = null;
+    CGRule rule = null;
+
+    Frame(long st)
+    { start = st; }
+  }
+}
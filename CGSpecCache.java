@@ -0,0 +1,393 @@
+/******************************
+* Copyright (c) 2003--2025 Kevin Lano
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0
+*
+* SPDX-License-Identifier: EPL-2.0
+* *****************************/
+
+import java.util.Vector;
+import java.io.*;
+
+/* Binary cache of loaded CSTL specifications. The rules
+   of  cg/f.cstl  are stored in  cg/f.cstl.cstb  as their
+   parsed parts: for each category, the lhs, rhs, variables
+   and LHS tokens of each rule, and the tokens of its
+   conditions and actions. The file starts with a format
+   version and the path, length and modification time of
+   f.cstl; later loads of an unchanged f.cstl build the
+   CGRules from these parts instead of lexing the rules.
+
+     cache     ::= MAGIC FORMAT_VERSION stamp
+                   varint n  category^n
+     category  ::= name  varint m  rule^m
+     rule      ::= lhs rhs  strings(variables)  strings(tokens)
+                   strings(conditions)  strings(actions)
+     strings   ::= varint (k+1) string^k,  0 for none
+
+   Only specifications which consist of category sections
+   ( Name::  followed by rules  lhs |-->rhs ) are cached,
+   and only if the rules built by CSTL.loadCSTL have the
+   same parts. Other files are always loaded by CSTL. */
+
+public class CGSpecCache
+{ static final int MAGIC = 0x43535442; // "CSTB"
+  static final int FORMAT_VERSION = 1;
+
+  static boolean enabled = true;
+
+  public static void setEnabled(boolean b)
+  { enabled = b; }
+
+  public static File cacheFile(File cstlFile)
+  { return new File(cstlFile.getPath() + ".cstb"); }
+
+  public static CGSpec loadCSTL(File file, Vector entities, Vector types)
+  { if (!enabled)
+    { return CSTL.loadCSTL(file,entities,types); }
+
+    File cache = cacheFile(file);
+    String stamp = null;
+    try
+    { stamp = stamp(file);
+      if (cache.exists())
+      { Vector cats = readCache(cache,stamp);
+        if (cats != null)
+        { return buildSpec(cats,entities,types); }
+      }
+    }
+    catch (IOException _ex)
+    { stamp = null; }
+
+    CGSpec res = CSTL.loadCSTL(file,entities,types);
+    if (res != null && stamp != null)
+    { Vector cats = readCategories(file);
+      if (cats != null && ruleParts(cats,res) != null)
+      { writeCache(cache,stamp,cats); }
+    }
+    return res;
+  }
+
+  private static String stamp(File cstlFile) throws IOException
+  { return cstlFile.getCanonicalPath() + " " + cstlFile.length() +
+           " " + cstlFile.lastModified();
+  }
+
+  public static CGSpec buildSpec(Vector cats, Vector entities,
+                                 Vector types)
+  { CGSpec res = new CGSpec(entities,types);
+    for (int i = 0; i < cats.size(); i++)
+    { Category cat = (Category) cats.get(i);
+      for (int j = 0; j < cat.rules.size(); j++)
+      { RuleParts rp = (RuleParts) cat.rules.get(j);
+        res.addCategoryRule(cat.name, rp.toRule());
+      }
+    }
+    return res;
+  }
+
+
+  /* The parts of the rules of a CSTL file, split as by
+     Compiler2.parse_TextCodegenerationrule */
+
+  public static Vector readCategories(File cstlFile)
+  { // Vector of Category, or null if the file has other
+    // sections or lines than category rules
+
+    Vector res = new Vector();
+    Category current = null;
+    try
+    { BufferedReader br = new BufferedReader(new FileReader(cstlFile));
+      try
+      { String line = br.readLine();
+        while (line != null)
+        { String ln = line.trim();
+          if (ln.length() == 0)
+          { }
+          else if (ln.endsWith("::") && ln.indexOf("|-->") < 0)
+          { String nme = ln.substring(0,ln.length()-2);
+            if (!isCategoryName(nme))
+            { return null; }
+            current = new Category(nme);
+            res.add(current);
+          }
+          else if (current != null && ln.indexOf("|-->") > 0)
+          { current.rules.add(splitRule(ln)); }
+          else
+          { return null; }
+          line = br.readLine();
+        }
+      }
+      finally
+      { br.close(); }
+    }
+    catch (IOException _ex)
+    { return null; }
+    return res;
+  }
+
+  private static boolean isCategoryName(String str)
+  { if (str.length() == 0 ||
+        !Character.isJavaIdentifierStart(str.charAt(0)))
+    { return false; }
+    for (int i = 1; i < str.length(); i++)
+    { if (!Character.isJavaIdentifierPart(str.charAt(i)))
+      { return false; }
+    }
+    return true;
+  }
+
+  static RuleParts splitRule(String rule)
+  { // lhs |-->rhs, rhs <when> conds, rhs <action> acts, or
+    // rhs <when> conds <action> acts
+
+    RuleParts res = new RuleParts();
+    int ind = rule.indexOf("|-->");
+    res.lhs = rule.substring(0,ind);
+    String rhs = rule.substring(ind+4);
+
+    Compiler2 c = new Compiler2();
+    c.nospacelexicalanalysisAST(res.lhs);
+    res.tokens = new Vector();
+    res.variables = new Vector();
+    for (int k = 0; k < c.lexicals.size(); k++)
+    { String lex = c.lexicalText(k);
+      if (CSTL.isCSTLVariable(lex))
+      { res.variables.add(lex); }
+      res.tokens.add(lex);
+    }
+
+    int when = rhs.indexOf("<when>");
+    int action = rhs.indexOf("<action>");
+    if (when >= 0 && (action < 0 || when < action))
+    { res.rhs = rhs.substring(0,when);
+      int act = rhs.indexOf("<action>", when+6);
+      if (act >= 0)
+      { res.conditions = lexicals(rhs.substring(when+6,act));
+        res.actions = lexicals(rhs.substring(act+8));
+      }
+      else
+      { res.conditions = lexicals(rhs.substring(when+6)); }
+    }
+    else if (action >= 0)
+    { res.rhs = rhs.substring(0,action);
+      res.actions = lexicals(rhs.substring(action+8));
+    }
+    else
+    { res.rhs = rhs; }
+    return res;
+  }
+
+  private static Vector lexicals(String str)
+  { Compiler2 c = new Compiler2();
+    c.nospacelexicalanalysis(str);
+    Vector res = new Vector();
+    for (int k = 0; k < c.lexicals.size(); k++)
+    { res.add(c.lexicalText(k)); }
+    return res;
+  }
+
+  public static java.util.Map ruleParts(Vector cats, CGSpec spec)
+  { // The parts in cats of each CGRule of spec, or null
+    // if the rules built from cats are not those of spec
+
+    java.util.Map res = new java.util.IdentityHashMap();
+      // CGRule --> RuleParts
+    java.util.Map counts = new java.util.HashMap();
+      // category name --> Integer, rules so far
+    for (int i = 0; i < cats.size(); i++)
+    { Category cat = (Category) cats.get(i);
+      Vector rules = spec.getRulesForCategory(cat.name);
+      Integer done = (Integer) counts.get(cat.name);
+      int k = 0;
+      if (done != null)
+      { k = done.intValue(); }
+
+      for (int j = 0; j < cat.rules.size(); j++, k++)
+      { if (rules == null || k >= rules.size())
+        { return null; }
+        RuleParts rp = (RuleParts) cat.rules.get(j);
+        CGRule r = (CGRule) rules.get(k);
+        if (!rp.sameAs(r))
+        { return null; }
+        res.put(r,rp);
+      }
+      counts.put(cat.name, Integer.valueOf(k));
+    }
+
+    java.util.Iterator iter = counts.keySet().iterator();
+    while (iter.hasNext())
+    { String nme = (String) iter.next();
+      int k = ((Integer) counts.get(nme)).intValue();
+      if (spec.getRulesForCategory(nme).size() != k)
+      { return null; }
+    }
+    return res;
+  }
+
+
+  /* Reading and writing */
+
+  public static Vector readCache(File cache, String stamp)
+  { // null if the cache is stale or unreadable
+
+    try
+    { DataInputStream in =
+        new DataInputStream(
+          new BufferedInputStream(
+            new FileInputStream(cache)));
+      try
+      { long limit = cache.length();
+        if (in.readInt() != MAGIC ||
+            in.readInt() != FORMAT_VERSION ||
+            !stamp.equals(in.readUTF()))
+        { return null; }
+
+        int n = readCount(in,limit);
+        Vector res = new Vector(n);
+        for (int i = 0; i < n; i++)
+        { Category cat = new Category(in.readUTF());
+          int m = readCount(in,limit);
+          for (int j = 0; j < m; j++)
+          { RuleParts rp = new RuleParts();
+            rp.lhs = in.readUTF();
+            rp.rhs = in.readUTF();
+            rp.variables = readStrings(in,limit);
+            rp.tokens = readStrings(in,limit);
+            rp.conditions = readStrings(in,limit);
+            rp.actions = readStrings(in,limit);
+            if (rp.variables == null || rp.tokens == null)
+            { throw new IOException("Missing rule tokens"); }
+            cat.rules.add(rp);
+          }
+          res.add(cat);
+        }
+        return res;
+      }
+      finally
+      { in.close(); }
+    }
+    catch (IOException _ex)
+    { System.err.println("! Ignoring CSTL cache " + cache + ": " + _ex);
+      return null;
+    }
+    catch (RuntimeException _ex)
+    { System.err.println("! Ignoring CSTL cache " + cache + ": " + _ex);
+      return null;
+    }
+  }
+
+  public static void writeCache(File cache, String stamp, Vector cats)
+  { try
+    { DataOutputStream out =
+        new DataOutputStream(
+          new BufferedOutputStream(
+            new FileOutputStream(cache)));
+      try
+      { out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeUTF(stamp);
+        ASTBinaryFormat.writeVarint(cats.size(), out);
+        for (int i = 0; i < cats.size(); i++)
+        { Category cat = (Category) cats.get(i);
+          out.writeUTF(cat.name);
+          ASTBinaryFormat.writeVarint(cat.rules.size(), out);
+          for (int j = 0; j < cat.rules.size(); j++)
+          { RuleParts rp = (RuleParts) cat.rules.get(j);
+            out.writeUTF(rp.lhs);
+            out.writeUTF(rp.rhs);
+            writeStrings(rp.variables, out);
+            writeStrings(rp.tokens, out);
+            writeStrings(rp.conditions, out);
+            writeStrings(rp.actions, out);
+          }
+        }
+      }
+      finally
+      { out.close(); }
+    }
+    catch (IOException _ex)
+    { // eg., a rule longer than 64K; a partial cache
+      // must not be left behind.
+      System.err.println("! Unable to write CSTL cache " + cache + ": " + _ex);
+      cache.delete();
+    }
+  }
+
+  private static void writeStrings(Vector strs, DataOutput out)
+    throws IOException
+  { if (strs == null)
+    { ASTBinaryFormat.writeVarint(0, out);
+      return;
+    }
+    ASTBinaryFormat.writeVarint(strs.size() + 1, out);
+    for (int i = 0; i < strs.size(); i++)
+    { out.writeUTF((String) strs.get(i)); }
+  }
+
+  private static Vector readStrings(DataInput in, long limit)
+    throws IOException
+  { int k = readCount(in,limit);
+    if (k == 0)
+    { return null; }
+    Vector res = new Vector(k - 1);
+    for (int i = 0; i < k - 1; i++)
+    { res.add(in.readUTF()); }
+    return res;
+  }
+
+  private static int readCount(DataInput in, long limit)
+    throws IOException
+  { // Each element takes at least one byte of the file
+
+    int n = ASTBinaryFormat.readVarint(in);
+    if (n < 0 || n > limit)
+    { throw new IOException("Invalid count " + n); }
+    return n;
+  }
+
+
+  static class Category
+  { String name;
+    Vector rules = new Vector(); // of RuleParts
+
+    Category(String nme)
+    { name = nme; }
+  }
+
+  static class RuleParts
+  { String lhs;
+    String rhs;
+    Vector variables;
+    Vector tokens;
+    Vector conditions = null; // tokens, if <when>
+    Vector actions = null;    // tokens, if <action>
+
+    CGRule toRule()
+    { Vector conds = new Vector();
+      if (conditions != null)
+      { conds = Compiler2.conditionsOf(conditions); }
+      CGRule r = new CGRule(lhs,rhs,new Vector(variables),conds);
+      r.setLHSTokens(new Vector(tokens));
+      if (actions != null)
+      { r.setActions(Compiler2.ruleActionsOf(actions)); }
+      return r;
+    }
+
+    boolean sameAs(CGRule r)
+    { int nconds = 0;
+      if (conditions != null)
+      { nconds = Compiler2.conditionsOf(conditions).size(); }
+      int nacts = 0;
+      if (actions != null)
+      { nacts = Compiler2.ruleActionsOf(actions).size(); }
+
+      return rhs.equals(r.rhs) &&
+             tokens.equals(r.lhsTokens) &&
+             variables.equals(r.variables) &&
+             r.conditions != null && r.conditions.size() == nconds &&
+             (r.actions == null ? nacts == 0 : r.actions.size() == nacts);
+    }
+  }
+}
@@ -0,0 +1,359 @@
+/******************************
+* Copyright (c) 2003--2025 Kevin Lano
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0
+*
+* SPDX-License-Identifier: EPL-2.0
+* *****************************/
+
+import java.util.Vector;
+
+/* Superclass of the Java translators generated from
+   CSTL specifications by CSTLCompiler. The subclass
+   has one method per category, with the LHS matching
+   of each rule specialised into direct tests on the
+   arity and literal forms of the subterms. Conditions
+   _i S  and  _i not S  are direct calls of the
+   CGCondition of the rule on the matched term. The RHS
+   of each rule without actions is specialised into a
+   concatenation of its text, the translations of its
+   arguments and, for metafeatures  _i`F  which name a
+   category F of the specification, the translation of
+   the term by the compiled rules of F.
+
+   Other conditions and RHS use the CGRule objects of
+   the CGSpec: they depend upon the metafeatures, CGSpec
+   functions and types of CGRule, which would otherwise
+   be duplicated in the generated code. init checks each
+   compiled RHS against CGRule.applyRule, and
+   checkEquivalence compares the output with
+   ASTTerm.cg(cgs) for a set of terms. */
+
+public abstract class CSTLCompiledSpec
+{ CGSpec cgs = null;
+  Vector[] categoryRules; // the rules of each category
+  boolean[][] rhsCompiled; // compiledRhs is used for rule
+  java.util.Map categoryIndex = new java.util.HashMap();
+    // String --> Integer
+  java.net.URLClassLoader loader = null;
+    // which loaded this class, if made by CSTLCompiler
+
+  public abstract String[] getCategories();
+
+  public abstract int[] getRuleCounts();
+
+  protected abstract String cgCategory(int cat,
+                       ASTCompositeTerm t, String[] lits);
+    // null if no rule of category cat applies to t
+
+  protected abstract String compiledRhs(int cat, int ri,
+                                        Vector args, Vector eargs);
+    // null if the RHS of rule ri of cat is not compiled
+
+  public boolean init(CGSpec spec)
+  { // false if spec does not have the rules from which
+    // this translator was generated
+
+    cgs = spec;
+    String[] cats = getCategories();
+    int[] counts = getRuleCounts();
+    categoryRules = new Vector[cats.length];
+    rhsCompiled = new boolean[cats.length][];
+
+    for (int i = 0; i < cats.length; i++)
+    { Vector rules = cgs.getRulesForCategory(cats[i]);
+      int n = 0;
+      if (rules != null)
+      { n = rules.size(); }
+      if (n != counts[i])
+      { System.err.println("!! Category " + cats[i] + " has " + n +
+                           " rules, compiled translator expects " + counts[i]);
+        return false;
+      }
+      categoryRules[i] = rules;
+      categoryIndex.put(cats[i], Integer.valueOf(i));
+
+      rhsCompiled[i] = new boolean[n];
+      for (int ri = 0; ri < n; ri++)
+      { rhsCompiled[i][ri] = checkRhs(i,ri); }
+    }
+    return true;
+  }
+
+  private boolean checkRhs(int cat, int ri)
+  { // The compiled RHS of rule ri of cat gives the same
+    // text as CGRule.applyRule for distinct arguments.
+    // A RHS with metafeatures is checked in copies of
+    // the translation state.
+
+    CGRule r = (CGRule) categoryRules[cat].get(ri);
+    int nvars = r.getVariables().size();
+    Vector args = new Vector();
+    Vector eargs = new Vector();
+    for (int x = 0; x < nvars; x++)
+    { String arg = "\u0001" + x + "\u0002";
+      args.add(arg);
+      eargs.add(new ASTSymbolTerm(arg));
+    }
+
+    boolean calls = r.rhs != null && r.rhs.indexOf('`') >= 0;
+    try
+    { String res = (String) inSnapshot(calls,true,cat,ri,args,eargs);
+      return res != null &&
+             res.equals(inSnapshot(calls,false,cat,ri,args,eargs));
+    }
+    catch (Exception _ex)
+    { return false; }
+  }
+
+  private Object inSnapshot(boolean snap, boolean compiled, int cat,
+                            int ri, Vector args, Vector eargs)
+  { TranslationContext old = null;
+    if (snap)
+    { old = TranslationContext.bind(snapshot()); }
+    try
+    { if (compiled)
+      { return compiledRhs(cat,ri,args,eargs); }
+      CGRule r = (CGRule) categoryRules[cat].get(ri);
+      return r.applyRule(args,eargs,cgs);
+    }
+    finally
+    { if (snap)
+      { TranslationContext.restore(old); }
+    }
+  }
+
+  public void close()
+  { // Releases the class loader of this translator
+
+    if (loader != null)
+    { try
+      { loader.close(); }
+      catch (java.io.IOException _ex)
+      { System.err.println("! Cannot close loader: " + _ex); }
+      loader = null;
+    }
+  }
+
+  public CGSpec getSpec()
+  { return cgs; }
+
+  public String cg(ASTTerm trm)
+  { if (trm instanceof ASTCompositeTerm)
+    { return cgComposite((ASTCompositeTerm) trm); }
+    return trm.cg(cgs);
+  }
+
+  public void cg(ASTTerm trm, Appendable out)
+    throws java.io.IOException
+  { out.append(cg(trm)); }
+
+  private String cgComposite(ASTCompositeTerm t)
+  { String cachedValue = ASTTerm.getCg_cache(cgs,t);
+    if (cachedValue != null)
+    { return cachedValue; }
+
+    long effects = ASTTerm.ctx().effectVersion();
+    String tag = t.getTag();
+    Integer cat = (Integer) categoryIndex.get(tag);
+    if (cat == null)
+    { return t.cg(cgs); } // not compiled
+
+    Vector terms = t.getTerms();
+    String[] lits = new String[terms.size()];
+    for (int i = 0; i < lits.length; i++)
+    { ASTTerm tm = (ASTTerm) terms.get(i);
+      lits[i] = tm.literalForm();
+    }
+
+    String res = cgCategory(cat.intValue(),t,lits);
+    if (res == null)
+    { // No rule applies directly; the interpreter
+      // handles the default _0 |-->_0 rule.
+      res = t.cgRules(cgs,categoryRules[cat.intValue()]);
+    }
+    ASTTerm.putCg_cache(cgs,t,res,effects);
+    return res;
+  }
+
+  protected Vector cgArguments(Vector eargs)
+  { // The translations of the matched terms or lists of
+    // terms eargs
+
+    Vector args = new Vector();
+    for (int p = 0; p < eargs.size(); p++)
+    { Object obj = eargs.get(p);
+      if (obj instanceof ASTTerm)
+      { args.add(cg((ASTTerm) obj)); }
+      else if (obj instanceof Vector)
+      { Vector vterms = (Vector) obj;
+        StringBuffer textp = new StringBuffer();
+        for (int q = 0; q < vterms.size(); q++)
+        { ASTTerm vterm = (ASTTerm) vterms.get(q);
+          textp.append(cg(vterm));
+        }
+        args.add(textp.toString());
+      }
+    }
+    return args;
+  }
+
+  protected CGCondition condition(int cat, int ri, int k)
+  { CGRule r = (CGRule) categoryRules[cat].get(ri);
+    return (CGCondition) r.conditions.get(k);
+  }
+
+  protected boolean conditionsHold(int cat, int ri, Vector args,
+                                   Vector eargs)
+  { CGRule r = (CGRule) categoryRules[cat].get(ri);
+    Vector ents = new Vector();
+    return r.satisfiesAllConditions(args,eargs,ents,cgs);
+  }
+
+  protected String applyRhs(int cat, int ri, Vector args,
+                            Vector eargs)
+  { // The RHS of rule ri of cat for the arguments args
+    // of the matched terms eargs, once its conditions hold
+
+    if (rhsCompiled[cat][ri] && !hasVariables(args))
+    { String res = compiledRhs(cat,ri,args,eargs);
+      if (res != null)
+      { return res; }
+    }
+    CGRule r = (CGRule) categoryRules[cat].get(ri);
+    return r.applyRule(args,eargs,cgs);
+  }
+
+  protected String applyRule(int cat, int ri, Vector eargs)
+  { // Apply rule ri of cat to the matched terms eargs,
+    // or return null if its conditions fail.
+
+    Vector args = cgArguments(eargs);
+    if (!conditionsHold(cat,ri,args,eargs))
+    { return null; }
+    return applyRhs(cat,ri,args,eargs);
+  }
+
+  protected String cgWith(int cat, Object obj)
+  { // The metafeature  _i`F  for category F, the
+    // translation of the term obj by the rules of F
+
+    ASTTerm t = (ASTTerm) obj;
+    if (t instanceof ASTCompositeTerm)
+    { ASTCompositeTerm ct = (ASTCompositeTerm) t;
+      Vector terms = ct.getTerms();
+      String[] lits = new String[terms.size()];
+      for (int i = 0; i < lits.length; i++)
+      { lits[i] = ((ASTTerm) terms.get(i)).literalForm(); }
+      String res = cgCategory(cat,ct,lits);
+      if (res != null)
+      { return res; }
+    }
+    return t.cgRules(cgs,categoryRules[cat]);
+  }
+
+  private static boolean hasVariables(Vector args)
+  { // CGRule.applyRule substitutes for the variables one
+    // at a time, so also inside the text of earlier
+    // arguments which contain _1, _* etc.
+
+    for (int i = 0; i < args.size(); i++)
+    { if (hasVariables((String) args.get(i)))
+      { return true; }
+    }
+    return false;
+  }
+
+  protected static boolean hasVariables(String arg)
+  { // The compiled RHS is not used for metafeature
+    // values with variables, as for arguments
+
+    int ind = arg.indexOf('_');
+    while (ind >= 0 && ind + 1 < arg.length())
+    { if ("0123456789*+".indexOf(arg.charAt(ind+1)) >= 0)
+      { return true; }
+      ind = arg.indexOf('_', ind+1);
+    }
+    return false;
+  }
+
+  protected String applyListRule(int cat, int ri,
+                     ASTCompositeTerm t, String[] lits)
+  { // Rules with _* or _+ use the general matcher
+
+    CGRule r = (CGRule) categoryRules[cat].get(ri);
+    Vector eargs = t.matchRule(r,lits);
+    if (eargs == null)
+    { return null; }
+    return applyRule(cat,ri,eargs);
+  }
+
+  public Equivalence checkEquivalence(Vector asts)
+  { // Translates each of asts by this and by ASTTerm.cg,
+    // from copies of the current translation state with
+    // empty caches, reporting any differences. The
+    // result has the number of differences and the
+    // total times.
+
+    Equivalence res = new Equivalence();
+
+    for (int i = 0; i < asts.size(); i++)
+    { ASTTerm trm = (ASTTerm) asts.get(i);
+
+      TranslationContext old = TranslationContext.bind(snapshot());
+      long t1 = System.nanoTime();
+      String expected;
+      try
+      { expected = trm.cg(cgs); }
+      finally
+      { TranslationContext.restore(old); }
+      long t2 = System.nanoTime();
+
+      old = TranslationContext.bind(snapshot());
+      String actual;
+      try
+      { actual = cg(trm); }
+      finally
+      { TranslationContext.restore(old); }
+      long t3 = System.nanoTime();
+
+      res.terms++;
+      res.interpretedTime += t2 - t1;
+      res.compiledTime += t3 - t2;
+
+      if (expected == null ? actual != null : !expected.equals(actual))
+      { System.err.println("!! Compiled translation differs for " + trm);
+        System.err.println("!! compiled: " + actual);
+        System.err.println("!! cg:       " + expected);
+        res.differences++;
+      }
+    }
+    return res;
+  }
+
+  private static TranslationContext snapshot()
+  { TranslationContext res = ASTTerm.ctx().child();
+    res.parent = null; // so its cg_cache is not read
+    return res;
+  }
+
+  public static class Equivalence
+  { // The result of checkEquivalence, times in ns
+
+    public int terms = 0;
+    public int differences = 0;
+    public long interpretedTime = 0;
+    public long compiledTime = 0;
+
+    public boolean holds()
+    { return differences == 0; }
+
+    public String toString()
+    { return terms + " terms translated in " +
+             (interpretedTime/1000000) + "ms by cg, " +
+             (compiledTime/1000000) + "ms compiled, " +
+             differences + " differences";
+    }
+  }
+}
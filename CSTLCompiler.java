@@ -0,0 +1,556 @@
+/******************************
+* Copyright (c) 2003--2025 Kevin Lano
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0
+*
+* SPDX-License-Identifier: EPL-2.0
+* *****************************/
+
+import java.util.Vector;
+import java.io.*;
+
+/* Compiles a CSTL specification into a Java subclass of
+   CSTLCompiledSpec, with one method per category, and
+   loads it in-process. Eg:
+
+     CSTLCompiledSpec tr =
+       CSTLCompiler.compile(new File("cg/cgJava8.cstl"),
+                            new Vector(), new Vector(),
+                            new File("output/cstl"));
+     String res = tr.cg(ast);
+*/
+
+public class CSTLCompiler
+{ public static Vector categoriesOf(File cstlFile)
+  { // The category headers  Name::  of the file
+
+    Vector res = new Vector();
+    try
+    { BufferedReader br = new BufferedReader(new FileReader(cstlFile));
+      String line = br.readLine();
+      while (line != null)
+      { String ln = line.trim();
+        if (ln.endsWith("::") && ln.length() > 2)
+        { String cat = ln.substring(0,ln.length()-2);
+          if (isCategoryName(cat) && !res.contains(cat))
+          { res.add(cat); }
+        }
+        line = br.readLine();
+      }
+      br.close();
+    }
+    catch (IOException _ex)
+    { System.err.println("!! Cannot read " + cstlFile); }
+    return res;
+  }
+
+  private static boolean isCategoryName(String str)
+  { if (str.length() == 0 ||
+        !Character.isJavaIdentifierStart(str.charAt(0)))
+    { return false; }
+    for (int i = 1; i < str.length(); i++)
+    { if (!Character.isJavaIdentifierPart(str.charAt(i)))
+      { return false; }
+    }
+    return true;
+  }
+
+  public static String generateJava(String className,
+                          CGSpec cgs, Vector categories)
+  { return generateJava(className,cgs,categories,null); }
+
+  public static String generateJava(String className,
+                          CGSpec cgs, Vector categories,
+                          java.util.Map parts)
+  { // parts are the CGSpecCache.RuleParts of the rules of
+    // cgs, if known, for the direct tests of conditions.
+
+    StringBuffer out = new StringBuffer();
+    out.append("import java.util.Vector;\n\n");
+    out.append("/* Generated by CSTLCompiler, do not edit */\n\n");
+    out.append("public class " + className +
+               " extends CSTLCompiledSpec\n{ ");
+
+    out.append("public String[] getCategories()\n");
+    out.append("  { return new String[] { ");
+    for (int i = 0; i < categories.size(); i++)
+    { out.append(javaString((String) categories.get(i)));
+      if (i < categories.size() - 1)
+      { out.append(", "); }
+    }
+    out.append(" }; }\n\n");
+
+    out.append("  public int[] getRuleCounts()\n");
+    out.append("  { return new int[] { ");
+    for (int i = 0; i < categories.size(); i++)
+    { Vector rules =
+        cgs.getRulesForCategory((String) categories.get(i));
+      out.append(rules == null ? 0 : rules.size());
+      if (i < categories.size() - 1)
+      { out.append(", "); }
+    }
+    out.append(" }; }\n\n");
+
+    out.append("  protected String cgCategory(int cat, ASTCompositeTerm t, String[] lits)\n");
+    out.append("  { switch (cat)\n    { ");
+    for (int i = 0; i < categories.size(); i++)
+    { out.append("case " + i + ": return cg_" + i + "(t,lits);\n      ");
+    }
+    out.append("default: return null;\n    }\n  }\n\n");
+
+    out.append("  protected String compiledRhs(int cat, int ri, Vector args, Vector eargs)\n");
+    out.append("  { switch (cat)\n    { ");
+    for (int i = 0; i < categories.size(); i++)
+    { out.append("case " + i + ": return rhs_" + i + "(ri,args,eargs);\n      ");
+    }
+    out.append("default: return null;\n    }\n  }\n\n");
+
+    for (int i = 0; i < categories.size(); i++)
+    { String cat = (String) categories.get(i);
+      Vector rules = cgs.getRulesForCategory(cat);
+      generateCategory(i,cat,rules,parts,out);
+      generateRhs(i,rules,categories,out);
+    }
+
+    out.append("}\n");
+    return out.toString();
+  }
+
+  private static void generateCategory(int cat, String catname,
+                            Vector rules, java.util.Map parts,
+                            StringBuffer out)
+  { out.append("  // " + catname + "::\n");
+    out.append("  String cg_" + cat + "(ASTCompositeTerm t, String[] lits)\n");
+    out.append("  { int n = lits.length;\n");
+    out.append("    String res = null;\n\n");
+
+    for (int ri = 0; rules != null && ri < rules.size(); ri++)
+    { CGRule r = (CGRule) rules.get(ri);
+      Vector tokens = r.lhsTokens;
+      Vector vars = r.getVariables();
+
+      out.append("    // " + comment(r + "") + "\n");
+
+      if (vars.contains("_*") || vars.contains("_+"))
+      { // Test the arity and the literals before the list
+        String test = "n >= " + tokens.size();
+        for (int j = 0; j < tokens.size(); j++)
+        { String tok = (String) tokens.get(j);
+          if ("_*".equals(tok) || "_+".equals(tok))
+          { break; }
+          if (!vars.contains(tok))
+          { test = test + " && " + javaString(tok) +
+                   ".equals(lits[" + j + "])";
+          }
+        }
+        out.append("    if (" + test + ")\n");
+        out.append("    { res = applyListRule(" + cat + "," + ri + ",t,lits);\n");
+        out.append("      if (res != null) { return res; }\n");
+        out.append("    }\n\n");
+        continue;
+      }
+
+      String test = "n == " + tokens.size();
+      java.util.Map firstOccurrence = new java.util.HashMap();
+      for (int j = 0; j < tokens.size(); j++)
+      { String tok = (String) tokens.get(j);
+        if (vars.contains(tok))
+        { Integer first = (Integer) firstOccurrence.get(tok);
+          if (first == null)
+          { firstOccurrence.put(tok, Integer.valueOf(j)); }
+          else
+          { test = test + " && lits[" + first + "].equals(lits[" + j + "])"; }
+        }
+        else
+        { test = test + " && " + javaString(tok) +
+                 ".equals(lits[" + j + "])";
+        }
+      }
+
+      out.append("    if (" + test + ")\n");
+      out.append("    { Vector eargs = new Vector();\n");
+      for (int j = 0; j < tokens.size(); j++)
+      { String tok = (String) tokens.get(j);
+        if (vars.contains(tok))
+        { out.append("      eargs.add(t.getTerm(" + j + "));\n"); }
+      }
+      out.append("      Vector args = cgArguments(eargs);\n");
+
+      String apply = "return applyRhs(" + cat + "," + ri + ",args,eargs);";
+      if (r.conditions == null || r.conditions.size() == 0)
+      { out.append("      " + apply + "\n"); }
+      else
+      { Vector conds = null;
+        if (parts != null)
+        { conds = directConditions(cat,ri,r,
+                    (CGSpecCache.RuleParts) parts.get(r));
+        }
+
+        if (conds == null)
+        { out.append("      if (conditionsHold(" + cat + "," + ri +
+                     ",args,eargs))\n");
+        }
+        else
+        { out.append("      Vector ents = new Vector();\n");
+          out.append("      if (");
+          for (int k = 0; k < conds.size(); k++)
+          { if (k > 0)
+            { out.append(" &&\n          "); }
+            out.append(conds.get(k));
+          }
+          out.append(")\n");
+        }
+        out.append("      { " + apply + " }\n");
+      }
+      out.append("    }\n\n");
+    }
+
+    out.append("    return null;\n");
+    out.append("  }\n\n");
+  }
+
+  static Vector directConditions(int cat, int ri, CGRule r,
+                                 CGSpecCache.RuleParts rp)
+  { // The Java tests of the conditions of r, each
+    //   _i S  or  _i not S  for a variable _i which
+    // occurs once in the LHS, or null if some other
+    // condition must be tested by satisfiesAllConditions.
+
+    if (rp == null || rp.conditions == null)
+    { return null; }
+
+    Vector groups = new Vector();
+    Vector group = new Vector();
+    for (int i = 0; i < rp.conditions.size(); i++)
+    { String tok = (String) rp.conditions.get(i);
+      if (",".equals(tok))
+      { groups.add(group);
+        group = new Vector();
+      }
+      else
+      { group.add(tok); }
+    }
+    groups.add(group);
+    if (groups.size() != r.conditions.size())
+    { return null; }
+
+    Vector vars = r.getVariables();
+    Vector res = new Vector();
+    for (int k = 0; k < groups.size(); k++)
+    { Vector g = (Vector) groups.get(k);
+      int n = g.size();
+      if (n < 2 || n > 3 ||
+          (n == 3 && !"not".equals(g.get(1))))
+      { return null; }
+
+      String var = (String) g.get(0);
+      String stereo = (String) g.get(n-1);
+      if (!isVariable(var) || !vars.contains(var) ||
+          !isStereotype(stereo))
+      { return null; }
+
+      // The position of var in eargs
+      int occurrences = 0;
+      int ind = 0;
+      for (int j = 0; j < r.lhsTokens.size(); j++)
+      { Object tok = r.lhsTokens.get(j);
+        if (var.equals(tok))
+        { occurrences++; }
+        else if (occurrences == 0 && vars.contains(tok))
+        { ind++; }
+      }
+      if (occurrences != 1)
+      { return null; }
+
+      res.add("condition(" + cat + "," + ri + "," + k +
+              ").conditionSatisfied((ASTTerm) eargs.get(" +
+              ind + "),ents,cgs)");
+    }
+    return res;
+  }
+
+  private static boolean isVariable(String tok)
+  { // _1 to _99
+
+    if (tok.length() < 2 || tok.charAt(0) != '_')
+    { return false; }
+    for (int i = 1; i < tok.length(); i++)
+    { if (!Character.isDigit(tok.charAt(i)))
+      { return false; }
+    }
+    return true;
+  }
+
+  private static boolean isStereotype(String tok)
+  { // Not a keyword, variable or metafeature of a
+    // condition
+
+    if (tok.startsWith("_") || tok.indexOf('`') >= 0 ||
+        "not".equals(tok) || "any".equals(tok) ||
+        "all".equals(tok) || "matches".equals(tok) ||
+        "isNested".equals(tok))
+    { return false; }
+    return isCategoryName(tok);
+  }
+
+  private static void generateRhs(int cat, Vector rules,
+                          Vector categories, StringBuffer out)
+  { // The RHS of each rule without actions, as a
+    // concatenation of its text, args and the
+    // translations of metafeatures  _i`F  of categories F
+
+    out.append("  String rhs_" + cat + "(int ri, Vector args, Vector eargs)\n");
+    out.append("  { switch (ri)\n    { ");
+    for (int ri = 0; rules != null && ri < rules.size(); ri++)
+    { CGRule r = (CGRule) rules.get(ri);
+      Vector parts = rhsTemplate(r,categories);
+      if (parts == null)
+      { continue; }
+
+      String expr = "";
+      String calls = "";
+      int ncalls = 0;
+      for (int j = 0; j < parts.size(); j++)
+      { Object part = parts.get(j);
+        if (j > 0)
+        { expr = expr + " + "; }
+        if (part instanceof Integer)
+        { expr = expr + "args.get(" + part + ")"; }
+        else if (part instanceof int[])
+        { int[] call = (int[]) part;
+          String mf = "mf" + ncalls;
+          calls = calls + "        String " + mf + " = cgWith(" +
+                  call[1] + ",eargs.get(" + call[0] + "));\n" +
+                  "        if (hasVariables(" + mf + ")) { return null; }\n";
+          expr = expr + mf;
+          ncalls++;
+        }
+        else
+        { expr = expr + javaString((String) part); }
+      }
+      if (parts.size() == 0 || !(parts.get(0) instanceof String))
+      { expr = "\"\" + " + expr; }
+
+      if (ncalls == 0)
+      { out.append("case " + ri + ": return " + expr + ";\n      "); }
+      else
+      { out.append("case " + ri + ":\n      { " +
+                   calls.substring(8) +
+                   "        return " + expr + ";\n      }\n      ");
+      }
+    }
+    out.append("default: return null;\n    }\n  }\n\n");
+  }
+
+  static Vector rhsTemplate(CGRule r, Vector categories)
+  { // The rhs of r as literal Strings, the Integer
+    // indexes of the variables in args, and for each
+    // metafeature  _i`F  of a category F an int[] of the
+    // index of _i and of F in categories. null if it has
+    // other metafeatures, actions or variable names which
+    // the interpreter could substitute differently.
+
+    if (r.rhs == null ||
+        (r.actions != null && r.actions.size() > 0))
+    { return null; }
+
+    Vector vars = r.getVariables();
+    if (vars.contains("_*") || vars.contains("_+"))
+    { return null; }
+
+    // args are in the order of the variables of the LHS
+    Vector lhsVars = new Vector();
+    for (int j = 0; j < r.lhsTokens.size(); j++)
+    { Object tok = r.lhsTokens.get(j);
+      if (vars.contains(tok))
+      { lhsVars.add(tok); }
+    }
+    if (!lhsVars.equals(vars))
+    { return null; }
+
+    for (int i = 0; i < vars.size(); i++)
+    { for (int j = 0; j < vars.size(); j++)
+      { String v = (String) vars.get(i);
+        if (i != j && ((String) vars.get(j)).startsWith(v))
+        { return null; }
+      }
+    }
+
+    String rhs = r.rhs;
+    Vector res = new Vector();
+    StringBuffer lit = new StringBuffer();
+    int p = 0;
+    while (p < rhs.length())
+    { int found = -1;
+      for (int i = 0; i < vars.size() && found < 0; i++)
+      { if (rhs.startsWith((String) vars.get(i), p))
+        { found = i; }
+      }
+
+      if (found >= 0)
+      { if (lit.length() > 0)
+        { res.add(lit.toString());
+          lit = new StringBuffer();
+        }
+        p = p + ((String) vars.get(found)).length();
+
+        if (p < rhs.length() && rhs.charAt(p) == '`')
+        { int q = p + 1;
+          while (q < rhs.length() &&
+                 Character.isJavaIdentifierPart(rhs.charAt(q)))
+          { q++; }
+          int mfcat = categories.indexOf(rhs.substring(p+1,q));
+          if (mfcat < 0)
+          { return null; } // not a category of the file
+          res.add(new int[] { found, mfcat });
+          p = q;
+        }
+        else
+        { res.add(Integer.valueOf(found)); }
+      }
+      else
+      { char c = rhs.charAt(p);
+        if (c == '_' && p + 1 < rhs.length() &&
+            "0123456789*+".indexOf(rhs.charAt(p+1)) >= 0)
+        { return null; } // not a variable of the LHS
+        if (c == '`')
+        { return null; }
+        lit.append(c);
+        p++;
+      }
+    }
+    if (lit.length() > 0)
+    { res.add(lit.toString()); }
+    return res;
+  }
+
+  public static CSTLCompiledSpec compile(String className,
+                   CGSpec cgs, Vector categories, File outdir)
+  { return compile(className,cgs,categories,null,outdir); }
+
+  public static CSTLCompiledSpec compile(String className,
+                   CGSpec cgs, Vector categories,
+                   java.util.Map parts, File outdir)
+  { // Generates, compiles and loads the translator class
+    // in outdir, or returns null if this is not possible.
+
+    String src = generateJava(className,cgs,categories,parts);
+    outdir.mkdirs();
+    File srcfile = new File(outdir, className + ".java");
+
+    try
+    { PrintWriter pw = new PrintWriter(
+                         new BufferedWriter(
+                           new FileWriter(srcfile)));
+      pw.print(src);
+      pw.close();
+    }
+    catch (IOException _ex)
+    { System.err.println("!! Cannot write " + srcfile);
+      return null;
+    }
+
+    javax.tools.JavaCompiler javac =
+      javax.tools.ToolProvider.getSystemJavaCompiler();
+    if (javac == null)
+    { System.err.println("!! No Java compiler available, use the CSTL interpreter");
+      return null;
+    }
+
+    String cp = System.getProperty("java.class.path");
+    int rc = javac.run(null, null, null,
+                       "-nowarn", "-cp", cp,
+                       "-d", outdir.getPath(), srcfile.getPath());
+    if (rc != 0)
+    { System.err.println("!! Compilation of " + srcfile + " failed");
+      return null;
+    }
+
+    // The loader is closed by res.close(), or here if
+    // the class cannot be used.
+    java.net.URLClassLoader loader = null;
+    try
+    { loader =
+        new java.net.URLClassLoader(
+              new java.net.URL[] { outdir.toURI().toURL() },
+              CSTLCompiler.class.getClassLoader());
+      Class c = loader.loadClass(className);
+      CSTLCompiledSpec res =
+        (CSTLCompiledSpec) c.getDeclaredConstructor().newInstance();
+      if (res.init(cgs))
+      { res.loader = loader;
+        return res;
+      }
+    }
+    catch (Exception _ex)
+    { System.err.println("!! Cannot load " + className + ": " + _ex); }
+
+    if (loader != null)
+    { try
+      { loader.close(); }
+      catch (IOException _ex) { }
+    }
+    return null;
+  }
+
+  public static CSTLCompiledSpec compile(File cstlFile,
+                   Vector entities, Vector types, File outdir)
+  { CGSpec cgs = CGSpecCache.loadCSTL(cstlFile,entities,types);
+    if (cgs == null)
+    { return null; }
+
+    java.util.Map parts = null;
+    Vector cats = CGSpecCache.readCategories(cstlFile);
+    if (cats != null)
+    { parts = CGSpecCache.ruleParts(cats,cgs); }
+
+    Vector categories = categoriesOf(cstlFile);
+    String fname = cstlFile.getName();
+    int dot = fname.lastIndexOf('.');
+    if (dot > 0)
+    { fname = fname.substring(0,dot); }
+
+    String className = "CSTL_";
+    for (int i = 0; i < fname.length(); i++)
+    { char c = fname.charAt(i);
+      if (Character.isJavaIdentifierPart(c))
+      { className = className + c; }
+      else
+      { className = className + "_"; }
+    }
+
+    return compile(className,cgs,categories,parts,outdir);
+  }
+
+  private static String javaString(String s)
+  { StringBuffer sb = new StringBuffer("\"");
+    for (int i = 0; i < s.length(); i++)
+    { char c = s.charAt(i);
+      if (c == '"' || c == '\\')
+      { sb.append("\\" + c); }
+      else if (c == '\n')
+      { sb.append("\\n"); }
+      else if (c == '\r')
+      { sb.append("\\r"); }
+      else if (c == '\t')
+      { sb.append("\\t"); }
+      else if (c < ' ' || c > '~')
+      { String hex = Integer.toHexString(c);
+        while (hex.length() < 4)
+        { hex = "0" + hex; }
+        sb.append("\\u" + hex);
+      }
+      else
+      { sb.append(c); }
+    }
+    sb.append("\"");
+    return sb.toString();
+  }
+
+  private static String comment(String s)
+  { String res = s.replace("\n"," ").replace("\r"," ");
+    res = res.replace("\\u", "\\ u");
+    return res.replace("*/", "* /");
+  }
+}
@@ -49,7 +49,10 @@ public class Compiler2
     
   static Vector extensionOperators = new Vector(); 
 
-  Vector lexicals; // of StringBuffer
+  Vector lexicals; // of String, the texts of the tokens
+  TokenStream tokens = null; // texts, kinds & offsets of lexicals
+  LexicalIndex lexicalIndex = null; // brackets & operators of tokens
+  ParseMemo parseMemo = new ParseMemo(); // failed expression parses
   Vector lexs = new Vector(); // of String 
   int[] bcount; // bracket count at this point in the lexical list
   Vector ops = new Vector(); // of OpOccurrence
@@ -60,6 +63,19 @@ public class Compiler2
   public static void addOperator(String op) 
   { extensionOperators.add(op); } 
 
+  public String lexicalText(int i)
+  { // The text of lexical i, shared by all equal lexicals
+    if (tokens == null || !tokens.isFor(lexicals))
+    { tokens = new TokenStream(lexicals); } 
+    return tokens.text(i); 
+  } 
+
+  public TokenStream getTokenStream()
+  { if (tokens == null || !tokens.isFor(lexicals))
+    { tokens = new TokenStream(lexicals); } 
+    return tokens; 
+  } 
+
   public boolean isStringDelimiter(char c)
   { return (c == '"' || c == '`' || c == '\''); } 
 
@@ -73,8 +89,9 @@ public class Compiler2
     
 
     int explen = str.length(); 
-    lexicals = new Vector();  /* Sequence of lexicals */ 
-    StringBuffer sb = null;    /* Holds current lexical item */ 
+    tokens = new TokenStream(explen); 
+    ops = new Vector(); 
+    TokenStream current = null;    /* Holds current lexical item */ 
 
     char prev = ' '; 
 
@@ -84,48 +101,49 @@ public class Compiler2
       if (intoken)
       { if (instring)
         { if (isStringDelimiter(c) && prev != '\\')
-          { sb.append('"'); instring = false; 
+          { current.append('"'); instring = false; 
             // intoken = false;
           }
           else 
-          { sb.append(c); }
+          { current.append(c); }
         }
         else  // intoken, not instring
         { if (isStringDelimiter(c))
           { instring = true; 
             // sb = new StringBuffer();
-            // lexicals.addElement(sb); 
-            sb.append('"');
+            // addLexical(sb,i); 
+            current.append('"');
           }
           else if (c == ' ' || c == '\n' || c == '\t' || c == '\r')
           { intoken = false; }
           else 
-          { sb.append(c); }
+          { current.append(c); }
         }
       }
       else // not intoken
       { if (isStringDelimiter(c))
         { intoken = true; 
-          instring = true; sb = new StringBuffer();
-          lexicals.addElement(sb); sb.append('"');
+          instring = true; current = tokens.startToken(i);
+          current.append('"');
         }
         else if (c == ' ' || c == '\n' || c == '\t'|| c == '\r')
         { intoken = false; }
         else 
-        { intoken = true; sb = new StringBuffer();
-          lexicals.addElement(sb); sb.append(c);
+        { intoken = true; current = tokens.startToken(i);
+          current.append(c);
         }
       }
       prev = c; 
     }
+    lexicals = tokens.lexicals(); 
   
     int llen = lexicals.size(); 
     bcount = new int[llen]; 
     int bnest = 0; 
  
     for (int i = 0; i < llen; i++) 
-    { StringBuffer sbb = (StringBuffer) lexicals.get(i); 
-      lexs.add(sbb + "");
+    { String sbb = lexicalText(i); 
+      lexs.add(sbb);
       bcount[i] = bnest; 
       if ("(".equals(sbb + "")) 
       { bnest++; }  
@@ -137,11 +155,11 @@ public class Compiler2
       } 
       else if ("and".equals(sbb + ""))
       { addToOps(new OpOccurrence("&",i,bnest));
-        sbb = new StringBuffer("&"); 
+        sbb = "&"; 
       } 
       else if ("implies".equals(sbb + ""))
       { addToOps(new OpOccurrence("=>",i,bnest));
-        sbb = new StringBuffer("=>"); 
+        sbb = "=>"; 
       } 
     }   
     System.out.println(ops);        
@@ -176,8 +194,8 @@ public class Compiler2
       String str = ""; 
 
       while (j + k < lexicals.size() && i + k < j && match) 
-      { String stri = "" + lexicals.get(i+k); 
-        String strj = "" + lexicals.get(j+k);
+      { String stri = lexicalText(i+k); 
+        String strj = lexicalText(j+k);
         if (stri.equals(strj))
         { k++; 
           str = str + " " + stri; 
@@ -209,43 +227,62 @@ public class Compiler2
   } 
 
   private void addToOps(OpOccurrence oc)
-  { // Orders ocs by bcount, then by op priority, then by position
-    // if (ops.size() == 0)
-    // { ops.add(oc); 
-    //   return; 
-    // } 
-    System.out.println(oc); 
-
-    for (int i = 0; i < ops.size(); i++)
-    { OpOccurrence best = (OpOccurrence) ops.get(i); 
-      if (oc.bcount < best.bcount)
-      { ops.add(i,oc); 
-        return; 
-      }   
-      if (oc.bcount == best.bcount && 
-          oc.priority() < best.priority())
-      { ops.add(i,oc); 
-        return; 
-      } 
-      if (oc.bcount == best.bcount && oc.op.equals(best.op) &&
-          oc.location < best.location) 
-      { ops.add(i,oc); 
-        return; 
-      } 
-    }    
+  { // Occurrences are added in order of position. The 
+    // LexicalIndex orders them by bcount, then by op 
+    // priority, then by position.
     ops.add(oc); 
+    lexicalIndex = null; 
+  } 
+
+  private LexicalIndex getLexicalIndex()
+  { TokenStream toks = getTokenStream(); 
+    if (lexicalIndex == null || !lexicalIndex.isFor(toks))
+    { lexicalIndex = new LexicalIndex(toks,ops); } 
+    return lexicalIndex; 
   } 
 
+  public int matchingBracket(int i)
+  { // Position of the bracket matching that at i, or -1
+    return getLexicalIndex().matchingBracket(i); 
+  } 
+
+  public int bracketDepth(int i)
+  { return getLexicalIndex().depth(i); } 
+
   private OpOccurrence getBestOcc(int st, int en)
-  { OpOccurrence res = null; 
-    for (int i = 0; i < ops.size(); i++)
-    { OpOccurrence op = (OpOccurrence) ops.get(i); 
-      if (op.location >= st && op.location <= en)
-      { return op; } 
-    } 
-    return res; 
+  { return getLexicalIndex().bestOccurrence(st,en); }
+
+  public ParseMemo getParseMemo()
+  { TokenStream toks = getTokenStream(); 
+    if (!parseMemo.isFor(toks))
+    { parseMemo.reset(toks); } 
+    return parseMemo; 
   } 
 
+  private Expression memoParse(int production, int bc, int pstart, 
+                               int pend, Vector entities, Vector types)
+  { // Each range which fails to parse with a production 
+    // is only tried once for the current lexicals. 
+
+    ParseMemo memo = getParseMemo(); 
+    if (memo.knownFailure(production,bc,pstart,pend,entities,types))
+    { return null; } 
+
+    Expression ee = null; 
+    if (production == ParseMemo.EXPRESSION)
+    { ee = parse_expression0(bc,pstart,pend,entities,types); } 
+    else if (production == ParseMemo.FACTOR_EXPRESSION)
+    { ee = parse_factor_expression0(bc,pstart,pend,entities,types); } 
+    else if (production == ParseMemo.BASIC_EXPRESSION)
+    { ee = parse_basic_expression0(bc,pstart,pend,entities,types); } 
+    else 
+    { ee = parse_statement_expression0(bc,pstart,pend,entities,types); } 
+
+    if (ee == null) 
+    { memo.recordFailure(production,bc,pstart,pend,entities,types); } 
+    return ee; 
+  }  
+
   private int getBestOpOccurrence(String op, int st, int en)
   { int pri = lexs.size() + 1; 
     int best = en + 1; 
@@ -393,7 +430,7 @@ public class Compiler2
   { Vector variables = new Vector(); 
     Vector openBrackets = new Vector();
     for (int i = 0; i < lexicals.size(); i++)
-    { String tok = lexicals.get(i) + "";
+    { String tok = lexicalText(i);
       if ("(".equals(tok))
       { openBrackets.add(0, new Integer(i)); }
       else if (")".equals(tok))
@@ -407,7 +444,7 @@ public class Compiler2
       }
       else if ("->".equals(tok))
       { if (i + 1 < lexicals.size())
-        { if (isValidOCLOperator(lexicals.get(i+1) + ""))
+        { if (isValidOCLOperator(lexicalText(i+1)))
           { i++; }
           else 
           { messages.add("Unrecognised OCL operator: " + lexicals.get(i+1) + " after ->");
@@ -494,7 +531,7 @@ public class Compiler2
     }
     // also if contains "_"
     if ("self".equals(str) && context != null) { } 
-    else if (i < lexicals.size() - 1 && varsymbs.contains(lexicals.get(i+1) + "") ) 
+    else if (i < lexicals.size() - 1 && varsymbs.contains(lexicalText(i+1)) ) 
     { JOptionPane.showMessageDialog(null, str + " is a variable",
                                     "Syntax check", JOptionPane.INFORMATION_MESSAGE);  
       variables.add(str); 
@@ -640,7 +677,7 @@ public class Compiler2
  
     Vector res = new Vector(); 
     for (int i = st; i < en; i++) 
-    { String ss = lexicals.get(i) + ""; 
+    { String ss = lexicalText(i); 
       if (isIdentifier(ss))
       { BasicExpression ee = new BasicExpression(ss,0); 
         res.add(ee.checkIfSetExpression()); 
@@ -649,7 +686,7 @@ public class Compiler2
       else { return null; } 
     }
 
-    String last = lexicals.get(en) + ""; 
+    String last = lexicalText(en); 
     if (isIdentifier(last))
     { BasicExpression ee = new BasicExpression(last,0); 
       res.add(ee.checkIfSetExpression()); 
@@ -704,8 +741,9 @@ public class Compiler2
     char previous = ' '; 
 
     int explen = str.length(); 
-    lexicals = new Vector(explen);  /* Sequence of lexicals */ 
-    StringBuffer sb = null;    /* Holds current lexical item */ 
+    tokens = new TokenStream(explen); 
+    ops = new Vector(); 
+    TokenStream current = null;    /* Holds current lexical item */ 
 
     char prev = ' '; 
 
@@ -713,30 +751,26 @@ public class Compiler2
     { char c = str.charAt(i); 
       if (in == INUNKNOWN) 
       { if (isSymbolCharacter(c))
-        { sb = new StringBuffer();  // new buffer for symbol
-          lexicals.addElement(sb);  
+        { current = tokens.startToken(i);  // new token for symbol
           in = INSYMBOL; 
-          sb.append(c); 
+          current.append(c); 
           previous = c; 
         }
         else if (isBasicExpCharacter(c))
-        { sb = new StringBuffer();  // new buffer for expression
-          lexicals.addElement(sb);  
+        { current = tokens.startToken(i);  // new token for expression
           in = INBASICEXP; 
-          sb.append(c); 
+          current.append(c); 
         }           
         else if (isStringDelimiter(c))
-        { sb = new StringBuffer();  // new buffer for the string
-          lexicals.addElement(sb);  
+        { current = tokens.startToken(i);  // new token for the string
           in = INSTRING; 
-          sb.append('"'); 
+          current.append('"'); 
         }
         else if (c == ' ' || c == '\n' || c == '\t' || c == '\r') 
         { } 
         else
-        { sb = new StringBuffer();     // unrecognised lexical
-          lexicals.addElement(sb);  
-          sb.append(c); 
+        { current = tokens.startToken(i);     // unrecognised lexical
+          current.append(c); 
           if (c == '_') 
           { // System.out.println("Metavariable symbol: " + c); 
             in = INBASICEXP; 
@@ -748,63 +782,56 @@ public class Compiler2
       else if (in == INBASICEXP)
       { if (isBasicExpCharacter(c) || 
             c == '"')           // Why allow " in a basic exp???
-        { sb.append(c); }       // carry on adding to current basic exp
+        { current.append(c); }       // carry on adding to current basic exp
         else if (c == '_') 
         { // System.out.println("Metavariable symbol: " + c); 
-          sb.append(c); 
+          current.append(c); 
         } 
         else if (isSymbolCharacter(c))
-        { sb = new StringBuffer();     // new buffer for symbol
-          lexicals.addElement(sb);  
+        { current = tokens.startToken(i);     // new token for symbol
           in = INSYMBOL; 
-          sb.append(c); 
+          current.append(c); 
           previous = c; 
         }
         else if (c == ' ' || c == '\n' || c == '\t' || c == '\r')
         { in = INUNKNOWN; } 
         else
-        { sb = new StringBuffer();     // unrecognised lexical
-          lexicals.addElement(sb);  
+        { current = tokens.startToken(i);     // unrecognised lexical
           in = INUNKNOWN; 
           System.err.println("!! Unrecognised token in expression: " + c); 
-          sb.append(c); 
+          current.append(c); 
         }
       }
       else if (in == INSYMBOL)
       { if (isStringDelimiter(c))
-        { sb = new StringBuffer();  // new buffer for the string
-          lexicals.addElement(sb);  
+        { current = tokens.startToken(i);  // new token for the string
           in = INSTRING; 
-          sb.append('"'); 
+          current.append('"'); 
         }
         else if (c == '(' || c == ')')
-        { sb = new StringBuffer();  // new buffer for new symbol
-          lexicals.addElement(sb);  
+        { current = tokens.startToken(i);  // new token for new symbol
           in = INSYMBOL; 
           previous = c; 
-          sb.append(c); 
+          current.append(c); 
         }
         else if (c == '_') 
         { // System.out.println("Metavariable symbol: " + c); 
-          sb = new StringBuffer();  // new buffer for the string
-          lexicals.addElement(sb);  
+          current = tokens.startToken(i);  // new token for the string
           in = INBASICEXP; 
-          sb.append(c); 
+          current.append(c); 
         } 
         else if (isBasicExpCharacter(c))
-        { sb = new StringBuffer();     // start new buffer for basic exp
-          lexicals.addElement(sb);  
+        { current = tokens.startToken(i);     // start new token for basic exp
           in = INBASICEXP; 
-          sb.append(c); 
+          current.append(c); 
         }
         else if (isSymbolCharacter(c))
         { if (validFollowingCharacter(previous,c))
-          { sb.append(c); } 
+          { current.append(c); } 
           else 
-          { sb = new StringBuffer();     // start new buffer for the new symbol
-            lexicals.addElement(sb);  
+          { current = tokens.startToken(i);     // start new token for the new symbol
             in = INSYMBOL; 
-            sb.append(c); 
+            current.append(c); 
           }
           previous = c; 
         } 
@@ -813,23 +840,24 @@ public class Compiler2
       }
       else if (in == INSTRING) 
       { if (isStringDelimiter(c) && prev != '\\')  /* end of string */ 
-        { sb.append('"'); 
+        { current.append('"'); 
           in = INUNKNOWN; 
         } 
         else 
-        { sb.append(c); } 
+        { current.append(c); } 
       }    
       previous = c; 
       prev = c; 
     }
+    lexicals = tokens.lexicals(); 
 
     int llen = lexicals.size(); 
     bcount = new int[llen]; 
     int bnest = 0; 
  
     for (int i = 0; i < llen; i++) 
-    { StringBuffer sbb = (StringBuffer) lexicals.get(i); 
-      lexs.add(sbb + "");
+    { String sbb = lexicalText(i); 
+      lexs.add(sbb);
       bcount[i] = bnest; 
       if ("(".equals(sbb + "")) 
       { bnest++; }  
@@ -841,11 +869,11 @@ public class Compiler2
       } 
       else if ("and".equals(sbb + ""))
       { addToOps(new OpOccurrence("&",i,bnest));
-        sbb = new StringBuffer("&"); 
+        sbb = "&"; 
       } 
       else if ("implies".equals(sbb + ""))
       { addToOps(new OpOccurrence("=>",i,bnest));
-        sbb = new StringBuffer("=>"); 
+        sbb = "=>"; 
       } 
     }   
 
@@ -856,14 +884,15 @@ public class Compiler2
   public void copyLexicals(Vector lexics)
   { lexicals = new Vector(); 
     lexicals.addAll(lexics); 
+    ops = new Vector(); 
 
     int llen = lexicals.size(); 
     bcount = new int[llen]; 
     int bnest = 0; 
  
     for (int i = 0; i < llen; i++) 
-    { StringBuffer sbb = (StringBuffer) lexicals.get(i); 
-      lexs.add(sbb + "");
+    { String sbb = lexicalText(i); 
+      lexs.add(sbb);
       bcount[i] = bnest; 
       if ("(".equals(sbb + "")) 
       { bnest++; }  
@@ -875,11 +904,11 @@ public class Compiler2
       } 
       else if ("and".equals(sbb + ""))
       { addToOps(new OpOccurrence("&",i,bnest));
-        sbb = new StringBuffer("&"); 
+        sbb = "&"; 
       } 
       else if ("implies".equals(sbb + ""))
       { addToOps(new OpOccurrence("=>",i,bnest));
-        sbb = new StringBuffer("=>"); 
+        sbb = "=>"; 
       } 
     }   
 
@@ -893,88 +922,79 @@ public class Compiler2
     char previous = ' '; 
 
     int explen = str.length(); 
-    lexicals = new Vector(explen);  /* Sequence of lexicals */ 
-    StringBuffer sb = null;    /* Holds current lexical item */ 
+    tokens = new TokenStream(explen); 
+    ops = new Vector(); 
+    TokenStream current = null;    /* Holds current lexical item */ 
 
     for (int i = 0; i < explen; i++)
     { char c = str.charAt(i); 
       if (in == INUNKNOWN) 
       { if (isXMLSymbolCharacter(c))
-        { sb = new StringBuffer();     // start new buffer for the symbol
-          lexicals.addElement(sb);  
+        { current = tokens.startToken(i);     // start new token for the symbol
           in = INSYMBOL; 
-          sb.append(c); 
+          current.append(c); 
           previous = c; 
         }
         else if (isXMLBasicExpCharacter(c))
-        { sb = new StringBuffer();     // start new buffer for the expression
-          lexicals.addElement(sb);  
+        { current = tokens.startToken(i);     // start new token for the expression
           in = INBASICEXP; 
-          sb.append(c); 
+          current.append(c); 
         }           
         else if (c == '"')
-        { sb = new StringBuffer();     // start new buffer for the string
-          lexicals.addElement(sb);  
+        { current = tokens.startToken(i);     // start new token for the string
           in = INSTRING; 
-          sb.append(c); 
+          current.append(c); 
         }
         else if (c == ' ' || c == '\n' || c == '\t' || c == '\r') 
         { } 
         else
-        { sb = new StringBuffer();     // unrecognised lexical
-          lexicals.addElement(sb);  
+        { current = tokens.startToken(i);     // unrecognised lexical
           System.err.println("Unrecognised literal: " + c); 
-          sb.append(c); 
+          current.append(c); 
         }
       } 
       else if (in == INBASICEXP)
       { if (isXMLBasicExpCharacter(c) || c == '"')
-        { sb.append(c); }              // carry on adding to current basic exp
+        { current.append(c); }              // carry on adding to current basic exp
         else if (isXMLSymbolCharacter(c))
-        { sb = new StringBuffer();     // start new buffer for the symbol
-          lexicals.addElement(sb);  
+        { current = tokens.startToken(i);     // start new token for the symbol
           in = INSYMBOL; 
-          sb.append(c); 
+          current.append(c); 
           previous = c; 
         }
         else if (c == ' ' || c == '\n' || c == '\t' || c == '\r')
         { in = INUNKNOWN; } 
         else
-        { sb = new StringBuffer();     // unrecognised lexical
-          lexicals.addElement(sb);  
+        { current = tokens.startToken(i);     // unrecognised lexical
           in = INUNKNOWN; 
           System.err.println("Unrecognised literal in expression: " + c); 
-          sb.append(c); 
+          current.append(c); 
         }
       }
       else if (in == INSYMBOL)
       { if (c == '"')
-        { sb = new StringBuffer();     // start new buffer for the string
-          lexicals.addElement(sb);  
+        { current = tokens.startToken(i);     // start new token for the string
           in = INSTRING; 
-          sb.append(c); 
+          current.append(c); 
         }
         else if (c == '(' || c == ')')
-        { sb = new StringBuffer();     // start new buffer for the new symbol
-          lexicals.addElement(sb);  
+        { current = tokens.startToken(i);     // start new token for the new symbol
           in = INSYMBOL; 
           previous = c; 
-          sb.append(c); 
+          current.append(c); 
         }
         else if (isXMLBasicExpCharacter(c))
-        { sb = new StringBuffer();     // start new buffer for basic exp
-          lexicals.addElement(sb);  
+        { current = tokens.startToken(i);     // start new token for basic exp
           in = INBASICEXP; 
-          sb.append(c); 
+          current.append(c); 
         }
         else if (isXMLSymbolCharacter(c))
         { if (validFollowingCharacterXML(previous,c))
-          { sb.append(c); } 
+          { current.append(c); } 
           else 
-          { sb = new StringBuffer();     // start new buffer for the new symbol
-            lexicals.addElement(sb);  
+          { current = tokens.startToken(i);     // start new token for the new symbol
             in = INSYMBOL; 
-            sb.append(c); 
+            current.append(c); 
           }
           previous = c; 
         } 
@@ -983,14 +1003,15 @@ public class Compiler2
       }
       else if (in == INSTRING) 
       { if (c == '"')  /* end of string */ 
-        { sb.append(c); 
+        { current.append(c); 
           in = INUNKNOWN; 
         } 
         else 
-        { sb.append(c); } 
+        { current.append(c); } 
       }    
       previous = c; 
     }
+    lexicals = tokens.lexicals(); 
   }
 
   /* For text from NLP: */ 
@@ -1003,8 +1024,9 @@ public class Compiler2
     boolean inchar = false; 
 
     int explen = str.length(); 
-    lexicals = new Vector(explen);  /* Sequence of lexicals */ 
-    StringBuffer sb = null;         /* Current lexical item */ 
+    tokens = new TokenStream(explen); 
+    ops = new Vector(); 
+    TokenStream current = null;         /* Current lexical item */ 
 
     char prev = ' '; 
 
@@ -1013,83 +1035,78 @@ public class Compiler2
 
       if (c == '\"' && prev != '\\') 
       { if (inchar) // '"' is ok but should be '\"' 
-        { if (sb != null) 
-          { sb.append("\""); }
+        { if (current != null) 
+          { current.append("\""); }
         }  
         else if (instring) 
         { instring = false; 
-          if (sb != null) 
-          { sb.append(c); 
-            sb = null; 
+          if (current != null) 
+          { current.append(c); 
+            current = null; 
           } // ends a literal string. 
         }  
         else // starts a literal string. 
         { instring = true; 
-          sb = new StringBuffer();     // start new buffer
-          lexicals.addElement(sb);  
-          sb.append(c); 
+          current = tokens.startToken(i);     // start new token
+          current.append(c); 
         } 
         prev = updatePrev(prev,c); 
       } 
       else if (instring)
-      { if (sb != null) // should always be true. 
-        { sb.append(c); } 
+      { if (current != null) // should always be true. 
+        { current.append(c); } 
         else 
-        { sb = new StringBuffer();     // start new buffer for the text
-          lexicals.add(sb); 
-          sb.append(c); 
+        { current = tokens.startToken(i);     // start new token for the text
+          current.append(c); 
         }
         prev = updatePrev(prev,c); 
       } 
       else if (c == '\'' && prev != '\\') 
       { if (inchar) 
         { inchar = false; 
-          if (sb != null) 
-          { sb.append(c); 
-            sb = null; 
+          if (current != null) 
+          { current.append(c); 
+            current = null; 
           } // ends a literal char string. 
         }  
         else // starts a literal char string. 
         { inchar = true; 
-          sb = new StringBuffer();     // start new buffer
-          lexicals.addElement(sb);  
-          sb.append(c); 
+          current = tokens.startToken(i);     // start new token
+          current.append(c); 
         } 
         prev = updatePrev(prev,c); 
       } 
       else if (inchar)
-      { if (sb != null) // should always be true. 
-        { sb.append(c); } 
+      { if (current != null) // should always be true. 
+        { current.append(c); } 
         else 
-        { sb = new StringBuffer();  // start new buffer for the text
-          lexicals.add(sb); 
-          sb.append(c); 
+        { current = tokens.startToken(i);  // start new token for the text
+          current.append(c); 
         }
         prev = updatePrev(prev,c); 
       } 
       else if (isSymbolCharacterText(c)) // && !instring)
-      { sb = new StringBuffer();     // start new buffer for the symbol
-        lexicals.addElement(sb);  
-        sb.append(c); 
-        sb = null; 
+      { current = tokens.startToken(i);     // start new token for the symbol
+        current.append(c); 
+        current = null; 
         prev = updatePrev(prev,c); 
       }        
       else if (c == ' ' || c == '\n' || 
                c == '\t' || c == '\r') 
-      { sb = null; 
+      { current = null; 
         prev = updatePrev(prev,c); 
       } // end current buffer - not in a string 
       else // if (isBasicExpCharacter(c))
-      { if (sb != null) 
-        { sb.append(c); } 
+      { if (current != null) 
+        { current.append(c); } 
         else 
-        { sb = new StringBuffer();     // start new buffer for the text
-          lexicals.add(sb); 
-          sb.append(c); 
+        { current = tokens.startToken(i);     // start new token for the text
+          current.append(c); 
         }
         prev = updatePrev(prev,c);            
       } 
     }
+    lexicals = tokens.lexicals(); 
   }
 
   public void filterLexicals()
@@ -1097,12 +1114,10 @@ public class Compiler2
 
     Vector newlexicals = new Vector(); 
     boolean previousSemi = false; // last token was ';'
-    StringBuffer semi = new StringBuffer(); 
-    semi.append(";"); 
+    String semi = ";"; 
 
     for (int i = 0; i < lexicals.size(); i++) 
-    { StringBuffer sb = (StringBuffer) lexicals.get(i); 
-      String ss = sb + ""; 
+    { String ss = lexicals.get(i) + ""; 
       if (";".equals(ss))
       { if (previousSemi) { } // skip the token
         else 
@@ -1111,26 +1126,26 @@ public class Compiler2
       else if (")".equals(ss))
       { if (previousSemi) 
         { previousSemi = false; 
-          newlexicals.add(sb); 
+          newlexicals.add(ss); 
         } 
         else 
-        { newlexicals.add(sb); } 
+        { newlexicals.add(ss); } 
       } 
       else if ("else".equals(ss))
       { if (previousSemi) 
         { previousSemi = false; 
-          newlexicals.add(sb); 
+          newlexicals.add(ss); 
         } 
         else 
-        { newlexicals.add(sb); } 
+        { newlexicals.add(ss); } 
       } 
       else if (previousSemi)
       { newlexicals.add(semi); 
         previousSemi = false; 
-        newlexicals.add(sb); 
+        newlexicals.add(ss); 
       } 
       else 
-      { newlexicals.add(sb); } 
+      { newlexicals.add(ss); } 
     } 
 
     lexicals = newlexicals; 
@@ -1144,8 +1159,9 @@ public class Compiler2
     boolean inchar = false; 
 
     int explen = str.length(); 
-    lexicals = new Vector(explen);  /* Sequence of lexicals */ 
-    StringBuffer sb = null;         /* Current lexical item */ 
+    tokens = new TokenStream(explen); 
+    ops = new Vector(); 
+    TokenStream current = null;         /* Current lexical item */ 
 
     char prev = ' '; 
 
@@ -1154,83 +1170,78 @@ public class Compiler2
 
       if (c == '\"' && prev != '\\') 
       { if (inchar) // '"' is ok but should be '\"' 
-        { if (sb != null) 
-          { sb.append("\""); }
+        { if (current != null) 
+          { current.append("\""); }
         }  
         else if (instring) 
         { instring = false; 
-          if (sb != null) 
-          { sb.append(c); 
-            sb = null; 
+          if (current != null) 
+          { current.append(c); 
+            current = null; 
           } // ends a literal string. 
         }  
         else // starts a literal string. 
         { instring = true; 
-          sb = new StringBuffer();     // start new buffer
-          lexicals.addElement(sb);  
-          sb.append(c); 
+          current = tokens.startToken(i);     // start new token
+          current.append(c); 
         } 
         prev = updatePrev(prev,c); 
       } 
       else if (instring)
-      { if (sb != null) // should always be true. 
-        { sb.append(c); } 
+      { if (current != null) // should always be true. 
+        { current.append(c); } 
         else 
-        { sb = new StringBuffer();     // start new buffer for the text
-          lexicals.add(sb); 
-          sb.append(c); 
+        { current = tokens.startToken(i);     // start new token for the text
+          current.append(c); 
         }
         prev = updatePrev(prev,c); 
       } 
       else if (c == '\'' && prev != '\\') 
       { if (inchar) 
         { inchar = false; 
-          if (sb != null) 
-          { sb.append(c); 
-            sb = null; 
+          if (current != null) 
+          { current.append(c); 
+            current = null; 
           } // ends a literal char string. 
         }  
         else // starts a literal char string. 
         { inchar = true; 
-          sb = new StringBuffer();     // start new buffer
-          lexicals.addElement(sb);  
-          sb.append(c); 
+          current = tokens.startToken(i);     // start new token
+          current.append(c); 
         } 
         prev = updatePrev(prev,c); 
       } 
       else if (inchar)
-      { if (sb != null) // should always be true. 
-        { sb.append(c); } 
+      { if (current != null) // should always be true. 
+        { current.append(c); } 
         else 
-        { sb = new StringBuffer();  // new buffer for the text
-          lexicals.add(sb); 
-          sb.append(c); 
+        { current = tokens.startToken(i);  // new token for the text
+          current.append(c); 
         }
         prev = updatePrev(prev,c); 
       } 
       else if (isSymbolCharacterAST(c)) // && !instring)
-      { sb = new StringBuffer();   // new buffer for symbol
-        lexicals.addElement(sb);  
-        sb.append(c); 
-        sb = null; 
+      { current = tokens.startToken(i);   // new token for symbol
+        current.append(c); 
+        current = null; 
         prev = updatePrev(prev,c); 
       }        
       else if (c == ' ' || c == '\n' || 
                c == '\t' || c == '\r') 
-      { sb = null; 
+      { current = null; 
         prev = updatePrev(prev,c); 
       } // end current buffer - not in a string 
       else // if (isBasicExpCharacter(c))
-      { if (sb != null) 
-        { sb.append(c); } 
+      { if (current != null) 
+        { current.append(c); } 
         else 
-        { sb = new StringBuffer();     // start new buffer for the text
-          lexicals.add(sb); 
-          sb.append(c); 
+        { current = tokens.startToken(i);     // start new token for the text
+          current.append(c); 
         }
         prev = updatePrev(prev,c);            
       } 
     }
+    lexicals = tokens.lexicals(); 
   }
 
   private char updatePrev(char prev, char current)
@@ -1248,8 +1259,9 @@ public class Compiler2
     // boolean inchar = false; 
 
     int explen = str.length(); 
-    lexicals = new Vector(explen);  /* Sequence of lexicals */ 
-    StringBuffer sb = null;    /* Holds current lexical item */ 
+    tokens = new TokenStream(explen); 
+    ops = new Vector(); 
+    TokenStream current = null;    /* Holds current lexical item */ 
 
     char prev = ' '; 
 
@@ -1257,23 +1269,22 @@ public class Compiler2
     { char c = str.charAt(i); 
 
       if (isSymbolCharacterText(c))
-      { sb = new StringBuffer();  // start new buffer for the symbol
-        lexicals.addElement(sb);  
-        sb.append(c); 
-        sb = null; 
+      { current = tokens.startToken(i);  // start new token for the symbol
+        current.append(c); 
+        current = null; 
       }        
       else if (c == ' ' || c == '\n' || c == '\t' || c == '\r') 
-      { sb = null; } // end current buffer - not in a string 
+      { current = null; } // end current buffer - not in a string 
       else 
-      { if (sb != null) 
-        { sb.append(c); } 
+      { if (current != null) 
+        { current.append(c); } 
         else 
-        { sb = new StringBuffer();     // start new buffer for the text
-          lexicals.add(sb); 
-          sb.append(c); 
+        { current = tokens.startToken(i);     // start new token for the text
+          current.append(c); 
         }           
       } 
     }
+    lexicals = tokens.lexicals(); 
   }
 
   private static boolean validFollowingCharacter(char c1, char c2)
@@ -1349,7 +1360,7 @@ public class Compiler2
   { 
     for (int i = 0; i < lexicals.size(); i++)
     { 
-      System.out.println(((StringBuffer) lexicals.elementAt(i)).toString()); 
+      System.out.println(lexicals.elementAt(i)); 
     } 
   }
 
@@ -1357,7 +1368,7 @@ public class Compiler2
   { 
     for (int i = a; i < lexicals.size() & i <= b; i++)
     { 
-      System.out.println(((StringBuffer) lexicals.elementAt(i)).toString()); 
+      System.out.println(lexicals.elementAt(i)); 
     } 
   }
 
@@ -1374,7 +1385,7 @@ public class Compiler2
   public Type parseType(int st, int en, Vector entities, Vector types) 
   { if (st > en) { return null; }
  
-    String typ = lexicals.get(st) + ""; 
+    String typ = lexicalText(st); 
 
     if (st == en && 
         ("int".equals(typ) || "long".equals(typ) || 
@@ -1409,11 +1420,11 @@ public class Compiler2
       } 
 
       if (st+1 <= en-1) 
-      { String ob = lexicals.get(st+1) + ""; 
-        String cb = lexicals.get(en) + ""; 
+      { String ob = lexicalText(st+1); 
+        String cb = lexicalText(en); 
         if ("(".equals(ob) && ")".equals(cb))
         { for (int i = st + 2; i < en; i++) 
-          { String ss = lexicals.get(i) + ""; 
+          { String ss = lexicalText(i); 
             if (ss.equals(","))
             { Type t1 = parseType(st+2,i-1,entities,types); 
               Type t2 = parseType(i+1,en-1,entities,types);
@@ -1455,11 +1466,11 @@ public class Compiler2
       } 
 
       if (st+1 <= en-1) 
-      { String ob = lexicals.get(st+1) + ""; 
-        String cb = lexicals.get(en) + ""; 
+      { String ob = lexicalText(st+1); 
+        String cb = lexicalText(en); 
         if ("(".equals(ob) && ")".equals(cb))
         { for (int i = st + 2; i < en; i++) 
-          { String ss = lexicals.get(i) + ""; 
+          { String ss = lexicalText(i); 
             if (ss.equals(","))
             { Type t1 = parseType(st+2,i-1,entities,types); 
               Type t2 = parseType(i+1,en-1,entities,types);
@@ -1498,8 +1509,8 @@ public class Compiler2
       { return tt; } 
  
       if (st + 2 <= en - 1) 
-      { String ob = lexicals.get(st+1) + ""; 
-        String cb = lexicals.get(en) + ""; 
+      { String ob = lexicalText(st+1); 
+        String cb = lexicalText(en); 
         if ("(".equals(ob) && ")".equals(cb))
         { Type et = parseType(st + 2, en - 1, entities, types); 
           if (et != null && tt != null) 
@@ -1521,8 +1532,8 @@ public class Compiler2
       { return tt; } 
  
       if (st + 2 <= en - 1) 
-      { String ob = lexicals.get(st+1) + ""; 
-        String cb = lexicals.get(en) + ""; 
+      { String ob = lexicalText(st+1); 
+        String cb = lexicalText(en); 
         if ("(".equals(ob) && ")".equals(cb))
         { Type et = parseType(st + 2, en - 1, entities, types); 
           if (et != null && tt != null) 
@@ -1542,8 +1553,8 @@ public class Compiler2
       { resulttype = new Type((Entity) ee); 
         if (st == en)
         { return resulttype; }
-        if (st < en && "<".equals(lexicals.get(st+1) + "") &&
-            ">".equals(lexicals.get(en) + ""))
+        if (st < en && "<".equals(lexicalText(st+1)) &&
+            ">".equals(lexicalText(en)))
         { Vector args = 
             parse_type_sequence(st+2,en-1,entities,types); 
           if (args != null) 
@@ -1572,17 +1583,17 @@ public class Compiler2
     if (lexicals.size() < 10) { return null; } 
     Sbvrse sbvrse = new Sbvrse(); 
 
-    String st1 = lexicals.get(0) + ""; 
-    String st2 = lexicals.get(1) + ""; 
-    String st3 = lexicals.get(2) + ""; 
-    String st4 = lexicals.get(3) + ""; 
-    String st5 = lexicals.get(4) + ""; 
+    String st1 = lexicalText(0); 
+    String st2 = lexicalText(1); 
+    String st3 = lexicalText(2); 
+    String st4 = lexicalText(3); 
+    String st5 = lexicalText(4); 
     if (("It".equals(st1) || "it".equals(st1)) && "is".equals(st2) && 
         "necessary".equals(st3) && "that".equals(st4) && "each".equals(st5))
     { String definedTerm = ""; 
       int i = 5; 
       for ( ; i < lexicals.size(); i++) 
-      { String str = lexicals.get(i) + ""; 
+      { String str = lexicalText(i); 
         if ("instance".equals(str))
         { // text between 5 and i-1 is a defined term  
           sbvrse.setDefinedTerm(definedTerm);
@@ -1593,14 +1604,14 @@ public class Compiler2
       } 
 
       if (i+9 < lexicals.size())
-      { String idsource = lexicals.get(i+1) + ""; 
+      { String idsource = lexicalText(i+1); 
         sbvrse.setSourceInstance(idsource); 
-        String st6 = lexicals.get(i+2) + "";  // maps
-        String st7 = lexicals.get(i+3) + "";  // to
-        String st8 = lexicals.get(i+4) + "";  // a or an
-        String ttype = lexicals.get(i+5) + ""; 
+        String st6 = lexicalText(i+2);  // maps
+        String st7 = lexicalText(i+3);  // to
+        String st8 = lexicalText(i+4);  // a or an
+        String ttype = lexicalText(i+5); 
         sbvrse.setTargetType(ttype); 
-        String tid = lexicals.get(i+7) + ""; 
+        String tid = lexicalText(i+7); 
         sbvrse.setTargetInstance(tid);
         Expression exp1 = parse_expression(0, i+10, en, null, null); 
         sbvrse.setSuccedent(exp1);     
@@ -1612,7 +1623,7 @@ public class Compiler2
   public Sbvrse parseSbvrse()
   { int en1 = lexicals.size()-1; 
     for (int i = 0; i < lexicals.size(); i++) 
-    { String lex = lexicals.get(i) + ""; 
+    { String lex = lexicalText(i); 
       if (";".equals(lex.trim()))
       { System.out.println("+++++++++++"); 
         Sbvrse res = parseSbvrse(0,i-1); 
@@ -1626,19 +1637,19 @@ public class Compiler2
   public void parseSbvrse2(Sbvrse sb, int st, int en) 
   { if (st > en) { return; } 
     
-    if ("Each".equals(lexicals.get(st) + "") && st + 5 < en)
-    { String srcType = lexicals.get(st+1) + ""; 
+    if ("Each".equals(lexicalText(st)) && st + 5 < en)
+    { String srcType = lexicalText(st+1); 
       sb.setSourceType(srcType);  
-      String st2 = lexicals.get(st + 2) + ""; 
-      String st3 = lexicals.get(st + 3) + ""; 
-      String st4 = lexicals.get(st + 4) + ""; 
-      String st5 = lexicals.get(st + 5) + ""; 
+      String st2 = lexicalText(st + 2); 
+      String st3 = lexicalText(st + 3); 
+      String st4 = lexicalText(st + 4); 
+      String st5 = lexicalText(st + 5); 
       if ("is".equals(st2) && "considered".equals(st3) && 
           "to".equals(st4) && "be".equals(st5))
       { String definedTerm = ""; 
         int i = st + 6; 
         for ( ; i < lexicals.size(); i++) 
-        { String str = lexicals.get(i) + ""; 
+        { String str = lexicalText(i); 
           if ("if".equals(str))
           { // text between st + 6 and i-1 is the defined term  
             // sbvrse.setDefinedTerm(definedTerm);
@@ -1649,8 +1660,8 @@ public class Compiler2
         } 
 
         if (i+2 < lexicals.size())
-        { String st7 = lexicals.get(i+1) + "";  // it
-          String st8 = lexicals.get(i+2) + "";  // has
+        { String st7 = lexicalText(i+1);  // it
+          String st8 = lexicalText(i+2);  // has
           Expression exp1 = parse_expression(0, i+3, en, null, null); 
           sb.setCondition(exp1);     
         } 
@@ -1770,7 +1781,7 @@ public class Compiler2
         // Statement lhsexp = parseStatement(entities,types); 
         Vector variables = new Vector(); 
         for (int k = 0; k < lexicals.size(); k++) 
-        { String lex = lexicals.get(k) + ""; 
+        { String lex = lexicalText(k); 
           if (lex.startsWith("_"))
           { variables.add(lex); } 
         } 
@@ -1816,7 +1827,7 @@ public class Compiler2
         // Statement lhsexp = parseStatement(entities,types); 
         Vector variables = new Vector(); 
         for (int k = 0; k < lexicals.size(); k++) 
-        { String lex = lexicals.get(k) + ""; 
+        { String lex = lexicalText(k); 
           if (lex.startsWith("_"))
           { variables.add(lex); } 
         } 
@@ -1901,7 +1912,7 @@ public class Compiler2
 
         Vector variables = new Vector(); 
         for (int k = 0; k < lexicals.size(); k++) 
-        { String lex = lexicals.get(k) + ""; 
+        { String lex = lexicalText(k); 
           if (lex.startsWith("_"))
           { variables.add(lex); } 
         } 
@@ -1961,7 +1972,7 @@ public class Compiler2
         } */ 
 
         for (int k = 0; k < sz; k++) 
-        { String lex = lexicals.get(k) + ""; 
+        { String lex = lexicalText(k); 
           if (CSTL.isCSTLVariable(lex))
           { variables.add(lex); } 
           tokens.add(lex); 
@@ -2074,7 +2085,7 @@ public class Compiler2
 
         Vector variables = new Vector(); 
         for (int k = 0; k < lexicals.size(); k++) 
-        { String lex = lexicals.get(k) + ""; 
+        { String lex = lexicalText(k); 
           if (lex.startsWith("_"))
           { variables.add(lex); } 
         } 
@@ -2118,7 +2129,7 @@ public class Compiler2
 
         Vector variables = new Vector(); 
         for (int k = 0; k < lexicals.size(); k++) 
-        { String lex = lexicals.get(k) + ""; 
+        { String lex = lexicalText(k); 
           if (lex.startsWith("_"))
           { variables.add(lex); } 
         } 
@@ -2154,8 +2165,7 @@ public class Compiler2
 
   // For CSTL rule conditions and actions: 
   public static Vector parse_conditions(String str)
-  { Vector conds = new Vector();
-    Compiler2 newc = new Compiler2(); 
+  { Compiler2 newc = new Compiler2(); 
     newc.nospacelexicalanalysis(str);
     Vector lexs = newc.lexicals;
 	
@@ -2168,6 +2178,13 @@ public class Compiler2
     // _* all id
     // etc
 
+    return conditionsOf(lexs); 
+  } 
+
+  public static Vector conditionsOf(Vector lexs)
+  { // The CGConditions of the condition tokens lexs
+
+    Vector conds = new Vector();
     CGCondition cg = new CGCondition(); 
 	 
     for (int i = 0; i < lexs.size(); i++)
@@ -2237,12 +2254,18 @@ public class Compiler2
     // _* all v
     // _i`f with w
 
-    Vector conds = new Vector();
     Compiler2 newc = new Compiler2(); 
     newc.nospacelexicalanalysis(str);
     Vector lexs = newc.lexicals;
     System.out.println("+++ Action lexicals:: " + lexs); 
-	
+    return ruleActionsOf(lexs); 
+  } 
+
+  public static Vector ruleActionsOf(Vector lexs)
+  { // The actions, as CGConditions, of the action tokens 
+    // lexs
+
+    Vector conds = new Vector();
     CGCondition cg = new CGCondition(); 
 	 
     boolean expectVar = true; 
@@ -2345,9 +2368,9 @@ public class Compiler2
   public Expression parseCGRule(int bcount, int pstart, int pend)
   { // expr with _ |-> expr with _ <when> conditions
     for (int i = pstart; i <= pend; i++) 
-    { String lx = lexicals.get(i) + ""; 
+    { String lx = lexicalText(i); 
       if (lx.equals("|") && i + 1 <= pend && 
-          "->".equals(lexicals.get(i+1) + ""))
+          "->".equals(lexicalText(i+1)))
       { // System.out.println(">>> Deliminter at token " + i); 
         Vector env = new Vector(); 
         Expression lhs = parse_expression(bcount,pstart,i-1,env,env); 
@@ -2355,9 +2378,9 @@ public class Compiler2
         System.out.println("LHS = " + rhs); 
 
         for (int j = i+2; j <= pend; j++) 
-        { String lxj = lexicals.get(j) + ""; 
-          if ("<".equals(lxj) && j+1 < pend && "when".equals(lexicals.get(j+1) + "") && 
-              ">".equals(lexicals.get(j+2) + "")) 
+        { String lxj = lexicalText(j); 
+          if ("<".equals(lxj) && j+1 < pend && "when".equals(lexicalText(j+1)) && 
+              ">".equals(lexicalText(j+2))) 
           { rhs = parse_expression(bcount,i+2,j-1,env,env); 
             System.out.println("RHS = " + rhs); 
           } 
@@ -2421,46 +2444,51 @@ public class Compiler2
 
 
   public Expression parse_expression(int bcount, int pstart, int pend, Vector entities, Vector types)
+  { return memoParse(ParseMemo.EXPRESSION,bcount,pstart,pend,
+                     entities,types); 
+  } 
+
+  private Expression parse_expression0(int bcount, int pstart, int pend, Vector entities, Vector types)
   { Expression ee = null; 
     
-    if ("if".equals(lexicals.get(pstart) + "") && "endif".equals(lexicals.get(pend) + ""))
+    if ("if".equals(lexicalText(pstart)) && "endif".equals(lexicalText(pend)))
     { ee = parse_conditional_expression(bcount,pstart,pend,
                                         entities,types); 
       if (ee != null) { return ee; } 
     } 
 
-    // if ("let".equals(lexicals.get(pstart) + "") && "endlet".equals(lexicals.get(pend) + ""))
+    // if ("let".equals(lexicalText(pstart)) && "endlet".equals(lexicalText(pend)))
     // { ee = parse_let_expression(bcount,pstart,pend); 
     //   if (ee != null) { return ee; } 
     // } 
 
-    // if ("lambda".equals(lexicals.get(pstart) + ""))
+    // if ("lambda".equals(lexicalText(pstart)))
     // { ee = parse_lambda_expression(bcount,pstart,pend); 
     //   if (ee != null) { return ee; } 
     // } 
 
-    if ("not".equals(lexicals.get(pstart) + ""))
+    if ("not".equals(lexicalText(pstart)))
     { ee = parse_expression(bcount,pstart+1,pend,
                             entities,types); 
       if (ee != null) 
       { return new UnaryExpression("not", ee); } 
     } 
 
-    if ("?".equals(lexicals.get(pstart) + ""))
+    if ("?".equals(lexicalText(pstart)))
     { ee = parse_basic_expression(bcount,pstart+1,pend,
                                   entities,types); 
       if (ee != null) 
       { return new UnaryExpression("?", ee); } 
     } 
  
-    if ("!".equals(lexicals.get(pstart) + ""))
+    if ("!".equals(lexicalText(pstart)))
     { ee = parse_basic_expression(bcount,pstart+1,pend,
                                   entities,types); 
       if (ee != null) 
       { return new UnaryExpression("!", ee); } 
     } 
  
-    if ("_".equals(lexicals.get(pstart) + "") && pend == pstart+1)
+    if ("_".equals(lexicalText(pstart)) && pend == pstart+1)
     { ee = parse_expression(bcount,pstart+1,pend,
                             entities,types); 
       if (ee != null) 
@@ -2495,6 +2523,11 @@ public class Compiler2
   }
 
   public Expression parse_statement_expression(int bcount, int pstart, int pend, Vector entities, Vector types)
+  { return memoParse(ParseMemo.STATEMENT_EXPRESSION,bcount,pstart,pend,
+                     entities,types); 
+  } 
+
+  private Expression parse_statement_expression0(int bcount, int pstart, int pend, Vector entities, Vector types)
   { Expression ee = null; 
     Compiler2 newc = new Compiler2(); 
     Vector lexics = getLexicals(pstart,pend); 
@@ -2504,35 +2537,35 @@ public class Compiler2
     if (ee != null) 
     { return ee; } 
     
-    if ("if".equals(lexicals.get(pstart) + "") && "endif".equals(lexicals.get(pend) + ""))
+    if ("if".equals(lexicalText(pstart)) && "endif".equals(lexicalText(pend)))
     { ee = parse_conditional_expression(bcount,pstart,pend,entities,types); 
       if (ee != null) { return ee; } 
     } 
 
-    // if ("let".equals(lexicals.get(pstart) + "") && "endlet".equals(lexicals.get(pend) + ""))
+    // if ("let".equals(lexicalText(pstart)) && "endlet".equals(lexicalText(pend)))
     // { ee = parse_let_expression(bcount,pstart,pend); 
     //   if (ee != null) { return ee; } 
     // } 
 
-    if ("not".equals(lexicals.get(pstart) + ""))
+    if ("not".equals(lexicalText(pstart)))
     { ee = parse_expression(bcount,pstart+1,pend,entities,types); 
       if (ee != null) 
       { return new UnaryExpression("not", ee); } 
     } 
 
-    if ("?".equals(lexicals.get(pstart) + ""))
+    if ("?".equals(lexicalText(pstart)))
     { ee = parse_basic_expression(bcount,pstart+1,pend,entities,types); 
       if (ee != null) 
       { return new UnaryExpression("?", ee); } 
     } 
 
-    if ("!".equals(lexicals.get(pstart) + ""))
+    if ("!".equals(lexicalText(pstart)))
     { ee = parse_basic_expression(bcount,pstart+1,pend,entities,types); 
       if (ee != null) 
       { return new UnaryExpression("!", ee); } 
     } 
  
-    if ("_".equals(lexicals.get(pstart) + "") && pend == pstart+1)
+    if ("_".equals(lexicalText(pstart)) && pend == pstart+1)
     { ee = parse_expression(bcount,pstart+1,pend,entities,types); 
       if (ee != null) 
       { return new UnaryExpression("_", ee); } 
@@ -2575,12 +2608,12 @@ public Expression parse_conditional_expression(int bc,
                         Vector entities, Vector types)
 { // st is "if", en is "endif"
   int ifcount = 1;
-  String lxst = lexicals.get(st) + "";
-  String lxen = lexicals.get(en) + "";
+  String lxst = lexicalText(st);
+  String lxen = lexicalText(en);
   if ("if".equals(lxst) && "endif".equals(lxen)) {}
   else { return null; }
   for (int j = st+1; j < en; j++)
-  { String lxj = lexicals.get(j) + "";
+  { String lxj = lexicalText(j);
     if ("if".equals(lxj))
     { ifcount++; }
     else if ("endif".equals(lxj))
@@ -2596,7 +2629,7 @@ public Expression parse_conditional_expression(int bc,
      { System.err.println("!! Error in if test expression"); return null;  }
       int ifcountk = 1;
       for (int k = j+1; k < en; k++)
-      { String lxk = lexicals.get(k) + "";
+      { String lxk = lexicalText(k);
         if ("if".equals(lxk))
         { ifcountk++; }
         else if ("endif".equals(lxk))
@@ -2621,12 +2654,12 @@ public Expression parse_conditional_expression(int bc,
 public Expression parse_ATLconditional_expression(int bc, int st, int en, Vector entities, Vector types)
 { // st is "if", en is "endif"
   int ifcount = 1;
-  String lxst = lexicals.get(st) + "";
-  String lxen = lexicals.get(en) + "";
+  String lxst = lexicalText(st);
+  String lxen = lexicalText(en);
   if ("if".equals(lxst) && "endif".equals(lxen)) {}
   else { return null; }
   for (int j = st+1; j < en; j++)
-  { String lxj = lexicals.get(j) + "";
+  { String lxj = lexicalText(j);
     if ("if".equals(lxj))
     { ifcount++; }
     else if ("endif".equals(lxj))
@@ -2642,7 +2675,7 @@ public Expression parse_ATLconditional_expression(int bc, int st, int en, Vector
       { System.err.println("!! Error in if test expression"); return null;  }
        int ifcountk = 1;
        for (int k = j+1; k < en; k++)
-       { String lxk = lexicals.get(k) + "";
+       { String lxk = lexicalText(k);
          if ("if".equals(lxk))
          { ifcountk++; }
          else if ("endif".equals(lxk))
@@ -2669,12 +2702,12 @@ public Expression parse_let_expression(int bc, int st, int en, Vector entities,
   // expr should be bracketed for nested lets. 
 
   int letcount = 1;
-  String lxst = lexicals.get(st) + "";
+  String lxst = lexicalText(st);
   if ("let".equals(lxst)) {}
   else { return null; }
 
   for (int j = st+1; j < en; j++)
-  { String lxj = lexicals.get(j) + "";
+  { String lxj = lexicalText(j);
     if ("let".equals(lxj))
     { letcount++; }
     else if ("in".equals(lxj))
@@ -2690,7 +2723,7 @@ public Expression parse_let_expression(int bc, int st, int en, Vector entities,
         { System.err.println("!! Error in let variable"); return null;  }
 
         for (int k = st+2; k < j; k++)
-        { String lxk = lexicals.get(k) + "";
+        { String lxk = lexicalText(k);
           if ("=".equals(lxk))
           { Type ltype = parseType(st+3,k-1,entities,types);
             if (ltype == null)
@@ -2739,12 +2772,12 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
   // expr should be bracketed for nested lets. 
 
   int letcount = 1;
-  String lxst = lexicals.get(st) + "";
+  String lxst = lexicalText(st);
   if ("lambda".equals(lxst)) {}
   else { return null; }
 
   for (int j = st+1; j < en; j++)
-  { String lxj = lexicals.get(j) + "";
+  { String lxj = lexicalText(j);
     if ("lambda".equals(lxj))
     { letcount++; }
     else if ("in".equals(lxj))
@@ -2838,7 +2871,7 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
   } 
 
   public String getLexical(int st)
-  { return "" + lexicals.get(st); } 
+  { return lexicalText(st); } 
 
 
   /* public BinaryExpression parse_or_expression(int pstart, 
@@ -2930,7 +2963,7 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
 
   public Expression parse_additive_expression(int bc, int pstart, int pend, Vector entities, Vector types)
   { for (int i = pstart; i < pend; i++) 
-    { String ss = lexicals.get(i).toString(); 
+    { String ss = lexicalText(i); 
       if (ss.equals("+") || ss.equals("\\/"))
       { Expression e1 = 
           parse_additive_expression(
@@ -2964,7 +2997,7 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
       }
       /* else if (ss.equals(".") && 
            i + 1 < pend && 
-           ".".equals(lexicals.get(i+1) + "")) 
+           ".".equals(lexicalText(i+1))) 
       { Expression e1 = 
             parse_factor_expression(
                          bc,pstart,i-1, entities, types);
@@ -2988,9 +3021,14 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
     // (a - b) + c
 
   public Expression parse_factor_expression(int bc, int pstart, int pend, Vector entities, Vector types)
+  { return memoParse(ParseMemo.FACTOR_EXPRESSION,bc,pstart,pend,
+                     entities,types); 
+  } 
+
+  private Expression parse_factor_expression0(int bc, int pstart, int pend, Vector entities, Vector types)
   { // System.out.println("Trying to parse factor expression"); 
     for (int i = pstart; i < pend; i++) 
-    { String ss = lexicals.get(i).toString(); 
+    { String ss = lexicalText(i); 
       if // (ss.equals("+") || ss.equals("-") || 
          (ss.equals("/\\") || ss.equals("^") ||
           ss.equals("*") || ss.equals("/") || 
@@ -3019,10 +3057,10 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
   { // e->at(i)
 
     for (int i = pend-1; pstart < i; i--) 
-    { String ss = lexicals.get(i).toString(); 
-      if (ss.equals("->") && i+2 < lexicals.size() && "(".equals(lexicals.get(i+2) + "") && 
-          ")".equals(lexicals.get(pend) + ""))
-      { String ss2 = lexicals.get(i+1).toString(); // must exist
+    { String ss = lexicalText(i); 
+      if (ss.equals("->") && i+2 < lexicals.size() && "(".equals(lexicalText(i+2)) && 
+          ")".equals(lexicalText(pend)))
+      { String ss2 = lexicalText(i+1); // must exist
         if (i + 3 <= pend && "at".equals(ss2)) 
         { // ee2->at(ee1) 
           Expression ee1 = parse_expression(bc+1,i+3,pend-1,entities,types); 
@@ -3046,13 +3084,13 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
   { // e->collect( v | f )
 
     for (int i = pend-1; pstart < i; i--) 
-    { String ss = lexicals.get(i).toString();
+    { String ss = lexicalText(i);
  
       if (ss.equals("->") && i+4 < lexicals.size() && 
-          "(".equals(lexicals.get(i+2) + "") && 
-          ")".equals(lexicals.get(pend) + ""))
-      { String ss2 = lexicals.get(i+1).toString(); 
-        String vdash = lexicals.get(i+4).toString(); 
+          "(".equals(lexicalText(i+2)) && 
+          ")".equals(lexicalText(pend)))
+      { String ss2 = lexicalText(i+1); 
+        String vdash = lexicalText(i+4); 
 
         if (i + 3 <= pend && "collect".equals(ss2) && 
             i + 5 <= pend && "|".equals(vdash)) 
@@ -3090,10 +3128,10 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
     // case of  argument->op() and left->op(right)
     
     for (int i = pend-1; pstart < i; i--) 
-    { String ss = lexicals.get(i).toString(); 
-      if (ss.equals("->") && i+2 < lexicals.size() && "(".equals(lexicals.get(i+2) + "") && 
-          ")".equals(lexicals.get(pend) + ""))
-      { String ss2 = lexicals.get(i+1).toString(); // must exist
+    { String ss = lexicalText(i); 
+      if (ss.equals("->") && i+2 < lexicals.size() && "(".equals(lexicalText(i+2)) && 
+          ")".equals(lexicalText(pend)))
+      { String ss2 = lexicalText(i+1); // must exist
         if (i + 3 == pend &&
             ("any".equals(ss2) || "size".equals(ss2) || 
              "isDeleted".equals(ss2) ||
@@ -3158,144 +3196,144 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
           return ue;   // This excludes additional operators to the ones listed above.  
         } 
         else if ("exists".equals(ss2) && 
-                 i+5 < pend && // "(".equals(lexicals.get(i+2) + "") &&
-                               "|".equals(lexicals.get(i+4) + "") &&
-                               ")".equals(lexicals.get(pend) + ""))
+                 i+5 < pend && // "(".equals(lexicalText(i+2)) &&
+                               "|".equals(lexicalText(i+4)) &&
+                               ")".equals(lexicalText(pend)))
         { // It is ->exists(v|...)
           Expression ee1 = parse_expression(bc+1,i+5,pend-1,entities,types);
           if (ee1 == null) { continue; } 
           Expression ee2 = parse_factor_expression(bc,pstart,i-1,entities,types); 
           if (ee2 == null) { continue; } 
           BasicExpression bevar = 
-            new BasicExpression(lexicals.get(i+3) + "",0);
+            new BasicExpression(lexicalText(i+3),0);
           BinaryExpression be = 
             new BinaryExpression("#",new BinaryExpression(":",bevar,ee2),ee1); 
           // System.out.println("Parsed: " + be); 
           return be; 
         } 
         else if (("exists1".equals(ss2) || "one".equals(ss2)) && 
-                 i+5 < pend && "|".equals(lexicals.get(i+4) + "") &&
-                               // "(".equals(lexicals.get(i+2) + "") &&
-                               ")".equals(lexicals.get(pend) + ""))
+                 i+5 < pend && "|".equals(lexicalText(i+4)) &&
+                               // "(".equals(lexicalText(i+2)) &&
+                               ")".equals(lexicalText(pend)))
         { // It is ->exists1(v|...)
           Expression ee1 = parse_expression(bc+1,i+5,pend-1,entities,types);
           if (ee1 == null) { continue; } 
           Expression ee2 = parse_factor_expression(bc,pstart,i-1,entities,types); 
           if (ee2 == null) { continue; } 
           BasicExpression bevar = 
-            new BasicExpression(lexicals.get(i+3) + "",0);
+            new BasicExpression(lexicalText(i+3),0);
           BinaryExpression be = 
             new BinaryExpression("#1",new BinaryExpression(":",bevar,ee2),ee1); 
           // System.out.println(">> Parsed: " + be); 
           return be; 
         } 
         else if ("existsLC".equals(ss2) && 
-                 i+5 < pend && "|".equals(lexicals.get(i+4) + "") &&
-                               // "(".equals(lexicals.get(i+2) + "") &&
-                               ")".equals(lexicals.get(pend) + ""))
+                 i+5 < pend && "|".equals(lexicalText(i+4)) &&
+                               // "(".equals(lexicalText(i+2)) &&
+                               ")".equals(lexicalText(pend)))
         { // It is ->existsLC(v|...)
           Expression ee1 = parse_expression(bc+1,i+5,pend-1,entities,types);
           if (ee1 == null) { continue; } 
           Expression ee2 = parse_factor_expression(bc,pstart,i-1,entities,types); 
           if (ee2 == null) { continue; } 
           BasicExpression bevar = 
-            new BasicExpression(lexicals.get(i+3) + "",0);
+            new BasicExpression(lexicalText(i+3),0);
           BinaryExpression be = 
             new BinaryExpression("#LC",new BinaryExpression(":",bevar,ee2),ee1); 
           // System.out.println("Parsed: " + be); 
           return be; 
         } 
         else if ("forAll".equals(ss2) && 
-                 i+5 < pend && "|".equals(lexicals.get(i+4) + "") &&
-                               // "(".equals(lexicals.get(i+2) + "") &&
-                               ")".equals(lexicals.get(pend) + ""))
+                 i+5 < pend && "|".equals(lexicalText(i+4)) &&
+                               // "(".equals(lexicalText(i+2)) &&
+                               ")".equals(lexicalText(pend)))
         { // It is ->forAll(v|...)
           Expression ee1 = parse_expression(bc+1,i+5,pend-1,entities,types);
           if (ee1 == null) { continue; } 
           Expression ee2 = parse_factor_expression(bc,pstart,i-1,entities,types); 
           if (ee2 == null) { continue; } 
           BasicExpression bevar = 
-            new BasicExpression(lexicals.get(i+3) + "",0);
+            new BasicExpression(lexicalText(i+3),0);
           BinaryExpression be = 
             new BinaryExpression("!",new BinaryExpression(":",bevar,ee2),ee1); 
           // System.out.println("Parsed: " + be); 
           return be; 
         } 
         else if ("select".equals(ss2) && 
-                 i+5 < pend && "|".equals(lexicals.get(i+4) + "") &&
-                               // "(".equals(lexicals.get(i+2) + "") &&
-                               ")".equals(lexicals.get(pend) + ""))
+                 i+5 < pend && "|".equals(lexicalText(i+4)) &&
+                               // "(".equals(lexicalText(i+2)) &&
+                               ")".equals(lexicalText(pend)))
         { // It is ->select(v|...)
           Expression ee1 = parse_expression(bc+1,i+5,pend-1,entities,types);
           if (ee1 == null) { continue; } 
           Expression ee2 = parse_factor_expression(bc,pstart,i-1,entities,types); 
           if (ee2 == null) { continue; } 
           BasicExpression bevar = 
-            new BasicExpression(lexicals.get(i+3) + "",0);
+            new BasicExpression(lexicalText(i+3),0);
           BinaryExpression be = 
             new BinaryExpression("|",new BinaryExpression(":",bevar,ee2),ee1); 
           // System.out.println("Parsed: " + be); 
           return be; 
         } 
         else if ("reject".equals(ss2) && 
-                 i+5 < pend && "|".equals(lexicals.get(i+4) + "") &&
-                               // "(".equals(lexicals.get(i+2) + "") &&
-                               ")".equals(lexicals.get(pend) + ""))
+                 i+5 < pend && "|".equals(lexicalText(i+4)) &&
+                               // "(".equals(lexicalText(i+2)) &&
+                               ")".equals(lexicalText(pend)))
         { // It is ->reject(v|...)
           Expression ee1 = parse_expression(bc+1,i+5,pend-1,entities,types);
           if (ee1 == null) { continue; } 
           Expression ee2 = parse_factor_expression(bc,pstart,i-1,entities,types); 
           if (ee2 == null) { continue; } 
           BasicExpression bevar = 
-            new BasicExpression(lexicals.get(i+3) + "",0);
+            new BasicExpression(lexicalText(i+3),0);
           BinaryExpression be = 
             new BinaryExpression("|R",new BinaryExpression(":",bevar,ee2),ee1); 
           // System.out.println("Parsed: " + be); 
           return be; 
         } 
         else if ("collect".equals(ss2) && 
-                 i+5 < pend && "|".equals(lexicals.get(i+4) + "") &&
-                               // "(".equals(lexicals.get(i+2) + "") &&
-                               ")".equals(lexicals.get(pend) + ""))
+                 i+5 < pend && "|".equals(lexicalText(i+4)) &&
+                               // "(".equals(lexicalText(i+2)) &&
+                               ")".equals(lexicalText(pend)))
         { // It is ->collect(v|...)
           Expression ee1 = parse_expression(bc+1,i+5,pend-1,entities,types);
           if (ee1 == null) { continue; } 
           Expression ee2 = parse_factor_expression(bc,pstart,i-1,entities,types); 
           if (ee2 == null) { continue; } 
           BasicExpression bevar = 
-            new BasicExpression(lexicals.get(i+3) + "",0);
+            new BasicExpression(lexicalText(i+3),0);
           BinaryExpression be = 
             new BinaryExpression("|C",new BinaryExpression(":",bevar,ee2),ee1); 
           // System.out.println("Parsed: " + be); 
           return be; 
         } 
         else if ("sortedBy".equals(ss2) && 
-                 i+5 < pend && "|".equals(lexicals.get(i+4) + "") &&
-                               // "(".equals(lexicals.get(i+2) + "") &&
-                               ")".equals(lexicals.get(pend) + ""))
+                 i+5 < pend && "|".equals(lexicalText(i+4)) &&
+                               // "(".equals(lexicalText(i+2)) &&
+                               ")".equals(lexicalText(pend)))
         { // It is ->sortedBy(v|...)
           Expression ee1 = parse_expression(bc+1,i+5,pend-1,entities,types);
           if (ee1 == null) { continue; } 
           Expression ee2 = parse_factor_expression(bc,pstart,i-1,entities,types); 
           if (ee2 == null) { continue; } 
           BasicExpression bevar = 
-            new BasicExpression(lexicals.get(i+3) + "",0);
+            new BasicExpression(lexicalText(i+3),0);
           BinaryExpression be = 
             new BinaryExpression("|sortedBy",new BinaryExpression(":",bevar,ee2),ee1); 
           System.out.println("Parsed ->sortedBy expression with variable: " + be); 
           return be; 
         } 
         else if ("any".equals(ss2) && 
-                 i+5 < pend && "|".equals(lexicals.get(i+4) + "") &&
-                               // "(".equals(lexicals.get(i+2) + "") &&
-                               ")".equals(lexicals.get(pend) + ""))
+                 i+5 < pend && "|".equals(lexicalText(i+4)) &&
+                               // "(".equals(lexicalText(i+2)) &&
+                               ")".equals(lexicalText(pend)))
         { // It is ->any(v|...)
           Expression ee1 = parse_expression(bc+1,i+5,pend-1,entities,types);
           if (ee1 == null) { continue; } 
           Expression ee2 = parse_factor_expression(bc,pstart,i-1,entities,types); 
           if (ee2 == null) { continue; } 
           BasicExpression bevar = 
-            new BasicExpression(lexicals.get(i+3) + "",0);
+            new BasicExpression(lexicalText(i+3),0);
           BinaryExpression be = 
             new BinaryExpression("|A",new BinaryExpression(":",bevar,ee2),ee1); 
           // System.out.println("Parsed: " + be); 
@@ -3303,9 +3341,9 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
         } 
         else if ("iterate".equals(ss2) && 
                  i+7 < pend && 
-                 ";".equals(lexicals.get(i+4) + "") &&                               
-                 "=".equals(lexicals.get(i+6) + "") &&                               
-                 ")".equals(lexicals.get(pend) + ""))
+                 ";".equals(lexicalText(i+4)) &&                               
+                 "=".equals(lexicalText(i+6)) &&                               
+                 ")".equals(lexicalText(pend)))
         { // It is ->iterate(v; acc = value | rght )
           Expression ee1 = null; 
           Expression ee3 = null; 
@@ -3316,7 +3354,7 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
 
           boolean foundpipe = false; 
           for (int t = i+7; t < pend && !foundpipe; t++) 
-          { String tlex = lexicals.get(t) + ""; 
+          { String tlex = lexicalText(t); 
             if ("|".equals(tlex))
             { ee1 = parse_expression(bc+1,t+1,pend-1,entities,types);
               ee3 = parse_expression(bc+1,i+7,t-1,entities,types); 
@@ -3329,9 +3367,9 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
 
           BinaryExpression be = 
             new BinaryExpression("->iterate",ee2,ee1); 
-          be.setIteratorVariable(lexicals.get(i+3) + "");
+          be.setIteratorVariable(lexicalText(i+3));
           Attribute acc = 
-            new Attribute(lexicals.get(i+5) + "",
+            new Attribute(lexicalText(i+5),
                           new Type("OclAny", null), 
                           ModelElement.INTERNAL); 
           acc.setInitialExpression(ee3); 
@@ -3340,9 +3378,9 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
         } 
         else if ("select".equals(ss2) && 
                  i+7 < pend && 
-                 ";".equals(lexicals.get(i+4) + "") &&                               
-                 ":".equals(lexicals.get(i+6) + "") &&                               
-                 ")".equals(lexicals.get(pend) + ""))
+                 ";".equals(lexicalText(i+4)) &&                               
+                 ":".equals(lexicalText(i+6)) &&                               
+                 ")".equals(lexicalText(pend)))
         { // It is ->select(v; acc : ss | rght )
           // Same as ->select(v | ss->exists( acc | rght ))
 
@@ -3355,7 +3393,7 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
 
           boolean foundpipe = false; 
           for (int t = i+7; t < pend && !foundpipe; t++) 
-          { String tlex = lexicals.get(t) + ""; 
+          { String tlex = lexicalText(t); 
             if ("|".equals(tlex))
             { ee1 = parse_expression(bc+1,t+1,pend-1,entities,types);
               ee3 = parse_expression(bc+1,i+7,t-1,entities,types); 
@@ -3366,8 +3404,8 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
 
           if (ee1 == null || ee3 == null) { continue; } 
 
-          String var = lexicals.get(i+3) + ""; 
-          String accvar = lexicals.get(i+5) + ""; 
+          String var = lexicalText(i+3); 
+          String accvar = lexicalText(i+5); 
           Expression existsDom = 
             new BinaryExpression(":", 
                                  new BasicExpression(accvar),
@@ -3381,11 +3419,11 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
             new BinaryExpression("#", existsDom, ee1); 
           BinaryExpression be = 
             new BinaryExpression("|", selectDom, existsExpr); 
-          // be.setIteratorVariable(lexicals.get(i+3) + "");
+          // be.setIteratorVariable(lexicalText(i+3));
           // Vector env = new Vector(); 
           // ee3.typeCheck(types,entities,env); 
           // Attribute acc = 
-          //   new Attribute(lexicals.get(i+5) + "",
+          //   new Attribute(lexicalText(i+5),
           //                 ee3.getElementType(), 
           //                 ModelElement.INTERNAL); 
           // be.setAccumulatorRange(ee3); // domain of acc
@@ -3394,9 +3432,9 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
         } 
         else if ("collect".equals(ss2) && 
                  i+7 < pend && 
-                 ";".equals(lexicals.get(i+4) + "") &&                               
-                 ":".equals(lexicals.get(i+6) + "") &&                               
-                 ")".equals(lexicals.get(pend) + ""))
+                 ";".equals(lexicalText(i+4)) &&                               
+                 ":".equals(lexicalText(i+6)) &&                               
+                 ")".equals(lexicalText(pend)))
         { // It is ->collect(v; acc : ss | rght )
           // Same as ->collect(v | ss->collect( acc | rght ))->concatenateAll()
 
@@ -3409,7 +3447,7 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
 
           boolean foundpipe = false; 
           for (int t = i+7; t < pend && !foundpipe; t++) 
-          { String tlex = lexicals.get(t) + ""; 
+          { String tlex = lexicalText(t); 
             if ("|".equals(tlex))
             { ee1 = parse_expression(bc+1,t+1,pend-1,entities,types);
               ee3 = parse_expression(bc+1,i+7,t-1,entities,types); 
@@ -3420,8 +3458,8 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
 
           if (ee1 == null || ee3 == null) { continue; } 
 
-          String var = lexicals.get(i+3) + ""; 
-          String accvar = lexicals.get(i+5) + ""; 
+          String var = lexicalText(i+3); 
+          String accvar = lexicalText(i+5); 
           Expression existsDom = 
             new BinaryExpression(":", 
                                  new BasicExpression(accvar),
@@ -3435,27 +3473,27 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
             new BinaryExpression("|C", existsDom, ee1); 
           BinaryExpression be = 
             new BinaryExpression("|C", selectDom, existsExpr); 
-          // be.setIteratorVariable(lexicals.get(i+3) + "");
+          // be.setIteratorVariable(lexicalText(i+3));
           // Vector env = new Vector(); 
           // ee3.typeCheck(types,entities,env); 
           // Attribute acc = 
-          //   new Attribute(lexicals.get(i+5) + "",
+          //   new Attribute(lexicalText(i+5),
           //                 ee3.getElementType(), 
           //                 ModelElement.INTERNAL); 
           // be.setAccumulatorRange(ee3); // domain of acc
           // be.setAccumulator(acc);                
           return new UnaryExpression("->concatenateAll", be); 
         } 
-        else if (pend == i+3) // && "(".equals(lexicals.get(i+2) + "") &&
-                              //  ")".equals(lexicals.get(pend) + ""))  
+        else if (pend == i+3) // && "(".equals(lexicalText(i+2)) &&
+                              //  ")".equals(lexicalText(pend)))  
         { Expression ee2 = parse_factor_expression(bc,pstart,i-1,entities,types); 
           if (ee2 == null) { continue; } 
           UnaryExpression be = new UnaryExpression(ss+ss2,ee2); 
           // System.out.println(">> Parsed new unary -> expression: " + be); 
           return be; 
         } 
-        else if (i + 3 <= pend) // && "(".equals(lexicals.get(i+2) + "") &&
-                                //   ")".equals(lexicals.get(pend) + "")) 
+        else if (i + 3 <= pend) // && "(".equals(lexicalText(i+2)) &&
+                                //   ")".equals(lexicalText(pend))) 
         // this should allow new Binary operators 
         { // System.out.println(">> Trying to parse at " + ss2); 
           Expression ee1 = parse_expression(bc+1,i+3,pend-1,entities,types); 
@@ -3528,9 +3566,15 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
 
   public Expression parse_basic_expression(int bc, 
        int pstart, int pend, Vector entities, Vector types)
+  { return memoParse(ParseMemo.BASIC_EXPRESSION,bc,pstart,pend,
+                     entities,types); 
+  } 
+
+  private Expression parse_basic_expression0(int bc, 
+       int pstart, int pend, Vector entities, Vector types)
   { 
 
-    // if ("_".equals(lexicals.get(pstart) + "") && pend == pstart+1)
+    // if ("_".equals(lexicalText(pstart)) && pend == pstart+1)
     // { Expression ee = parse_expression(bc,pstart+1,pend); 
     //   if (ee != null) 
     //   { return new UnaryExpression("_", ee); } 
@@ -3571,63 +3615,63 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
     // System.out.println(">> Trying to parse basic expression from: " + showLexicals(pstart,pend)); 
 
     if (pstart < pend && 
-        "lambda".equals(lexicals.get(pstart) + ""))
+        "lambda".equals(lexicalText(pstart)))
     { Expression ee = parse_lambda_expression(bc,pstart,pend,entities,types); 
       if (ee != null) 
       { return ee; } 
     } 
 
-    if (pstart < pend && "let".equals(lexicals.get(pstart) + ""))
+    if (pstart < pend && "let".equals(lexicalText(pstart)))
     { Expression ee = parse_let_expression(bc,pstart,pend,entities,types); 
       if (ee != null) 
       { return ee; } 
     } 
 
-    if (pstart < pend && "}".equals(lexicals.get(pend) + "") && 
-        "SortedMap".equals(lexicals.get(pstart) + "") &&
-        "{".equals(lexicals.get(pstart + 1) + ""))
+    if (pstart < pend && "}".equals(lexicalText(pend)) && 
+        "SortedMap".equals(lexicalText(pstart)) &&
+        "{".equals(lexicalText(pstart + 1)))
     { System.out.println(">> Sorted map"); 
       return parse_sortedmap_expression(bc,pstart+1,pend,entities,types); 
     } 
 
-    if (pstart < pend && "}".equals(lexicals.get(pend) + "") && 
-        "Map".equals(lexicals.get(pstart) + "") &&
-        "{".equals(lexicals.get(pstart + 1) + ""))
+    if (pstart < pend && "}".equals(lexicalText(pend)) && 
+        "Map".equals(lexicalText(pstart)) &&
+        "{".equals(lexicalText(pstart + 1)))
     { return parse_map_expression(bc,pstart+1,pend,entities,types); } 
 
-    if (pstart < pend && "}".equals(lexicals.get(pend) + "") && 
-        "Sequence".equals(lexicals.get(pstart) + "") &&
-        "{".equals(lexicals.get(pstart + 1) + ""))
+    if (pstart < pend && "}".equals(lexicalText(pend)) && 
+        "Sequence".equals(lexicalText(pstart)) &&
+        "{".equals(lexicalText(pstart + 1)))
     { return parse_sequence_expression(bc,pstart+1,pend,entities,types); } 
 
-    if (pstart < pend && "}".equals(lexicals.get(pend) + "") && 
-        "Set".equals(lexicals.get(pstart) + "") &&
-        "{".equals(lexicals.get(pstart + 1) + ""))
+    if (pstart < pend && "}".equals(lexicalText(pend)) && 
+        "Set".equals(lexicalText(pstart)) &&
+        "{".equals(lexicalText(pstart + 1)))
     { return parse_set_expression(bc,pstart+1,pend,entities,types); } 
 
-    if (pstart < pend && "}".equals(lexicals.get(pend) + "") && 
-        "SortedSet".equals(lexicals.get(pstart) + "") &&
-        "{".equals(lexicals.get(pstart + 1) + ""))
+    if (pstart < pend && "}".equals(lexicalText(pend)) && 
+        "SortedSet".equals(lexicalText(pstart)) &&
+        "{".equals(lexicalText(pstart + 1)))
     { return parse_sortedset_expression(bc,pstart+1,pend,entities,types); } 
 
     // Likewise, SortedSequence
 
-    if (pstart < pend && "}".equals(lexicals.get(pend) + "") && 
-        "SortedSequence".equals(lexicals.get(pstart) + "") &&
-        "{".equals(lexicals.get(pstart + 1) + ""))
+    if (pstart < pend && "}".equals(lexicalText(pend)) && 
+        "SortedSequence".equals(lexicalText(pstart)) &&
+        "{".equals(lexicalText(pstart + 1)))
     { return parse_sortedsequence_expression(bc,pstart+1,pend,entities,types); } 
 
-    if (pstart < pend && "}".equals(lexicals.get(pend) + "") && 
-        "Ref".equals(lexicals.get(pstart) + "") &&
-        "{".equals(lexicals.get(pstart + 1) + ""))
+    if (pstart < pend && "}".equals(lexicalText(pend)) && 
+        "Ref".equals(lexicalText(pstart)) &&
+        "{".equals(lexicalText(pstart + 1)))
     { return parse_ref_expression(bc,pstart+1,pend,entities,types); } 
 
-    if (pstart < pend && "}".equals(lexicals.get(pend) + "") && 
-        "Ref".equals(lexicals.get(pstart) + "") &&
-        "(".equals(lexicals.get(pstart + 1) + ""))
+    if (pstart < pend && "}".equals(lexicalText(pend)) && 
+        "Ref".equals(lexicalText(pstart)) &&
+        "(".equals(lexicalText(pstart + 1)))
     { return parse_ref_expression(bc,pstart+1,pend,entities,types); } 
 
-    if (pstart < pend && "-".equals(lexicals.get(pstart) + ""))
+    if (pstart < pend && "-".equals(lexicalText(pstart)))
     { Expression arg = parse_additive_expression(bc,pstart+1,pend,entities,types); 
       if (arg == null) 
       { // System.err.println("!! Not additive expression: " + showLexicals(pstart+1, pend)); 
@@ -3638,7 +3682,7 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
     } // likewise for "not" and "~" and "?"
 
 
-    if (pstart < pend && "+".equals(lexicals.get(pstart) + ""))
+    if (pstart < pend && "+".equals(lexicalText(pstart)))
     { Expression arg = parse_additive_expression(bc,pstart+1,pend,entities,types); 
       if (arg == null) 
       { // System.err.println("!! Not additive expression: " + showLexicals(pstart+1, pend)); 
@@ -3648,7 +3692,7 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
     } 
 
 
-    if (pstart < pend && "?".equals(lexicals.get(pstart) + ""))
+    if (pstart < pend && "?".equals(lexicalText(pstart)))
     { Expression arg = parse_basic_expression(bc,pstart+1,pend,entities,types); 
       if (arg == null) 
       { System.err.println("!! Error: references must be applied to basic expressions: " + showLexicals(pstart+1, pend)); 
@@ -3659,7 +3703,7 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
     } // likewise for "not" and "~"
 
 
-    if (pstart < pend && "!".equals(lexicals.get(pstart) + ""))
+    if (pstart < pend && "!".equals(lexicalText(pstart)))
     { Expression arg = parse_basic_expression(bc,pstart+1,pend,entities,types); 
       if (arg == null) 
       { System.err.println("!! Error: dereferences must be applied to basic expressions: " + showLexicals(pstart+1, pend)); 
@@ -3670,16 +3714,16 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
     } // likewise for "not" and "~"
 
 
-    if (pstart + 1 < pend && ")".equals(lexicals.get(pend) + "") && 
-      "(".equals(lexicals.get(pstart) + ""))
+    if (pstart + 1 < pend && ")".equals(lexicalText(pend)) && 
+      "(".equals(lexicalText(pstart)))
     { Expression res = parse_bracketed_expression(bc,pstart,pend,entities,types); 
       if (res != null) 
       { return res; } 
     } 
 
     if (pstart + 1 < pend && 
-        ")".equals(lexicals.get(pend) + "") && 
-        "(".equals(lexicals.get(pstart+1) + ""))
+        ")".equals(lexicalText(pend)) && 
+        "(".equals(lexicalText(pstart+1)))
     { // op(pars)
 
       Expression op = parse_basic_expression(bc,pstart,pstart,entities,types); 
@@ -3705,13 +3749,13 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
     }       
 
     if (pstart + 2 < pend && 
-        ")".equals(lexicals.get(pend) + "") && 
-        "(".equals(lexicals.get(pstart+2) + "") && 
-        ("" + lexicals.get(pstart + 1)).charAt(0) == '.')
+        ")".equals(lexicalText(pend)) && 
+        "(".equals(lexicalText(pstart+2)) && 
+        (lexicalText(pstart + 1)).charAt(0) == '.')
     { // iden.op(args)
 
       Expression objref = parse_basic_expression(bc,pstart,pstart,entities,types); 
-      String opstring = lexicals.get(pstart + 1) + ""; 
+      String opstring = lexicalText(pstart + 1); 
       String opstr = opstring.substring(1,opstring.length()); 
 
       Vector ve = parse_fe_sequence(bc,pstart+3,pend-1,entities,types); 
@@ -3734,8 +3778,8 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
     }       
 
     if (pstart < pend && 
-        "]".equals(lexicals.get(pend) + "") && 
-        "[".equals(lexicals.get(pstart+1) + ""))
+        "]".equals(lexicalText(pend)) && 
+        "[".equals(lexicalText(pstart+1)))
     { // iden[indexes]
 
       String ss = lexicals.elementAt(pstart).toString(); 
@@ -3760,12 +3804,12 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
       // return null; 
     }       
 
-    if (pstart < pend && "]".equals(lexicals.get(pend-1) + "") && 
-        "[".equals(lexicals.get(pstart+1) + "") &&
-        (lexicals.get(pend) + "").charAt(0) == '.')  
+    if (pstart < pend && "]".equals(lexicalText(pend-1)) && 
+        "[".equals(lexicalText(pstart+1)) &&
+        (lexicalText(pend)).charAt(0) == '.')  
     { // be[inds].f
 
-      String tail = lexicals.get(pend) + ""; 
+      String tail = lexicalText(pend); 
       if (tail.charAt(0) == '.')
       { tail = tail.substring(1,tail.length()); } 
 
@@ -3807,10 +3851,10 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
     /* Also ( ... ) .f */ 
 
     if (pstart+1 < pend &&
-        !(")".equals(lexicals.get(pend) + "")) && 
-        ")".equals(lexicals.get(pend-1) + "") &&
-        "(".equals(lexicals.get(pstart) + ""))  
-    { String tail = lexicals.get(pend) + ""; 
+        !(")".equals(lexicalText(pend))) && 
+        ")".equals(lexicalText(pend-1)) &&
+        "(".equals(lexicalText(pstart)))  
+    { String tail = lexicalText(pend); 
       if (tail.charAt(0) == '.')
       { tail = tail.substring(1,tail.length()); 
       
@@ -3844,14 +3888,14 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
 
 
   if (pstart + 1 < pend && 
-      ")".equals(lexicals.get(pend) + "") && 
-      "(".equals(lexicals.get(pstart) + ""))
+      ")".equals(lexicalText(pend)) && 
+      "(".equals(lexicalText(pstart)))
   { // (be).op(pars)
 
     for (int i = pstart + 1; i < pend; i++)
-    { String brack = lexicals.get(i-1) + ""; 
-      String strs = lexicals.get(i) + "";
-      String brack2 = lexicals.get(i+1) + "";
+    { String brack = lexicalText(i-1); 
+      String strs = lexicalText(i);
+      String brack2 = lexicalText(i+1);
  
       if (brack.equals(")") && brack2.equals("(") && 
           strs.length() > 1 && '.' == strs.charAt(0))
@@ -3914,14 +3958,14 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
   }
 
   if (pstart < pend &&  
-      "[".equals(lexicals.get(pstart+1) + "") && 
-      "]".equals(lexicals.get(pend-1) + "") && 
-      (lexicals.get(pend) + "").charAt(0) == '.') 
+      "[".equals(lexicalText(pstart+1)) && 
+      "]".equals(lexicalText(pend-1)) && 
+      (lexicalText(pend)).charAt(0) == '.') 
   { // iden[ ... ].f  valid basic expression before .f
 
     Expression op = parse_basic_expression(
                       bc,pstart,pend-1,entities,types); 
-    String tail = lexicals.get(pend) + ""; 
+    String tail = lexicalText(pend); 
     if (tail.charAt(0) == '.')
     { tail = tail.substring(1,tail.length()); } 
     
@@ -3936,11 +3980,11 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
   }       
 
   if (pstart + 1 < pend &&  
-      "]".equals(lexicals.get(pend) + "")) 
+      "]".equals(lexicalText(pend))) 
   { // be [ ind ]  valid basic expression be
 
     for (int k = pend-1; k >= pstart; k--)
-    { String lex = lexicals.get(k) + ""; 
+    { String lex = lexicalText(k); 
       if ("[".equals(lex))
       { Expression op = parse_basic_expression(
                        bc,pstart,k-1,entities,types); 
@@ -3962,8 +4006,8 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
 
   if (pstart + 2 < pend)
   { for (int i = pstart + 1; i < pend; i++)
-    { String ss = lexicals.get(i) + "";
-      if ("|".equals(ss) && i+1 < pend && "->".equals(lexicals.get(i+1) + ""))
+    { String ss = lexicalText(i);
+      if ("|".equals(ss) && i+1 < pend && "->".equals(lexicalText(i+1)))
       { Expression key = parse_basic_expression(bc,pstart,i-1,entities,types); 
         Expression value = parse_expression(bc,i+2,pend,entities,types); 
         if (key != null && value != null) 
@@ -4021,11 +4065,11 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
   } 
 
   public Expression parse_ref_expression(int bc,int pstart,int pend, Vector entities, Vector types)
-  { String lex = lexicals.get(pstart) + ""; 
+  { String lex = lexicalText(pstart); 
 
     if ("(".equals(lex))
     { for (int i = pstart+1; i < pend; i++) 
-      { String xx = lexicals.get(i) + ""; 
+      { String xx = lexicalText(i); 
         if ("{".equals(xx))
         { Type rt = parseType(pstart+1,i-2,entities,types); 
           Vector args = 
@@ -4100,7 +4144,7 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
     // Only commas at the top level of the expression are wanted! 
     /* 
     for (int i = st; i < ed; i++)
-    { String ss = lexicals.get(i) + ""; 
+    { String ss = lexicalText(i); 
       if (",".equals(ss))
       { Expression e1 = parse_factor_expression(bc,st,i-1,entities,types); 
         if (e1 == null)
@@ -4130,10 +4174,13 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
 
      Vector res = new Vector();
      int st0 = st;
-     String buff = "";
      for (int i = st; i <= en; i++)
-     { String lx = lexicals.get(i) + "";
-       buff = buff + lx;
+     { String lx = lexicalText(i);
+       int close = matchingBracket(i);
+       if (close > i && close <= en)
+       { i = close; // bracketed part, no top-level separators
+         continue;
+       }
        if ("(".equals(lx)) { bcnt++; }
        else if (")".equals(lx)) 
        { bcnt--;
@@ -4150,13 +4197,12 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
              parse_additive_expression(
                      bc,st0,i-1,entities,types);
            if (exp == null) 
-           { System.out.println("!! Invalid additive exp: " + buff);
+           { System.out.println("!! Invalid additive exp: " + showLexicals(st0,i-1));
              return null;
            }
 
            res.add(exp);
            st0 = i + 1;
-           buff = "";
          }
        }
      }
@@ -4165,7 +4211,7 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
      { Expression exp = 
          parse_additive_expression(bc,st0,en,entities,types);
        if (exp == null) 
-       { System.out.println("!! Invalid additive/lambda expression: " + buff);
+       { System.out.println("!! Invalid additive/lambda expression: " + showLexicals(st0,en));
          return null;
        }
        res.add(exp);
@@ -4202,10 +4248,13 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
      int bcnt = 0; int sqbcnt = 0; int cbcnt = 0;
      Vector res = new Vector();
      int st0 = st;
-     String buff = "";
      for (int i = st; i <= en; i++)
-     { String lx = lexicals.get(i) + "";
-       buff = buff + lx;
+     { String lx = lexicalText(i);
+       int close = matchingBracket(i);
+       if (close > i && close <= en)
+       { i = close; // bracketed part, no top-level separators
+         continue;
+       }
        if ("(".equals(lx)) { bcnt++; }
        else if (")".equals(lx)) 
        { bcnt--;
@@ -4213,20 +4262,19 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
        }
        else if ("]".equals(lx) && 
                 i+1 <= en && 
-                "[".equals(lexicals.get(i+1) + ""))
+                "[".equals(lexicalText(i+1)))
        { // System.out.println(">> array index " + showLexicals(st0, (i-1))); 
 
          if (bcnt == 0 && sqbcnt == 0 && cbcnt == 0)
          { // top-level ,
            Expression exp = parse_additive_expression(bc,st0,i-1,entities,types);
            if (exp == null) 
-           { // System.out.println("!! Invalid additive exp: " + buff);
+           { // System.out.println("!! Invalid additive exp: " + showLexicals(st0,i-1));
              return null;
            } 
            res.add(exp);
            st0 = i + 2;
            i = i+2; 
-           buff = "";
          }
        }
        else if ("[".equals(lx)) { sqbcnt++; }
@@ -4240,7 +4288,7 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
  
        Expression exp = parse_additive_expression(bc,st0,en,entities,types);
          if (exp == null) 
-         { // System.out.println("!! Invalid additive/lambda expression: " + buff);
+         { // System.out.println("!! Invalid additive/lambda expression: " + showLexicals(st0,en));
            return null;
          }
        res.add(exp);
@@ -4266,10 +4314,13 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
      int bcnt = 0; int sqbcnt = 0; int cbcnt = 0;
      Vector res = new Vector();
      int st0 = st;
-     String buff = "";
      for (int i = st; i <= en; i++)
-     { String lx = lexicals.get(i) + "";
-       buff = buff + lx;
+     { String lx = lexicalText(i);
+       int close = matchingBracket(i);
+       if (close > i && close <= en)
+       { i = close; // bracketed part, no top-level separators
+         continue;
+       }
        if ("(".equals(lx)) { bcnt++; }
        else if (")".equals(lx)) 
        { bcnt--;
@@ -4289,7 +4340,6 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
            }
            res.add(exp);
            st0 = i + 1;
-           buff = "";
          }
        }
      }
@@ -4323,10 +4373,13 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
      int bcnt = 0; int sqbcnt = 0; int cbcnt = 0;
      Vector res = new Vector();
      int st0 = st;
-     String buff = "";
      for (int i = st; i <= en; i++)
-     { String lx = lexicals.get(i) + "";
-       buff = buff + lx;
+     { String lx = lexicalText(i);
+       int close = matchingBracket(i);
+       if (close > i && close <= en)
+       { i = close; // bracketed part, no top-level separators
+         continue;
+       }
        if ("(".equals(lx)) { bcnt++; }
        else if (")".equals(lx)) 
        { bcnt--;
@@ -4346,7 +4399,6 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
            }
            res.add(exp);
            st0 = i + 1;
-           buff = "";
          }
        }
      }
@@ -4371,7 +4423,7 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
     System.out.println(">>> Map contents: --> " + showLexicals(st,en));
 	
     for (int i = st; i <= en; i++)
-    { String ss = lexicals.get(i) + ""; 
+    { String ss = lexicalText(i); 
       if (",".equals(ss) && i < en) // st is "(" and en is ")" 
       { Expression e1 = parse_expression(bc,st + 1, i-1,entities,types); 
         Expression e2 = parse_expression(bc,i+1, en-1,entities,types); 
@@ -4381,7 +4433,7 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
           return expr;  
         } 
       } // or the pair is not bracketed
-      else if ("|".equals(ss) && i+1 < en && "->".equals(lexicals.get(i+1) + ""))
+      else if ("|".equals(ss) && i+1 < en && "->".equals(lexicalText(i+1)))
       { Expression e1 = parse_expression(bc,st, i-1,entities,types); 
         Expression e2 = parse_expression(bc,i+2, en,entities,types); 
         if (e1 != null && e2 != null)
@@ -4401,7 +4453,7 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
     System.out.println(">>> Map contents: --> " + showLexicals(st,en));
 	
     for (int i = st; i <= en; i++)
-    { String ss = lexicals.get(i) + ""; 
+    { String ss = lexicalText(i); 
       if (",".equals(ss) && i < en) // st is "(" and en is ")" 
       { Expression e1 = parse_expression(bc,st + 1, i-1,entities,types); 
         Expression e2 = parse_expression(bc,i+1, en-1,entities,types); 
@@ -4411,7 +4463,7 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
           return expr;  
         } 
       } // or the pair is not bracketed
-      else if ("|".equals(ss) && i+1 < en && "->".equals(lexicals.get(i+1) + ""))
+      else if ("|".equals(ss) && i+1 < en && "->".equals(lexicalText(i+1)))
       { Expression e1 = parse_expression(bc,st, i-1,entities,types); 
         Expression e2 = parse_expression(bc,i+2, en,entities,types); 
         if (e1 != null && e2 != null)
@@ -4433,7 +4485,7 @@ public Expression parse_lambda_expression(int bc, int st, int en, Vector entitie
     { return null; } 
     BehaviouralFeature bf;
 
-    String modality = "" + lexicals.get(0);
+    String modality = lexicalText(0);
     if ("static".equals(modality)) 
     { bf = operationDefinition(2,n-1,entities,types); 
       if (bf != null) 
@@ -4467,16 +4519,16 @@ public BehaviouralFeature operationDefinition(int st, int en, Vector entities, V
   boolean foundpost = false; 
   Vector localEntities = new Vector(); 
 
-  String opname = lexicals.get(st) + "";
+  String opname = lexicalText(st);
    
   BehaviouralFeature bf = new BehaviouralFeature(opname);
   int st0 = st + 1;
   int parsStart = st0; 
 
   if (st0+2 < en && 
-      "<".equals(lexicals.get(st0) + "") && 
-      ">".equals(lexicals.get(st0+2) + ""))
-  { String parType = lexicals.get(st0+1) + "";
+      "<".equals(lexicalText(st0)) && 
+      ">".equals(lexicalText(st0+2)))
+  { String parType = lexicalText(st0+1);
     Entity ptEnt = new Entity(parType); 
     ptEnt.genericParameter = true; 
     Type pt = new Type(ptEnt); 
@@ -4487,9 +4539,9 @@ public BehaviouralFeature operationDefinition(int st, int en, Vector entities, V
     System.out.println(">> Generic operation " + opname + "<" + pt + ">"); 
   } 
   else if (st0+2 < en && 
-      "<".equals(lexicals.get(st0) + ""))
+      "<".equals(lexicalText(st0)))
   { for (int j = st0+1; j < en; j++) 
-    { String lex = lexicals.get(j) + ""; 
+    { String lex = lexicalText(j); 
       if (">".equals(lex))
       { Vector pars = 
           parse_generic_parameters(st0+1,j-1,entities); 
@@ -4507,8 +4559,8 @@ public BehaviouralFeature operationDefinition(int st, int en, Vector entities, V
   localEntities.addAll(entities); 
 
   for (int i = st0; i < en; i++)
-  { String lx = lexicals.get(i) + "";
-    String lx1 = lexicals.get(i+1) + "";
+  { String lx = lexicalText(i);
+    String lx1 = lexicalText(i+1);
     if (lx.equals("pre") && lx1.equals(":"))
     { parseOpDecs(parsStart,i-1,localEntities,types,bf); 
       foundpre = true; 
@@ -4528,8 +4580,8 @@ public BehaviouralFeature operationDefinition(int st, int en, Vector entities, V
       valid = true; 
       st0 = i+2;
       for (int j = st0; j < en; j++) 
-      { String jx = lexicals.get(j) + ""; 
-        if ("activity".equals(jx) && ":".equals(lexicals.get(j+1) + ""))
+      { String jx = lexicalText(j); 
+        if ("activity".equals(jx) && ":".equals(lexicalText(j+1)))
         { st0 = j+2; 
           Expression pots = parse_expression(0,i+2,j-1,localEntities,types); 
           if (pots == null) 
@@ -4594,7 +4646,7 @@ private void parseOpDecs(int st, int en, Vector entities, Vector types, Behaviou
 
   int bracketend = en; 
   for (int i = st; i <= en; i++) 
-  { String lex = lexicals.get(i) + ""; 
+  { String lex = lexicalText(i); 
     if ("(".equals(lex)) { bcnt++; } 
     else if (")".equals(lex)) 
     { bcnt--; 
@@ -4614,7 +4666,7 @@ private void parseOpDecs(int st, int en, Vector entities, Vector types, Behaviou
 
   Vector res = new Vector();
   for (int j = st; j <= en; j++)
-  { String lx = lexicals.get(j) + "";
+  { String lx = lexicalText(j);
     if ("(".equals(lx)) { bcnt++; }
     else if (")".equals(lx)) 
     { bcnt--; 
@@ -4624,10 +4676,10 @@ private void parseOpDecs(int st, int en, Vector entities, Vector types, Behaviou
       }
     } 
     else if (":".equals(lx) && bcnt == 1)
-    { String attnme = lexicals.get(j-1) + ""; 
+    { String attnme = lexicalText(j-1); 
       Attribute att = null; 
       for (int k = j+1; k <= bracketend; k++) 
-      { String lxk = lexicals.get(k) + ""; 
+      { String lxk = lexicalText(k); 
         if (":".equals(lxk))
         { att = parseParameterDec(j-1, k-3, entities, types);     
           if (att == null)
@@ -4676,7 +4728,7 @@ public Attribute parseAttribute(Vector entities, Vector types)
 { int n = lexicals.size(); 
   if (n <= 1) 
   { return null; } 
-  String modality = "" + lexicals.get(0); 
+  String modality = lexicalText(0); 
 
   if ("attribute".equals(modality))
   { Attribute att = 
@@ -4684,14 +4736,14 @@ public Attribute parseAttribute(Vector entities, Vector types)
     return att; 
   } 
   else if ("static".equals(modality) && 
-           "attribute".equals("" + lexicals.get(1)))
+           "attribute".equals(lexicalText(1)))
   { Attribute att = 
       parseParameterDec(2,n-1,entities,types); 
     att.setStatic(true);
     return att; 
   } 
   /* else if ("frozen".equals(modality) && 
-           "attribute".equals("" + lexicals.get(1)))
+           "attribute".equals(lexicalText(1)))
   { Attribute att = 
       parseParameterDec(2,n-1,entities,types); 
     att.setFrozen(true);
@@ -4714,7 +4766,7 @@ private Attribute parseParameterDec(int st, int en, Vector entities, Vector type
 { // should be att : Type
   if (st+2 > en) { return null; } 
 
-  String attname = lexicals.get(st) + "";
+  String attname = lexicalText(st);
   Type typ = parseType(st+2,en,entities,types);
   if (typ == null)
   { System.err.println("!! ERROR: Invalid/unknown parameter type: " + showLexicals(st+2, en)); 
@@ -4730,9 +4782,9 @@ private Attribute parseParameterDecInit(int st, int en, Vector entities, Vector
 { // can be att : Type = value
   if (st + 2 > en) { return null; } 
 
-  String attname = lexicals.get(st) + ""; 
+  String attname = lexicalText(st); 
   for (int i = st+1; i < en; i++) 
-  { String lex = lexicals.get(i) + ""; 
+  { String lex = lexicalText(i); 
     if ("=".equals(lex))
     { Expression val = parse_expression(0,i+1,en,entities,types); 
       Type typ = parseType(st+2,i-1,entities,types); 
@@ -4762,7 +4814,7 @@ public Vector parseAttributeDecs(int st, int en, Vector entities, Vector types)
   int st0 = st;   
   Vector res = new Vector();
   for (int k = st+2; k < en; k++)
-  { String lx = lexicals.get(k) + "";
+  { String lx = lexicalText(k);
  
     if (lx.equals(":"))
     { Attribute att = parseParameterDec(st0,k-3,entities,types); // k-2?   
@@ -4790,7 +4842,7 @@ public Vector parseAttributeDecsInit(int st, int en, Vector entities, Vector typ
   int st0 = st;   
   Vector res = new Vector();
   for (int k = st+2; k < en; k++)
-  { String lx = lexicals.get(k) + "";
+  { String lx = lexicalText(k);
  
     if (lx.equals(":"))
     { Attribute att = parseParameterDecInit(st0,k-3,entities,types); // k-2?   
@@ -4814,7 +4866,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
 
  /*  public Expression parse_call_expression(int pstart, int pend)
   { for (int i = pstart; i < pend; i++)
-    { String ss = lexicals.get(i) + ""; 
+    { String ss = lexicalText(i); 
       if ("(".equals(ss))
       { Expression opref = parse_basic_expression(pstart,i-1); 
         if (opref == null)  { return null; } 
@@ -4833,7 +4885,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
   public Vector parse_call_arguments(int st, int ed, Vector entities, Vector types)
   { Vector res = new Vector(); 
     for (int i = st; i < ed; i++)
-    { String ss = lexicals.get(i) + ""; 
+    { String ss = lexicalText(i); 
       if (",".equals(ss))
       { Expression e1 = parse_basic_expression(st,i-1,entities,types); 
         res = parse_call_arguments(i+1,ed,entities,types); 
@@ -4852,8 +4904,8 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     { return null; } 
 
     if (lexicals.size() > 2 &&
-        lexicals.get(pstart).toString().equals("(") &&
-        lexicals.get(pend).toString().equals(")"))
+        lexicalText(pstart).equals("(") &&
+        lexicalText(pend).equals(")"))
     { Expression eg = parse_expression(bcount+1, pstart+1, pend-1,entities,types);
       // System.out.println("+++ parsed bracketed expression: " + eg);  
       if (eg != null)
@@ -4871,15 +4923,22 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
   }
   
   public ASTTerm parseAST(int st, int en)
+  { ASTTerm res = ASTTextParser.parseAST(getTokenStream(),st,en); 
+    if (res != null) 
+    { return res; } 
+    return parseASTRecursive(st,en); 
+  } 
+
+  public ASTTerm parseASTRecursive(int st, int en)
   { ASTTerm res = null; 
-    String lex = lexicals.get(st) + ""; 
+    String lex = lexicalText(st); 
 	
-	if ("(".equals(lex) && ")".equals(lexicals.get(en) + "")) {}
+	if ("(".equals(lex) && ")".equals(lexicalText(en))) {}
 	else 
 	{ return null; }
 	
-	String tag = lexicals.get(st+1) + ""; 
-	String value = lexicals.get(en-1) + ""; 
+	String tag = lexicalText(st+1); 
+	String value = lexicalText(en-1); 
 	
 	if (st+3 >= en)
 	{ res = new ASTBasicTerm(tag,value); 
@@ -4897,16 +4956,16 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
   { // expecting AST1 ... ASTn 
   
     Vector res = new Vector(); 
-    String lex = lexicals.get(st) + ""; 
+    String lex = lexicalText(st); 
 	
-    if ("(".equals(lex) && ")".equals(lexicals.get(en) + "")) {}
+    if ("(".equals(lex) && ")".equals(lexicalText(en))) {}
     else 
     { return null; }
 	
 	for (int i = st+1; i <= en; i++) 
-	{ String lexend = lexicals.get(i) + ""; 
+	{ String lexend = lexicalText(i); 
 	  if (")".equals(lexend))
-	  { ASTTerm pn = parseAST(st,i); 
+	  { ASTTerm pn = parseASTRecursive(st,i); 
 	    if (pn != null && i < en) 
 		{ Vector rest = parseASTSequence(i+1,en); 
 		  if (rest != null)
@@ -4934,13 +4993,13 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     String typ = ""; 
     Type fulltype = null; 
 
-    String f = lexicals.get(0) + ""; 
-    String t1 = lexicals.get(1) + ""; 
+    String f = lexicalText(0); 
+    String t1 = lexicalText(1); 
     if ("array".equals(t1))
     { // array ( t )
-      String t2 = lexicals.get(2) + ""; 
+      String t2 = lexicalText(2); 
       if ("(".equals(t2))
-      { String t = lexicals.get(3) + ""; 
+      { String t = lexicalText(3); 
         // System.out.println(">>> Feature " + f + " : Sequence(" + t + ")"); 
         typ = t; 
         Type elemt = Type.getTypeFor(typ,types,entities); 
@@ -4980,8 +5039,26 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
   
   public ASTTerm parseGeneralAST(String xstring)
   { nospacelexicalanalysisText(xstring);
-    int sz = lexicals.size();  
+    return parseGeneralASTLexicals(); 
+  }
+
+  public ASTTerm parseGeneralAST(Vector lexics)
+  { // lexics are the token texts as from 
+    // nospacelexicalanalysisText, eg., from an ASTDumpReader
+
+    lexicals = lexics; 
+    tokens = new TokenStream(lexicals); 
+    ops = new Vector(); 
+    return parseGeneralASTLexicals(); 
+  }
+
+  private ASTTerm parseGeneralASTLexicals()
+  { int sz = lexicals.size();  
     ASTTerm res = parseGeneralAST(0,sz-1); 
+    if (ASTTermFactory.isEnabled())
+    { res = ASTTermFactory.intern(res); } 
+    if (res != null && ASTTerm.freezeParsedTerms)
+    { res.freeze(); } 
     return res;
   }
 
@@ -5000,12 +5077,19 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
   }
   
   public ASTTerm parseGeneralAST(int st, int en)
+  { ASTTerm res = ASTTextParser.parseGeneralAST(getTokenStream(),st,en); 
+    if (res != null) 
+    { return res; } 
+    return parseGeneralASTRecursive(st,en); 
+  } 
+
+  public ASTTerm parseGeneralASTRecursive(int st, int en)
   { ASTTerm res = null; 
   
     if (lexicals == null || lexicals.size() == 0) 
     { return res; }
 	
-    String lex = lexicals.get(st) + ""; 
+    String lex = lexicalText(st); 
 
     if (st == en) 
     { ASTSymbolTerm sym = new ASTSymbolTerm(lex);
@@ -5013,13 +5097,13 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     }
 	
     if ("(".equals(lex) && 
-        ")".equals(lexicals.get(en) + "")) {}
+        ")".equals(lexicalText(en))) {}
     else 
     { return null; }
 	
 
-    String tag = lexicals.get(st+1) + ""; 
-    String value = lexicals.get(en-1) + "";
+    String tag = lexicalText(st+1); 
+    String value = lexicalText(en-1);
 
     if (st+1 == en-1)
     { ASTSymbolTerm sym = new ASTSymbolTerm(tag);
@@ -5046,7 +5130,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     if (st > en)
     { return res; }
 	
-    String lex = lexicals.get(st) + ""; 
+    String lex = lexicalText(st); 
 	
     if (st == en) 
     { ASTSymbolTerm sym = new ASTSymbolTerm(lex); 
@@ -5054,20 +5138,20 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       return res; 
     }
 	
-    if ("(".equals(lex) && st < en && isSimpleIdentifier(lexicals.get(st+1) + ""))
+    if ("(".equals(lex) && st < en && isSimpleIdentifier(lexicalText(st+1)))
     { // we expect an ASTTerm followed by the rest of the sequence
 	  int ocount = 1; 
 	  int ccount = 0; 
 	  
 	  for (int i = st+1; i <= en; i++) 
-	  { String lexend = lexicals.get(i) + ""; 
+	  { String lexend = lexicalText(i); 
           if ("(".equals(lexend))
           { ocount++; }
           else if (")".equals(lexend))
           { ccount++; }
 		
 	    if (")".equals(lexend) && ocount == ccount)
-	    { ASTTerm pn = parseGeneralAST(st,i); 
+	    { ASTTerm pn = parseGeneralASTRecursive(st,i); 
 	      if (pn != null && i < en) 
 		  { Vector rest = parseGeneralASTSequence(i+1,en); 
 		    if (rest != null)
@@ -5108,17 +5192,17 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
   public Expression parse_ATLexpression(int bcount, int pstart, int pend, Vector entities, Vector types)
   { Expression ee = null; 
     
-    if ("if".equals(lexicals.get(pstart) + "") && "endif".equals(lexicals.get(pend) + ""))
+    if ("if".equals(lexicalText(pstart)) && "endif".equals(lexicalText(pend)))
     { ee = parse_ATLconditional_expression(bcount,pstart,pend,entities,types); 
       if (ee != null) { return ee; } 
     } 
 
-    if ("let".equals(lexicals.get(pstart) + ""))
+    if ("let".equals(lexicalText(pstart)))
     { ee = parse_let_expression(bcount,pstart,pend,entities,types); 
       if (ee != null) { return ee; } 
     } 
 
-    if ("not".equals(lexicals.get(pstart) + ""))
+    if ("not".equals(lexicalText(pstart)))
     { ee = parse_ATLexpression(bcount,pstart+1,pend,entities,types); 
       if (ee != null) 
       { return new UnaryExpression("not", ee); } 
@@ -5202,7 +5286,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
 
   public Expression parse_ATLadditive_expression(int bc, int pstart, int pend, Vector entities, Vector types)
   { for (int i = pstart; i < pend; i++) 
-    { String ss = lexicals.get(i).toString(); 
+    { String ss = lexicalText(i); 
       if (ss.equals("+") || ss.equals("-") || ss.equals("\\/"))
       { Expression e1 = parse_ATLfactor_expression(bc,pstart,i-1,entities,types);
         Expression e2 = parse_ATLadditive_expression(bc,i+1,pend,entities,types);
@@ -5221,7 +5305,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
   public Expression parse_ATLfactor_expression(int bc, int pstart, int pend, Vector entities, Vector types)
   { // System.out.println("Trying to parse factor expression"); 
     for (int i = pstart; i < pend; i++) 
-    { String ss = lexicals.get(i).toString(); 
+    { String ss = lexicalText(i); 
       if // (ss.equals("+") || ss.equals("-") || 
          (ss.equals("/\\") || ss.equals("^") ||
           ss.equals("*") || ss.equals("/") || ss.equals("div") || 
@@ -5248,10 +5332,10 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     // case of  argument->op() and left->op(right)
     
     for (int i = pend-1; pstart < i; i--) 
-    { String ss = lexicals.get(i).toString(); 
-      if (ss.equals("->") && "(".equals(lexicals.get(i+2) + "") && 
-          ")".equals(lexicals.get(pend) + ""))
-      { String ss2 = lexicals.get(i+1).toString(); // must exist
+    { String ss = lexicalText(i); 
+      if (ss.equals("->") && "(".equals(lexicalText(i+2)) && 
+          ")".equals(lexicalText(pend)))
+      { String ss2 = lexicalText(i+1); // must exist
         if (i + 3 == pend &&
             ("any".equals(ss2) || "size".equals(ss2) || "isDeleted".equals(ss2) ||
              "display".equals(ss2) || "min".equals(ss2) || "max".equals(ss2) ||
@@ -5296,137 +5380,137 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
           return ue;   // This excludes additional operators to the ones listed above.  
         } 
         else if ("exists".equals(ss2) && 
-                 i+5 < pend && // "(".equals(lexicals.get(i+2) + "") &&
-                               "|".equals(lexicals.get(i+4) + "") &&
-                               ")".equals(lexicals.get(pend) + ""))
+                 i+5 < pend && // "(".equals(lexicalText(i+2)) &&
+                               "|".equals(lexicalText(i+4)) &&
+                               ")".equals(lexicalText(pend)))
         { // It is ->exists(v|...)
           Expression ee1 = parse_ATLexpression(bc+1,i+5,pend-1,entities,types);
           if (ee1 == null) { continue; } 
           Expression ee2 = parse_ATLfactor_expression(bc,pstart,i-1,entities,types); 
           if (ee2 == null) { continue; } 
           BasicExpression bevar = 
-            new BasicExpression(lexicals.get(i+3) + "",0);
+            new BasicExpression(lexicalText(i+3),0);
           BinaryExpression be = 
             new BinaryExpression("#",new BinaryExpression(":",bevar,ee2),ee1); 
           // System.out.println("Parsed: " + be); 
           return be; 
         } 
         else if (("exists1".equals(ss2) || "one".equals(ss2)) && 
-                 i+5 < pend && "|".equals(lexicals.get(i+4) + "") &&
-                               // "(".equals(lexicals.get(i+2) + "") &&
-                               ")".equals(lexicals.get(pend) + ""))
+                 i+5 < pend && "|".equals(lexicalText(i+4)) &&
+                               // "(".equals(lexicalText(i+2)) &&
+                               ")".equals(lexicalText(pend)))
         { // It is ->exists1(v|...)
           Expression ee1 = parse_ATLexpression(bc+1,i+5,pend-1,entities,types);
           if (ee1 == null) { continue; } 
           Expression ee2 = parse_ATLfactor_expression(bc,pstart,i-1,entities,types); 
           if (ee2 == null) { continue; } 
           BasicExpression bevar = 
-            new BasicExpression(lexicals.get(i+3) + "",0);
+            new BasicExpression(lexicalText(i+3),0);
           BinaryExpression be = 
             new BinaryExpression("#1",new BinaryExpression(":",bevar,ee2),ee1); 
           // System.out.println("Parsed: " + be); 
           return be; 
         } 
         else if ("forAll".equals(ss2) && 
-                 i+5 < pend && "|".equals(lexicals.get(i+4) + "") &&
-                               // "(".equals(lexicals.get(i+2) + "") &&
-                               ")".equals(lexicals.get(pend) + ""))
+                 i+5 < pend && "|".equals(lexicalText(i+4)) &&
+                               // "(".equals(lexicalText(i+2)) &&
+                               ")".equals(lexicalText(pend)))
         { // It is ->forAll(v|...)
           Expression ee1 = parse_ATLexpression(bc+1,i+5,pend-1,entities,types);
           if (ee1 == null) { continue; } 
           Expression ee2 = parse_ATLfactor_expression(bc,pstart,i-1,entities,types); 
           if (ee2 == null) { continue; } 
           BasicExpression bevar = 
-            new BasicExpression(lexicals.get(i+3) + "",0);
+            new BasicExpression(lexicalText(i+3),0);
           BinaryExpression be = 
             new BinaryExpression("!",new BinaryExpression(":",bevar,ee2),ee1); 
           // System.out.println("Parsed: " + be); 
           return be; 
         } 
         else if ("select".equals(ss2) && 
-                 i+5 < pend && "|".equals(lexicals.get(i+4) + "") &&
-                               // "(".equals(lexicals.get(i+2) + "") &&
-                               ")".equals(lexicals.get(pend) + ""))
+                 i+5 < pend && "|".equals(lexicalText(i+4)) &&
+                               // "(".equals(lexicalText(i+2)) &&
+                               ")".equals(lexicalText(pend)))
         { // It is ->select(v|...)
           Expression ee1 = parse_ATLexpression(bc+1,i+5,pend-1,entities,types);
           if (ee1 == null) { continue; } 
           Expression ee2 = parse_ATLfactor_expression(bc,pstart,i-1,entities,types); 
           if (ee2 == null) { continue; } 
           BasicExpression bevar = 
-            new BasicExpression(lexicals.get(i+3) + "",0);
+            new BasicExpression(lexicalText(i+3),0);
           BinaryExpression be = 
             new BinaryExpression("|",new BinaryExpression(":",bevar,ee2),ee1); 
           // System.out.println("Parsed: " + be); 
           return be; 
         } 
         else if ("reject".equals(ss2) && 
-                 i+5 < pend && "|".equals(lexicals.get(i+4) + "") &&
-                               // "(".equals(lexicals.get(i+2) + "") &&
-                               ")".equals(lexicals.get(pend) + ""))
+                 i+5 < pend && "|".equals(lexicalText(i+4)) &&
+                               // "(".equals(lexicalText(i+2)) &&
+                               ")".equals(lexicalText(pend)))
         { // It is ->reject(v|...)
           Expression ee1 = parse_ATLexpression(bc+1,i+5,pend-1,entities,types);
           if (ee1 == null) { continue; } 
           Expression ee2 = parse_ATLfactor_expression(bc,pstart,i-1,entities,types); 
           if (ee2 == null) { continue; } 
           BasicExpression bevar = 
-            new BasicExpression(lexicals.get(i+3) + "",0);
+            new BasicExpression(lexicalText(i+3),0);
           BinaryExpression be = 
             new BinaryExpression("|R",new BinaryExpression(":",bevar,ee2),ee1); 
           // System.out.println("Parsed: " + be); 
           return be; 
         } 
         else if ("collect".equals(ss2) && 
-                 i+5 < pend && "|".equals(lexicals.get(i+4) + "") &&
-                               // "(".equals(lexicals.get(i+2) + "") &&
-                               ")".equals(lexicals.get(pend) + ""))
+                 i+5 < pend && "|".equals(lexicalText(i+4)) &&
+                               // "(".equals(lexicalText(i+2)) &&
+                               ")".equals(lexicalText(pend)))
         { // It is ->collect(v|...)
           Expression ee1 = parse_ATLexpression(bc+1,i+5,pend-1,entities,types);
           if (ee1 == null) { continue; } 
           Expression ee2 = parse_ATLfactor_expression(bc,pstart,i-1,entities,types); 
           if (ee2 == null) { continue; } 
           BasicExpression bevar = 
-            new BasicExpression(lexicals.get(i+3) + "",0);
+            new BasicExpression(lexicalText(i+3),0);
           BinaryExpression be = 
             new BinaryExpression("|C",new BinaryExpression(":",bevar,ee2),ee1); 
           // System.out.println("Parsed: " + be); 
           return be; 
         } 
         else if ("unionAll".equals(ss2) && 
-                 i+5 < pend && "|".equals(lexicals.get(i+4) + "") &&
-                               // "(".equals(lexicals.get(i+2) + "") &&
-                               ")".equals(lexicals.get(pend) + ""))
+                 i+5 < pend && "|".equals(lexicalText(i+4)) &&
+                               // "(".equals(lexicalText(i+2)) &&
+                               ")".equals(lexicalText(pend)))
         { // It is ->collect(v|...)
           Expression ee1 = parse_ATLexpression(bc+1,i+5,pend-1,entities,types);
           if (ee1 == null) { continue; } 
           Expression ee2 = parse_ATLfactor_expression(bc,pstart,i-1,entities,types); 
           if (ee2 == null) { continue; } 
           BasicExpression bevar = 
-            new BasicExpression(lexicals.get(i+3) + "",0);
+            new BasicExpression(lexicalText(i+3),0);
           BinaryExpression be = 
             new BinaryExpression("|unionAll",new BinaryExpression(":",bevar,ee2),ee1); 
           // System.out.println("Parsed: " + be); 
           return be; 
         } 
         else if ("intersectAll".equals(ss2) && 
-                 i+5 < pend && "|".equals(lexicals.get(i+4) + "") &&
-                               // "(".equals(lexicals.get(i+2) + "") &&
-                               ")".equals(lexicals.get(pend) + ""))
+                 i+5 < pend && "|".equals(lexicalText(i+4)) &&
+                               // "(".equals(lexicalText(i+2)) &&
+                               ")".equals(lexicalText(pend)))
         { // It is ->collect(v|...)
           Expression ee1 = parse_ATLexpression(bc+1,i+5,pend-1,entities,types);
           if (ee1 == null) { continue; } 
           Expression ee2 = parse_ATLfactor_expression(bc,pstart,i-1,entities,types); 
           if (ee2 == null) { continue; } 
           BasicExpression bevar = 
-            new BasicExpression(lexicals.get(i+3) + "",0);
+            new BasicExpression(lexicalText(i+3),0);
           BinaryExpression be = 
             new BinaryExpression("|intersectAll",new BinaryExpression(":",bevar,ee2),ee1); 
           // System.out.println("Parsed: " + be); 
           return be; 
         } 
         else if ("sortedBy".equals(ss2) && 
-                 i+5 < pend && "|".equals(lexicals.get(i+4) + "") &&
-                               // "(".equals(lexicals.get(i+2) + "") &&
-                               ")".equals(lexicals.get(pend) + ""))
+                 i+5 < pend && "|".equals(lexicalText(i+4)) &&
+                               // "(".equals(lexicalText(i+2)) &&
+                               ")".equals(lexicalText(pend)))
         { // It is ->sortedBy(v|...)
 
           Expression ee1 = parse_ATLexpression(bc+1,i+5,pend-1,entities,types);
@@ -5434,59 +5518,59 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
           Expression ee2 = parse_ATLfactor_expression(bc,pstart,i-1,entities,types); 
           if (ee2 == null) { continue; } 
           BasicExpression bevar = 
-            new BasicExpression(lexicals.get(i+3) + "",0);
+            new BasicExpression(lexicalText(i+3),0);
           BinaryExpression be = 
             new BinaryExpression("|sortedBy",new BinaryExpression(":",bevar,ee2),ee1); 
           // System.out.println("Parsed: " + be); 
           return be; 
         } 
         else if ("selectMaximals".equals(ss2) && 
-                 i+5 < pend && "|".equals(lexicals.get(i+4) + "") &&
-                               // "(".equals(lexicals.get(i+2) + "") &&
-                               ")".equals(lexicals.get(pend) + ""))
+                 i+5 < pend && "|".equals(lexicalText(i+4)) &&
+                               // "(".equals(lexicalText(i+2)) &&
+                               ")".equals(lexicalText(pend)))
         { // It is ->collect(v|...)
           Expression ee1 = parse_ATLexpression(bc+1,i+5,pend-1,entities,types);
           if (ee1 == null) { continue; } 
           Expression ee2 = parse_ATLfactor_expression(bc,pstart,i-1,entities,types); 
           if (ee2 == null) { continue; } 
           BasicExpression bevar = 
-            new BasicExpression(lexicals.get(i+3) + "",0);
+            new BasicExpression(lexicalText(i+3),0);
           BinaryExpression be = 
             new BinaryExpression("|selectMaximals",new BinaryExpression(":",bevar,ee2),ee1); 
           // System.out.println("Parsed: " + be); 
           return be; 
         } 
         else if ("selectMinimals".equals(ss2) && 
-                 i+5 < pend && "|".equals(lexicals.get(i+4) + "") &&
-                               // "(".equals(lexicals.get(i+2) + "") &&
-                               ")".equals(lexicals.get(pend) + ""))
+                 i+5 < pend && "|".equals(lexicalText(i+4)) &&
+                               // "(".equals(lexicalText(i+2)) &&
+                               ")".equals(lexicalText(pend)))
         { // It is ->collect(v|...)
           Expression ee1 = parse_ATLexpression(bc+1,i+5,pend-1,entities,types);
           if (ee1 == null) { continue; } 
           Expression ee2 = parse_ATLfactor_expression(bc,pstart,i-1,entities,types); 
           if (ee2 == null) { continue; } 
           BasicExpression bevar = 
-            new BasicExpression(lexicals.get(i+3) + "",0);
+            new BasicExpression(lexicalText(i+3),0);
           BinaryExpression be = 
             new BinaryExpression("|selectMinimals",new BinaryExpression(":",bevar,ee2),ee1); 
           // System.out.println(">> Parsed: " + be); 
           return be; 
         } 
         else if ("iterate".equals(ss2) && 
-                 ";".equals(lexicals.get(i+4) + "") &&
-                 ":".equals(lexicals.get(i+6) + "") && 
+                 ";".equals(lexicalText(i+4)) &&
+                 ":".equals(lexicalText(i+6)) && 
                  i+7 < pend)
         { // lft->iterate(var; acc: T=val | rgt)
 
-          String bevar = lexicals.get(i+3) + "";
-          String acc = lexicals.get(i+5) + "";
+          String bevar = lexicalText(i+3);
+          String acc = lexicalText(i+5);
 
           for (int h = i+7; h < pend; h++)
-          { String hs = lexicals.get(h) + "";
+          { String hs = lexicalText(h);
             if (hs.equals("="))
             { Type accType = parseType(i+7,h-1,entities,types);
               for (int g = h+1; g < pend; g++)
-              { String gs = lexicals.get(g) + "";
+              { String gs = lexicalText(g);
                 if (gs.equals("|"))
                 { Expression lft = parse_ATLexpression(bc,h+1,g-1,entities,types);
                   Expression rgt = parse_ATLexpression(bc,g+1,pend-1,entities,types);
@@ -5501,16 +5585,16 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
             }
           }
         }
-        else if (pend == i+3) // && "(".equals(lexicals.get(i+2) + "") &&
-                              //  ")".equals(lexicals.get(pend) + ""))  
+        else if (pend == i+3) // && "(".equals(lexicalText(i+2)) &&
+                              //  ")".equals(lexicalText(pend)))  
         { Expression ee2 = parse_ATLfactor_expression(bc,pstart,i-1,entities,types); 
           if (ee2 == null) { continue; } 
           UnaryExpression be = new UnaryExpression(ss+ss2,ee2); 
           // System.out.println(">> Parsed new unary -> expression: " + be); 
           return be; 
         } 
-        else if (i + 3 <= pend) // && "(".equals(lexicals.get(i+2) + "") &&
-                                //   ")".equals(lexicals.get(pend) + "")) 
+        else if (i + 3 <= pend) // && "(".equals(lexicalText(i+2)) &&
+                                //   ")".equals(lexicalText(pend))) 
         // this should allow new Binary operators 
         { // System.out.println(">> Trying to parse at " + ss2); 
           Expression ee1 = parse_ATLexpression(bc+1,i+3,pend-1,entities,types); 
@@ -5570,22 +5654,22 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       return ef;
     }
 
-    if (pstart < pend && "}".equals(lexicals.get(pend) + "") && 
-        "Map".equals(lexicals.get(pstart) + "") && 
-		"{".equals(lexicals.get(pstart + 1) + ""))
+    if (pstart < pend && "}".equals(lexicalText(pend)) && 
+        "Map".equals(lexicalText(pstart)) && 
+		"{".equals(lexicalText(pstart + 1)))
     { return parse_ATLmap_expression(bc,pstart+1,pend,entities,types); } 
 
-    if (pstart < pend && "}".equals(lexicals.get(pend) + "") && 
-        "Sequence".equals(lexicals.get(pstart) + "") &&
-        "{".equals(lexicals.get(pstart + 1) + ""))
+    if (pstart < pend && "}".equals(lexicalText(pend)) && 
+        "Sequence".equals(lexicalText(pstart)) &&
+        "{".equals(lexicalText(pstart + 1)))
     { return parse_ATLsequence_expression(bc,pstart+1,pend,entities,types); } 
 
-    if (pstart < pend && "}".equals(lexicals.get(pend) + "") && 
-        "Set".equals(lexicals.get(pstart) + "") &&
-        "{".equals(lexicals.get(pstart + 1) + ""))
+    if (pstart < pend && "}".equals(lexicalText(pend)) && 
+        "Set".equals(lexicalText(pstart)) &&
+        "{".equals(lexicalText(pstart + 1)))
     { return parse_ATLset_expression(bc,pstart+1,pend,entities,types); } 
 
-    if (pstart < pend && "-".equals(lexicals.get(pstart) + ""))
+    if (pstart < pend && "-".equals(lexicalText(pstart)))
     { Expression arg = parse_ATLadditive_expression(bc,pstart+1,pend,entities,types); 
       if (arg == null) 
       { // System.err.println("! Not ATL additive expression: " + showLexicals(pstart+1, pend)); 
@@ -5594,8 +5678,8 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       return new UnaryExpression("-",arg); 
     } // likewise for "not"
 
-    if (pstart + 1 < pend && ")".equals(lexicals.get(pend) + "") && 
-        "(".equals(lexicals.get(pstart+1) + ""))
+    if (pstart + 1 < pend && ")".equals(lexicalText(pend)) && 
+        "(".equals(lexicalText(pstart+1)))
     { Expression op = parse_ATLbasic_expression(bc,pstart,pstart,entities,types); 
       
       Vector ve = parse_ATLfe_sequence(bc,pstart+2,pend-1,entities,types); 
@@ -5614,11 +5698,11 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       // return null; 
     }       
 
-    if (pstart + 2 < pend && ")".equals(lexicals.get(pend) + "") && 
-        "(".equals(lexicals.get(pstart+2) + "") && 
-        ("" + lexicals.get(pstart + 1)).charAt(0) == '.')
+    if (pstart + 2 < pend && ")".equals(lexicalText(pend)) && 
+        "(".equals(lexicalText(pstart+2)) && 
+        (lexicalText(pstart + 1)).charAt(0) == '.')
     { Expression objref = parse_ATLbasic_expression(bc,pstart,pstart,entities,types); 
-      String opstring = lexicals.get(pstart + 1) + ""; 
+      String opstring = lexicalText(pstart + 1); 
       String opstr = opstring.substring(1,opstring.length()); 
 
       Vector ve = parse_ATLfe_sequence(bc,pstart+3,pend-1,entities,types); 
@@ -5639,8 +5723,8 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       // return null; 
     }       
 
-    if (pstart < pend && "]".equals(lexicals.get(pend) + "") && 
-        "[".equals(lexicals.get(pstart+1) + ""))
+    if (pstart < pend && "]".equals(lexicalText(pend)) && 
+        "[".equals(lexicalText(pstart+1)))
     { Expression op = parse_ATLbasic_expression(bc,pstart,pstart,entities,types); 
       Expression arg = parse_ATLfactor_expression(bc,pstart+2,pend-1,entities,types); 
       if (arg != null && op != null && op instanceof BasicExpression) // must be
@@ -5652,9 +5736,9 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       // return null; 
     }       
 
-    if (pstart < pend && "]".equals(lexicals.get(pend-1) + "") && 
-        "[".equals(lexicals.get(pstart+1) + ""))  // be[arrind].be2
-    { String tail = lexicals.get(pend) + ""; 
+    if (pstart < pend && "]".equals(lexicalText(pend-1)) && 
+        "[".equals(lexicalText(pstart+1)))  // be[arrind].be2
+    { String tail = lexicalText(pend); 
       if (tail.charAt(0) == '.')
       { tail = tail.substring(1,tail.length()); } 
       Expression op = parse_ATLbasic_expression(bc,pstart,pstart,entities,types); 
@@ -5674,10 +5758,10 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       // return null; 
     }       
 
-  if (pstart + 1 < pend && ")".equals(lexicals.get(pend) + "") && 
-    !("(".equals(lexicals.get(pstart) + "")))
+  if (pstart + 1 < pend && ")".equals(lexicalText(pend)) && 
+    !("(".equals(lexicalText(pstart))))
   { for (int i = pstart + 1; i < pend; i++)
-    { String strs = lexicals.get(i) + "";
+    { String strs = lexicalText(i);
       if ("(".equals(strs))
       { Expression op = parse_ATLbasic_expression(bc, pstart, i-1,entities,types);
         if (op != null && op instanceof BasicExpression)
@@ -5695,7 +5779,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
   }
 
 
-   String ttail = lexicals.get(pend) + ""; 
+   String ttail = lexicalText(pend); 
    if (ttail.charAt(0) == '.')
    { ttail = ttail.substring(1,ttail.length());  
      BasicExpression op = new BasicExpression(ttail); 
@@ -5712,8 +5796,8 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
 
   public Expression parse_ATLbracketed_expression(int bcount, int pstart, int pend, Vector entities, Vector types)
   { if (lexicals.size() > 2 &&
-        lexicals.get(pstart).toString().equals("(") &&
-        lexicals.get(pend).toString().equals(")"))
+        lexicalText(pstart).equals("(") &&
+        lexicalText(pend).equals(")"))
     { Expression eg = parse_ATLexpression(bcount+1, pstart+1, pend-1,entities,types);
       // System.out.println(">> parsed bracketed expression: " + eg);  
       if (eg != null)
@@ -5766,10 +5850,13 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
      int bcnt = 0; int sqbcnt = 0; int cbcnt = 0;
      Vector res = new Vector();
      int st0 = st;
-     String buff = "";
      for (int i = st; i <= en; i++)
-     { String lx = lexicals.get(i) + "";
-       buff = buff + lx;
+     { String lx = lexicalText(i);
+       int close = matchingBracket(i);
+       if (close > i && close <= en)
+       { i = close; // bracketed part, no top-level separators
+         continue;
+       }
        if ("(".equals(lx)) { bcnt++; }
        else if (")".equals(lx)) 
        { bcnt--;
@@ -5789,7 +5876,6 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
            }
            res.add(exp);
            st0 = i + 1;
-           buff = "";
          }
        }
      }
@@ -5832,7 +5918,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     String mostrecentopen = null;  
 	 
     for (int i = st; i <= en; i++)
-    { String lex = lexicals.get(i) + ""; 
+    { String lex = lexicalText(i); 
       if ("(".equals(lex))
       { ob++; 
         mostrecentopen = "("; 
@@ -5918,7 +6004,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     boolean instring = false;  
 	 
     for (int i = st; i <= en; i++)
-    { String lex = lexicals.get(i) + ""; 
+    { String lex = lexicalText(i); 
       if ("\"".equals(lex)) 
       { if (instring) 
         { instring = false; } 
@@ -6943,10 +7029,10 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
   { Statement s1 = null;
     Statement s2 = null;
     for (int i = s; i < e; i++)
-    { String ss = lexicals.get(i) + "";
+    { String ss = lexicalText(i);
       if (ss.equals(";"))
       { int j = i+1; 
-        for ( ; j < e && ";".equals(lexicals.get(j) + ""); j++) 
+        for ( ; j < e && ";".equals(lexicalText(j)); j++) 
         { } 
 
         boolean bb = balancedBrackets(s,i-1); 
@@ -6975,11 +7061,11 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
   }
 
   public Statement parseLoopStatement(int s, int e, Vector entities, Vector types)
-  { if ("for".equals(lexicals.get(s) + ""))
+  { if ("for".equals(lexicalText(s)))
     { Statement s1 = null;
       Expression test = null;
       for (int i = s+1; i < e; i++)
-      { String ss = lexicals.get(i) + "";
+      { String ss = lexicalText(i);
         if (ss.equals("do"))
         { test = parse_statement_expression(0,s+1,i-1,entities,types);
           if (test == null) 
@@ -7003,16 +7089,16 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       // System.err.println("Unable to parse for statement: " + lexicals.get(s) + " ... " + 
       //                    lexicals.get(e)); 
     }
-    else if ("while".equals(lexicals.get(s) + ""))
+    else if ("while".equals(lexicalText(s)))
     { Statement s1 = null;
       Expression test = null;
       for (int i = s+1; i < e; i++)
-      { String ss = lexicals.get(i) + "";
+      { String ss = lexicalText(i);
         if (ss.equals("do"))
         { test = parse_statement_expression(0,s+1,i-1,entities,types);
           if (test == null) 
-          { if ("(".equals(lexicals.get(s+1) + "") && 
-                ")".equals(lexicals.get(i-1) + ""))
+          { if ("(".equals(lexicalText(s+1)) && 
+                ")".equals(lexicalText(i-1)))
             { test = parse_statement_expression(0,s+2,i-2,entities,types); 
               if (test == null)
               { System.err.println("ERROR!!: Invalid test in while loop: " + showLexicals(s+1,i-1));
@@ -7033,18 +7119,18 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       // System.err.println("Unable to parse while statement: " + lexicals.get(s) + " ... " + 
       //                    lexicals.get(e)); 
     }
-    else if ("repeat".equals(lexicals.get(s) + ""))
+    else if ("repeat".equals(lexicalText(s)))
     { Statement s1 = null;
       Expression test = null;
       for (int i = s+1; i < e; i++)
-      { String ss = lexicals.get(i) + "";
+      { String ss = lexicalText(i);
         if (ss.equals("until"))
         { s1 = parseStatement(s+1, i-1, entities, types);
           if (s1 == null) { continue; } 
           test = parse_statement_expression(0,i+1,e,entities,types);
           if (test == null) 
-          { if ("(".equals(lexicals.get(i+1) + "") && 
-                ")".equals(lexicals.get(e-1) + ""))
+          { if ("(".equals(lexicalText(i+1)) && 
+                ")".equals(lexicalText(e-1)))
             { test = parse_statement_expression(0,i+2,e-2,entities,types); 
               if (test == null)
               { System.err.println("!!ERROR!!: Invalid test in while loop: " + showLexicals(i+1,e-1));
@@ -7067,12 +7153,12 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
   }
 
   public Statement parseConditionalStatement(int s, int e, Vector entities, Vector types)
-  { if ("if".equals(lexicals.get(s) + ""))
+  { if ("if".equals(lexicalText(s)))
     { Statement s1 = null;
       Statement s2 = null;
       Expression test = null;
       for (int i = s+1; i < e; i++)
-      { String ss = lexicals.get(i) + "";
+      { String ss = lexicalText(i);
         if (ss.equals("then"))
         { test = parse_statement_expression(0,s+1,i-1,entities,types);
           if (test == null) 
@@ -7081,7 +7167,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
           } 
 
           for (int j = i+1; j < e; j++)
-          { String ss1 = lexicals.get(j) + "";
+          { String ss1 = lexicalText(j);
             if (ss1.equals("else"))
             { s1 = parseStatement(i+1, j-1, entities, types);
               s2 = parseBasicStatement(j+1, e, entities, types);  // else must be bracketed or basic
@@ -7109,13 +7195,13 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     // or 0 catch and 1 finally, or 1+ catch statements
     // must be at least one catch or a finally
 
-    if ("try".equals(lexicals.get(s) + ""))
+    if ("try".equals(lexicalText(s)))
     { Statement body = null;
       int currentStart = s; 
       TryStatement res = null; 
 
       for (int i = s+1; i < e; i++)
-      { String ss = lexicals.get(i) + "";
+      { String ss = lexicalText(i);
         if (ss.equals("catch") || ss.equals("finally"))
         { body = parseStatement(s+1,i-1,entities,types);
           if (body == null) 
@@ -7129,7 +7215,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       }  
         
       for (int j = currentStart+1; j < e; j++)
-      { String ss1 = lexicals.get(j) + "";
+      { String ss1 = lexicalText(j);
         if (ss1.equals("catch") || ss1.equals("finally"))
         { Statement cs1 = parseBasicStatement(currentStart, j-1, entities, types);
           if (cs1 == null) 
@@ -7161,16 +7247,16 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
        operation calls, assignment, bracketed statements */
 
     if (e == s)
-    { if ("skip".equals(lexicals.get(e) + ""))
+    { if ("skip".equals(lexicalText(e)))
       { return new InvocationStatement("skip",null,null); }
        // operation call
-      else if ("return".equals(lexicals.get(e) + ""))
+      else if ("return".equals(lexicalText(e)))
       { return new ReturnStatement(); }
-      else if ("break".equals(lexicals.get(e) + ""))
+      else if ("break".equals(lexicalText(e)))
       { return new BreakStatement(); }
-      else if ("continue".equals(lexicals.get(e) + ""))
+      else if ("continue".equals(lexicalText(e)))
       { return new ContinueStatement(); }
-      // else if (";".equals(lexicals.get(e) + ""))
+      // else if (";".equals(lexicalText(e)))
       // { return new InvocationStatement("skip",null,null); } 
       else 
       { Expression ee = parse_basic_expression(0,s,e,entities,types);
@@ -7189,8 +7275,8 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     else 
     { return null; } 
  
-    if ("(".equals(lexicals.get(s) + "") &&
-        ")".equals(lexicals.get(e) + ""))
+    if ("(".equals(lexicalText(s)) &&
+        ")".equals(lexicalText(e)))
     { Statement stat = parseStatement(s+1,e-1,entities,types); 
       if (stat == null) 
       { return null; } 
@@ -7200,22 +7286,22 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       ss.setBrackets(true); 
       return ss; 
     }  // set brackets
-    else if ("return".equals(lexicals.get(s) + ""))
+    else if ("return".equals(lexicalText(s)))
     { Expression ret = parse_expression(0,s+1,e,entities,types); 
       if (ret != null) 
       { return new ReturnStatement(ret); }  
     } 
-    else if ("execute".equals(lexicals.get(s) + ""))
+    else if ("execute".equals(lexicalText(s)))
     { Expression ret = parse_expression(0,s+1,e,entities,types); 
       if (ret != null) 
       { return new ImplicitInvocationStatement(ret); }  
     }
-    else if ("catch".equals(lexicals.get(s) + "") && 
-             "(".equals(lexicals.get(s+1) + ""))
+    else if ("catch".equals(lexicalText(s)) && 
+             "(".equals(lexicalText(s+1)))
     { for (int p = s+2; p < e; p++) 
-      { String lxc = lexicals.get(p) + ""; 
+      { String lxc = lexicalText(p); 
         if (")".equals(lxc) && 
-            "do".equals(lexicals.get(p+1) + ""))
+            "do".equals(lexicalText(p+1)))
         { Expression catchcond = parse_expression(0,s+2,p-1,entities,types); 
           Statement catchaction = parseBasicStatement(p+2,e,entities,types); 
           if (catchcond != null && catchaction != null) 
@@ -7224,9 +7310,9 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       } 
       // System.err.println("!! Invalid catch statement: " + showLexicals(s,e));     
     } 
-    else if ("assert".equals(lexicals.get(s) + ""))
+    else if ("assert".equals(lexicalText(s)))
     { for (int p = s+1; p < e; p++) 
-      { String lxc = lexicals.get(p) + ""; 
+      { String lxc = lexicalText(p); 
         if ("do".equals(lxc))
         { Expression assertcond = parse_expression(0,s+1,p-1,entities,types); 
           Expression assertmsg = parse_expression(0,p+1,e,entities,types); 
@@ -7239,23 +7325,23 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       { return new AssertStatement(assertc); } 
       // System.err.println("!! Invalid assert statement: " + showLexicals(s,e));     
     } 
-    else if ("finally".equals(lexicals.get(s) + ""))
+    else if ("finally".equals(lexicalText(s)))
     { Statement finalaction = parseBasicStatement(s+1,e,entities,types); 
       if (finalaction != null) 
       { return new FinalStatement(finalaction); }
     } 
-    else if ("error".equals(lexicals.get(s) + ""))
+    else if ("error".equals(lexicalText(s)))
     { Expression ret = parse_expression(0,s+1,e,entities,types); 
       if (ret != null) 
       { return new ErrorStatement(ret); }
       /* else 
       { System.err.println("!! Invalid expression in error statement: " + showLexicals(s+1,e)); } */     
     } 
-    else if ("var".equals(lexicals.get(s) + ""))
+    else if ("var".equals(lexicalText(s)))
     { // creation with complex type
-      String varname = lexicals.get(s+1) + ""; 
+      String varname = lexicalText(s+1); 
       for (int j = s+4; j < e; j++) 
-      { String chr = lexicals.get(j) + ""; 
+      { String chr = lexicalText(j); 
         if (":=".equals(chr))
         { Type typ1 = parseType(s+3,j-1,entities,types); 
           Expression expr = parse_expression(0,j+1,e,entities,types); 
@@ -7286,9 +7372,9 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
         return cs1; */  
       }  
     }  
- /*   else if (e == s + 2 && ":".equals(lexicals.get(s+1) + ""))
-    { CreationStatement cs = new CreationStatement(lexicals.get(e) + "", lexicals.get(s) + "");
-      Type tt = Type.getTypeFor(lexicals.get(e) + "", new Vector(), new Vector()); // assume primitive
+ /*   else if (e == s + 2 && ":".equals(lexicalText(s+1)))
+    { CreationStatement cs = new CreationStatement(lexicalText(e), lexicalText(s));
+      Type tt = Type.getTypeFor(lexicalText(e), new Vector(), new Vector()); // assume primitive
       if (tt != null) 
       { cs.setType(tt); }
       else 
@@ -7297,12 +7383,12 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     } */ // allow any type
     else 
     { for (int i = s; i < e; i++) 
-      { String ss = lexicals.get(i) + ""; 
+      { String ss = lexicalText(i); 
         if (":=".equals(ss))
-        { if (i == s + 3 && ":".equals(lexicals.get(s + 1) + ""))
+        { if (i == s + 3 && ":".equals(lexicalText(s + 1)))
           { // Assignment with declaration 
-            Type t = Type.getTypeFor(lexicals.get(s + 2) + "", new Vector(), new Vector()); 
-            String var = lexicals.get(s) + ""; 
+            Type t = Type.getTypeFor(lexicalText(s + 2), new Vector(), new Vector()); 
+            String var = lexicalText(s); 
             Expression exp2 = parse_expression(0,i+1,e,entities,types);
             if (exp2 == null) { return null; } 
             /* System.out.println("Parsed assignment with type: " + var + " : " +
@@ -7372,8 +7458,8 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     // If "(" is first, ")" is last, 
     // parse the statement sequence within them 
 
-    if ("(".equals(lexicals.get(s) + "") && 
-        ")".equals(lexicals.get(e) + ""))
+    if ("(".equals(lexicalText(s)) && 
+        ")".equals(lexicalText(e)))
     { res = splitIntoStatementSequence(bc,s+1,e-1,entities,types); 
       return res; 
     } 
@@ -7382,7 +7468,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     Vector s2 = new Vector();
 
     for (int i = s; i < e; i++)
-    { String ss = lexicals.get(i) + "";
+    { String ss = lexicalText(i);
       if (ss.equals(";") && bcc == bc && !instring)
       { // Top-level statement
         s1 = parseStatement(s,i-1,entities,types);
@@ -7435,14 +7521,14 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     // retain the package name, it becomes the system name. 
     int prevstart = 0; 
     for (int i = 0; i < en; i++) 
-    { String lex = lexicals.get(i) + ""; 
+    { String lex = lexicalText(i); 
       if ("package".equals(lex))
       { prevstart = i; 
         break; 
       } 
       else if ("import".equals(lex))
       { i++; 
-        String imp = lexicals.get(i) + ""; 
+        String imp = lexicalText(i); 
         importList.add(imp); 
       } 
     } 
@@ -7453,7 +7539,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     int st = prevstart; 
 
     for (int i = st+1; i < en; i++) 
-    { String lex = lexicals.get(i) + "";
+    { String lex = lexicalText(i);
       if ("package".equals(lex))
       { // parse contents of previous package: 
         Vector resp = parseKM3package(prevstart,i-1,entities,types,gens,pasts,pnames); 
@@ -7479,14 +7565,14 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
                      Vector entities, Vector types, 
                      Vector gens, Vector pasts, Vector pnames)
   { Vector res = new Vector(); 
-    if ("package".equals(lexicals.get(st) + "") && 
-        "{".equals(lexicals.get(st+2) + ""))
-    { String pname = lexicals.get(st+1) + ""; 
+    if ("package".equals(lexicalText(st)) && 
+        "{".equals(lexicalText(st+2)))
+    { String pname = lexicalText(st+1); 
       System.out.println(">> Parsing package " + pname); 
       pnames.add(pname); 
 
       for (int i = st+3; i < en;  i++) 
-      { String lx = lexicals.get(i) + ""; 
+      { String lx = lexicalText(i); 
         if ("class".equals(lx) || "abstract".equals(lx) || 
             "enumeration".equals(lx) || 
             "interface".equals(lx) || "datatype".equals(lx) || 
@@ -7505,9 +7591,9 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
                                      Vector types)
   { int st = 0; 
     int en = lexicals.size(); 
-    if ("package".equals(lexicals.get(st) + "") && 
-        "{".equals(lexicals.get(st+2) + ""))
-    { String pname = lexicals.get(st+1) + ""; 
+    if ("package".equals(lexicalText(st)) && 
+        "{".equals(lexicalText(st+2)))
+    { String pname = lexicalText(st+1); 
       System.out.println(">> Parsing package " + pname); 
     
       st = st+3; 
@@ -7526,10 +7612,10 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     { return; }
  
     for (int i = st + 2; i <= en; i++) 
-    { String lx = lexicals.get(i) + ""; 
+    { String lx = lexicalText(i); 
       if ("class".equals(lx) || 
           ("abstract".equals(lx) && 
-           i < en && "class".equals(lexicals.get(i+1) + ""))  
+           i < en && "class".equals(lexicalText(i+1)))  
           || 
           "enumeration".equals(lx) ||
           "interface".equals(lx) || 
@@ -7581,7 +7667,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     { return res; }
  
     for (int i = st + 2; i <= en;  i++) 
-    { String lx = lexicals.get(i) + ""; 
+    { String lx = lexicalText(i); 
       if ("class".equals(lx) || "abstract".equals(lx) || 
           "enumeration".equals(lx) ||
           "interface".equals(lx) || 
@@ -7643,7 +7729,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
   { Vector res = new Vector(); 
 
     for (int i = st; i <= en; i++) 
-    { String parType = lexicals.get(i) + "";
+    { String parType = lexicalText(i);
       if (",".equals(parType)) 
       { continue; }  
       Entity parEnt = new Entity(parType);
@@ -7664,7 +7750,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
 
     int prev = st; 
     for (int i = st; i <= en; i++) 
-    { String parType = lexicals.get(i) + "";
+    { String parType = lexicalText(i);
       if (",".equals(parType)) 
       { Type typ = 
           parseType(prev,i-1,entities,types); 
@@ -7696,27 +7782,27 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
                               Vector entities, Vector types)
   { String rname = ""; 
     int start = st; 
-    String lx = lexicals.get(st) + ""; 
+    String lx = lexicalText(st); 
 
     if ("abstract".equals(lx) &&
-        "class".equals(lexicals.get(st + 1) + ""))
+        "class".equals(lexicalText(st + 1)))
     { start = st + 4; 
-      rname = lexicals.get(st + 2) + ""; 
+      rname = lexicalText(st + 2); 
     } 
     else if ("interface".equals(lx))
     { start = st + 3; 
-      rname = lexicals.get(st + 1) + "";
+      rname = lexicalText(st + 1);
     } 
     else if ("class".equals(lx))
     { start = st + 3; 
-      rname = lexicals.get(st + 1) + "";
+      rname = lexicalText(st + 1);
     } 
     else if ("datatype".equals(lx))
-    { Type dt = new Type(lexicals.get(st + 1) + "", null); 
+    { Type dt = new Type(lexicalText(st + 1), null); 
       if (st + 3 < lexicals.size() && 
-          "=".equals(lexicals.get(st+2) + ""))
+          "=".equals(lexicalText(st+2)))
       { if (en <= st+4)
-        { String aname = lexicals.get(st+3) + ""; 
+        { String aname = lexicalText(st+3); 
         // start = st+4; 
           dt.setAlias(new Type(aname,null)); 
 
@@ -7747,14 +7833,14 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       Vector estereos = new Vector();
  
       while (j < en)
-      { String lxr = lexicals.get(j) + ""; 
+      { String lxr = lexicalText(j); 
     
         if ("literal".equals(lxr)) 
-        { values.add(lexicals.get(j+1) + ""); 
+        { values.add(lexicalText(j+1)); 
           j = j + 2; 
         }
         else if ("stereotype".equals(lxr))
-        { String stereo = lexicals.get(j+1) + ""; 
+        { String stereo = lexicalText(j+1); 
           estereos.add(stereo); 
           j = j + 2; 
         } // Only simple stereotypes. 
@@ -7762,7 +7848,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
         { j++; } 
       }
 
-      Type tt = new Type(lexicals.get(st + 1) + "", values); 
+      Type tt = new Type(lexicalText(st + 1), values); 
       tt.addStereotypes(estereos); 
 
       return tt; 
@@ -7794,37 +7880,37 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     Vector atts = new Vector(); 
     Vector roles = new Vector(); 
 
-    String lx = lexicals.get(st) + ""; 
+    String lx = lexicalText(st); 
 
     if ("abstract".equals(lx) &&
-        "class".equals(lexicals.get(st + 1) + "") && 
-        "}".equals(lexicals.get(en) + ""))
+        "class".equals(lexicalText(st + 1)) && 
+        "}".equals(lexicalText(en)))
     { abstr = true; 
       start = st + 3; 
-      rname = lexicals.get(st + 2) + ""; 
+      rname = lexicalText(st + 2); 
     } 
     else if ("interface".equals(lx) && 
-             "}".equals(lexicals.get(en) + ""))
+             "}".equals(lexicalText(en)))
     { interf = true; 
       start = st + 2; 
-      rname = lexicals.get(st + 1) + "";
+      rname = lexicalText(st + 1);
     } 
     else if ("class".equals(lx) && 
-             "}".equals(lexicals.get(en) + ""))
+             "}".equals(lexicalText(en)))
     { abstr = false;
       interf = false;  
       start = st + 2; 
-      rname = lexicals.get(st + 1) + "";
+      rname = lexicalText(st + 1);
     } 
     else if ("datatype".equals(lx))
-    { String tname = lexicals.get(st + 1) + ""; 
+    { String tname = lexicalText(st + 1); 
 
       Type dt = (Type) ModelElement.lookupByName(tname,types); 
       if (dt == null) 
       { dt = new Type(tname, null); }
 
       if (en <= st+4)
-      { String aname = lexicals.get(st+3) + ""; 
+      { String aname = lexicalText(st+3); 
         // start = st+4; 
         dt.setAlias(new Type(aname,null)); 
 
@@ -7854,14 +7940,14 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       Vector estereos = new Vector();
  
       while (j < en)
-      { String lxr = lexicals.get(j) + ""; 
+      { String lxr = lexicalText(j); 
     
         if ("literal".equals(lxr)) 
-        { values.add(lexicals.get(j+1) + ""); 
+        { values.add(lexicalText(j+1)); 
           j = j + 2; 
         }
         else if ("stereotype".equals(lxr))
-        { String stereo = lexicals.get(j+1) + ""; 
+        { String stereo = lexicalText(j+1); 
           estereos.add(stereo); 
           j = j + 2; 
         } // Only simple stereotypes. 
@@ -7869,7 +7955,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
         { j++; } 
       }
 
-      String tname = lexicals.get(st + 1) + ""; 
+      String tname = lexicalText(st + 1); 
  
       Type tt = (Type) ModelElement.lookupByName(tname,types); 
       if (tt == null) 
@@ -7905,11 +7991,11 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
 	
     String supr = ""; 
 
-    if ("<".equals(lexicals.get(start) + "") && 
-        ">".equals(lexicals.get(start + 2) + ""))
+    if ("<".equals(lexicalText(start)) && 
+        ">".equals(lexicalText(start + 2)))
     { System.out.println(">>> Generic class, parameter " + 
                          lexicals.get(start + 1));
-      String parType = lexicals.get(start + 1) + ""; 
+      String parType = lexicalText(start + 1); 
       Entity parEnt = new Entity(parType);
       parEnt.genericParameter = true; 
       parEnt.addStereotype("derived"); 
@@ -7919,9 +8005,9 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       entities.add(parEnt); 
       start = start + 3;  
     } // But could be several between the <>
-    else if ("<".equals(lexicals.get(start) + ""))
+    else if ("<".equals(lexicalText(start)))
     { for (int gi = start+1; gi < en; gi++)
-      { String sym = lexicals.get(gi) + ""; 
+      { String sym = lexicalText(gi); 
         if (">".equals(sym))
         { Vector gpars = 
              parse_generic_parameters(start+1,gi-1,entities); 
@@ -7937,9 +8023,9 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     // start points to the "{" or the token following 
     // complete class name.      
 
-    if ("extends".equals(lexicals.get(start) + "") || 
-        "implements".equals(lexicals.get(start) + ""))
-    { supr = lexicals.get(start+1) + ""; 
+    if ("extends".equals(lexicalText(start)) || 
+        "implements".equals(lexicalText(start)))
+    { supr = lexicalText(start+1); 
       int p = start + 1; 
       PreGeneralisation pregen = new PreGeneralisation(); 
       pregen.e1name = rname; 
@@ -7948,12 +8034,12 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       System.err.println(">>> " + rname + " specialises " + supr); 
 
       p++; 
-      if ((lexicals.get(p) + "").equals("{"))
+      if ((lexicalText(p)).equals("{"))
       { start = p; }
-      else if ((lexicals.get(p) + "").equals("<"))
+      else if ((lexicalText(p)).equals("<"))
       { // start = p+1; 
-        while (!(lexicals.get(p) + "").equals("{"))
-        { supr = lexicals.get(p) + ""; 
+        while (!(lexicalText(p)).equals("{"))
+        { supr = lexicalText(p); 
           if (">".equals(supr))
           { Vector args = 
               parse_type_sequence(start,p-1,entities,types); 
@@ -7964,8 +8050,8 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
         start = p;
       }    
       else 
-      { while (!(lexicals.get(p) + "").equals("{"))
-        { supr = lexicals.get(p) + ""; 
+      { while (!(lexicalText(p)).equals("{"))
+        { supr = lexicalText(p); 
           if (",".equals(supr)) 
           { } 
           else 
@@ -7999,14 +8085,14 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     System.out.println(">>> starting: " + lexicals.get(reached)); 
 
     for (int i = start + 1; i < en; i++) 
-    { String lx2 = lexicals.get(i) + ""; 
+    { String lx2 = lexicalText(i); 
       if ("attribute".equals(lx2) || 
           "reference".equals(lx2) || 
           "operation".equals(lx2) ||
           "query".equals(lx2) || // "frozen".equals(lx2) ||
           "static".equals(lx2) || "invariant".equals(lx2) || 
           "stereotype".equals(lx2)) 
-      { String lxr = lexicals.get(reached) + ""; 
+      { String lxr = lexicalText(reached); 
         if ("attribute".equals(lxr) || 
             "reference".equals(lxr) || "query".equals(lxr) || 
             "operation".equals(lxr) || "static".equals(lxr) || 
@@ -8014,7 +8100,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
             // "frozen".equals(lxr) ||
             "stereotype".equals(lxr)) 
         { if ("static".equals(lxr))
-          { if ("attribute".equals(lexicals.get(reached+1) + ""))
+          { if ("attribute".equals(lexicalText(reached+1)))
             { Attribute attr = parseAttributeClause(reached+1, i - 1, entities, types);
               if (attr == null) 
               { System.err.println("!! Cannot parse attribute " + 
@@ -8030,8 +8116,8 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
                 res.addAttribute(attr);
               } 
             } 
-            else if ("operation".equals(lexicals.get(reached+1) + "") || 
-                     "query".equals(lexicals.get(reached+1) + "")) 
+            else if ("operation".equals(lexicalText(reached+1)) || 
+                     "query".equals(lexicalText(reached+1))) 
             { BehaviouralFeature bf = 
                 operationDefinition(reached + 2, i-2, entities, types); 
               if (bf != null) 
@@ -8049,7 +8135,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
             } 
           } 
           /* else if ("frozen".equals(lxr))
-          { if ("attribute".equals(lexicals.get(reached+1) + ""))
+          { if ("attribute".equals(lexicalText(reached+1)))
             { Attribute attr = parseAttributeClause(reached+1, i - 1, entities, types);
               if (attr == null) 
               { System.err.println("!! Cannot parse attribute " + 
@@ -8132,8 +8218,8 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
           else if ("stereotype".equals(lxr))
           { String stereo = ""; 
 	       for (int kk = reached+1; kk <= i-2; kk++)
-	       { // System.out.println(lexicals.get(k) + ""); 
-               String lxstr = lexicals.get(kk) + ""; 
+	       { // System.out.println(lexicalText(k)); 
+               String lxstr = lexicalText(kk); 
                stereo = stereo + lxstr;  
              }
              res.addStereotype(stereo); 
@@ -8171,12 +8257,12 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     if (reached + 2 <= en - 1) 
     { boolean isStatic = false; 
       
-      if ("static".equals(lexicals.get(reached) + ""))
+      if ("static".equals(lexicalText(reached)))
       { isStatic = true; 
         reached = reached + 1; 
       } 
       
-      if ("attribute".equals(lexicals.get(reached) + ""))
+      if ("attribute".equals(lexicalText(reached)))
       { Attribute aa = parseAttributeClause(reached, en-1, entities, types); 
         if (aa == null) 
         { System.err.println("!! Cannot parse attribute " + 
@@ -8192,7 +8278,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
           res.addAttribute(aa);
         } 
       } 
-      else if ("reference".equals(lexicals.get(reached) + ""))
+      else if ("reference".equals(lexicalText(reached)))
       { PreAssociation ast = parseAssociationClause(reached, en-1, entities, types); 
         if (ast == null) 
         { System.err.println("!! Cannot parse reference " + 
@@ -8211,8 +8297,8 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
         }  
         // res.addAssociation(ast); 
       }  
-      else if ("operation".equals(lexicals.get(reached) + "") ||
-               "query".equals(lexicals.get(reached) + "")) 
+      else if ("operation".equals(lexicalText(reached)) ||
+               "query".equals(lexicalText(reached))) 
       { BehaviouralFeature bf = 
               operationDefinition(reached + 1, en-2, entities, types); 
         if (bf != null) 
@@ -8228,7 +8314,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
            errors.add(error3); 
         } 
       } 
-      else if ("invariant".equals(lexicals.get(reached) + ""))
+      else if ("invariant".equals(lexicalText(reached)))
       { Expression expr = parse_expression(0,reached+1,en-2,entities,types); 
         if (expr != null) 
         { Constraint cons = Constraint.getConstraint(expr); 
@@ -8243,7 +8329,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
           errors.add(error5); 
         }
       }  
-      else if ("stereotype".equals(lexicals.get(reached) + ""))
+      else if ("stereotype".equals(lexicalText(reached)))
 	  { /* Expression expr = parse_expression(0,reached+1,en-2); 
          if (expr != null) 
     	    { if (expr instanceof BasicExpression) 
@@ -8265,8 +8351,8 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
 		} */ 
 		String stereo = ""; 
 		for (int kk = reached+1; kk <= en-2; kk++)
-           { // System.out.println(lexicals.get(k) + ""); 
-             String lxstr = lexicals.get(kk) + ""; 
+           { // System.out.println(lexicalText(k)); 
+             String lxstr = lexicalText(kk); 
              stereo = stereo + lxstr;  
            }
 		res.addStereotype(stereo); 
@@ -8293,22 +8379,22 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
   public void parseUseCaseParameters(UseCase uc, int st, int en, Vector entities, Vector types)  
   {	int j = st; 
 	while (j <= en) 
-	{ String jx = lexicals.get(j) + "";
+	{ String jx = lexicalText(j);
        if ("includes".equals(jx))
-       { String inc = lexicals.get(j+1) + ""; 
+       { String inc = lexicalText(j+1); 
          uc.addIncludes(inc);
          j = j + 3;  
        } 
        else if ("extendedBy".equals(jx))
-       { String ext = lexicals.get(j+1) + ""; 
+       { String ext = lexicalText(j+1); 
          uc.addExtends(ext);
          j = j + 3;  
       }  
       else if ("stereotype".equals(jx))
-      { String stereo = lexicals.get(j+1) + ""; 
+      { String stereo = lexicalText(j+1); 
         for (int k = j+2; k <= en; k++)
-        { // System.out.println(lexicals.get(k) + ""); 
-          String lx = lexicals.get(k) + ""; 
+        { // System.out.println(lexicalText(k)); 
+          String lx = lexicalText(k); 
           if (";".equals(lx))
           { uc.addStereotype(stereo);
             j = k; 
@@ -8322,11 +8408,11 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
 		 j++;  
       }  
       else if ("parameter".equals(jx))
-      { String p = lexicals.get(j+1) + ""; 
+      { String p = lexicalText(j+1); 
         for (int k = j+2; k <= en; k++)
-        { // System.out.println(lexicals.get(k) + ""); 
+        { // System.out.println(lexicalText(k)); 
 		
-          if (";".equals(lexicals.get(k) + ""))
+          if (";".equals(lexicalText(k)))
           { Type ptype = parseType(j+3,k-1,entities,types); 
             if (ptype != null) 
             { uc.addParameter(p,ptype);
@@ -8340,11 +8426,11 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
         j++;  
       }
       else if ("attribute".equals(jx))
-      { String p = lexicals.get(j+1) + ""; 
+      { String p = lexicalText(j+1); 
         for (int k = j+2; k <= en; k++)
-        { // System.out.println(lexicals.get(k) + ""); 
+        { // System.out.println(lexicalText(k)); 
 		
-          if (";".equals(lexicals.get(k) + ""))
+          if (";".equals(lexicalText(k)))
           { Type ptype = parseType(j+3,k-1,entities,types); 
             if (ptype != null) 
             { uc.addAttribute(p,ptype); // it is automatically static 
@@ -8359,9 +8445,9 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       }
       else if ("query".equals(jx))   
       { for (int k = j+1; k <= en; k++)
-        { // System.out.println(lexicals.get(k) + ""); 
+        { // System.out.println(lexicalText(k)); 
 		
-          if (";".equals(lexicals.get(k) + ""))
+          if (";".equals(lexicalText(k)))
           { 
             BehaviouralFeature bf = 
                 operationDefinition(j+1, k-1, entities, types); 
@@ -8382,9 +8468,9 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       } 
       else if ("precondition".equals(jx))
       { for (int k = j+1; k <= en; k++)
-        { // System.out.println(lexicals.get(k) + ""); 
+        { // System.out.println(lexicalText(k)); 
 		
-          if (";".equals(lexicals.get(k) + ""))
+          if (";".equals(lexicalText(k)))
           { Expression expr = parse_expression(0,j+1,k-1,entities,types); 
             if (expr != null) 
             { Constraint cons = Constraint.getConstraint(expr); 
@@ -8408,7 +8494,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
   { // identifier, or identifier < seq of types >
 
     if (en == st)
-    { String ename = lexicals.get(st) + ""; 
+    { String ename = lexicalText(st); 
       Entity ent = 
          (Entity) ModelElement.lookupByName(ename,entities); 
       if (ent == null) 
@@ -8418,14 +8504,14 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     } 
 
     if (st < en)
-    { String ename = lexicals.get(st) + ""; 
+    { String ename = lexicalText(st); 
       Entity ent = 
          (Entity) ModelElement.lookupByName(ename,entities); 
       if (ent == null) 
       { ent = new Entity(ename); }
 
-      if ("<".equals(lexicals.get(st+1) + "") && 
-          ">".equals(lexicals.get(en) + ""))
+      if ("<".equals(lexicalText(st+1)) && 
+          ">".equals(lexicalText(en)))
       { Vector args = 
           parse_type_sequence(st+1,en-1,entities,types); 
         if (args != null) 
@@ -8446,15 +8532,15 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
                           Vector entities, Vector types, 
                           Vector gens, Vector pasts)
   { // usecase name : type { parameters postconditions activity }
-    String nme = lexicals.get(st+1) + "";
-    String colon = lexicals.get(st+2) + "";
+    String nme = lexicalText(st+1);
+    String colon = lexicalText(st+2);
     Type uctyp = new Type("void",null);  // default 
     int openingBracket = st + 4; 
     boolean foundstart = false; 
     Vector ucpars = new Vector(); 
 	
     for (int i = st + 3; i < en && !foundstart; i++)
-    { String lx = lexicals.get(i) + ""; 
+    { String lx = lexicalText(i); 
       if ("{".equals(lx))
       { openingBracket = i; 
         foundstart = true; 
@@ -8464,12 +8550,12 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
         else // usecase uc ( pars ) : type {
         { boolean foundtype = false; 
           for (int j = i-1; j > st + 1 && !foundtype; j--)
-          { String jx = lexicals.get(j) + ""; 
+          { String jx = lexicalText(j); 
             if (":".equals(jx))
             { uctyp = parseType(j+1,i-1,entities,types); 
               foundtype = true; 
-              if ("(".equals(lexicals.get(st+2) + "") &&
-                  ")".equals(lexicals.get(j-1) + ""))
+              if ("(".equals(lexicalText(st+2)) &&
+                  ")".equals(lexicalText(j-1)))
               { ucpars = 
                   parseAttributeDecs(st+3, j-2,
                                      entities, types); 
@@ -8499,8 +8585,8 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
 	
 	
     for (int i = st + 4; i < en; i++) 
-    { String lx = lexicals.get(i) + ""; 
-      if ("activity".equals(lx) && ":".equals(lexicals.get(i+1) + ""))
+    { String lx = lexicalText(i); 
+      if ("activity".equals(lx) && ":".equals(lexicalText(i+1)))
       { foundactivity = true;
         endpostconditions = i;
         startactivity = i+2;  
@@ -8508,9 +8594,9 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     }
     
     for (int i = st + 4; i < en && i < endpostconditions; i++) 
-    { String lx = lexicals.get(i) + ""; 
-      if (":".equals(lx) && ":".equals(lexicals.get(i+1) + ""))
-      { String scope = lexicals.get(i-1) + ""; // must be present, can be void
+    { String lx = lexicalText(i); 
+      if (":".equals(lx) && ":".equals(lexicalText(i+1)))
+      { String scope = lexicalText(i-1); // must be present, can be void
         Entity ent = (Entity) ModelElement.lookupByName(scope, entities); 
 		
         if (foundpostconditions == false)
@@ -8520,9 +8606,9 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
         }
 
         for (int j = i+2; j < en && j < endpostconditions; j++) 
-        { if (":".equals(lexicals.get(j) + "") && ":".equals(lexicals.get(j+1) + ""))
+        { if (":".equals(lexicalText(j)) && ":".equals(lexicalText(j+1)))
           { Expression ee; 
-            if (";".equals(lexicals.get(j-2) + ""))
+            if (";".equals(lexicalText(j-2)))
             { ee = parse_expression(0, i+2, j-3,entities,types); } 
             else 
             { ee = parse_expression(0, i+2, j-2,entities,types); } 
@@ -8556,7 +8642,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
           }
           else if (j == endpostconditions-1)  // the closing } 
           { Expression ff; 
-            if (";".equals(lexicals.get(j) + ""))
+            if (";".equals(lexicalText(j)))
             { ff = parse_expression(0, i+2, j-1,entities,types); } 
             else 
             { ff = parse_expression(0, i+2, j,entities,types); } 
@@ -8595,7 +8681,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     if (foundpostconditions == false && foundactivity == true)
     { parseUseCaseParameters(uc,st+4,startactivity-2,entities,types);
       int actualend = en-1; 
-      if (";".equals(lexicals.get(actualend) + ""))
+      if (";".equals(lexicalText(actualend)))
       { actualend = en-2; } 
 
       Statement stat = parseStatement(startactivity,actualend,entities,types); 
@@ -8608,7 +8694,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     }
     else if (foundactivity == true)
     { int actualend = en-1; 
-      if (";".equals(lexicals.get(actualend) + ""))
+      if (";".equals(lexicalText(actualend)))
       { actualend = en-2; } 
       Statement stat1 = parseStatement(startactivity,actualend,entities,types); 
       if (stat1 != null)
@@ -8621,7 +8707,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
 
     if (foundpostconditions == false && foundactivity == false)
     { int actualend = en-1; 
-      if (";".equals(lexicals.get(actualend) + ""))
+      if (";".equals(lexicalText(actualend)))
       { actualend = en-2; }
 	  parseUseCaseParameters(uc,st+4,actualend,entities,types);
     } 
@@ -8633,12 +8719,12 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
   { // attribute name [stereotypes] : type ;
     // attribute name [stereotypes] : type := init ;  
 
-    String nme = lexicals.get(st+1) + ""; 
+    String nme = lexicalText(st+1); 
 
     for (int i = st+2; i < en; i++) 
-    { if (":".equals(lexicals.get(i) + ""))
+    { if (":".equals(lexicalText(i)))
       { for (int j = i+1; j < en; j++) 
-        { if (":=".equals(lexicals.get(j) + ""))
+        { if (":=".equals(lexicalText(j)))
           { Expression init = 
               parse_expression(0,j+1,en-1,entities,types); 
             Type typ = 
@@ -8656,7 +8742,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
               }
 
               for (int k = st+2; k < i; k++) 
-              { String lx = lexicals.get(k) + ""; 
+              { String lx = lexicalText(k); 
                 if ("identity".equals(lx))
                 { att.stereotypes.add("identity"); 
                   att.setIdentity(true); 
@@ -8691,7 +8777,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
           System.out.println(">>> Attribute " + nme + ". Type = " + typ + ", elementType = " + att.getElementType()); 
 
           for (int j = st+2; j < i; j++) 
-          { String lx = lexicals.get(j) + ""; 
+          { String lx = lexicalText(j); 
             if ("identity".equals(lx))
             { att.stereotypes.add("identity"); 
               att.setIdentity(true); 
@@ -8723,16 +8809,16 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
   { // reference role2 [cards] [stereotypes] : Entity2 [opp] ; 
 
     PreAssociation res = new PreAssociation();  
-    res.role2 = lexicals.get(st+1) + "";
+    res.role2 = lexicalText(st+1);
     res.card2 = ModelElement.ONE;   // default
     int reached = st+2; 
     for (int i = st+2; i < en; i++) 
-    { if (":".equals(lexicals.get(i) + ""))
-      { String tt = lexicals.get(i+1) + ""; 
+    { if (":".equals(lexicalText(i)))
+      { String tt = lexicalText(i+1); 
         res.e2name = tt; 
 		
         for (int j = st+2; j < i; j++) 
-        { String lx = lexicals.get(j) + ""; 
+        { String lx = lexicalText(j); 
           if ("ordered".equals(lx))
           { res.stereotypes.add("ordered"); } 
           else if ("container".equals(lx))
@@ -8740,18 +8826,18 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
           else if ("qualified".equals(lx))
           { res.stereotypes.add("qualified"); } 
           else if ("[".equals(lx))
-          { if ("*".equals(lexicals.get(j+1) + ""))
+          { if ("*".equals(lexicalText(j+1)))
             { // upper and lower are MANY 
               res.card2 = ModelElement.MANY; 
             }
-            else if ("0".equals(lexicals.get(j+1) + "") && j+3 <= i &&  
-                     "-".equals(lexicals.get(j+2) + "") && 
-                     "1".equals(lexicals.get(j+3) + ""))
+            else if ("0".equals(lexicalText(j+1)) && j+3 <= i &&  
+                     "-".equals(lexicalText(j+2)) && 
+                     "1".equals(lexicalText(j+3)))
             { res.card2 = ModelElement.ZEROONE; } 
-            else if ("1".equals(lexicals.get(j+1) + "") && j+2 <= i &&  
-                     "-".equals(lexicals.get(j+2) + ""))
+            else if ("1".equals(lexicalText(j+1)) && j+2 <= i &&  
+                     "-".equals(lexicalText(j+2)))
             { res.card2 = ModelElement.MANY; } 
-            else if (j+2 <= i && "-".equals(lexicals.get(j+2) + ""))
+            else if (j+2 <= i && "-".equals(lexicalText(j+2)))
             { res.card2 = ModelElement.MANY; } 
             else 
             { res.card2 = ModelElement.ONE; } 
@@ -8761,22 +8847,22 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       } 
     }
 
-    String rlex = lexicals.get(reached) + ""; 
+    String rlex = lexicalText(reached); 
       // token after type name if any
 
     if (";".equals(rlex)) 
     { return res; } 
     else if ("oppositeOf".equals(rlex))
-    { res.role1 = lexicals.get(reached+1) + ""; 
+    { res.role1 = lexicalText(reached+1); 
       return res; 
     }  
     else if ("Set".equals(res.e2name) && "(".equals(rlex))
-    { res.e2name = lexicals.get(reached+1) + ""; 
+    { res.e2name = lexicalText(reached+1); 
       res.card2 = ModelElement.MANY; 
     } 
     else if ("Sequence".equals(res.e2name) && 
 "(".equals(rlex))
-    { res.e2name = lexicals.get(reached+1) + ""; 
+    { res.e2name = lexicalText(reached+1); 
       res.card2 = ModelElement.MANY; 
       res.stereotypes.add("ordered"); 
     }
@@ -8801,7 +8887,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     { st = parseATLLoopStatement(s,e,entities,types); }
     if (st == null)
     { st = parseATLConditionalStatement(s,e,entities,types); }
-    if (st == null && ";".equals(lexicals.get(e) + ""))
+    if (st == null && ";".equals(lexicalText(e)))
     { st = parseATLBasicStatement(s,e-1,entities,types); }
     return st;
   }
@@ -8811,7 +8897,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
   { Statement s1 = null;
     Statement s2 = null;
     for (int i = s; i < e; i++)
-    { String ss = lexicals.get(i) + "";
+    { String ss = lexicalText(i);
       if (ss.equals(";") || ss.equals("}"))
       { s1 = parseATLStatement(s,i,entities,types);
         s2 = parseATLStatement(i+1,e,entities,types);
@@ -8830,13 +8916,13 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
   }
 
   public Statement parseATLLoopStatement(int s, int e, Vector entities, Vector types)
-  { if ("for".equals(lexicals.get(s) + "") && 
-        "in".equals(lexicals.get(s+3) + ""))
+  { if ("for".equals(lexicalText(s)) && 
+        "in".equals(lexicalText(s+3)))
     { Statement s1 = null;
       Expression test = null;
       for (int i = s+1; i < e; i++)
-      { String ss = lexicals.get(i) + "";
-        if (ss.equals("{") && "}".equals(lexicals.get(e) + ""))
+      { String ss = lexicalText(i);
+        if (ss.equals("{") && "}".equals(lexicalText(e)))
         { Expression var = parse_ATLexpression(0,s+2,s+2,entities,types);
           Expression range = parse_ATLexpression(0,s+4,i-2,entities,types); 
           s1 = parseATLStatement(i+1, e-1,entities,types);
@@ -8851,11 +8937,11 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
         }
       }
     }
-    else if ("while".equals(lexicals.get(s) + ""))
+    else if ("while".equals(lexicalText(s)))
     { Statement s1 = null;
       Expression test = null;
       for (int i = s+1; i < e; i++)
-      { String ss = lexicals.get(i) + "";
+      { String ss = lexicalText(i);
         if (ss.equals("{"))
         { test = parse_ATLexpression(0,s+1,i-1,entities,types);
           s1 = parseATLStatement(i+1, e,entities,types);
@@ -8872,19 +8958,19 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
   }
 
   public Statement parseATLConditionalStatement(int s, int e, Vector entities, Vector types)
-  { if ("if".equals(lexicals.get(s) + ""))
+  { if ("if".equals(lexicalText(s)))
     { Statement s1 = null;
       Statement s2 = null;
       Expression test = null;
       for (int i = s+1; i < e; i++)
-      { String ss = lexicals.get(i) + "";
-        if (ss.equals("{") && "}".equals(lexicals.get(e) + ""))
+      { String ss = lexicalText(i);
+        if (ss.equals("{") && "}".equals(lexicalText(e)))
         { test = parse_ATLexpression(0,s+1,i-1,entities,types);
           if (test == null) { continue; } 
           
           for (int j = i+1; j < e; j++)
-          { String ss1 = lexicals.get(j) + "";
-            if (ss1.equals("else") && "{".equals(lexicals.get(j+1) + ""))
+          { String ss1 = lexicalText(j);
+            if (ss1.equals("else") && "{".equals(lexicalText(j+1)))
             { s1 = parseATLStatement(i+1, j-2,entities,types);
               s2 = parseATLStatement(j+2, e-1,entities,types);
               if (s1 == null || s2 == null || test == null)
@@ -8905,10 +8991,10 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
 
   public Statement parseATLBasicStatement(int s, int e, Vector entities, Vector types)
   { if (e == s)
-    { if ("skip".equals(lexicals.get(e) + ""))
+    { if ("skip".equals(lexicalText(e)))
       { return new InvocationStatement("skip",null,null); }
        // operation call
-      else if ("return".equals(lexicals.get(e) + ""))
+      else if ("return".equals(lexicalText(e)))
       { return new ReturnStatement(); } 
       else 
       { Expression ee = parse_ATLbasic_expression(0,s,e,entities,types);
@@ -8917,19 +9003,19 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
         return istat; 
       }
     }
-    else if ("return".equals(lexicals.get(s) + ""))
+    else if ("return".equals(lexicalText(s)))
     { Expression ret = parse_ATLexpression(0,s+1,e,entities,types); 
       if (ret != null) 
       { return new ReturnStatement(ret); }
       else 
       { System.err.println("Invalid expression in return: " + showLexicals(s+1,e)); }    
     } 
-    else if ("catch".equals(lexicals.get(s) + "") && 
-             "(".equals(lexicals.get(s+1) + ""))
+    else if ("catch".equals(lexicalText(s)) && 
+             "(".equals(lexicalText(s+1)))
     { for (int p = s+2; p < e; p++) 
-      { String lxc = lexicals.get(p) + ""; 
+      { String lxc = lexicalText(p); 
         if (")".equals(lxc) && 
-            "do".equals(lexicals.get(p+1) + ""))
+            "do".equals(lexicalText(p+1)))
         { Expression catchcond = parse_ATLexpression(0,s+2,p-1,entities,types); 
           Statement catchaction = parseATLStatement(p+2,e,entities,types); 
           if (catchcond != null && catchaction != null) 
@@ -8938,16 +9024,16 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       } 
       System.err.println("Invalid catch statement: " + showLexicals(s,e));     
     } 
-    else if ("error".equals(lexicals.get(s) + ""))
+    else if ("error".equals(lexicalText(s)))
     { Expression ret = parse_ATLexpression(0,s+1,e,entities,types); 
       if (ret != null) 
       { return new ErrorStatement(ret); }
       else 
       { System.err.println("Invalid expression in error statement: " + showLexicals(s+1,e)); }    
     } 
-    else if ("assert".equals(lexicals.get(s) + ""))
+    else if ("assert".equals(lexicalText(s)))
     { for (int p = s+1; p < e; p++) 
-      { String lxc = lexicals.get(p) + ""; 
+      { String lxc = lexicalText(p); 
         if ("do".equals(lxc))
         { Expression assertcond = parse_ATLexpression(0,s+1,p-1,entities,types); 
           Expression assertmsg = parse_ATLexpression(0,p+1,e,entities,types); 
@@ -8960,9 +9046,9 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       { return new AssertStatement(assertc); } 
       System.err.println("!! Invalid assert statement: " + showLexicals(s,e));     
     } 
-    else if ("var".equals(lexicals.get(s) + ""))  // for ETL
+    else if ("var".equals(lexicalText(s)))  // for ETL
     { Expression lft = parse_ATLbasic_expression(0,s+1,s+1,entities,types); 
-      if ("new".equals(lexicals.get(s+3) + "")) 
+      if ("new".equals(lexicalText(s+3))) 
       { //  var v = new E() in ETL
         Type tt = parseType(s+4,e-2,entities,types); 
         if (tt != null) 
@@ -8983,7 +9069,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
         return ss;   
       } // actually needs to declare lft. 
     }  
-    else if ("delete".equals(lexicals.get(s) + ""))   // for ETL
+    else if ("delete".equals(lexicalText(s)))   // for ETL
     { Expression dexp = parse_ATLexpression(0,s+1,e,entities,types); 
       if (dexp != null) 
       { dexp.setBrackets(true); 
@@ -8993,11 +9079,11 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     }  
     else 
     { for (int i = s; i < e; i++) 
-      { String ss = lexicals.get(i) + ""; 
+      { String ss = lexicalText(i); 
          
         // System.out.println("Trying to parse assignment " + ss); 
 
-        if (i+1 < e && "<".equals(ss) && "-".equals(lexicals.get(i+1) + "") ) 
+        if (i+1 < e && "<".equals(ss) && "-".equals(lexicalText(i+1)) ) 
         { Expression e1 = parse_ATLbasic_expression(0,s,i-1,entities,types); 
           Expression e2 = parse_ATLexpression(0,i+2,e,entities,types); 
           if (e1 == null || e2 == null)
@@ -9007,7 +9093,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
           res.setOperator("<-"); 
           return res;  
         } 
-        else if (i+1 < e && ":".equals(ss) && ":=".equals(lexicals.get(i+1) + "") ) 
+        else if (i+1 < e && ":".equals(ss) && ":=".equals(lexicalText(i+1)) ) 
         { Expression e1 = parse_ATLbasic_expression(0,s,i-1,entities,types); 
           Expression e2 = parse_ATLexpression(0,i+2,e,entities,types); 
           if (e1 == null || e2 == null)
@@ -9050,20 +9136,20 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
 
 
   public ATLModule parseATL(Vector entities, Vector types)
-  { String keyword = lexicals.get(0) + ""; 
+  { String keyword = lexicalText(0); 
 
     if (("module".equals(keyword) || 
          "library".equals(keyword)) && 
-        ";".equals(lexicals.get(2) + ""))
-    { String mname = lexicals.get(1) + ""; 
+        ";".equals(lexicalText(2)))
+    { String mname = lexicalText(1); 
       ATLModule mod = new ATLModule(mname);
       Compiler2.atlModuleName = mname; 
  
       for (int i = 0; i < lexicals.size();  i++) 
-      { if ("lazy".equals(lexicals.get(i) + "") || 
-            "helper".equals(lexicals.get(i) + "") ||
-            "unique".equals(lexicals.get(i) + "") || 
-            "rule".equals(lexicals.get(i) + ""))
+      { if ("lazy".equals(lexicalText(i)) || 
+            "helper".equals(lexicalText(i)) ||
+            "unique".equals(lexicalText(i)) || 
+            "rule".equals(lexicalText(i)))
         { Vector v = parse_ATL_module(i,lexicals.size()-1,
                                       entities,types,mod); 
           // mod.setElements(v); 
@@ -9079,10 +9165,10 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     if (st >= en)
     { return res; } 
     for (int i = st + 2; i <= en;  i++) 
-    { if ("lazy".equals(lexicals.get(i) + "") || 
-          "rule".equals(lexicals.get(i) + "") ||
-          "unique".equals(lexicals.get(i) + "") || 
-          "helper".equals(lexicals.get(i) + ""))
+    { if ("lazy".equals(lexicalText(i)) || 
+          "rule".equals(lexicalText(i)) ||
+          "unique".equals(lexicalText(i)) || 
+          "helper".equals(lexicalText(i)))
       { Rule r = parseATLrule(st,i-1,entities,types,mod);
         if (r != null) 
         { mod.addElement(r); } 
@@ -9108,55 +9194,55 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     int start = st; 
     int rulestart = st; 
 
-    if ("lazy".equals(lexicals.get(st) + "") &&
-        "rule".equals(lexicals.get(st + 1) + "") &&  
-        en - st >= 4 && "}".equals(lexicals.get(en) + ""))
+    if ("lazy".equals(lexicalText(st)) &&
+        "rule".equals(lexicalText(st + 1)) &&  
+        en - st >= 4 && "}".equals(lexicalText(en)))
     { lazy = true; 
       start = st + 4; 
-      rname = lexicals.get(st + 2) + "";
+      rname = lexicalText(st + 2);
       rulestart = st+3;  
     } 
-    else if ("unique".equals(lexicals.get(st) + "") &&
-        "lazy".equals(lexicals.get(st + 1) + "") &&  
-        en - st >= 5 && "}".equals(lexicals.get(en) + ""))
+    else if ("unique".equals(lexicalText(st)) &&
+        "lazy".equals(lexicalText(st + 1)) &&  
+        en - st >= 5 && "}".equals(lexicalText(en)))
     { lazy = true; 
       unique = true; 
       start = st + 5; 
-      rname = lexicals.get(st + 3) + "";
+      rname = lexicalText(st + 3);
       rulestart = st + 4;  
     } 
-    else if ("rule".equals(lexicals.get(st) + "") && 
-        en - st >= 4 && "}".equals(lexicals.get(en) + ""))
+    else if ("rule".equals(lexicalText(st)) && 
+        en - st >= 4 && "}".equals(lexicalText(en)))
     { lazy = false; 
       start = st + 3; 
-      rname = lexicals.get(st + 1) + "";
+      rname = lexicalText(st + 1);
       rulestart = st + 2; 
     } 
-    else if ("helper".equals(lexicals.get(st) + "") && 
+    else if ("helper".equals(lexicalText(st)) && 
         en - st >= 9 && 
-        "context".equals(lexicals.get(st + 1) + "") && 
-        ";".equals(lexicals.get(en) + "")) 
+        "context".equals(lexicalText(st + 1)) && 
+        ";".equals(lexicalText(en))) 
     { // helper context Ent def : name ( pars ) : Rtype = expr ;
       // helper context Ent def : name : Rtype = expr ; 
 
       for (int t = st + 2; t < en; t++) 
-      { String lext = lexicals.get(t) + ""; 
+      { String lext = lexicalText(t); 
         if ("def".equals(lext))
         { Type contextType = 
                   parseType(st+2,t-1,entities,types); 
           
           String ent = contextType + ""; 
-          String attname = lexicals.get(t + 2) + ""; 
+          String attname = lexicalText(t + 2); 
 
           System.out.println(">>> Helper operation " + attname + " on context " + contextType); 
 
-          if ("(".equals(lexicals.get(t + 3) + ""))
+          if ("(".equals(lexicalText(t + 3)))
           { // helper operation of an entity or built-in type
             for (int p = t+4; p < en; p++) 
-            { String ps = lexicals.get(p) + ""; 
+            { String ps = lexicalText(p); 
               if (ps.equals("="))
               { for (int q = p-1; q > t+4; q--) 
-                { String qs = lexicals.get(q) + ""; 
+                { String qs = lexicalText(q); 
                   if (qs.equals(":"))
                   { Vector params = 
                       parseAttributeDecs(t+4,q-2,entities,types);
@@ -9208,13 +9294,13 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
           { // helper context Type def : nme : Rtype = expr ; 
             // helper 'attribute' - actually a cached operation
             for (int r = t+4; r < en; r++) 
-            { String rs = lexicals.get(r) + ""; 
+            { String rs = lexicalText(r); 
               if (rs.equals("="))
               { Type restype = parseType(t+4,r-1,entities,types);
 
                 System.out.println(">>> Helper attribute " + attname + " on context " + contextType); 
  
-          // String atttype = lexicals.get(st + 7) + ""; 
+          // String atttype = lexicalText(st + 7); 
                 Expression exp = parse_ATLexpression(0,r+1,en-1,entities,types); 
           // Attribute att = new Attribute(attname,new Type(atttype,null),ModelElement.INTERNAL); 
           // att.setInitialExpression(exp); 
@@ -9254,23 +9340,23 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       } 
       return null; 
     } 
-    else if ("helper".equals(lexicals.get(st) + "") && 
+    else if ("helper".equals(lexicalText(st)) && 
         en - st >= 7 && 
-        "def".equals(lexicals.get(st + 1) + "") && 
-        ";".equals(lexicals.get(en) + "")) 
+        "def".equals(lexicalText(st + 1)) && 
+        ";".equals(lexicalText(en))) 
     { // helper def : name() : rt = expr ; 
 
-      String attname = lexicals.get(st + 3) + ""; 
-      if ("(".equals(lexicals.get(st + 4) + ""))
+      String attname = lexicalText(st + 3); 
+      if ("(".equals(lexicalText(st + 4)))
       { // helper operation of the ATL module
 
         System.out.println(">>> Helper module operation " + attname); 
 
         for (int pp = st+4; pp < en; pp++) 
-        { String pps = lexicals.get(pp) + ""; 
+        { String pps = lexicalText(pp); 
           if (pps.equals("="))
           { for (int qq = pp-1; qq > st+4; qq--) 
-            { String qqs = lexicals.get(qq) + ""; 
+            { String qqs = lexicalText(qq); 
               if (qqs.equals(":"))
               { Vector params = parseAttributeDecs(st+4,qq-2,entities,types);
                 Type atType = parseType(qq+1,pp-1,entities,types); 
@@ -9298,7 +9384,7 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
         System.out.println(">>> Helper module attribute " + attname); 
 
         for (int rr = st+5; rr < en; rr++) 
-        { String rrs = lexicals.get(rr) + ""; 
+        { String rrs = lexicalText(rr); 
           if (rrs.equals("="))
           { Type hrestype = parseType(st+5,rr-1,entities,types); 
             Expression hexp = parse_ATLexpression(0,rr+1,en-1,entities,types); 
@@ -9320,21 +9406,21 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     System.out.println(">>> Parsing ATL rule " + rname + 
                        " " + lexicals.get(rulestart)); 
 
-    if ("(".equals(lexicals.get(rulestart) + ""))
+    if ("(".equals(lexicalText(rulestart)))
     { for (int d = rulestart; d < en; d++)
-      { String sd = lexicals.get(d) + "";
+      { String sd = lexicalText(d);
         if (sd.equals("{"))
         { Vector params = 
             parseAttributeDecs(rulestart+1,d-2,
                                entities,types);
           for (int f = d+1; f < en; f++)
-          { String sf = lexicals.get(f) + "";
+          { String sf = lexicalText(f);
             if ("using".equals(sf))
             { for (int g = f+1; g < en; g++) 
-              { String sg = lexicals.get(g) + ""; 
+              { String sg = lexicalText(g); 
                 if ("to".equals(sg))
                 { for (int h = g+1; h < en; h++) 
-                  { String hs = lexicals.get(h) + ""; 
+                  { String hs = lexicalText(h); 
                     if ("do".equals(hs))
                     { Vector uvars = parseUsingClause(f, g-1, entities, types); 
                       OutPattern toClaus = parseToClause(g, h-1, entities, types);
@@ -9385,11 +9471,11 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
 
     start = rulestart; 
     for (int i = rulestart; i < en; i++) 
-    { String lex = lexicals.get(i) + ""; 
+    { String lex = lexicalText(i); 
 
       if ("extends".equals(lex)) 
       { isExtension = true;
-        extendedRule = lexicals.get(i+1) + ""; 
+        extendedRule = lexicalText(i+1); 
       } 
 
       if ("{".equals(lex))
@@ -9399,11 +9485,11 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     } // skip over extends.
 
     for (int i = start+1; i < en; i++) 
-    { if ("to".equals(lexicals.get(i) + "")) 
+    { if ("to".equals(lexicalText(i))) 
       { InPattern fromClause = parseFromClause(start+1, i - 1, entities, types); 
         for (int j = i; j < en; j++) 
-        { if ("do".equals(lexicals.get(j) + "") && "{".equals(lexicals.get(j+1) + "") && 
-              "}".equals(lexicals.get(en-1) + "") )
+        { if ("do".equals(lexicalText(j)) && "{".equals(lexicalText(j+1)) && 
+              "}".equals(lexicalText(en-1)) )
           { OutPattern toClause = parseToClause(i, j - 1, entities, types); 
             Statement stat = parseATLStatement(j+2, en-2,entities,types);
             MatchedRule mr = new MatchedRule(lazy, unique); 
@@ -9438,12 +9524,12 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
   } 
 
   public InPattern parseFromClause(int st, int en, Vector entities, Vector types) 
-  { if ("from".equals(lexicals.get(st) + "")) { }
+  { if ("from".equals(lexicalText(st))) { }
     else { return null; } 
 
     int dec_end = en; 
     for (int i = st+1; i < en; i++) 
-    { if ("(".equals(lexicals.get(i) + ""))
+    { if ("(".equals(lexicalText(i)))
       { dec_end = i - 1; 
         // System.out.println(dec_end); 
         break; 
@@ -9456,8 +9542,8 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     InPatternElement ipe = null; 
    
     for (int j = st+1; j+2 <= dec_end; j = j+4)
-    { String attname = lexicals.get(j) + ""; 
-      String tname = lexicals.get(j+2) + ""; 
+    { String attname = lexicalText(j); 
+      String tname = lexicalText(j+2); 
 
       // System.out.println("Input variable " + attname); 
 
@@ -9482,12 +9568,12 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
   } 
 
   public OutPattern parseToClause(int st, int en, Vector entities, Vector types) 
-  { if ("to".equals(lexicals.get(st) + "")) { }
+  { if ("to".equals(lexicalText(st))) { }
     else { return null; } 
 
     int dec_end = en; 
     for (int i = st + 1; i < en; i++) 
-    { if ("do".equals(lexicals.get(i) + ""))
+    { if ("do".equals(lexicalText(i)))
       { dec_end = i - 1; 
         // System.out.println(dec_end); 
         break; 
@@ -9508,11 +9594,11 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
     if (st >= en) { return res; } 
 
     if (st + 5 <= en && 
-        ":".equals(lexicals.get(st + 1) + "") && 
-        "mapsTo".equals(lexicals.get(st + 3) + "") && 
-        "(".equals(lexicals.get(st + 5) + "") )
-    { String att = lexicals.get(st) + ""; 
-      String typ = lexicals.get(st + 2) + ""; 
+        ":".equals(lexicalText(st + 1)) && 
+        "mapsTo".equals(lexicalText(st + 3)) && 
+        "(".equals(lexicalText(st + 5)) )
+    { String att = lexicalText(st); 
+      String typ = lexicalText(st + 2); 
       Entity ent =
           (Entity) ModelElement.lookupByName(typ,entities);
       Type tt; 
@@ -9521,13 +9607,13 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       else 
       { tt = new Type(typ,null); }
 
-      String mappedFromVar = lexicals.get(st + 4) + ""; 
+      String mappedFromVar = lexicalText(st + 4); 
       
       for (int i = st + 6; i <= en; i++) 
-      { if (")".equals(lexicals.get(i) + "") && 
+      { if (")".equals(lexicalText(i)) && 
             (i == en ||
-             ",".equals(lexicals.get(i + 1) + "") &&
-             ":".equals(lexicals.get(i + 3) + "") 
+             ",".equals(lexicalText(i + 1)) &&
+             ":".equals(lexicalText(i + 3)) 
             ) )
         { Vector outpat = parse_out_pattern(st + 6, i - 1, entities, types);
           Attribute var = new Attribute(att,tt,ModelElement.INTERNAL);  
@@ -9542,10 +9628,10 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
         } 
       } 
     } 
-    else if (":".equals(lexicals.get(st + 1) + "") && 
-        "(".equals(lexicals.get(st + 3) + "") )
-    { String att = lexicals.get(st) + ""; 
-      String typ = lexicals.get(st + 2) + ""; 
+    else if (":".equals(lexicalText(st + 1)) && 
+        "(".equals(lexicalText(st + 3)) )
+    { String att = lexicalText(st); 
+      String typ = lexicalText(st + 2); 
       Entity ent =
           (Entity) ModelElement.lookupByName(typ,entities);
       Type tt; 
@@ -9555,10 +9641,10 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
       { tt = new Type(typ,null); }
       
       for (int i = st + 4; i <= en; i++) 
-      { if (")".equals(lexicals.get(i) + "") && 
+      { if (")".equals(lexicalText(i)) && 
             (i == en ||
-             ",".equals(lexicals.get(i + 1) + "") &&
-             ":".equals(lexicals.get(i + 3) + "") 
+             ",".equals(lexicalText(i + 1)) &&
+             ":".equals(lexicalText(i + 3)) 
             ) )
         { Vector outpat = parse_out_pattern(st + 4, i - 1, entities, types);
           Attribute var = new Attribute(att,tt,ModelElement.INTERNAL);  
@@ -9579,11 +9665,11 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
   { if (st >= en) { return new Vector(); } 
     Vector res = new Vector(); 
 
-    if ("<".equals(lexicals.get(st + 1) + "") && "-".equals(lexicals.get(st + 2) + ""))
-    { String att = lexicals.get(st) + ""; 
+    if ("<".equals(lexicalText(st + 1)) && "-".equals(lexicalText(st + 2)))
+    { String att = lexicalText(st); 
       for (int i = st + 3; i <= en; i++) 
-      { if (",".equals(lexicals.get(i) + "") && "<".equals(lexicals.get(i + 2) + "") && 
-            "-".equals(lexicals.get(i+3) + ""))
+      { if (",".equals(lexicalText(i)) && "<".equals(lexicalText(i + 2)) && 
+            "-".equals(lexicalText(i+3)))
         { Expression cond = parse_ATLexpression(1, st + 3, i - 1, entities, types); 
           if (cond != null) 
           { Binding b = new Binding(att,cond); 
@@ -9608,17 +9694,17 @@ public Vector parseAttributeDecsInit(Vector entities, Vector types)
 
 // using { var : typ = val; ... }
 private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
-{ if ("using".equals(lexicals.get(st) + "")) {}
+{ if ("using".equals(lexicalText(st))) {}
   else { return null; }
 
   int st0 = st;
   Vector res = new Vector();
   for (int k = st + 2; k < en; k++)
-  { String lx = lexicals.get(k) + "";
+  { String lx = lexicalText(k);
     if (lx.equals(":")) 
-    { String var = lexicals.get(k-1) + "";
+    { String var = lexicalText(k-1);
       for (int m = k+1; m < en; m++)
-      { String mx = lexicals.get(m) + "";
+      { String mx = lexicalText(m);
         if (mx.equals("="))
         { Type typ = parseType(k+1,m-1,entities,types);
          if (typ == null)
@@ -9627,7 +9713,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
          }
          Attribute uvar = new Attribute(var,typ,ModelElement.INTERNAL);
          for (int n = m+1; n < en; n++)
-         { String nx = lexicals.get(n) + "";
+         { String nx = lexicalText(n);
             if (nx.equals(";"))
             { Expression vdef = parse_ATLexpression(0,m+1,n-1,entities,types);
                if (vdef != null)
@@ -9649,11 +9735,11 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
   { return parseEtl(new Vector(), new Vector()); } 
 
   public EtlModule parseEtl(Vector entities, Vector types)
-  { if ("module".equals(lexicals.get(0) + "") && 
-        ";".equals(lexicals.get(2) + ""))
-    { EtlModule mod = new EtlModule(lexicals.get(1) + ""); 
+  { if ("module".equals(lexicalText(0)) && 
+        ";".equals(lexicalText(2)))
+    { EtlModule mod = new EtlModule(lexicalText(1)); 
       for (int i = 3; i < lexicals.size();  i++) 
-      { String lx = lexicals.get(i) + ""; 
+      { String lx = lexicalText(i); 
         if ("pre".equals(lx) || "rule".equals(lx) || "@lazy".equals(lx) || "operation".equals(lx)
             || "post".equals(lx))
         { parse_Etl_module(i,lexicals.size()-1,entities,types,mod); 
@@ -9668,7 +9754,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
   { if (st >= en)
     { return; } 
     for (int i = st + 2; i <= en;  i++) 
-    { String lx = lexicals.get(i) + ""; 
+    { String lx = lexicalText(i); 
       if ("pre".equals(lx) || "rule".equals(lx) || "operation".equals(lx) ||
           "post".equals(lx) || "@lazy".equals(lx))
       { Object r = parseEtlrule(st,i-1,entities,types);
@@ -9688,11 +9774,11 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
   { String rname = ""; 
     int start = st; 
 
-    if ("pre".equals(lexicals.get(st) + "") &&
-        "{".equals(lexicals.get(st + 2) + "") &&  
-        "}".equals(lexicals.get(en) + ""))
+    if ("pre".equals(lexicalText(st)) &&
+        "{".equals(lexicalText(st + 2)) &&  
+        "}".equals(lexicalText(en)))
     { start = st + 3; 
-      rname = lexicals.get(st + 1) + ""; 
+      rname = lexicalText(st + 1); 
       Statement stat = parseATLStatement(start,en-1,entities,types); 
       if (stat != null) 
       { stat.typeCheck(types,entities,new Vector(),new Vector()); 
@@ -9701,9 +9787,9 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
         return res; 
       } 
     } 
-    else if ("pre".equals(lexicals.get(st) + "") &&
-        "{".equals(lexicals.get(st + 1) + "") &&  
-        "}".equals(lexicals.get(en) + ""))
+    else if ("pre".equals(lexicalText(st)) &&
+        "{".equals(lexicalText(st + 1)) &&  
+        "}".equals(lexicalText(en)))
     { start = st + 2; 
       rname = "pre"; 
       Statement stat = parseATLStatement(start,en-1,entities,types); 
@@ -9714,14 +9800,14 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
         return res; 
       } 
     } 
-    else if ("rule".equals(lexicals.get(st) + "") &&
-             "transform".equals(lexicals.get(st+2) + "") && 
-             "to".equals(lexicals.get(st+6) + "") && 
-             "}".equals(lexicals.get(en) + "") && en - st >= 6)
+    else if ("rule".equals(lexicalText(st)) &&
+             "transform".equals(lexicalText(st+2)) && 
+             "to".equals(lexicalText(st+6)) && 
+             "}".equals(lexicalText(en)) && en - st >= 6)
     { start = st + 6; 
-      rname = lexicals.get(st + 1) + "";
-      String invar = lexicals.get(st + 3) + "";
-      String intype = lexicals.get(st + 5) + "";
+      rname = lexicalText(st + 1);
+      String invar = lexicalText(st + 3);
+      String intype = lexicalText(st + 5);
       Entity inent = (Entity) ModelElement.lookupByName(intype,entities); 
       if (inent == null) 
       { System.err.println("*** Cannot find entity type " + intype); 
@@ -9739,12 +9825,12 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
       env.add(inatt); 
     
       for (int i = start; i < en; i++) 
-      { if ("{".equals(lexicals.get(i) + ""))
+      { if ("{".equals(lexicalText(i)))
         { Vector toclause = parseEtlToClause(start, i-1, entities, types); 
           r.addTargets(toclause); 
           Expression g = new BasicExpression(true); 
           Statement body; 
-          if ("guard".equals(lexicals.get(i+1) + "")) 
+          if ("guard".equals(lexicalText(i+1))) 
           { for (int j = i+3; j < en - 1; j++) 
             { g = parse_expression(0,i+3,j,entities,types); 
               body = parseATLStatement(j+1,en-1,entities,types); 
@@ -9774,11 +9860,11 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
         } 
       }
     } 
-    else if ("post".equals(lexicals.get(st) + "") &&
-        "{".equals(lexicals.get(st + 2) + "") &&  
-        "}".equals(lexicals.get(en) + ""))
+    else if ("post".equals(lexicalText(st)) &&
+        "{".equals(lexicalText(st + 2)) &&  
+        "}".equals(lexicalText(en)))
     { start = st + 3; 
-      rname = lexicals.get(st + 1) + ""; 
+      rname = lexicalText(st + 1); 
       Statement stat = parseATLStatement(start,en-1,entities,types); 
       if (stat != null) 
       { NamedBlock res = new NamedBlock(rname, stat); 
@@ -9786,9 +9872,9 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
         return res; 
       } 
     }             
-    else if ("post".equals(lexicals.get(st) + "") &&
-        "{".equals(lexicals.get(st + 1) + "") &&  
-        "}".equals(lexicals.get(en) + ""))
+    else if ("post".equals(lexicalText(st)) &&
+        "{".equals(lexicalText(st + 1)) &&  
+        "}".equals(lexicalText(en)))
     { start = st + 2; 
       rname = "post"; 
       Statement stat = parseATLStatement(start,en-1,entities,types); 
@@ -9798,12 +9884,12 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
         return res; 
       } 
     }             
-    else if ("@lazy".equals(lexicals.get(st) + ""))
+    else if ("@lazy".equals(lexicalText(st)))
     { TransformationRule rr = (TransformationRule) parseEtlrule(st+1,en,entities,types); 
       rr.setLazy(true); 
       return rr; 
     } // same with principal, abstract etc. 
-    else if ("operation".equals(lexicals.get(st) + "")) 
+    else if ("operation".equals(lexicalText(st))) 
     { BehaviouralFeature bf = parseEtlOperation(st+1,en,entities,types); 
       return bf; 
     } 
@@ -9812,13 +9898,13 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 
   public BehaviouralFeature parseEtlOperation(int st, int en, Vector entities, Vector types) 
   { // operation ContextEntity name(pardecs) { code } 
-    String context = lexicals.get(st) + ""; 
-    String nme = lexicals.get(st+1) + ""; 
+    String context = lexicalText(st); 
+    String nme = lexicalText(st+1); 
     Entity ent =
           (Entity) ModelElement.lookupByName(context,entities);
 
     for (int i = st+2; i < en; i++) 
-    { String lx = lexicals.get(i) + ""; 
+    { String lx = lexicalText(i); 
       if ("{".equals(lx))
       { Vector pars = parseAttributeDecs(st+3,i-2,entities,types);
         Statement code = parseATLStatement(i+1, en-1, entities, types);
@@ -9836,14 +9922,14 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 
 
   public Vector parseEtlToClause(int st, int en, Vector entities, Vector types) 
-  { if ("to".equals(lexicals.get(st) + "")) { }
+  { if ("to".equals(lexicalText(st))) { }
     else { return null; } 
 
     Vector res = new Vector();   
        
     for (int j = st+1; j+2 <= en; j = j+4)
-    { String attname = lexicals.get(j) + ""; 
-      String tname = lexicals.get(j+2) + ""; 
+    { String attname = lexicalText(j); 
+      String tname = lexicalText(j+2); 
 
       // System.out.println("Output variable " + attname); 
 
@@ -9873,12 +9959,12 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
   { return parseFlock(new Vector(), new Vector()); } 
 
   public FlockModule parseFlock(Vector entities, Vector types)
-  { if ("module".equals(lexicals.get(0) + "") && 
-        ";".equals(lexicals.get(2) + ""))
-    { FlockModule mod = new FlockModule(lexicals.get(1) + ""); 
+  { if ("module".equals(lexicalText(0)) && 
+        ";".equals(lexicalText(2)))
+    { FlockModule mod = new FlockModule(lexicalText(1)); 
       for (int i = 3; i < lexicals.size();  i++) 
-      { if ("delete".equals(lexicals.get(i) + "") || "migrate".equals(lexicals.get(i) + "") || 
-            "retype".equals(lexicals.get(i) + "") || "operation".equals(lexicals.get(i) + ""))
+      { if ("delete".equals(lexicalText(i)) || "migrate".equals(lexicalText(i)) || 
+            "retype".equals(lexicalText(i)) || "operation".equals(lexicalText(i)))
         { parse_Flock_module(i,lexicals.size()-1,entities,types,mod); 
           return mod; 
         }
@@ -9891,8 +9977,8 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
   { if (st >= en)
     { return; } 
     for (int i = st + 2; i <= en;  i++) 
-    { if ("delete".equals(lexicals.get(i) + "") || "retype".equals(lexicals.get(i) + "") ||
-          "migrate".equals(lexicals.get(i) + "") || "operation".equals(lexicals.get(i) + ""))
+    { if ("delete".equals(lexicalText(i)) || "retype".equals(lexicalText(i)) ||
+          "migrate".equals(lexicalText(i)) || "operation".equals(lexicalText(i)))
       { Object r = parseFlockrule(st,i-1,entities,types);
         if (r != null) 
         { parse_Flock_module(i,en,entities,types,mod);  
@@ -9910,47 +9996,47 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
   { String rname = ""; 
     int start = st; 
 
-    if ("delete".equals(lexicals.get(st) + "") &&
-        "when".equals(lexicals.get(st + 2) + "") &&  
-        ":".equals(lexicals.get(st + 3) + ""))
+    if ("delete".equals(lexicalText(st)) &&
+        "when".equals(lexicalText(st + 2)) &&  
+        ":".equals(lexicalText(st + 3)))
     { start = st + 4; 
-      rname = lexicals.get(st + 1) + ""; 
+      rname = lexicalText(st + 1); 
       Expression whenexp = parse_expression(0,start,en,entities,types); 
       if (whenexp != null) 
       { return new FlockDeletion(rname, whenexp); } 
     } 
-    else if ("retype".equals(lexicals.get(st) + "") &&
-             "to".equals(lexicals.get(st+2) + "") && 
-             "when".equals(lexicals.get(st+4) + "") && 
-             ":".equals(lexicals.get(st+5) + "") && en - st >= 6)
+    else if ("retype".equals(lexicalText(st)) &&
+             "to".equals(lexicalText(st+2)) && 
+             "when".equals(lexicalText(st+4)) && 
+             ":".equals(lexicalText(st+5)) && en - st >= 6)
     { start = st + 6; 
-      rname = lexicals.get(st + 1) + "";
-      String newtype = lexicals.get(st + 3) + "";
+      rname = lexicalText(st + 1);
+      String newtype = lexicalText(st + 3);
       Expression whenexp = parse_expression(0,start,en,entities,types); 
       if (whenexp != null) 
       { return new FlockRetyping(rname, whenexp, newtype); } 
     } 
-    else if ("migrate".equals(lexicals.get(st) + "") &&
-             "when".equals(lexicals.get(st + 2) + "") &&  
-             ":".equals(lexicals.get(st + 3) + "") && 
-             "}".equals(lexicals.get(en) + ""))
+    else if ("migrate".equals(lexicalText(st)) &&
+             "when".equals(lexicalText(st + 2)) &&  
+             ":".equals(lexicalText(st + 3)) && 
+             "}".equals(lexicalText(en)))
     { start = st + 4; 
-      rname = lexicals.get(st + 1) + ""; 
+      rname = lexicalText(st + 1); 
       for (int j = start; j < en; j++) 
       { Vector iglist = new Vector(); 
         Expression whenexp = new BasicExpression("true"); 
-        if ("ignoring".equals(lexicals.get(j) + ""))
+        if ("ignoring".equals(lexicalText(j)))
         { whenexp = parse_expression(0,start,j-1,entities,types); 
           if (whenexp == null) { continue; } 
           for (int k = j+1; k < en; k++) 
-          { if ("{".equals(lexicals.get(k) + "")) 
+          { if ("{".equals(lexicalText(k))) 
             { j = k; k = en; } 
-            else if (",".equals(lexicals.get(k) + "")) { } 
+            else if (",".equals(lexicalText(k))) { } 
             else 
-            { iglist.add(lexicals.get(k) + ""); }
+            { iglist.add(lexicalText(k)); }
           }  
         } 
-        if ("{".equals(lexicals.get(j) + "")) 
+        if ("{".equals(lexicalText(j))) 
         { if (iglist.size() == 0) 
           { whenexp = parse_expression(0,start,j-1,entities,types); 
             if (whenexp == null) { continue; }
@@ -9963,14 +10049,14 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
         } 
       } 
     } 
-    else if ("operation".equals(lexicals.get(st) + "") && 
-             "}".equals(lexicals.get(en) + ""))
+    else if ("operation".equals(lexicalText(st)) && 
+             "}".equals(lexicalText(en)))
     { start = st + 1;
       String etype = "IN$" + lexicals.get(start);  // Owner entity 
-      rname = lexicals.get(st + 2) + "";  // operation name
+      rname = lexicalText(st + 2);  // operation name
       // skip "(", ")", ":"
-      String returntype = lexicals.get(st + 6) + ""; // return type 
-      if ("{".equals(lexicals.get(st + 7) + ""))
+      String returntype = lexicalText(st + 6); // return type 
+      if ("{".equals(lexicalText(st + 7)))
       { Statement stat = parseStatement(st + 8, en - 1, entities, types); 
         Entity owner = (Entity) ModelElement.lookupByName(etype, entities); 
         BehaviouralFeature op = new BehaviouralFeature(rname, new Vector(), true, 
@@ -9991,14 +10077,14 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
   { String rname = ""; 
     int start = st; 
 
-    if ("migrate".equals(lexicals.get(st) + "") &&
-        "when".equals(lexicals.get(st + 2) + "") &&  
-        ":".equals(lexicals.get(st + 3) + ""))
-       // "}".equals(lexicals.get(en) + ""))
+    if ("migrate".equals(lexicalText(st)) &&
+        "when".equals(lexicalText(st + 2)) &&  
+        ":".equals(lexicalText(st + 3)))
+       // "}".equals(lexicalText(en)))
     { start = st + 4; 
-      rname = lexicals.get(st + 1) + ""; 
+      rname = lexicalText(st + 1); 
       for (int j = start; j < en; j++) 
-      { if ("{".equals(lexicals.get(j) + "")) 
+      { if ("{".equals(lexicalText(j))) 
         { Expression whenexp = parse_expression(0,start,j-1,entities,types); 
           if (whenexp == null) { continue; } 
           Statement stat = parseStatement(j+1,en-1,entities,types); 
@@ -10008,13 +10094,13 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
         } 
       } 
     } 
-  /*     else if ("retype".equals(lexicals.get(st) + "") &&
-             "to".equals(lexicals.get(st+2) + "") && 
-             "when".equals(lexicals.get(st+4) + "") && 
-             ":".equals(lexicals.get(st+5) + "") && en - st >= 6)
+  /*     else if ("retype".equals(lexicalText(st)) &&
+             "to".equals(lexicalText(st+2)) && 
+             "when".equals(lexicalText(st+4)) && 
+             ":".equals(lexicalText(st+5)) && en - st >= 6)
     { start = st + 6; 
-      rname = lexicals.get(st + 1) + "";
-      String newtype = lexicals.get(st + 3) + "";
+      rname = lexicalText(st + 1);
+      String newtype = lexicalText(st + 3);
       Expression whenexp = parse_expression(0,start,en,entities,types); 
       if (whenexp != null) 
       { return new FlockRetyping(rname, whenexp, newtype); } 
@@ -10026,21 +10112,21 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
   } 
 
   public RelationalTransformation parse_QVTR(int st, int en, Vector entities, Vector types)
-  { String sts = lexicals.get(st) + "";
-    String std = lexicals.get(st+2) + "";
-    String ens = lexicals.get(en) + "";
+  { String sts = lexicalText(st);
+    String std = lexicalText(st+2);
+    String ens = lexicalText(en);
     int start = st+3; 
     String extending = null; 
 
     if ("transformation".equals(sts)) 
     { for (int i = st + 2; i < en; i++) 
-      { std = lexicals.get(i) + ""; 
+      { std = lexicalText(i); 
         if ("{".equals(std)) 
         { start = i+1; 
           break; 
         } 
         else if ("extends".equals(std))
-        { extending = lexicals.get(i+1) + ""; } 
+        { extending = lexicalText(i+1); } 
       } 
     } 
     else 
@@ -10048,17 +10134,17 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
       return null; 
     }
 
-    String nme = lexicals.get(st + 1) + "";
+    String nme = lexicalText(st + 1);
     RelationalTransformation res = new RelationalTransformation(nme);
     res.setExtending(extending); 
 
     // int start = st+3;
 
     for (int w = st + 3; w + 5 < en; w++) 
-    { String wlex = lexicals.get(w) + ""; 
+    { String wlex = lexicalText(w); 
       if ("key".equals(wlex))
       { // key eId { attname } ; 
-        String eId = lexicals.get(w+1) + ""; 
+        String eId = lexicalText(w+1); 
         Entity ent = (Entity) ModelElement.lookupByName(eId,entities);
         if (ent == null) 
         { System.err.println(">!! Key declaration error: No entity exists with name: " + eId); 
@@ -10066,7 +10152,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
           start = w+6;  
           break; 
         }  
-        String attname = lexicals.get(w+3) + "";
+        String attname = lexicalText(w+3);
         Attribute att = ent.getAttribute(attname); 
         if (att == null) 
         { System.err.println(">!! Key declaration error: No entity exists with name: " + eId); 
@@ -10084,7 +10170,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
     } 
 
     for (int i = st + 5; i < en; i++)
-    { String lex = lexicals.get(i) + "";
+    { String lex = lexicalText(i);
       if ("relation".equals(lex) || "top".equals(lex) || 
           "function".equals(lex) || "abstract".equals(lex))
       { Object r = parse_QVT_rule(start,i-1,entities,types,res);
@@ -10111,8 +10197,8 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
   }
 
   public Object parse_QVT_rule(int st, int en, Vector entities, Vector types, RelationalTransformation trans)
-  { String sts = lexicals.get(st) + "";
-    String ens = lexicals.get(en) + "";
+  { String sts = lexicalText(st);
+    String ens = lexicalText(en);
     boolean isAbstract = false; 
     boolean isTop = true;
     Expression wexp = null; 
@@ -10120,28 +10206,28 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
     Vector variables = new Vector(); 
     String overrides = null; 
 
-    String nme = lexicals.get(st+1) + "";
+    String nme = lexicalText(st+1);
     int start = st + 3; // after the {
-    if ("abstract".equals(sts) && "top".equals(lexicals.get(st+1) + "") && 
+    if ("abstract".equals(sts) && "top".equals(lexicalText(st+1)) && 
         st + 3 < en && "}".equals(ens)) 
     { isAbstract = true;
       isTop = true;  
       // abstract top relation nme { 
-      nme = lexicals.get(st+3) + ""; 
+      nme = lexicalText(st+3); 
       start = st + 5; 
     }
-    else if ("abstract".equals(sts) && "relation".equals(lexicals.get(st+1) + "") && 
+    else if ("abstract".equals(sts) && "relation".equals(lexicalText(st+1)) && 
              st + 3 < en && "}".equals(ens)) 
     { isAbstract = true; 
       isTop = false; 
       // abstract relation nme { 
-      nme = lexicals.get(st+2) + ""; 
+      nme = lexicalText(st+2); 
       start = st + 4; 
     }
     else if ("relation".equals(sts) && st + 3 < en && "}".equals(ens)) 
     { isTop = false; }
     else if ("top".equals(sts) && st + 4 < en && "}".equals(ens))
-    { nme = lexicals.get(st + 2) + "";
+    { nme = lexicalText(st + 2);
       // top relation nme { 
       start = st + 4;
     }
@@ -10151,12 +10237,12 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
     { return null; }
 
     for (int x = st + 1; x < en; x++) 
-    { String xlex = lexicals.get(x) + ""; 
+    { String xlex = lexicalText(x); 
       if ("{".equals(xlex))
       { start = x+1; 
-        String oclause = lexicals.get(x-2) + ""; 
+        String oclause = lexicalText(x-2); 
         if ("overrides".equals(oclause))
-        { overrides = lexicals.get(x-1) + ""; } 
+        { overrides = lexicalText(x-1); } 
         break; 
       } 
     }       
@@ -10167,7 +10253,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
     int domstart = start; 
 
     for (int i = start; i < en; i++) 
-    { String istr = lexicals.get(i) + ""; 
+    { String istr = lexicalText(i); 
       if ("checkonly".equals(istr) ||
           "collection".equals(istr) || "enforce".equals(istr) || "primitive".equals(istr))
       { domstart = i; 
@@ -10179,11 +10265,11 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
     { variables = parseAttributeDecsInit(start,domstart-2,entities,types); }  
 
     for (int i = domstart; i < en; i++) 
-    { String lex = lexicals.get(i) + ""; 
+    { String lex = lexicalText(i); 
       if ("when".equals(lex))
       { domend = i-1; 
         for (int j = i+1; j < en; j++) 
-        { String lx1 = lexicals.get(j) + ""; 
+        { String lx1 = lexicalText(j); 
           if ("where".equals(lx1))
           { wnexp = parse_ATLexpression(0, i+2, j-2, entities, types); 
             wexp = parse_ATLexpression(0, j+2, en-2, entities, types);         
@@ -10196,7 +10282,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 
     if (wnexp == null && wexp == null)  // no when clause 
     { for (int i = start; i < en; i++) 
-      { String lex = lexicals.get(i) + ""; 
+      { String lex = lexicalText(i); 
         if ("where".equals(lex))
         { wexp = parse_ATLexpression(0, i+2, en-2, entities, types); 
           if (wexp != null) 
@@ -10225,19 +10311,19 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
   }
 
   public Object parse_QVT_function(int st, int en, Vector entities, Vector types)
-  { String sts = lexicals.get(st) + "";
-    String ens = lexicals.get(en) + "";
-    String nme = lexicals.get(st+1) + ""; 
+  { String sts = lexicalText(st);
+    String ens = lexicalText(en);
+    String nme = lexicalText(st+1); 
     Type resType = new Type("boolean", null); 
     Vector pars = new Vector(); 
     BehaviouralFeature bf = new BehaviouralFeature(nme); 
     BasicExpression resvar = new BasicExpression("result"); 
 
     for (int i = st+2; i < en; i++) 
-    { String istr = lexicals.get(i) + ""; 
+    { String istr = lexicalText(i); 
       if ("{".equals(istr)) // start of function body
       { for (int j = i-1; j > st+2; j--) 
-        { String jstr = lexicals.get(j) + ""; 
+        { String jstr = lexicalText(j); 
           if (":".equals(jstr)) // typing of the function
           { resType = parseType(j+1,i-1,entities,types); 
             if (resType == null) 
@@ -10266,48 +10352,48 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 
   private Vector parse_domains(int st, int en, Vector types, Vector entities, RelationalTransformation trans)
   { // enforce domain src x : T 
-    String sts = lexicals.get(st) + "";
-    String ens = lexicals.get(en) + "";
+    String sts = lexicalText(st);
+    String ens = lexicalText(en);
     boolean checkonly = false;
     boolean enforce = false;
     boolean primitive = false;
     boolean iscollection = false; 
     Vector res = new Vector();
 
-    String nme = lexicals.get(st+1) + "";
+    String nme = lexicalText(st+1);
     int start = st + 2; // start of template or primitive domain
     if ("primitive".equals(sts) && ";".equals(ens)) 
-    { nme = lexicals.get(st+2) + "";
+    { nme = lexicalText(st+2);
       primitive = true;
       start = st + 2; 
     }
     else if ("checkonly".equals(sts) && st + 4 < en && ";".equals(ens))
     { checkonly = true;
-      nme = lexicals.get(st + 2) + "";
+      nme = lexicalText(st + 2);
       start = st + 3;
-      if (st + 5 < en && "Set".equals(lexicals.get(st + 4) + "") && 
-          "(".equals(lexicals.get(st+5) + ""))
+      if (st + 5 < en && "Set".equals(lexicalText(st + 4)) && 
+          "(".equals(lexicalText(st+5)))
       { iscollection = true; } 
-      else if (st + 5 < en && "Sequence".equals(lexicals.get(st + 4) + "") && 
-          "(".equals(lexicals.get(st+5) + ""))
+      else if (st + 5 < en && "Sequence".equals(lexicalText(st + 4)) && 
+          "(".equals(lexicalText(st+5)))
       { iscollection = true; } 
     }
     else if ("enforce".equals(sts) && st + 4 < en && ";".equals(ens))
     { enforce = true;
-      nme = lexicals.get(st + 2) + "";
+      nme = lexicalText(st + 2);
       start = st + 3;
     }
     else if ("collection".equals(sts) && st + 4 < en && ";".equals(ens))
     { iscollection = true;
       // checkonly = true; 
-      nme = lexicals.get(st + 2) + "";
+      nme = lexicalText(st + 2);
       start = st + 3;
     }
 
     TypedModel tm = new TypedModel(nme,trans);
 
     for (int i = st+2; i <= en; i++)
-    { String ch = lexicals.get(i) + "";
+    { String ch = lexicalText(i);
       if (";".equals(ch))  // end of a domain
       { if (primitive) 
         { Type tt = parseType(st+4,i-1,entities,types); 
@@ -10361,8 +10447,8 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
         } 
 
         if (i >= en) { return res; }
-        sts = lexicals.get(i+1) + "";
-        nme = lexicals.get(i+2) + "";
+        sts = lexicalText(i+1);
+        nme = lexicalText(i+2);
         start = i + 3; // start of template
 
         System.out.println(">> Next domain: " + sts + " " + nme + " " + 
@@ -10373,7 +10459,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
           enforce = false; 
           primitive = false;
           iscollection = false;  
-          nme = lexicals.get(i + 3) + "";
+          nme = lexicalText(i + 3);
           start = i + 4;
         }
         else if ("collection".equals(sts))
@@ -10381,7 +10467,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
           enforce = false; 
           primitive = false;
           iscollection = true;  
-          nme = lexicals.get(i + 3) + "";
+          nme = lexicalText(i + 3);
           start = i + 4;
         }
         else if ("enforce".equals(sts))
@@ -10389,7 +10475,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
           checkonly = false; 
           primitive = false; 
           iscollection = false; 
-          nme = lexicals.get(i + 3) + "";
+          nme = lexicalText(i + 3);
           start = i + 4;
         }
         else if ("primitive".equals(sts))
@@ -10397,7 +10483,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
           checkonly = false; 
           primitive = true; 
           iscollection = false; 
-          nme = lexicals.get(i + 3) + "";
+          nme = lexicalText(i + 3);
           start = i + 5;
         }
         tm = new TypedModel(nme,trans);
@@ -10412,20 +10498,20 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 
     if (st > en) { return null; }
 
-    String bind = lexicals.get(st) + "";
+    String bind = lexicalText(st);
 
     System.out.println(">>> Parsing domain for " + bind); 
 
-    if (st + 4 <= en && (":".equals(lexicals.get(st + 1) + "") ||
-                         "<:=".equals(lexicals.get(st + 1) + "")
+    if (st + 4 <= en && (":".equals(lexicalText(st + 1)) ||
+                         "<:=".equals(lexicalText(st + 1))
                         )
        )
-    { String ename = lexicals.get(st + 2) + "";
+    { String ename = lexicalText(st + 2);
       Entity e = (Entity) ModelElement.lookupByName(ename,entities);
 
-      if ("{".equals(lexicals.get(st+3) + "") && "}".equals(lexicals.get(st+4) + ""))
+      if ("{".equals(lexicalText(st+3)) && "}".equals(lexicalText(st+4)))
       { ObjectTemplateExp res = new ObjectTemplateExp(null,null,e);
-        if ("<:=".equals(lexicals.get(st + 1) + ""))
+        if ("<:=".equals(lexicalText(st + 1)))
         { res.setLeastChange(true); 
           // System.out.println(">>> Least-change template: " + res); 
         } 
@@ -10434,8 +10520,8 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
         Attribute batt = new Attribute(bind, new Type(e), ModelElement.INTERNAL);
         res.bindsTo = batt;
         
-        if (st + 4 < en && "{".equals(lexicals.get(st+5) + "") 
-            && "}".equals(lexicals.get(en) + ""))
+        if (st + 4 < en && "{".equals(lexicalText(st+5)) 
+            && "}".equals(lexicalText(en)))
         { Expression wexp = parse_ATLexpression(bc,st+6,en-1, entities,types); 
           if (wexp != null) 
           { res.setConstraint(wexp); } 
@@ -10446,8 +10532,8 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
       int expstart = en; 
 
       for (int j = st + 3; j < en; j++) 
-      { String lx1 = lexicals.get(j) + ""; 
-        String lx2 = lexicals.get(j+1) + ""; 
+      { String lx1 = lexicalText(j); 
+        String lx2 = lexicalText(j+1); 
         if (lx1.equals("}") && lx2.equals("{"))
         { expstart = j+2;
           Expression wexp = parse_ATLexpression(bc,expstart,en-1,entities,types);  
@@ -10455,7 +10541,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
           if (e != null)
           { ObjectTemplateExp res = new ObjectTemplateExp(null,null,e);
 
-            if ("<:=".equals(lexicals.get(st + 1) + ""))
+            if ("<:=".equals(lexicalText(st + 1)))
             { res.setLeastChange(true); 
               System.out.println(">>> Least-change template: " + res); 
             } 
@@ -10471,7 +10557,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
       Vector proplist = parse_propertytemplate_list(bc, st + 3, en, e, entities, types);
       if (e != null)
       { ObjectTemplateExp res = new ObjectTemplateExp(null,null,e);
-        if ("<:=".equals(lexicals.get(st + 1) + ""))
+        if ("<:=".equals(lexicalText(st + 1)))
         { res.setLeastChange(true); 
           // System.out.println(">>> Least-change template: " + res); 
         } 
@@ -10489,14 +10575,14 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 
     if (st > en) { return null; }
 
-    String bind = lexicals.get(st) + "";
+    String bind = lexicalText(st);
 
-    if (st + 6 <= en && ":".equals(lexicals.get(st + 1) + "") &&
-        ("Set".equals(lexicals.get(st + 2) + "") ||
-         "Sequence".equals(lexicals.get(st + 2) + ""))
+    if (st + 6 <= en && ":".equals(lexicalText(st + 1)) &&
+        ("Set".equals(lexicalText(st + 2)) ||
+         "Sequence".equals(lexicalText(st + 2)))
        )
-    { String ename = lexicals.get(st + 4) + "";
-      String ctname = lexicals.get(st + 2) + ""; 
+    { String ename = lexicalText(st + 4);
+      String ctname = lexicalText(st + 2); 
 
       Entity e = (Entity) ModelElement.lookupByName(ename,entities);
 
@@ -10508,26 +10594,26 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
       Type settyp = new Type(ctname, null); 
       settyp.setElementType(new Type(e)); 
 
-      if ("{".equals(lexicals.get(st+6) + "") && 
-          "+".equals(lexicals.get(st+8) + "") &&
-          "+".equals(lexicals.get(st+9) + "") &&
-          "}".equals(lexicals.get(st+11) + ""))
+      if ("{".equals(lexicalText(st+6)) && 
+          "+".equals(lexicalText(st+8)) &&
+          "+".equals(lexicalText(st+9)) &&
+          "}".equals(lexicalText(st+11)))
       { CollectionTemplateExp res = new CollectionTemplateExp(null,null,settyp);
         Attribute batt = new Attribute(bind, settyp, ModelElement.INTERNAL);
         batt.setElementType(new Type(e)); 
         res.bindsTo = batt;
 
-        String member = lexicals.get(st+7) + ""; 
+        String member = lexicalText(st+7); 
         Attribute memberatt = new Attribute(member, new Type(e), ModelElement.INTERNAL);
         res.setMember(memberatt); 
 
-        String rest = lexicals.get(st+10) + ""; 
+        String rest = lexicalText(st+10); 
         Attribute restatt = new Attribute(rest, settyp, ModelElement.INTERNAL);
         restatt.setElementType(new Type(e)); 
         res.setRest(restatt); 
         
-        if (st + 13 < en && "{".equals(lexicals.get(st+12) + "") 
-            && "}".equals(lexicals.get(en) + ""))
+        if (st + 13 < en && "{".equals(lexicalText(st+12)) 
+            && "}".equals(lexicalText(en)))
         { Expression wexp = parse_ATLexpression(bc,st+13,en-1, entities,types); 
           if (wexp != null) 
           { res.setConstraint(wexp); } 
@@ -10540,8 +10626,8 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 
   private Vector parse_propertytemplate_list(int bc, int st, int en, Entity scope, Vector entities, Vector types)
   { if (scope == null) { return null; }
-    String sts = lexicals.get(st) + "";
-    String ens = lexicals.get(en) + "";
+    String sts = lexicalText(st);
+    String ens = lexicalText(en);
     if ("{".equals(sts) && "}".equals(ens)) { }
     else { return null; }
 
@@ -10550,13 +10636,13 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 
     Vector res = new Vector();
     for (int i = st+1; i < en; i++)
-    { String lex = lexicals.get(i) + "";
+    { String lex = lexicalText(i);
       if ("{".equals(lex)) { cbcnt++; }
       else if ("}".equals(lex)) { cbcnt--; }
-      else if (",".equals(lex) && "=".equals(lexicals.get(i+2) + "")  && cbcnt == 0)
+      else if (",".equals(lex) && "=".equals(lexicalText(i+2))  && cbcnt == 0)
       { // prop = value, or prop = template, at top level
 
-        String pname = lexicals.get(prev) + "";
+        String pname = lexicalText(prev);
         // System.out.println("Property name = " + pname); 
         Type typ = scope.getFeatureType(pname); 
         Attribute att = new Attribute(pname, typ, ModelElement.INTERNAL);
@@ -10581,7 +10667,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
         prev = i+1;
       }
     }
-    String pname = lexicals.get(prev) + "";
+    String pname = lexicalText(prev);
     // System.out.println("Property name = " + pname); 
 
     Type typ = scope.getFeatureType(pname); 
@@ -10611,8 +10697,8 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 
   public XMLNode parseXML()
   { for (int i = 0; i < lexicals.size(); i++) 
-    { if ("?".equals(lexicals.get(i) + "") && 
-          ">".equals(lexicals.get(i+1) + ""))
+    { if ("?".equals(lexicalText(i)) && 
+          ">".equals(lexicalText(i+1)))
       { return parsexmlnode(i+2,lexicals.size() - 1); } 
     } 
     return null; 
@@ -10622,24 +10708,24 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
   { return parsexmlnode(0,lexicals.size() - 1); } 
 
   public XMLNode parsexmlnode(int st, int en)
-  { if (st < lexicals.size() && "<".equals(lexicals.get(st) + ""))
-    { String tag = lexicals.get(st + 1) + "";
+  { if (st < lexicals.size() && "<".equals(lexicalText(st)))
+    { String tag = lexicalText(st + 1);
 
       // System.out.println(">>> Parsing XML tag: " + tag); 
 
       XMLNode xnode = new XMLNode(tag);
       for (int i = st + 2; i <= en && i < lexicals.size(); i++)
-      { String str = lexicals.get(i) + "";
+      { String str = lexicalText(i);
 
 
         if (i + 1 <= en)
-        { if ("=".equals(lexicals.get(i+1) + ""))
-          { XMLAttribute xatt = new XMLAttribute(str, lexicals.get(i+2) + "");
+        { if ("=".equals(lexicalText(i+1)))
+          { XMLAttribute xatt = new XMLAttribute(str, lexicalText(i+2));
             xnode.addAttribute(xatt);
           }
           else if ("</".equals(str) && i + 2 <= en && 
-              tag.equals(lexicals.get(i+1) + "") &&
-              ">".equals(lexicals.get(i+2) + ""))
+              tag.equals(lexicalText(i+1)) &&
+              ">".equals(lexicalText(i+2)))
           { return xnode; }
         }
 
@@ -10664,10 +10750,10 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
     String content = ""; 
 
     for (int i = st; i <= en; i++)
-    { String str = lexicals.get(i) + "";
+    { String str = lexicalText(i);
       if ("</".equals(str) && i + 2 <= en &&
-           tag.equals(lexicals.get(i+1) + "") &&
-           ">".equals(lexicals.get(i+2) + ""))
+           tag.equals(lexicalText(i+1)) &&
+           ">".equals(lexicalText(i+2)))
       { if (i > st && xnode != null) 
         { xnode.setContent(content); }  
         return res;
@@ -10675,10 +10761,10 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
  
 
       if (">".equals(str)) 
-      { String tag1 = lexicals.get(st + 1) + ""; 
+      { String tag1 = lexicalText(st + 1); 
         for (int j = i+1; j < en; j++) 
-        { String str1 = lexicals.get(j) + ""; 
-          if ("</".equals(str1) && tag1.equals(lexicals.get(j+1) + ""))
+        { String str1 = lexicalText(j); 
+          if ("</".equals(str1) && tag1.equals(lexicalText(j+1)))
           { XMLNode xn = parsexmlnode(st,j+2); 
             // System.out.println(">>> Parsed inner XML node: " + xn);
             if (xn != null) { res.add(xn); } 
@@ -10689,8 +10775,8 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
       }  
 
       if ("</".equals(str) && i + 2 <= en &&
-           !(tag.equals(lexicals.get(i+1) + "")) &&
-           ">".equals(lexicals.get(i+2) + ""))
+           !(tag.equals(lexicalText(i+1))) &&
+           ">".equals(lexicalText(i+2)))
       { XMLNode xn = parsexmlnode(st,i+2);
 
         // System.out.println(">>> Parsed XML node: " + xn); 
@@ -10720,9 +10806,9 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
   { USEMetaModel m = null; 
     int st = 0; 
     int en = lexicals.size(); 
-    String str = lexicals.get(st) + ""; 
+    String str = lexicalText(st); 
     if (st < en && "model".equals(str))
-    { m = new USEMetaModel(lexicals.get(st + 1) + ""); } 
+    { m = new USEMetaModel(lexicalText(st + 1)); } 
     else 
     { return m; }
     return parseUSEdeclarations(m,st + 2,en-1); 
@@ -10732,10 +10818,10 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
   { if (st > en) { return m; } 
 
     for (int i = st; i <= en; i++) 
-    { String str = lexicals.get(i) + ""; 
+    { String str = lexicalText(i); 
       if ("class".equals(str))
       { for (int j = i; j <= en; j++) 
-        { if ("end".equals(lexicals.get(j) + ""))
+        { if ("end".equals(lexicalText(j)))
           { USEClassDeclaration cd = parseUSEClassDeclaration(i,j);
             if (cd != null) { m.addClass(cd); } 
             return parseUSEdeclarations(m,j+1,en);
@@ -10744,7 +10830,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
       } 
       else if ("association".equals(str))
       { for (int j = i; j <= en; j++) 
-        { if ("end".equals(lexicals.get(j) + ""))
+        { if ("end".equals(lexicalText(j)))
           { USEAssociationDeclaration ad = parseUSEAssociationDeclaration(i,j); 
             if (ad != null) { m.addAssociation(ad); }  
             return parseUSEdeclarations(m,j+1,en); 
@@ -10757,7 +10843,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 
   public USEClassDeclaration parseUSEClassDeclaration(int st, int en)
   { if (st < en)
-    { String nme = lexicals.get(st + 1) + ""; 
+    { String nme = lexicalText(st + 1); 
       return new USEClassDeclaration(nme); 
     } 
     return null; 
@@ -10765,14 +10851,14 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 
   public USEAssociationDeclaration parseUSEAssociationDeclaration(int st, int en)
   { if (st + 1 < en) 
-    { String nme = lexicals.get(st + 1) + ""; 
+    { String nme = lexicalText(st + 1); 
       USEAssociationDeclaration ad = new USEAssociationDeclaration(nme); 
 
-      if ("between".equals(lexicals.get(st + 2) + ""))
+      if ("between".equals(lexicalText(st + 2)))
       { for (int i = st + 3; i + 5 < en; i = i + 6) 
-        { String ent = lexicals.get(i) + ""; 
-          String mult = lexicals.get(i+2) + ""; 
-          String rolename = lexicals.get(i+5) + ""; 
+        { String ent = lexicalText(i); 
+          String mult = lexicalText(i+2); 
+          String rolename = lexicalText(i+5); 
           System.out.println("Parsed role: " + ent + " " + mult + " " + rolename); 
 
           USERoleDeclaration rle = new USERoleDeclaration(ent,mult,rolename); 
@@ -10816,6 +10902,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 	// System.out.println("New lexicals = " + newlexicals); 
     lexicals.clear(); 
     lexicals.addAll(newlexicals);
+    tokens = null; 
     int len = lexicals.size();   
     return parseTaggedText(0,len-1); 
   }
@@ -10828,6 +10915,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 	// System.out.println("New lexicals = " + newlexicals); 
     lexicals.clear(); 
     lexicals.addAll(newlexicals);
+    tokens = null; 
     int len = lexicals.size();   
     return parseRequirementsText(0,len-1); 
   }
@@ -10835,9 +10923,9 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
   public Vector preprocessWords(int st, int en)
   { Vector res = new Vector(); 
     for (int j = st; j <= en; j++)
-	{ String lex1 = lexicals.get(j) + "";
+	{ String lex1 = lexicalText(j);
 	  if ("-".equals(lex1) && j < en) 
-	  { String lex2 = lexicals.get(j+1) + ""; 
+	  { String lex2 = lexicalText(j+1); 
 	    if ("RRB".equals(lex2) && j <= en-2)
 		{ j = j + 1; }
 		else if ("LRB".equals(lex2) && j <= en-2)
@@ -10861,7 +10949,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 	  if (i+1 <= newen) 
 	  { String lex2 = res.get(i+1) + "";  
 	    if ("-".equals(lex2) && i+2 <= newen)
-	    { String lex3 = lexicals.get(i+2) + "";
+	    { String lex3 = lexicalText(i+2);
 	      String composed = lex1 + "-" + lex3; 
           newres.add(composed);  
 		  i = i + 2; 
@@ -10895,7 +10983,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
     int i = st; 
     boolean innoun1 = true; 
     while (i <= en && innoun1)
-    { String lex = lexicals.get(i) + ""; 
+    { String lex = lexicalText(i); 
       if (isNounPhraseWord(lex))
       { noun1.add(lex);
         i++;  
@@ -10912,7 +11000,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
     Vector verb1 = new Vector();  
     
     while (i <= en && inverb1)
-    { String lex = lexicals.get(i) + "";
+    { String lex = lexicalText(i);
 	  if (isNounPhraseWord(lex))
 	  { inverb1 = false; }
 	  else if (isVerbPhraseWord(lex))
@@ -10928,7 +11016,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 	Vector noun2 = new Vector(); 
 	boolean innoun2 = true; 
     while (i <= en && innoun2)
-    { String lex = lexicals.get(i) + "";
+    { String lex = lexicalText(i);
 	  if (isNounPhraseWord(lex) || isConjunctionWord(lex))
 	  { noun2.add(lex); 
 	    i++; 
@@ -10945,7 +11033,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 	Vector verb2 = new Vector();  
     
 	while (i <= en && inverb2)
-    { String lex = lexicals.get(i) + "";
+    { String lex = lexicalText(i);
 	  if (isNounPhraseWord(lex))
 	  { inverb2 = false; }
 	  else if (isVerbPhraseWord(lex))
@@ -10961,7 +11049,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 	Vector noun3 = new Vector(); 
 	boolean innoun3 = true; 
     while (i <= en && innoun3)
-    { String lex = lexicals.get(i) + "";
+    { String lex = lexicalText(i);
 	  if (isNounPhraseWord(lex) || isConjunctionWord(lex))
 	  { noun3.add(lex);
 	    i++; 
@@ -10978,7 +11066,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 	Vector verb3 = new Vector();  
     
 	while (i <= en && inverb3)
-    { String lex = lexicals.get(i) + "";
+    { String lex = lexicalText(i);
 	  if (isNounPhraseWord(lex))
 	  { inverb3 = false; }
 	  else if (isVerbPhraseWord(lex))
@@ -10994,7 +11082,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 	Vector noun4 = new Vector(); 
 	boolean innoun4 = true; 
     while (i <= en && innoun4)
-    { String lex = lexicals.get(i) + "";
+    { String lex = lexicalText(i);
 	  if (isNounPhraseWord(lex) || isConjunctionWord(lex))
 	  { noun4.add(lex);
 	    i++; 
@@ -11011,7 +11099,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 	Vector verb4 = new Vector();  
     
 	while (i <= en && inverb4)
-    { String lex = lexicals.get(i) + "";
+    { String lex = lexicalText(i);
 	  if (isNounPhraseWord(lex))
 	  { inverb4 = false; }
 	  else if (isVerbPhraseWord(lex))
@@ -11027,7 +11115,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 	Vector noun5 = new Vector(); 
 	boolean innoun5 = true; 
     while (i <= en && innoun5)
-    { String lex = lexicals.get(i) + "";
+    { String lex = lexicalText(i);
 	  if (isNounPhraseWord(lex) || isConjunctionWord(lex))
 	  { noun5.add(lex);
 	    i++; 
@@ -11044,7 +11132,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 	Vector verb5 = new Vector();  
     
 	while (i <= en && inverb5)
-    { String lex = lexicals.get(i) + "";
+    { String lex = lexicalText(i);
 	  if (isNounPhraseWord(lex))
 	  { inverb5 = false; }
 	  else if (isVerbPhraseWord(lex))
@@ -11060,7 +11148,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 	Vector noun6 = new Vector(); 
 	boolean innoun6 = true; 
     while (i <= en && innoun6)
-    { String lex = lexicals.get(i) + "";
+    { String lex = lexicalText(i);
 	  if (isNounPhraseWord(lex) || isConjunctionWord(lex))
 	  { noun6.add(lex);
 	    i++; 
@@ -11077,7 +11165,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 	Vector verb6 = new Vector();  
     
 	while (i <= en && inverb6)
-    { String lex = lexicals.get(i) + "";
+    { String lex = lexicalText(i);
 	  if (isNounPhraseWord(lex))
 	  { inverb6 = false; }
 	  else if (isVerbPhraseWord(lex))
@@ -11093,7 +11181,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 	Vector noun7 = new Vector(); 
 	boolean innoun7 = true; 
     while (i <= en && innoun7)
-    { String lex = lexicals.get(i) + "";
+    { String lex = lexicalText(i);
 	  if (isNounPhraseWord(lex) || isConjunctionWord(lex))
 	  { noun7.add(lex);
 	    i++; 
@@ -11124,11 +11212,11 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
   { int en = lexicals.size(); 
     // Vector mes = new Vector(); 
     // for (int i = 0; i < en; i++)
-	// { String lex = lexicals.get(i) + ""; 
-	//   if ("Constituency".equals(lex) && i+1 < en && "parse".equals(lexicals.get(i+1) + ""))
+	// { String lex = lexicalText(i); 
+	//   if ("Constituency".equals(lex) && i+1 < en && "parse".equals(lexicalText(i+1)))
 	//   { for (int j = i+2; j < en; j++) 
-	//     { String lex2 = lexicals.get(j) + ""; 
-	// 	  if ("Dependency".equals(lex2) && j+1 < en && "parse".equals(lexicals.get(j+1) + ""))
+	//     { String lex2 = lexicalText(j); 
+	// 	  if ("Dependency".equals(lex2) && j+1 < en && "parse".equals(lexicalText(j+1)))
 	
    System.out.println(); 
    System.out.println(">>> Trying to parse " + showLexicals(0,en-1)); 
@@ -11152,8 +11240,8 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
   { // Pre: en >= st + 3
 
     
-    String lex0 = "" + lexicals.get(st); 
-    String lex1 = "" + lexicals.get(en); 
+    String lex0 = lexicalText(st); 
+    String lex1 = lexicalText(en); 
     if (st == en) 
     { int sb = lex0.indexOf("_"); 
       if (sb < 0) { return null; } 
@@ -11162,8 +11250,8 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
       return wd;  
     } 
     /* else if (en == st + 7 && "(".equals(lex0) && ")".equals(lex1) && 
-	         "-".equals(lexicals.get(st+1) + "") && "-".equals(lexicals.get(en-1) + ""))
-    { NLPWord res = new NLPWord("BRACKET", lexicals.get(st+2) + ""); 
+	         "-".equals(lexicalText(st+1)) && "-".equals(lexicalText(en-1)))
+    { NLPWord res = new NLPWord("BRACKET", lexicalText(st+2)); 
       return res; 
     } */ 
     return null; 
@@ -11172,19 +11260,19 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
   public NLPWord parseWord(int st, int en) 
   { // Pre: en >= st + 3
   
-    String lex0 = "" + lexicals.get(st); 
-    String lex1 = "" + lexicals.get(en); 
+    String lex0 = lexicalText(st); 
+    String lex1 = lexicalText(en); 
     if (en == st + 3 && "(".equals(lex0) && ")".equals(lex1))
-    { NLPWord res = new NLPWord("" + lexicals.get(st + 1), "" + lexicals.get(st + 2)); 
+    { NLPWord res = new NLPWord(lexicalText(st + 1), lexicalText(st + 2)); 
       return res; 
     }
     else if (en == st + 7 && "(".equals(lex0) && ")".equals(lex1) && 
-	         "-".equals(lexicals.get(st+1) + "") && "-".equals(lexicals.get(en-1) + ""))
-    { NLPWord res = new NLPWord("BRACKET", lexicals.get(st+2) + ""); 
+	         "-".equals(lexicalText(st+1)) && "-".equals(lexicalText(en-1)))
+    { NLPWord res = new NLPWord("BRACKET", lexicalText(st+2)); 
       return res; 
     }
     else if (en > st + 3 && "(".equals(lex0) && ")".equals(lex1) && 
-	         "POS".equals(lexicals.get(st+1) + ""))
+	         "POS".equals(lexicalText(st+1)))
     { NLPWord res = new NLPWord("POS", "POS"); 
       return res; 
     }
@@ -11193,25 +11281,25 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
   }
   
   public NLPPhrase parsePhrase(int st, int en) 
-  { String lex0 = "" + lexicals.get(st); 
-    String lex1 = "" + lexicals.get(en); 
+  { String lex0 = lexicalText(st); 
+    String lex1 = lexicalText(en); 
     if (en == st + 7 && "(".equals(lex0) && ")".equals(lex1) && 
-	         "-".equals(lexicals.get(st+1) + "") && "-".equals(lexicals.get(en-1) + ""))
+	         "-".equals(lexicalText(st+1)) && "-".equals(lexicalText(en-1)))
     { NLPPhrase res = new NLPPhrase("BRACKET", new Vector()); 
 	  return res; 
     }
     else if (en == st + 5 && "(".equals(lex0) && ")".equals(lex1) && 
-	         "-".equals(lexicals.get(st+1) + "") && "{".equals(lexicals.get(en-1) + ""))
+	         "-".equals(lexicalText(st+1)) && "{".equals(lexicalText(en-1)))
     { NLPPhrase res = new NLPPhrase("OBRACKET", new Vector()); 
       return res; 
     }
     else if (en == st + 5 && "(".equals(lex0) && ")".equals(lex1) && 
-	         "-".equals(lexicals.get(st+1) + "") && "}".equals(lexicals.get(en-1) + ""))
+	         "-".equals(lexicalText(st+1)) && "}".equals(lexicalText(en-1)))
 	{ NLPPhrase res = new NLPPhrase("CBRACKET", new Vector()); 
 	  return res; 
 	}
 	else if (en > st + 3 && "(".equals(lex0) && ")".equals(lex1))
-	{ String tag = "" + lexicals.get(st+1); 
+	{ String tag = lexicalText(st+1); 
 	  Vector phs = parsePhraseList(st+2,en-1); 
 	  if (phs == null) 
 	  { // System.err.println("!! Not a phrase list: " + showLexicals(st+2,en-1)); 
@@ -11245,7 +11333,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
       int ccount = 0; 
 	  
       for (int i = st+1; i <= en; i++) 
-      { String lexend = lexicals.get(i) + ""; 
+      { String lexend = lexicalText(i); 
         if ("(".equals(lexend))
         { ocount++; }
         else if (")".equals(lexend))
@@ -11271,7 +11359,7 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 	  int ccount = 0; 
 	  
 	  for (int i = st+1; i <= en; i++) 
-	  { String lexend = lexicals.get(i) + ""; 
+	  { String lexend = lexicalText(i); 
 	    if ("(".equals(lexend))
 		{ ocount++; }
 		else if (")".equals(lexend))
@@ -11316,10 +11404,10 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
 
 
   public NLPSentence parseSentence(int st, int en) 
-  { String lex0 = "" + lexicals.get(st); 
-    String lex1 = "" + lexicals.get(en); 
+  { String lex0 = lexicalText(st); 
+    String lex1 = lexicalText(en); 
 	if (en > st + 3 && "(".equals(lex0) && ")".equals(lex1))
-	{ String tag = "" + lexicals.get(st+1); 
+	{ String tag = lexicalText(st+1); 
 	  Vector phs = parsePhraseList(st+2,en-1); 
 	  if (phs == null) 
 	  { // System.err.println("!! Not a phrase list: " + showLexicals(st+2,en-1)); 
@@ -11332,15 +11420,15 @@ private Vector parseUsingClause(int st, int en, Vector entities, Vector types)
   }
   
   public NLPSentence parseRoot(int st, int en) 
-  { String lex0 = "" + lexicals.get(st); 
-    String lex1 = "" + lexicals.get(en);
+  { String lex0 = lexicalText(st); 
+    String lex1 = lexicalText(en);
 	
 	System.out.println();  
 	// System.out.println("***** " + lex0 + " " + lex1); 
 	System.out.println(); 
 	
 	if (en > st + 3 && "(".equals(lex0) && ")".equals(lex1))
-	{ String tag = "" + lexicals.get(st+1); 
+	{ String tag = lexicalText(st+1); 
 	  NLPSentence sent = parseSentence(st+2,en-1); 
 	  if (sent == null) 
 	  { System.err.println("!! Error: Not a sentence: " + showLexicals(st+2,en-1)); 
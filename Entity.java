@@ -15,10 +15,10 @@ import javax.swing.*;
 /* package: Class Diagram       */ 
 
 public class Entity extends ModelElement implements Comparable
-{ private Vector attributes = new Vector();   // Attribute
+{ private Vector attributes = new ModelSymbolTable();   // Attribute
   private Vector associations = new Vector(); // Association
     // The associations in which this is entity1
-  private Vector operations = new Vector();   // BehaviouralFeature
+  private Vector operations = new ModelSymbolTable();   // BehaviouralFeature
   private Entity superclass = null; 
   private Vector superclasses = null; // in case of C++ only 
   private Vector subclasses = new Vector();  // Entity
@@ -460,10 +460,19 @@ public class Entity extends ModelElement implements Comparable
   { invariants.remove(c); } 
 
   public void setAttributes(Vector atts)
-  { attributes = atts; } 
+  { // Kept as a ModelSymbolTable, for lookupByName 
+    if (atts == null || atts instanceof ModelSymbolTable) 
+    { attributes = atts; } 
+    else 
+    { attributes = new ModelSymbolTable(atts); } 
+  } 
 
   public void setOperations(Vector ops) 
-  { operations = ops; } 
+  { if (ops == null || ops instanceof ModelSymbolTable) 
+    { operations = ops; } 
+    else 
+    { operations = new ModelSymbolTable(ops); } 
+  } 
 
   public Vector getOperations()
   { return operations; } 
@@ -0,0 +1,135 @@
+/******************************
+* Copyright (c) 2003--2025 Kevin Lano
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0
+*
+* SPDX-License-Identifier: EPL-2.0
+* *****************************/
+
+import java.util.Vector;
+
+/* Tables computed in one pass over a lexical sequence of
+   Compiler2, for the expression parsers:
+     depth[i]     the ( ) nesting depth before token i
+     matching[i]  for a bracket ( ) [ ] { } the position of
+                  its partner, when all brackets between
+                  them are properly nested, otherwise -1
+   and the logical operator occurrences grouped by bracket
+   count then priority, each group in location order,
+   which is the order that getBestOcc searches. */
+
+public class LexicalIndex
+{ TokenStream tokens;
+  int[] depth;
+  int[] matching;
+
+  java.util.TreeMap opGroups = new java.util.TreeMap();
+    // Integer (bcount, priority) --> Vector of OpOccurrence
+
+  public LexicalIndex(TokenStream toks, Vector ops)
+  { tokens = toks;
+    int n = toks.size();
+    depth = new int[n];
+    matching = new int[n];
+
+    int[] open = new int[n]; // stack of unmatched openers
+    int top = 0;
+    int bnest = 0;
+
+    for (int i = 0; i < n; i++)
+    { String tok = toks.text(i);
+      depth[i] = bnest;
+      matching[i] = -1;
+
+      char c = ' ';
+      if (tok.length() == 1)
+      { c = tok.charAt(0); }
+
+      if (c == '(' || c == '[' || c == '{')
+      { if (c == '(')
+        { bnest++; }
+        open[top] = i;
+        top++;
+      }
+      else if (c == ')' || c == ']' || c == '}')
+      { if (c == ')')
+        { bnest--; }
+        if (top > 0 && closes(toks.text(open[top-1]).charAt(0),c))
+        { top--;
+          matching[open[top]] = i;
+          matching[i] = open[top];
+        }
+        else
+        { top = 0; } // enclosing brackets are not properly nested
+      }
+    }
+
+    for (int i = 0; i < ops.size(); i++)
+    { OpOccurrence oc = (OpOccurrence) ops.get(i);
+      Integer key = groupKey(oc.bcount,oc.priority());
+      Vector group = (Vector) opGroups.get(key);
+      if (group == null)
+      { group = new Vector();
+        opGroups.put(key,group);
+      }
+      group.add(oc);
+    }
+
+    java.util.Iterator iter = opGroups.values().iterator();
+    while (iter.hasNext())
+    { Vector group = (Vector) iter.next();
+      java.util.Collections.sort(group, new java.util.Comparator()
+        { public int compare(Object x, Object y)
+          { return ((OpOccurrence) x).location -
+                   ((OpOccurrence) y).location;
+          }
+        });
+    }
+  }
+
+  private static boolean closes(char o, char c)
+  { return (o == '(' && c == ')') || (o == '[' && c == ']') ||
+           (o == '{' && c == '}');
+  }
+
+  private static Integer groupKey(int bcount, int priority)
+  { // priority is -1..4
+    return new Integer(bcount*8 + priority + 1);
+  }
+
+  public boolean isFor(TokenStream toks)
+  { return tokens == toks; }
+
+  public int depth(int i)
+  { return depth[i]; }
+
+  public int matchingBracket(int i)
+  { return matching[i]; }
+
+  public OpOccurrence bestOccurrence(int st, int en)
+  { // The first occurrence in [st,en] of the lowest
+    // bracket count, then lowest priority, or null.
+
+    java.util.Iterator iter = opGroups.values().iterator();
+    while (iter.hasNext())
+    { Vector group = (Vector) iter.next();
+      int lo = 0;
+      int hi = group.size();
+      while (lo < hi)
+      { int mid = (lo + hi)/2;
+        OpOccurrence oc = (OpOccurrence) group.get(mid);
+        if (oc.location < st)
+        { lo = mid + 1; }
+        else
+        { hi = mid; }
+      }
+      if (lo < group.size())
+      { OpOccurrence oc = (OpOccurrence) group.get(lo);
+        if (oc.location <= en)
+        { return oc; }
+      }
+    }
+    return null;
+  }
+}
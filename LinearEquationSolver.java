@@ -0,0 +1,646 @@
+/******************************
+* Copyright (c) 2003--2025 Kevin Lano
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0
+*
+* SPDX-License-Identifier: EPL-2.0
+* *****************************/
+
+import java.util.Vector;
+import java.math.BigInteger;
+import java.math.BigDecimal;
+
+/* Exact solution of simultaneous linear equations with
+   numeric coefficients, for ASTTerm.solveEquations. Each
+   equation  e  (meaning e = 0) or  lhs = rhs  is converted
+   to a sparse row of integer coefficients, one column for
+   each variable and one for the constant term. The rows are
+   reduced by fraction-free Gauss-Jordan elimination: a row
+   is combined with the pivot row by integer multiples and
+   then divided by the gcd of its entries, so no fractions
+   are formed. The pivot is taken from the row with fewest
+   variables, in its variable with fewest occurrences, to
+   limit fill-in in sparse systems.
+
+   Square systems with small coefficients are first solved
+   by p-adic lifting (Dixon's method): A is inverted modulo
+   a prime p, the solution is lifted digit by digit in base
+   p using only long arithmetic, until p^k exceeds the
+   Hadamard bound of the numerators and denominators, and
+   the rationals are then reconstructed and checked against
+   the equations. This takes O(n^3) word operations
+   instead of O(n^3) operations on numbers of the size of
+   the determinant.
+
+   Systems which are not linear with numeric coefficients,
+   or which have no unique solution, are not solved here
+   (solve returns null). */
+
+public class LinearEquationSolver
+{ Vector variables = new Vector(); // of String
+  java.util.Map varIndex = new java.util.HashMap();
+    // String --> Integer
+  int nvars;
+
+  Vector rows = new Vector(); // of java.util.Map Integer --> BigInteger
+  java.util.Set[] occurrences; // rows of each variable column
+
+  public static String solve(Vector exprTerms, Vector varTerms)
+  { // "  Define v = value\n" for each variable, or null
+
+    LinearEquationSolver solver = new LinearEquationSolver();
+    for (int i = 0; i < varTerms.size(); i++)
+    { String v = varTerms.get(i) + "";
+      if (",".equals(v))
+      { continue; }
+      if (solver.varIndex.containsKey(v))
+      { return null; }
+      solver.varIndex.put(v, new Integer(solver.variables.size()));
+      solver.variables.add(v);
+    }
+    solver.nvars = solver.variables.size();
+    if (solver.nvars == 0)
+    { return null; }
+
+    for (int j = 0; j < exprTerms.size(); j++)
+    { ASTTerm expr = (ASTTerm) exprTerms.get(j);
+      if (expr.getTerms().size() == 0 && ",".equals(expr.literalForm()))
+      { continue; }
+      java.util.Map form = solver.linearForm(expr);
+      if (form == null)
+      { return null; }
+      solver.rows.add(integerRow(form));
+    }
+
+    BigInteger[][] sol = null;
+    if (solver.rows.size() == solver.nvars)
+    { sol = solver.liftSolution(); }
+    if (sol == null)
+    { sol = solver.eliminate(); }
+    if (sol == null)
+    { return null; }
+
+    StringBuffer res = new StringBuffer();
+    for (int i = 0; i < solver.nvars; i++)
+    { res.append("  Define " + solver.variables.get(i) + " = " +
+                 fractionString(sol[i][0], sol[i][1]) + "\n");
+    }
+    return res.toString();
+  }
+
+
+  /* Linear forms: Maps Integer --> BigInteger[] {num, den},
+     with key nvars for the constant term. */
+
+  java.util.Map linearForm(ASTTerm trm)
+  { // trm as a linear combination of the variables,
+    // or null
+
+    if (trm == null)
+    { return null; }
+
+    Vector args = trm.getTerms();
+    String tg = trm.getTag();
+
+    if (args.size() == 1)
+    { return linearForm((ASTTerm) args.get(0)); }
+
+    if (args.size() == 0 || "basicExpression".equals(tg))
+    { if ("basicExpression".equals(tg) && args.size() == 3 &&
+          "(".equals(args.get(0) + "") &&
+          ")".equals(args.get(2) + ""))
+      { return linearForm((ASTTerm) args.get(1)); }
+
+      String lit = trm.literalForm();
+      Integer ind = (Integer) varIndex.get(lit);
+      if (ind != null)
+      { java.util.Map res = new java.util.HashMap();
+        res.put(ind, new BigInteger[] { BigInteger.ONE, BigInteger.ONE });
+        return res;
+      }
+      BigInteger[] val = numberValue(lit);
+      if (val == null)
+      { return null; }
+      java.util.Map res = new java.util.HashMap();
+      res.put(new Integer(nvars), val);
+      return res;
+    }
+
+    if (args.size() == 3 &&
+        ("additiveExpression".equals(tg) ||
+         ("equalityExpression".equals(tg) && "=".equals(args.get(1) + ""))))
+    { String opr = args.get(1) + "";
+      if (!"+".equals(opr) && !"-".equals(opr) && !"=".equals(opr))
+      { return null; }
+      java.util.Map f1 = linearForm((ASTTerm) args.get(0));
+      if (f1 == null)
+      { return null; }
+      java.util.Map f2 = linearForm((ASTTerm) args.get(2));
+      if (f2 == null)
+      { return null; }
+      if ("+".equals(opr))
+      { return addForms(f1, f2, BigInteger.ONE, BigInteger.ONE); }
+      return addForms(f1, f2, BigInteger.ONE.negate(), BigInteger.ONE);
+    }
+
+    if ("factorExpression".equals(tg) && args.size() == 2)
+    { String opr = args.get(0) + "";
+      java.util.Map f1 = linearForm((ASTTerm) args.get(1));
+      if (f1 == null)
+      { return null; }
+      if ("-".equals(opr))
+      { return scaleForm(f1, BigInteger.ONE.negate(), BigInteger.ONE); }
+      if ("+".equals(opr))
+      { return f1; }
+      return null;
+    }
+
+    if ("factorExpression".equals(tg) && args.size() == 3)
+    { String opr = args.get(1) + "";
+      if (!"*".equals(opr) && !"/".equals(opr))
+      { return null; }
+      java.util.Map f1 = linearForm((ASTTerm) args.get(0));
+      if (f1 == null)
+      { return null; }
+      java.util.Map f2 = linearForm((ASTTerm) args.get(2));
+      if (f2 == null)
+      { return null; }
+
+      BigInteger[] c2 = constantValue(f2);
+      if ("/".equals(opr))
+      { if (c2 == null || c2[0].signum() == 0)
+        { return null; }
+        return scaleForm(f1, c2[1], c2[0]);
+      }
+
+      if (c2 != null)
+      { return scaleForm(f1, c2[0], c2[1]); }
+      BigInteger[] c1 = constantValue(f1);
+      if (c1 != null)
+      { return scaleForm(f2, c1[0], c1[1]); }
+      return null; // non-linear
+    }
+
+    return null;
+  }
+
+  private BigInteger[] constantValue(java.util.Map form)
+  { // The value of a form without variables, or null
+
+    java.util.Iterator keys = form.keySet().iterator();
+    while (keys.hasNext())
+    { Integer k = (Integer) keys.next();
+      if (k.intValue() != nvars)
+      { return null; }
+    }
+    BigInteger[] c = (BigInteger[]) form.get(new Integer(nvars));
+    if (c == null)
+    { return new BigInteger[] { BigInteger.ZERO, BigInteger.ONE }; }
+    return c;
+  }
+
+  private static java.util.Map addForms(java.util.Map f1, java.util.Map f2,
+                                        BigInteger n, BigInteger d)
+  { // f1 + (n/d)*f2. The forms built by linearForm are
+    // not shared, so f1 is updated in place.
+
+    java.util.Map res = f1;
+    java.util.Iterator iter = f2.entrySet().iterator();
+    while (iter.hasNext())
+    { java.util.Map.Entry ent = (java.util.Map.Entry) iter.next();
+      BigInteger[] c2 = (BigInteger[]) ent.getValue();
+      BigInteger[] c = fraction(c2[0].multiply(n), c2[1].multiply(d));
+      BigInteger[] c1 = (BigInteger[]) res.get(ent.getKey());
+      if (c1 != null)
+      { c = fraction(c1[0].multiply(c[1]).add(c[0].multiply(c1[1])),
+                     c1[1].multiply(c[1]));
+      }
+      if (c[0].signum() == 0)
+      { res.remove(ent.getKey()); }
+      else
+      { res.put(ent.getKey(), c); }
+    }
+    return res;
+  }
+
+  private static java.util.Map scaleForm(java.util.Map f, BigInteger n,
+                                         BigInteger d)
+  { java.util.Map res = new java.util.HashMap();
+    if (n.signum() == 0)
+    { return res; }
+    java.util.Iterator iter = f.entrySet().iterator();
+    while (iter.hasNext())
+    { java.util.Map.Entry ent = (java.util.Map.Entry) iter.next();
+      BigInteger[] c = (BigInteger[]) ent.getValue();
+      res.put(ent.getKey(), fraction(c[0].multiply(n), c[1].multiply(d)));
+    }
+    return res;
+  }
+
+  private static BigInteger[] fraction(BigInteger n, BigInteger d)
+  { BigInteger g = n.gcd(d);
+    if (d.signum() < 0)
+    { g = g.negate(); }
+    if (g.signum() == 0)
+    { return new BigInteger[] { BigInteger.ZERO, BigInteger.ONE }; }
+    return new BigInteger[] { n.divide(g), d.divide(g) };
+  }
+
+  static BigInteger[] numberValue(String lit)
+  { // {num, den} of a decimal literal, or null
+
+    if (lit == null || lit.length() == 0)
+    { return null; }
+    char c = lit.charAt(0);
+    if (c != '-' && c != '.' && !Character.isDigit(c))
+    { return null; }
+
+    try
+    { BigDecimal d = new BigDecimal(lit);
+      if (d.scale() > 0)
+      { return fraction(d.unscaledValue(), BigInteger.TEN.pow(d.scale())); }
+      return new BigInteger[] { d.toBigInteger(), BigInteger.ONE };
+    }
+    catch (Exception _ex)
+    { return null; }
+  }
+
+  private static java.util.Map integerRow(java.util.Map form)
+  { // form multiplied by the lcm of its denominators
+
+    BigInteger lcm = BigInteger.ONE;
+    java.util.Iterator iter = form.values().iterator();
+    while (iter.hasNext())
+    { BigInteger d = ((BigInteger[]) iter.next())[1];
+      lcm = lcm.divide(lcm.gcd(d)).multiply(d);
+    }
+
+    java.util.Map row = new java.util.HashMap();
+    iter = form.entrySet().iterator();
+    while (iter.hasNext())
+    { java.util.Map.Entry ent = (java.util.Map.Entry) iter.next();
+      BigInteger[] c = (BigInteger[]) ent.getValue();
+      row.put(ent.getKey(), c[0].multiply(lcm.divide(c[1])));
+    }
+    return row;
+  }
+
+
+
+  /* p-adic lifting */
+
+  static final long[] PRIMES =
+    { 2147483629L, 2147483587L, 2147483579L };
+
+  private BigInteger[][] liftSolution()
+  { // {num, den} of each variable, or null if A is too large
+    // for long arithmetic or singular modulo the primes
+
+    int n = nvars;
+    long[][] a = new long[n][n];
+    long[] b = new long[n];
+    long maxa = 0;
+    Integer cnst = new Integer(n);
+
+    for (int i = 0; i < n; i++)
+    { java.util.Map row = (java.util.Map) rows.get(i);
+      java.util.Iterator iter = row.entrySet().iterator();
+      while (iter.hasNext())
+      { java.util.Map.Entry ent = (java.util.Map.Entry) iter.next();
+        BigInteger v = (BigInteger) ent.getValue();
+        int c = ((Integer) ent.getKey()).intValue();
+        if (c == n)
+        { if (v.bitLength() > 60)
+          { return null; }
+          b[i] = -v.longValue(); // A x = -k
+        }
+        else
+        { if (v.bitLength() > 30)
+          { return null; }
+          a[i][c] = v.longValue();
+          maxa = Math.max(maxa, Math.abs(a[i][c]));
+        }
+      }
+    }
+    if (maxa*n >= (1L << 30))
+    { return null; }
+
+    for (int k = 0; k < PRIMES.length; k++)
+    { long p = PRIMES[k];
+      long[][] inv = inverseModulo(a, p);
+      if (inv != null)
+      { return lift(a, b, inv, p); }
+    }
+    return null;
+  }
+
+  private static long[][] inverseModulo(long[][] a, long p)
+  { // Gauss-Jordan on [A | I] modulo p, null if singular
+
+    int n = a.length;
+    long[][] m = new long[n][2*n];
+    for (int i = 0; i < n; i++)
+    { for (int j = 0; j < n; j++)
+      { m[i][j] = ((a[i][j] % p) + p) % p; }
+      m[i][n + i] = 1;
+    }
+
+    for (int c = 0; c < n; c++)
+    { int r = c;
+      while (r < n && m[r][c] == 0)
+      { r++; }
+      if (r == n)
+      { return null; }
+      long[] tmp = m[r];
+      m[r] = m[c];
+      m[c] = tmp;
+
+      long pinv = BigInteger.valueOf(m[c][c]).modInverse(
+                    BigInteger.valueOf(p)).longValue();
+      long[] prow = m[c];
+      for (int j = c; j < 2*n; j++)
+      { prow[j] = (prow[j]*pinv) % p; }
+
+      for (int i = 0; i < n; i++)
+      { long f = m[i][c];
+        if (i == c || f == 0)
+        { continue; }
+        long negf = p - f;
+        long[] row = m[i];
+        for (int j = c; j < 2*n; j++)
+        { if (prow[j] != 0)
+          { row[j] = (row[j] + negf*prow[j]) % p; }
+        }
+      }
+    }
+
+    long[][] res = new long[n][n];
+    for (int i = 0; i < n; i++)
+    { System.arraycopy(m[i], n, res[i], 0, n); }
+    return res;
+  }
+
+  private BigInteger[][] lift(long[][] a, long[] b, long[][] inv, long p)
+  { int n = a.length;
+
+    // Hadamard bounds: log2 of |det A| and of the
+    // numerators of Cramer's rule
+    double logd = 0;
+    double logn = 0;
+    for (int i = 0; i < n; i++)
+    { double sq = 0;
+      for (int j = 0; j < n; j++)
+      { sq += ((double) a[i][j])*a[i][j]; }
+      logd += 0.5*Math.log(Math.max(sq,1.0))/Math.log(2);
+      logn += 0.5*Math.log(Math.max(sq + ((double) b[i])*b[i],1.0))/Math.log(2);
+    }
+    // p^steps > 2*N*D. By Cramer's rule x = y/det A with
+    // |y| <= N, so for any den dividing det A, den*x is
+    // y'/e with |y'| <= N and 0 < e <= D.
+    int steps = (int) Math.ceil((logn + logd + 2)/30.0) + 1;
+
+    long[] r = (long[]) b.clone();
+    long[][] digits = new long[steps][];
+    for (int s = 0; s < steps; s++)
+    { long[] rmod = new long[n];
+      for (int j = 0; j < n; j++)
+      { rmod[j] = ((r[j] % p) + p) % p; }
+
+      long[] x = new long[n];
+      for (int i = 0; i < n; i++)
+      { long acc = 0;
+        long[] ci = inv[i];
+        for (int j = 0; j < n; j++)
+        { acc = (acc + ci[j]*rmod[j]) % p; }
+        x[i] = acc;
+      }
+      digits[s] = x;
+
+      for (int i = 0; i < n; i++)
+      { long ax = 0;
+        long[] ai = a[i];
+        for (int j = 0; j < n; j++)
+        { ax += ai[j]*x[j]; }
+        // r - A x is divisible by p
+        r[i] = (r[i] - ax)/p;
+      }
+    }
+
+    BigInteger bp = BigInteger.valueOf(p);
+    BigInteger modulus = bp.pow(steps);
+    BigInteger numBound = BigInteger.ONE.shiftLeft((int) Math.ceil(logn) + 1);
+    BigInteger denBound = BigInteger.ONE.shiftLeft((int) Math.ceil(logd) + 1);
+
+    BigInteger den = BigInteger.ONE;
+    BigInteger[] nums = new BigInteger[n];
+    for (int j = 0; j < n; j++)
+    { BigInteger u = BigInteger.ZERO;
+      for (int s = steps - 1; s >= 0; s--)
+      { u = u.multiply(bp).add(BigInteger.valueOf(digits[s][j])); }
+
+      // den*x_j = y/e
+      BigInteger w = u.multiply(den).mod(modulus);
+      BigInteger[] ye = reconstruct(w, modulus, numBound, denBound);
+      if (ye == null)
+      { return null; }
+      if (!ye[1].equals(BigInteger.ONE))
+      { for (int k = 0; k < j; k++)
+        { nums[k] = nums[k].multiply(ye[1]); }
+        den = den.multiply(ye[1]);
+      }
+      nums[j] = ye[0];
+    }
+
+    // Check A*nums = b*den
+    for (int i = 0; i < n; i++)
+    { BigInteger sum = BigInteger.ZERO;
+      for (int j = 0; j < n; j++)
+      { if (a[i][j] != 0)
+        { sum = sum.add(nums[j].multiply(BigInteger.valueOf(a[i][j]))); }
+      }
+      if (!sum.equals(den.multiply(BigInteger.valueOf(b[i]))))
+      { return null; }
+    }
+
+    BigInteger[][] res = new BigInteger[n][];
+    for (int j = 0; j < n; j++)
+    { res[j] = fraction(nums[j], den); }
+    return res;
+  }
+
+  private static BigInteger[] reconstruct(BigInteger u, BigInteger m,
+                              BigInteger numBound, BigInteger denBound)
+  { // {y, e} with y = e*u mod m, |y| <= numBound,
+    // 0 < e <= denBound, by the extended Euclidean algorithm
+
+    BigInteger r0 = m;
+    BigInteger r1 = u;
+    BigInteger t0 = BigInteger.ZERO;
+    BigInteger t1 = BigInteger.ONE;
+    while (r1.compareTo(numBound) > 0)
+    { BigInteger[] qr = r0.divideAndRemainder(r1);
+      r0 = r1;
+      r1 = qr[1];
+      BigInteger t = t0.subtract(qr[0].multiply(t1));
+      t0 = t1;
+      t1 = t;
+    }
+    if (t1.abs().compareTo(denBound) > 0 || t1.signum() == 0)
+    { return null; }
+    if (t1.signum() < 0)
+    { return new BigInteger[] { r1.negate(), t1.negate() }; }
+    return new BigInteger[] { r1, t1 };
+  }
+
+
+  /* Elimination */
+
+  private BigInteger[][] eliminate()
+  { // {num, den} of each variable, or null if there is not
+    // a unique solution
+
+    int nrows = rows.size();
+    occurrences = new java.util.Set[nvars];
+    for (int c = 0; c < nvars; c++)
+    { occurrences[c] = new java.util.HashSet(); }
+    for (int r = 0; r < nrows; r++)
+    { java.util.Map row = (java.util.Map) rows.get(r);
+      java.util.Iterator keys = row.keySet().iterator();
+      while (keys.hasNext())
+      { int c = ((Integer) keys.next()).intValue();
+        if (c < nvars)
+        { occurrences[c].add(new Integer(r)); }
+      }
+    }
+
+    int[] pivotColumn = new int[nrows];
+    java.util.Arrays.fill(pivotColumn, -1);
+    int[] pivotRow = new int[nvars];
+    java.util.Arrays.fill(pivotRow, -1);
+    int npivots = 0;
+
+    while (npivots < nvars)
+    { // the unpivoted row with fewest variables
+      int r = -1;
+      int best = Integer.MAX_VALUE;
+      for (int i = 0; i < nrows; i++)
+      { if (pivotColumn[i] >= 0)
+        { continue; }
+        int nv = variableCount((java.util.Map) rows.get(i));
+        if (nv > 0 && nv < best)
+        { r = i;
+          best = nv;
+        }
+      }
+      if (r < 0)
+      { return null; } // fewer independent equations than variables
+
+      java.util.Map prow = (java.util.Map) rows.get(r);
+      int c = -1;
+      best = Integer.MAX_VALUE;
+      java.util.Iterator keys = prow.keySet().iterator();
+      while (keys.hasNext())
+      { int k = ((Integer) keys.next()).intValue();
+        if (k < nvars && occurrences[k].size() < best)
+        { c = k;
+          best = occurrences[k].size();
+        }
+      }
+
+      Integer pc = new Integer(c);
+      BigInteger p = (BigInteger) prow.get(pc);
+      Vector others = new Vector(occurrences[c]);
+      for (int k = 0; k < others.size(); k++)
+      { int i = ((Integer) others.get(k)).intValue();
+        if (i == r)
+        { continue; }
+        java.util.Map row = (java.util.Map) rows.get(i);
+        BigInteger a = (BigInteger) row.get(pc);
+        BigInteger g = p.gcd(a);
+        combineRows(i, row, p.divide(g), prow, a.divide(g));
+      }
+
+      pivotColumn[r] = c;
+      pivotRow[c] = r;
+      npivots++;
+    }
+
+    // Every variable has a pivot row  p*v + k = 0. The other
+    // rows must have been reduced to 0 = 0.
+    for (int i = 0; i < nrows; i++)
+    { if (pivotColumn[i] < 0 && ((java.util.Map) rows.get(i)).size() > 0)
+      { return null; }
+    }
+
+    BigInteger[][] res = new BigInteger[nvars][];
+    Integer cnst = new Integer(nvars);
+    for (int c = 0; c < nvars; c++)
+    { java.util.Map row = (java.util.Map) rows.get(pivotRow[c]);
+      BigInteger p = (BigInteger) row.get(new Integer(c));
+      BigInteger k = (BigInteger) row.get(cnst);
+      if (k == null)
+      { k = BigInteger.ZERO; }
+      res[c] = fraction(k.negate(), p);
+    }
+    return res;
+  }
+
+  private int variableCount(java.util.Map row)
+  { if (row.containsKey(new Integer(nvars)))
+    { return row.size() - 1; }
+    return row.size();
+  }
+
+  private void combineRows(int i, java.util.Map row, BigInteger m,
+                           java.util.Map prow, BigInteger pm)
+  { // row i := m*row - pm*prow, divided by its content.
+    // The pivot column of prow is cancelled.
+
+    Integer ri = new Integer(i);
+    if (!m.equals(BigInteger.ONE))
+    { java.util.Iterator iter = row.entrySet().iterator();
+      while (iter.hasNext())
+      { java.util.Map.Entry ent = (java.util.Map.Entry) iter.next();
+        ent.setValue(((BigInteger) ent.getValue()).multiply(m));
+      }
+    }
+
+    java.util.Iterator iter = prow.entrySet().iterator();
+    while (iter.hasNext())
+    { java.util.Map.Entry ent = (java.util.Map.Entry) iter.next();
+      Integer k = (Integer) ent.getKey();
+      BigInteger s = ((BigInteger) ent.getValue()).multiply(pm);
+      BigInteger old = (BigInteger) row.get(k);
+      BigInteger v = (old == null) ? s.negate() : old.subtract(s);
+      if (v.signum() == 0)
+      { row.remove(k);
+        if (k.intValue() < nvars)
+        { occurrences[k.intValue()].remove(ri); }
+      }
+      else
+      { row.put(k, v);
+        if (old == null && k.intValue() < nvars)
+        { occurrences[k.intValue()].add(ri); }
+      }
+    }
+
+    BigInteger g = BigInteger.ZERO;
+    iter = row.values().iterator();
+    while (iter.hasNext() && !g.equals(BigInteger.ONE))
+    { g = g.gcd((BigInteger) iter.next()); }
+    if (g.signum() > 0 && !g.equals(BigInteger.ONE))
+    { iter = row.entrySet().iterator();
+      while (iter.hasNext())
+      { java.util.Map.Entry ent = (java.util.Map.Entry) iter.next();
+        ent.setValue(((BigInteger) ent.getValue()).divide(g));
+      }
+    }
+  }
+
+  static String fractionString(BigInteger n, BigInteger d)
+  { if (d.equals(BigInteger.ONE))
+    { return n.toString(); }
+    return n + "/" + d;
+  }
+}
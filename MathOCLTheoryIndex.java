@@ -0,0 +1,192 @@
+/******************************
+* Copyright (c) 2003--2025 Kevin Lano
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0
+*
+* SPDX-License-Identifier: EPL-2.0
+* *****************************/
+
+import java.util.Vector;
+
+/* Discrimination tree over the left-hand sides of a Vector of
+   MathOCL [lhs, rhs] rules (theorems [concl, premise] or
+   rewrites), used by ASTTerm.attemptProof to find the rules
+   which could match a term, instead of trying fullMatch and
+   hasMatch with every rule.
+
+   A term is indexed by the shape which fullMatch compares:
+   chains of single subterms are skipped, then a term is its
+   number of subterms followed by their shapes, or a leaf
+   with its literal. Metavariables _V match any term. Tags
+   are not compared by fullMatch, so are not indexed.
+
+   The rules Vector is only added to, so new rules are
+   indexed at the next lookup; the tree is rebuilt if the
+   Vector becomes shorter. */
+
+public class MathOCLTheoryIndex
+{ private Vector rules; // of Vector [lhs, rhs]
+  private int indexed = 0;
+  private IndexNode root = new IndexNode();
+  private java.util.Map literalIndex = new java.util.HashMap();
+    // String --> Vector of Integer
+
+  public MathOCLTheoryIndex(Vector rs)
+  { rules = rs; }
+
+  private void update()
+  { if (rules.size() < indexed)
+    { root = new IndexNode();
+      literalIndex = new java.util.HashMap();
+      indexed = 0;
+    }
+
+    while (indexed < rules.size())
+    { Vector rule = (Vector) rules.get(indexed);
+      ASTTerm lhs = (ASTTerm) rule.get(0);
+      Integer ind = Integer.valueOf(indexed);
+
+      IndexNode node = root;
+      Vector pending = new Vector();
+      pending.add(lhs);
+      while (pending.size() > 0)
+      { ASTTerm t = core((ASTTerm) pending.remove(0));
+        node = node.child(key(t));
+        if (t.arity() > 0)
+        { pending.addAll(0, t.getTerms()); }
+      }
+      node.rules.add(ind);
+
+      // fullMatch also accepts equal literal forms
+      String lit = lhs.literalForm();
+      Vector same = (Vector) literalIndex.get(lit);
+      if (same == null)
+      { same = new Vector();
+        literalIndex.put(lit, same);
+      }
+      same.add(ind);
+
+      indexed++;
+    }
+  }
+
+  private static ASTTerm core(ASTTerm t)
+  { while (t.arity() == 1)
+    { t = (ASTTerm) t.getTerms().get(0); }
+    return t;
+  }
+
+  private static String key(ASTTerm t)
+  { // The key of a core term
+
+    int n = t.arity();
+    if (n > 0)
+    { return "(" + n; }
+    String lit = t.literalForm();
+    if (CSTL.isMathMetavariable(lit))
+    { return null; }
+    return "=" + lit;
+  }
+
+  public synchronized Vector candidates(ASTTerm t)
+  { // The rules whose lhs could fullMatch t, in order
+
+    update();
+    java.util.TreeSet res = new java.util.TreeSet();
+    addCandidates(t, res);
+    return rulesOf(res);
+  }
+
+  public synchronized Vector subtermCandidates(ASTTerm t)
+  { // The rules whose lhs could match t or any subterm
+    // of t, as in hasMatch and isSubterm, in order
+
+    update();
+    java.util.TreeSet res = new java.util.TreeSet();
+    Vector pending = new Vector();
+    pending.add(t);
+    while (pending.size() > 0)
+    { ASTTerm trm = (ASTTerm) pending.remove(pending.size() - 1);
+      addCandidates(trm, res);
+      if (trm instanceof ASTCompositeTerm)
+      { pending.addAll(trm.getTerms()); }
+    }
+    return rulesOf(res);
+  }
+
+  private void addCandidates(ASTTerm t, java.util.TreeSet res)
+  { Vector same = (Vector) literalIndex.get(t.literalForm());
+    if (same != null)
+    { res.addAll(same); }
+
+    Vector pending = new Vector();
+    pending.add(t);
+    retrieve(root, pending, res);
+  }
+
+  private void retrieve(IndexNode node, Vector pending,
+                        java.util.TreeSet res)
+  { if (pending.size() == 0)
+    { res.addAll(node.rules);
+      return;
+    }
+
+    ASTTerm t = core((ASTTerm) pending.get(0));
+    Vector rest = new Vector(pending.subList(1, pending.size()));
+
+    if (node.wildcard != null)
+    { retrieve(node.wildcard, rest, res); }
+
+    if (t.arity() > 0)
+    { // a leaf of the lhs with the same literal form
+
+      IndexNode leaf =
+        (IndexNode) node.children.get("=" + t.literalForm());
+      if (leaf != null)
+      { retrieve(leaf, rest, res); }
+    }
+
+    IndexNode next = (IndexNode) node.children.get(key(t));
+    if (next != null)
+    { if (t.arity() > 0)
+      { rest = new Vector(rest);
+        rest.addAll(0, t.getTerms());
+      }
+      retrieve(next, rest, res);
+    }
+  }
+
+  private Vector rulesOf(java.util.TreeSet inds)
+  { Vector res = new Vector();
+    java.util.Iterator iter = inds.iterator();
+    while (iter.hasNext())
+    { Integer ind = (Integer) iter.next();
+      res.add(rules.get(ind.intValue()));
+    }
+    return res;
+  }
+
+
+  static class IndexNode
+  { java.util.Map children = new java.util.HashMap();
+      // String --> IndexNode
+    IndexNode wildcard = null;
+    Vector rules = new Vector(); // of Integer
+
+    IndexNode child(String k)
+    { if (k == null)
+      { if (wildcard == null)
+        { wildcard = new IndexNode(); }
+        return wildcard;
+      }
+
+      IndexNode res = (IndexNode) children.get(k);
+      if (res == null)
+      { res = new IndexNode();
+        children.put(k, res);
+      }
+      return res;
+    }
+  }
+}
@@ -42,6 +42,12 @@ public abstract class ModelElement implements SystemTypes
      
   static java.util.Map nsscache = new java.util.HashMap(); 
 
+  boolean indexed = false; // in a ModelSymbolTable index
+  static final java.util.concurrent.atomic.AtomicInteger indexedRenames =
+    new java.util.concurrent.atomic.AtomicInteger(0); 
+    // Number of renamings of indexed elements, which 
+    // invalidate the ModelSymbolTable indexes
+
   public ModelElement(String nme)
   { name = nme; }
  
@@ -49,7 +55,10 @@ public abstract class ModelElement implements SystemTypes
   { return name; }
 
   public void setName(String newname)
-  { name = newname; }
+  { if (indexed && (name == null || !name.equals(newname)))
+    { indexedRenames.incrementAndGet(); } 
+    name = newname; 
+  }
 
   public static Vector getNames(Vector elems)
   { Vector res = new Vector(); 
@@ -261,7 +270,10 @@ public abstract class ModelElement implements SystemTypes
   }
 
   public static ModelElement lookupByName(String nme, List mes)
-  { for (int i = 0; i < mes.size(); i++) 
+  { if (mes instanceof ModelSymbolTable) 
+    { return ((ModelSymbolTable) mes).lookup(nme); } 
+
+    for (int i = 0; i < mes.size(); i++) 
     { ModelElement me = (ModelElement) mes.get(i); 
       if (me.getName().equals(nme))
       { return me; } 
@@ -270,7 +282,10 @@ public abstract class ModelElement implements SystemTypes
   } 
 
   public static ModelElement lookupByName(String nme, Vector mes)
-  { for (int i = 0; i < mes.size(); i++) 
+  { if (mes instanceof ModelSymbolTable) 
+    { return ((ModelSymbolTable) mes).lookup(nme); } 
+
+    for (int i = 0; i < mes.size(); i++) 
     { ModelElement me = (ModelElement) mes.get(i); 
       if (me.getName().equals(nme))
       { return me; } 
@@ -0,0 +1,136 @@
+/******************************
+* Copyright (c) 2003--2025 Kevin Lano
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0
+*
+* SPDX-License-Identifier: EPL-2.0
+* *****************************/
+
+import java.util.Vector;
+import java.util.Collection;
+
+/* A Vector of ModelElements with a hash index from names
+   to the first element of each name, used by
+   ModelElement.lookupByName instead of a linear scan. The
+   model's lists of entities, types, use cases and the
+   attributes and operations of entities are symbol
+   tables.
+
+   Elements added at the end are indexed as they are
+   added. Other changes (insertions, removals, set), and
+   renaming of an indexed element by setName, make the
+   index out of date, and it is rebuilt at the next
+   lookup. A table which holds some other object is
+   searched linearly, until it is changed again. */
+
+public class ModelSymbolTable extends Vector
+{ private transient java.util.Map index = null;
+    // String --> ModelElement
+  private transient int indexedModCount = -1;
+  private transient int indexedRenames = -1;
+  private transient boolean indexable = true;
+    // false if not all elements are ModelElements
+
+  public ModelSymbolTable()
+  { super(); }
+
+  public ModelSymbolTable(Collection elems)
+  { super(elems); }
+
+  public synchronized ModelElement lookup(String nme)
+  { if (!indexValid())
+    { rebuild(); }
+
+    if (!indexable)
+    { return scan(nme); }
+    return (ModelElement) index.get(nme);
+  }
+
+  private boolean indexValid()
+  { if (indexedModCount != modCount)
+    { return false; }
+    if (!indexable) // renames do not affect the scan
+    { return true; }
+    return index != null &&
+           indexedRenames == ModelElement.indexedRenames.get();
+  }
+
+  private void rebuild()
+  { index = new java.util.HashMap();
+    indexable = true;
+    indexedModCount = modCount;
+    indexedRenames = ModelElement.indexedRenames.get();
+
+    for (int i = 0; i < elementCount; i++)
+    { if (!indexElement(elementData[i]))
+      { unindexable();
+        return;
+      }
+    }
+  }
+
+  private void unindexable()
+  { index = null;
+    indexable = false;
+    indexedModCount = modCount;
+  }
+
+  private boolean indexElement(Object obj)
+  { if (!(obj instanceof ModelElement))
+    { return false; }
+    ModelElement me = (ModelElement) obj;
+    me.indexed = true;
+    String nme = me.getName();
+    if (nme != null && !index.containsKey(nme))
+    { index.put(nme, me); }
+    return true;
+  }
+
+  private ModelElement scan(String nme)
+  { // As the scan of lookupByName
+
+    for (int i = 0; i < elementCount; i++)
+    { ModelElement me = (ModelElement) elementData[i];
+      if (me.getName().equals(nme))
+      { return me; }
+    }
+    return null;
+  }
+
+  public synchronized boolean add(Object obj)
+  { addElement(obj);
+    return true;
+  }
+
+  public synchronized void addElement(Object obj)
+  { boolean valid = indexValid();
+    super.addElement(obj);
+    if (!valid)
+    { return; }
+    if (!indexable)
+    { indexedModCount = modCount; }
+    else if (indexElement(obj))
+    { indexedModCount = modCount; }
+    else
+    { unindexable(); }
+  }
+
+  public synchronized Object set(int i, Object obj)
+  { indexedModCount = -1;
+    return super.set(i,obj);
+  }
+
+  public synchronized void setElementAt(Object obj, int i)
+  { indexedModCount = -1;
+    super.setElementAt(obj,i);
+  }
+
+  public synchronized Object clone()
+  { ModelSymbolTable res = (ModelSymbolTable) super.clone();
+    res.index = null;
+    res.indexable = true;
+    res.indexedModCount = -1;
+    return res;
+  }
+}
@@ -0,0 +1,126 @@
+/******************************
+* Copyright (c) 2003--2025 Kevin Lano
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0
+*
+* SPDX-License-Identifier: EPL-2.0
+* *****************************/
+
+import java.util.Vector;
+
+/* Memo table of Compiler2 expression parsing, keyed by
+   (production, start, end, bracket count) for one lexical
+   sequence. The parsers try alternatives by re-parsing
+   the same ranges, so each range known not to parse with
+   a production is recorded and not parsed again with the
+   same entities and types. Successful parses are not
+   shared, since callers modify the resulting Expressions
+   (setBrackets, setArrayIndex, etc). */
+
+public class ParseMemo
+{ public static final int EXPRESSION = 0;
+  public static final int FACTOR_EXPRESSION = 1;
+  public static final int BASIC_EXPRESSION = 2;
+  public static final int STATEMENT_EXPRESSION = 3;
+
+  static final String[] productionNames =
+    { "expression", "factor_expression",
+      "basic_expression", "statement_expression" };
+
+  static boolean enabled = true;
+
+  TokenStream tokens = null;
+  java.util.Map failures = new java.util.HashMap();
+    // Key --> Vector [entities, types]
+
+  long[] lookups = new long[productionNames.length];
+  long[] hits = new long[productionNames.length];
+
+  public static void setEnabled(boolean b)
+  { enabled = b; }
+
+  public void reset(TokenStream toks)
+  { // A new lexical sequence
+    tokens = toks;
+    failures.clear();
+  }
+
+  public boolean isFor(TokenStream toks)
+  { return tokens == toks; }
+
+  public boolean knownFailure(int production, int bc, int st, int en,
+                              Vector entities, Vector types)
+  { if (!enabled)
+    { return false; }
+    lookups[production]++;
+    Vector scope = (Vector) failures.get(new Key(production,bc,st,en));
+    if (scope != null && scope.get(0) == entities &&
+        scope.get(1) == types)
+    { hits[production]++;
+      return true;
+    }
+    return false;
+  }
+
+  public void recordFailure(int production, int bc, int st, int en,
+                            Vector entities, Vector types)
+  { if (!enabled)
+    { return; }
+    Vector scope = new Vector();
+    scope.add(entities);
+    scope.add(types);
+    failures.put(new Key(production,bc,st,en), scope);
+  }
+
+  public long getLookups()
+  { long res = 0;
+    for (int i = 0; i < lookups.length; i++)
+    { res += lookups[i]; }
+    return res;
+  }
+
+  public long getHits()
+  { long res = 0;
+    for (int i = 0; i < hits.length; i++)
+    { res += hits[i]; }
+    return res;
+  }
+
+  public String toString()
+  { String res = "Parse memo: " + getHits() + " hits in " +
+                 getLookups() + " lookups";
+    for (int i = 0; i < productionNames.length; i++)
+    { res = res + "\n  parse_" + productionNames[i] + ": " +
+            hits[i] + "/" + lookups[i];
+    }
+    return res;
+  }
+
+
+  static class Key
+  { int production;
+    int bc;
+    int st;
+    int en;
+
+    Key(int p, int b, int s, int e)
+    { production = p;
+      bc = b;
+      st = s;
+      en = e;
+    }
+
+    public boolean equals(Object obj)
+    { if (obj instanceof Key)
+      { Key k = (Key) obj;
+        return k.production == production && k.bc == bc &&
+               k.st == st && k.en == en;
+      }
+      return false;
+    }
+
+    public int hashCode()
+    { return ((production*31 + bc)*31 + st)*31 + en; }
+  }
+}
@@ -0,0 +1,536 @@
+/******************************
+* Copyright (c) 2003--2025 Kevin Lano
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0
+*
+* SPDX-License-Identifier: EPL-2.0
+* *****************************/
+
+import java.util.Vector;
+import java.math.BigInteger;
+import java.math.BigDecimal;
+
+/* Polynomials in one variable with exact rational
+   coefficients, used by the MathOCL symbolic operations of
+   ASTTerm instead of building and re-parsing String forms.
+   A polynomial is held as the sparse arrays
+
+     powers[i]  coefs[i]  (i = 0 .. size-1)
+
+   with powers in strictly descending order and no zero
+   coefficients, and one positive common denominator:
+   the coefficient of var^{powers[i]} is
+   coefs[i]/denominator. The gcd of the coefficients and
+   the denominator is always 1. Polynomials are
+   immutable. */
+
+public class RationalPolynomial
+{ static int maxDegree = 100000;
+    // terms of higher degree are not converted
+
+  int[] powers;
+  BigInteger[] coefs;
+  BigInteger denominator;
+
+  public static final RationalPolynomial ZERO =
+    new RationalPolynomial(new int[0], new BigInteger[0],
+                           BigInteger.ONE);
+  public static final RationalPolynomial ONE = constant(BigInteger.ONE);
+
+  private RationalPolynomial(int[] pows, BigInteger[] cs, BigInteger den)
+  { powers = pows;
+    coefs = cs;
+    denominator = den;
+  }
+
+  public static RationalPolynomial constant(BigInteger n)
+  { return constant(n, BigInteger.ONE); }
+
+  public static RationalPolynomial constant(BigInteger n, BigInteger d)
+  { return normalise(new int[] { 0 }, new BigInteger[] { n }, d, 1); }
+
+  public static RationalPolynomial variable()
+  { return new RationalPolynomial(new int[] { 1 },
+                                  new BigInteger[] { BigInteger.ONE },
+                                  BigInteger.ONE);
+  }
+
+  private static RationalPolynomial normalise(int[] pows,
+                      BigInteger[] cs, BigInteger den, int n)
+  { // The first n terms of pows, cs, with zero terms
+    // removed and the fraction cancelled. pows are in
+    // descending order.
+
+    int k = 0;
+    BigInteger g = den;
+    for (int i = 0; i < n; i++)
+    { if (cs[i].signum() != 0)
+      { pows[k] = pows[i];
+        cs[k] = cs[i];
+        g = g.gcd(cs[i]);
+        k++;
+      }
+    }
+
+    if (k == 0)
+    { return ZERO; }
+
+    if (den.signum() < 0)
+    { g = g.negate(); }
+
+    int[] rp = new int[k];
+    BigInteger[] rc = new BigInteger[k];
+    boolean divide = !g.equals(BigInteger.ONE);
+    for (int i = 0; i < k; i++)
+    { rp[i] = pows[i];
+      rc[i] = divide ? cs[i].divide(g) : cs[i];
+    }
+    return new RationalPolynomial(rp, rc, divide ? den.divide(g) : den);
+  }
+
+  public int size()
+  { return powers.length; }
+
+  public boolean isZero()
+  { return powers.length == 0; }
+
+  public int degree()
+  { // -1 for the zero polynomial
+
+    if (powers.length == 0)
+    { return -1; }
+    return powers[0];
+  }
+
+  public boolean isConstant()
+  { return degree() <= 0; }
+
+
+  /* Conversion from MathOCL terms */
+
+  public static RationalPolynomial fromMathOCL(ASTTerm trm, String var)
+  { // The polynomial in var denoted by trm, or null if trm
+    // is not built from numbers, var, +, -, *, brackets,
+    // division by non-zero numbers and var^{n} for
+    // natural numbers n.
+
+    if (trm == null)
+    { return null; }
+
+    Vector args = trm.getTerms();
+    String tg = trm.getTag();
+
+    if (args.size() == 1)
+    { return fromMathOCL((ASTTerm) args.get(0), var); }
+
+    if (args.size() == 0 || "basicExpression".equals(tg))
+    { if ("basicExpression".equals(tg) && args.size() == 3 &&
+          "(".equals(args.get(0) + "") &&
+          ")".equals(args.get(2) + ""))
+      { return fromMathOCL((ASTTerm) args.get(1), var); }
+
+      String lit = trm.literalForm();
+      if (var.equals(lit))
+      { return variable(); }
+      return fromNumber(lit);
+    }
+
+    if ("additiveExpression".equals(tg) && args.size() == 3)
+    { String opr = args.get(1) + "";
+      if (!"+".equals(opr) && !"-".equals(opr))
+      { return null; }
+      RationalPolynomial p1 = fromMathOCL((ASTTerm) args.get(0), var);
+      if (p1 == null)
+      { return null; }
+      RationalPolynomial p2 = fromMathOCL((ASTTerm) args.get(2), var);
+      if (p2 == null)
+      { return null; }
+      if ("+".equals(opr))
+      { return p1.add(p2); }
+      return p1.subtract(p2);
+    }
+
+    if ("factorExpression".equals(tg) && args.size() == 2)
+    { String opr = args.get(0) + "";
+      if (!"-".equals(opr) && !"+".equals(opr))
+      { return null; }
+      RationalPolynomial p1 = fromMathOCL((ASTTerm) args.get(1), var);
+      if (p1 == null)
+      { return null; }
+      if ("-".equals(opr))
+      { return p1.negate(); }
+      return p1;
+    }
+
+    if ("factorExpression".equals(tg) && args.size() == 3)
+    { String opr = args.get(1) + "";
+      if (!"*".equals(opr) && !"/".equals(opr))
+      { return null; }
+      RationalPolynomial p1 = fromMathOCL((ASTTerm) args.get(0), var);
+      if (p1 == null)
+      { return null; }
+      RationalPolynomial p2 = fromMathOCL((ASTTerm) args.get(2), var);
+      if (p2 == null)
+      { return null; }
+      if ("*".equals(opr))
+      { if (p1.degree() + p2.degree() > maxDegree)
+        { return null; }
+        return p1.multiply(p2);
+      }
+      if (p2.isZero() || !p2.isConstant())
+      { return null; }
+      return p1.divideByConstant(p2);
+    }
+
+    if ("factor2Expression".equals(tg) && args.size() == 5 &&
+        "^".equals(args.get(1) + "") &&
+        "{".equals(args.get(2) + "") &&
+        "}".equals(args.get(4) + ""))
+    { RationalPolynomial base = fromMathOCL((ASTTerm) args.get(0), var);
+      if (base == null)
+      { return null; }
+      RationalPolynomial pow = fromMathOCL((ASTTerm) args.get(3), var);
+      if (pow == null || !pow.isConstant())
+      { return null; }
+      if (pow.isZero())
+      { return ONE; }
+      if (!pow.denominator.equals(BigInteger.ONE) ||
+          pow.coefs[0].signum() < 0 ||
+          pow.coefs[0].compareTo(BigInteger.valueOf(maxDegree)) > 0)
+      { return null; }
+      int n = pow.coefs[0].intValue();
+      if (base.degree() > 0 && ((long) base.degree())*n > maxDegree)
+      { return null; }
+      return base.power(n);
+    }
+
+    return null;
+  }
+
+  public static RationalPolynomial fromNumber(String lit)
+  { // Exact value of a decimal literal, or null
+
+    if (lit == null || lit.length() == 0)
+    { return null; }
+    char c = lit.charAt(0);
+    if (c != '-' && c != '.' && !Character.isDigit(c))
+    { return null; }
+
+    try
+    { BigDecimal d = new BigDecimal(lit);
+      if (d.scale() > 0)
+      { return constant(d.unscaledValue(), BigInteger.TEN.pow(d.scale())); }
+      return constant(d.toBigInteger());
+    }
+    catch (Exception _ex)
+    { return null; }
+  }
+
+
+  /* Arithmetic */
+
+  public RationalPolynomial negate()
+  { BigInteger[] cs = new BigInteger[coefs.length];
+    for (int i = 0; i < cs.length; i++)
+    { cs[i] = coefs[i].negate(); }
+    return new RationalPolynomial(powers, cs, denominator);
+  }
+
+  public RationalPolynomial add(RationalPolynomial p)
+  { return combine(p, false); }
+
+  public RationalPolynomial subtract(RationalPolynomial p)
+  { return combine(p, true); }
+
+  private RationalPolynomial combine(RationalPolynomial p, boolean subtract)
+  { // Merge of the two descending power lists, over the
+    // product of the denominators.
+
+    if (p.isZero())
+    { return this; }
+    if (isZero())
+    { return subtract ? p.negate() : p; }
+
+    BigInteger m1 = p.denominator;
+    BigInteger m2 = denominator;
+    BigInteger den = denominator.multiply(p.denominator);
+
+    int n1 = powers.length;
+    int n2 = p.powers.length;
+    int[] rp = new int[n1 + n2];
+    BigInteger[] rc = new BigInteger[n1 + n2];
+    int i = 0;
+    int j = 0;
+    int k = 0;
+
+    while (i < n1 || j < n2)
+    { if (j >= n2 || (i < n1 && powers[i] > p.powers[j]))
+      { rp[k] = powers[i];
+        rc[k] = coefs[i].multiply(m1);
+        i++;
+      }
+      else
+      { BigInteger c2 = p.coefs[j].multiply(m2);
+        if (subtract)
+        { c2 = c2.negate(); }
+        rp[k] = p.powers[j];
+        if (i < n1 && powers[i] == p.powers[j])
+        { rc[k] = coefs[i].multiply(m1).add(c2);
+          i++;
+        }
+        else
+        { rc[k] = c2; }
+        j++;
+      }
+      k++;
+    }
+    return normalise(rp, rc, den, k);
+  }
+
+  public RationalPolynomial multiply(RationalPolynomial p)
+  { // Products of the integer coefficients are summed in a
+    // dense array of the result degree when it is not much
+    // larger than the number of products, otherwise in a
+    // sparse map.
+
+    if (isZero() || p.isZero())
+    { return ZERO; }
+
+    BigInteger den = denominator.multiply(p.denominator);
+    int n1 = powers.length;
+    int n2 = p.powers.length;
+    int deg = powers[0] + p.powers[0];
+    long products = ((long) n1)*n2;
+
+    if (deg <= 4*products + 16)
+    { BigInteger[] acc = new BigInteger[deg + 1];
+      for (int i = 0; i < n1; i++)
+      { for (int j = 0; j < n2; j++)
+        { int e = powers[i] + p.powers[j];
+          BigInteger c = coefs[i].multiply(p.coefs[j]);
+          acc[e] = (acc[e] == null) ? c : acc[e].add(c);
+        }
+      }
+
+      int count = 0;
+      for (int e = deg; e >= 0; e--)
+      { if (acc[e] != null)
+        { count++; }
+      }
+      int[] rp = new int[count];
+      BigInteger[] rc = new BigInteger[count];
+      int k = 0;
+      for (int e = deg; e >= 0; e--)
+      { if (acc[e] != null)
+        { rp[k] = e;
+          rc[k] = acc[e];
+          k++;
+        }
+      }
+      return normalise(rp, rc, den, count);
+    }
+
+    java.util.TreeMap acc =
+      new java.util.TreeMap(java.util.Collections.reverseOrder());
+    for (int i = 0; i < n1; i++)
+    { for (int j = 0; j < n2; j++)
+      { Integer e = new Integer(powers[i] + p.powers[j]);
+        BigInteger c = coefs[i].multiply(p.coefs[j]);
+        BigInteger old = (BigInteger) acc.get(e);
+        acc.put(e, (old == null) ? c : old.add(c));
+      }
+    }
+
+    int[] rp = new int[acc.size()];
+    BigInteger[] rc = new BigInteger[acc.size()];
+    int k = 0;
+    java.util.Iterator iter = acc.entrySet().iterator();
+    while (iter.hasNext())
+    { java.util.Map.Entry ent = (java.util.Map.Entry) iter.next();
+      rp[k] = ((Integer) ent.getKey()).intValue();
+      rc[k] = (BigInteger) ent.getValue();
+      k++;
+    }
+    return normalise(rp, rc, den, k);
+  }
+
+  public RationalPolynomial power(int n)
+  { // this^{n}, n >= 0, by repeated squaring
+
+    RationalPolynomial res = ONE;
+    RationalPolynomial sq = this;
+    while (n > 0)
+    { if ((n & 1) != 0)
+      { res = res.multiply(sq); }
+      n = n >> 1;
+      if (n > 0)
+      { sq = sq.multiply(sq); }
+    }
+    return res;
+  }
+
+  public RationalPolynomial divideByConstant(RationalPolynomial c)
+  { // this/c for a non-zero constant c
+
+    BigInteger num = c.coefs[0];
+    BigInteger[] cs = new BigInteger[coefs.length];
+    for (int i = 0; i < cs.length; i++)
+    { cs[i] = coefs[i].multiply(c.denominator); }
+    int[] pows = new int[powers.length];
+    System.arraycopy(powers, 0, pows, 0, pows.length);
+    return normalise(pows, cs, denominator.multiply(num), cs.length);
+  }
+
+  public RationalPolynomial[] divide(RationalPolynomial q)
+  { // { quotient, remainder } of this by non-zero q.
+    // The remainder is held densely as integers rem[e] over
+    // one denominator den. Each step subtracts m*var^{s}*Q
+    // from it, for the integer coefficients Q of q with
+    // leading coefficient lead. When lead does not divide
+    // the leading coefficient of the remainder, the
+    // remainder and den are first multiplied by lead, so
+    // that only integer operations are needed.
+
+    if (q.isZero())
+    { throw new ArithmeticException("Division by zero polynomial"); }
+
+    int dq = q.degree();
+    int dp = degree();
+    if (dp < dq)
+    { return new RationalPolynomial[] { ZERO, this }; }
+
+    BigInteger[] rem = new BigInteger[dp + 1];
+    for (int i = 0; i < powers.length; i++)
+    { rem[powers[i]] = coefs[i]; }
+    BigInteger den = denominator;
+    BigInteger lead = q.coefs[0];
+
+    int[] qp = new int[dp - dq + 1];
+    BigInteger[] qn = new BigInteger[dp - dq + 1];
+    BigInteger[] qd = new BigInteger[dp - dq + 1];
+    int nq = 0;
+
+    for (int e = dp; e >= dq; e--)
+    { if (rem[e] == null || rem[e].signum() == 0)
+      { continue; }
+
+      BigInteger m;
+      BigInteger[] dr = rem[e].divideAndRemainder(lead);
+      if (dr[1].signum() == 0)
+      { m = dr[0]; }
+      else
+      { m = rem[e];
+        for (int f = e - 1; f >= 0; f--)
+        { if (rem[f] != null)
+          { rem[f] = rem[f].multiply(lead); }
+        }
+        den = den.multiply(lead);
+      }
+
+      // the quotient term is (m*q.denominator/den)*var^{shift}
+      int shift = e - dq;
+      qp[nq] = shift;
+      qn[nq] = m.multiply(q.denominator);
+      qd[nq] = den;
+      nq++;
+
+      rem[e] = null;
+      for (int j = 1; j < q.powers.length; j++)
+      { int f = shift + q.powers[j];
+        BigInteger s = m.multiply(q.coefs[j]);
+        rem[f] = (rem[f] == null) ? s.negate() : rem[f].subtract(s);
+      }
+    }
+
+    RationalPolynomial quot = fromFractions(qp, qn, qd, nq);
+
+    int nr = 0;
+    int[] rp = new int[dq];
+    BigInteger[] rc = new BigInteger[dq];
+    for (int e = dq - 1; e >= 0; e--)
+    { if (rem[e] != null && rem[e].signum() != 0)
+      { rp[nr] = e;
+        rc[nr] = rem[e];
+        nr++;
+      }
+    }
+    RationalPolynomial remainder = normalise(rp, rc, den, nr);
+    return new RationalPolynomial[] { quot, remainder };
+  }
+
+  private static RationalPolynomial fromFractions(int[] pows,
+                      BigInteger[] ns, BigInteger[] ds, int n)
+  { // Sum of ns[i]/ds[i]*var^{pows[i]}, pows descending,
+    // over the lcm of the denominators
+
+    BigInteger lcm = BigInteger.ONE;
+    for (int i = 0; i < n; i++)
+    { BigInteger d = ds[i].abs();
+      lcm = lcm.divide(lcm.gcd(d)).multiply(d);
+    }
+
+    int[] rp = new int[n];
+    BigInteger[] rc = new BigInteger[n];
+    for (int i = 0; i < n; i++)
+    { rp[i] = pows[i];
+      rc[i] = ns[i].multiply(lcm.divide(ds[i]));
+    }
+    return normalise(rp, rc, lcm, n);
+  }
+
+
+  /* Printing as MathOCL */
+
+  public String toMathOCL(String var)
+  { // Terms in descending powers, c*var^{n}, with the
+    // coefficients as integers or (n/d).
+
+    if (isZero())
+    { return "0"; }
+
+    StringBuffer sb = new StringBuffer();
+    for (int i = 0; i < powers.length; i++)
+    { BigInteger c = coefs[i];
+      boolean neg = c.signum() < 0;
+      if (i == 0)
+      { if (neg)
+        { sb.append("-"); }
+      }
+      else
+      { sb.append(neg ? " - " : " + "); }
+
+      String cf = coefficientString(c.abs(), powers[i] == 0);
+      String pw = powerString(var, powers[i]);
+      if (pw.length() == 0)
+      { sb.append(cf); }
+      else if ("1".equals(cf))
+      { sb.append(pw); }
+      else
+      { sb.append(cf + "*" + pw); }
+    }
+    return sb.toString();
+  }
+
+  private String coefficientString(BigInteger n, boolean alone)
+  { BigInteger g = n.gcd(denominator);
+    BigInteger num = n.divide(g);
+    BigInteger den = denominator.divide(g);
+    if (den.equals(BigInteger.ONE))
+    { return num.toString(); }
+    if (alone)
+    { return num + "/" + den; }
+    return "(" + num + "/" + den + ")";
+  }
+
+  private static String powerString(String var, int n)
+  { if (n == 0)
+    { return ""; }
+    if (n == 1)
+    { return var; }
+    return var + "^{" + n + "}";
+  }
+
+  public String toString()
+  { return toMathOCL("x"); }
+}
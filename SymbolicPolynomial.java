@@ -0,0 +1,604 @@
+/******************************
+* Copyright (c) 2003--2025 Kevin Lano
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0
+*
+* SPDX-License-Identifier: EPL-2.0
+* *****************************/
+
+import java.util.Vector;
+import java.math.BigInteger;
+
+/* Polynomials with exact rational coefficients over
+   symbolic atoms, for the MathOCL symbolic determinant.
+   An atom is an identifier, or any MathOCL subterm which
+   is not a sum, product, negation, division by a number or
+   natural power; atoms are identified by their literal
+   form, so equal subterms are one atom.
+
+   A polynomial is a map from monomials to coefficients,
+   ordered by descending degree (graded lexicographic), so
+   that the leading term is the first. Polynomials are not
+   changed after construction. */
+
+public class SymbolicPolynomial
+{ static int maxPower = 64; // larger powers are atoms
+  static int minorExpansionSize = 10;
+    // Matrices up to this size have their determinant
+    // expanded by memoised minors, larger ones by
+    // fraction-free elimination.
+
+  Vector atoms; // of String, shared by related polynomials
+  java.util.TreeMap terms;
+    // Monomial --> BigInteger[] {num, den}, den > 0
+
+  SymbolicPolynomial(Vector atms)
+  { atoms = atms;
+    terms = new java.util.TreeMap();
+  }
+
+  public static SymbolicPolynomial constant(Vector atms, BigInteger n,
+                                            BigInteger d)
+  { SymbolicPolynomial res = new SymbolicPolynomial(atms);
+    if (n.signum() != 0)
+    { res.terms.put(new Monomial(new int[0]), fraction(n,d)); }
+    return res;
+  }
+
+  public static SymbolicPolynomial atom(Vector atms, String a)
+  { int ind = atms.indexOf(a);
+    if (ind < 0)
+    { ind = atms.size();
+      atms.add(a);
+    }
+    int[] exps = new int[ind + 1];
+    exps[ind] = 1;
+    SymbolicPolynomial res = new SymbolicPolynomial(atms);
+    res.terms.put(new Monomial(exps),
+                  new BigInteger[] { BigInteger.ONE, BigInteger.ONE });
+    return res;
+  }
+
+  public boolean isZero()
+  { return terms.size() == 0; }
+
+  public boolean isConstant()
+  { if (terms.size() == 0)
+    { return true; }
+    return terms.size() == 1 &&
+           ((Monomial) terms.firstKey()).degree == 0;
+  }
+
+  public BigInteger[] constantValue()
+  { if (terms.size() == 0)
+    { return new BigInteger[] { BigInteger.ZERO, BigInteger.ONE }; }
+    return (BigInteger[]) terms.get(terms.firstKey());
+  }
+
+
+  /* Conversion */
+
+  public static SymbolicPolynomial fromMathOCL(ASTTerm trm, Vector atms)
+  { Vector args = trm.getTerms();
+    String tg = trm.getTag();
+
+    if (args.size() == 1)
+    { return fromMathOCL((ASTTerm) args.get(0), atms); }
+
+    if ("basicExpression".equals(tg) && args.size() == 3 &&
+        "(".equals(args.get(0) + "") &&
+        ")".equals(args.get(2) + ""))
+    { return fromMathOCL((ASTTerm) args.get(1), atms); }
+
+    if ("additiveExpression".equals(tg) && args.size() == 3)
+    { String opr = args.get(1) + "";
+      if ("+".equals(opr) || "-".equals(opr))
+      { SymbolicPolynomial p1 = fromMathOCL((ASTTerm) args.get(0), atms);
+        SymbolicPolynomial p2 = fromMathOCL((ASTTerm) args.get(2), atms);
+        if ("+".equals(opr))
+        { return p1.add(p2); }
+        return p1.subtract(p2);
+      }
+    }
+
+    if ("factorExpression".equals(tg) && args.size() == 2)
+    { String opr = args.get(0) + "";
+      if ("-".equals(opr))
+      { return fromMathOCL((ASTTerm) args.get(1), atms).negate(); }
+      if ("+".equals(opr))
+      { return fromMathOCL((ASTTerm) args.get(1), atms); }
+    }
+
+    if ("factorExpression".equals(tg) && args.size() == 3)
+    { String opr = args.get(1) + "";
+      if ("*".equals(opr))
+      { SymbolicPolynomial p1 = fromMathOCL((ASTTerm) args.get(0), atms);
+        SymbolicPolynomial p2 = fromMathOCL((ASTTerm) args.get(2), atms);
+        return p1.multiply(p2);
+      }
+      if ("/".equals(opr))
+      { SymbolicPolynomial p2 = fromMathOCL((ASTTerm) args.get(2), atms);
+        if (p2.isConstant() && !p2.isZero())
+        { SymbolicPolynomial p1 = fromMathOCL((ASTTerm) args.get(0), atms);
+          BigInteger[] c = p2.constantValue();
+          return p1.scale(c[1], c[0]);
+        }
+      }
+    }
+
+    if ("factor2Expression".equals(tg) && args.size() == 5 &&
+        "^".equals(args.get(1) + "") &&
+        "{".equals(args.get(2) + "") &&
+        "}".equals(args.get(4) + ""))
+    { BigInteger[] pow =
+        LinearEquationSolver.numberValue(((ASTTerm) args.get(3)).literalForm());
+      if (pow != null && pow[1].equals(BigInteger.ONE) &&
+          pow[0].signum() >= 0 &&
+          pow[0].compareTo(BigInteger.valueOf(maxPower)) <= 0)
+      { SymbolicPolynomial base = fromMathOCL((ASTTerm) args.get(0), atms);
+        return base.power(pow[0].intValue());
+      }
+    }
+
+    return fromString(trm.literalForm(), atms);
+  }
+
+  public static SymbolicPolynomial fromString(String s, Vector atms)
+  { // A number or fraction n/d, or else an atom. Atoms
+    // are recorded without enclosing brackets.
+
+    while (isBracketed(s))
+    { s = s.substring(1, s.length() - 1).trim(); }
+
+    BigInteger[] val = LinearEquationSolver.numberValue(s);
+    if (val != null)
+    { return constant(atms, val[0], val[1]); }
+
+    int slash = s.indexOf('/');
+    if (slash > 0 && slash == s.lastIndexOf('/'))
+    { BigInteger[] n =
+        LinearEquationSolver.numberValue(s.substring(0, slash).trim());
+      BigInteger[] d =
+        LinearEquationSolver.numberValue(s.substring(slash + 1).trim());
+      if (n != null && d != null && d[0].signum() != 0)
+      { return constant(atms, n[0].multiply(d[1]), n[1].multiply(d[0])); }
+    }
+    return atom(atms, s);
+  }
+
+  private static boolean isBracketed(String s)
+  { // s is (t) where the first bracket closes at the end
+
+    if (s.length() < 2 || s.charAt(0) != '(' ||
+        s.charAt(s.length() - 1) != ')')
+    { return false; }
+    int depth = 0;
+    for (int i = 0; i < s.length() - 1; i++)
+    { char c = s.charAt(i);
+      if (c == '(')
+      { depth++; }
+      else if (c == ')')
+      { depth--;
+        if (depth == 0)
+        { return false; }
+      }
+    }
+    return true;
+  }
+
+  public static SymbolicPolynomial fromElement(Object obj, Vector atms)
+  { if (obj instanceof ASTTerm)
+    { return fromMathOCL((ASTTerm) obj, atms); }
+    if (obj instanceof SymbolicPolynomial)
+    { return (SymbolicPolynomial) obj; }
+    if (obj instanceof Double || obj instanceof Float)
+    { java.math.BigDecimal d =
+        new java.math.BigDecimal(((Number) obj).doubleValue());
+      return fromString(d.toPlainString(), atms);
+    }
+    return fromString(("" + obj).trim(), atms);
+  }
+
+
+  /* Arithmetic */
+
+  private static BigInteger[] fraction(BigInteger n, BigInteger d)
+  { if (d.equals(BigInteger.ONE))
+    { return new BigInteger[] { n, d }; }
+    BigInteger g = n.gcd(d);
+    if (d.signum() < 0)
+    { g = g.negate(); }
+    if (g.signum() == 0)
+    { return new BigInteger[] { BigInteger.ZERO, BigInteger.ONE }; }
+    return new BigInteger[] { n.divide(g), d.divide(g) };
+  }
+
+  private static BigInteger[] addFractions(BigInteger[] a, BigInteger[] b)
+  { if (a[1].equals(b[1]))
+    { return fraction(a[0].add(b[0]), a[1]); }
+    return fraction(a[0].multiply(b[1]).add(b[0].multiply(a[1])),
+                    a[1].multiply(b[1]));
+  }
+
+  private static BigInteger[] multiplyFractions(BigInteger[] a, BigInteger[] b)
+  { return fraction(a[0].multiply(b[0]), a[1].multiply(b[1])); }
+
+  private void addTerm(Monomial m, BigInteger[] c)
+  { BigInteger[] old = (BigInteger[]) terms.get(m);
+    if (old != null)
+    { c = addFractions(old, c); }
+    if (c[0].signum() == 0)
+    { terms.remove(m); }
+    else
+    { terms.put(m, c); }
+  }
+
+  public SymbolicPolynomial negate()
+  { return scale(BigInteger.ONE.negate(), BigInteger.ONE); }
+
+  public SymbolicPolynomial scale(BigInteger n, BigInteger d)
+  { SymbolicPolynomial res = new SymbolicPolynomial(atoms);
+    if (n.signum() == 0)
+    { return res; }
+    BigInteger[] f = new BigInteger[] { n, d };
+    java.util.Iterator iter = terms.entrySet().iterator();
+    while (iter.hasNext())
+    { java.util.Map.Entry ent = (java.util.Map.Entry) iter.next();
+      res.terms.put(ent.getKey(),
+                    multiplyFractions((BigInteger[]) ent.getValue(), f));
+    }
+    return res;
+  }
+
+  public SymbolicPolynomial add(SymbolicPolynomial p)
+  { SymbolicPolynomial res = new SymbolicPolynomial(atoms);
+    res.terms.putAll(terms);
+    java.util.Iterator iter = p.terms.entrySet().iterator();
+    while (iter.hasNext())
+    { java.util.Map.Entry ent = (java.util.Map.Entry) iter.next();
+      res.addTerm((Monomial) ent.getKey(), (BigInteger[]) ent.getValue());
+    }
+    return res;
+  }
+
+  public SymbolicPolynomial subtract(SymbolicPolynomial p)
+  { return add(p.negate()); }
+
+  public SymbolicPolynomial multiply(SymbolicPolynomial p)
+  { SymbolicPolynomial res = new SymbolicPolynomial(atoms);
+    res.addProduct(this, p, false);
+    return res;
+  }
+
+  private void addProduct(SymbolicPolynomial p1, SymbolicPolynomial p,
+                          boolean negated)
+  { // this := this +/- p1*p, for a polynomial under construction
+
+    java.util.Iterator iter1 = p1.terms.entrySet().iterator();
+    while (iter1.hasNext())
+    { java.util.Map.Entry e1 = (java.util.Map.Entry) iter1.next();
+      Monomial m1 = (Monomial) e1.getKey();
+      BigInteger[] c1 = (BigInteger[]) e1.getValue();
+      java.util.Iterator iter2 = p.terms.entrySet().iterator();
+      while (iter2.hasNext())
+      { java.util.Map.Entry e2 = (java.util.Map.Entry) iter2.next();
+        BigInteger[] c = multiplyFractions(c1, (BigInteger[]) e2.getValue());
+        if (negated)
+        { c[0] = c[0].negate(); }
+        addTerm(m1.multiply((Monomial) e2.getKey()), c);
+      }
+    }
+  }
+
+  public SymbolicPolynomial power(int n)
+  { SymbolicPolynomial res = constant(atoms, BigInteger.ONE, BigInteger.ONE);
+    SymbolicPolynomial sq = this;
+    while (n > 0)
+    { if ((n & 1) != 0)
+      { res = res.multiply(sq); }
+      n = n >> 1;
+      if (n > 0)
+      { sq = sq.multiply(sq); }
+    }
+    return res;
+  }
+
+  public SymbolicPolynomial divideExact(SymbolicPolynomial d)
+  { // this/d if d divides this, otherwise null. The
+    // leading term of the remainder is divided by the
+    // leading term of d until the remainder is zero.
+
+    if (d.isZero())
+    { return null; }
+    if (d.isConstant())
+    { BigInteger[] c = d.constantValue();
+      return scale(c[1], c[0]);
+    }
+
+    Monomial dlead = (Monomial) d.terms.firstKey();
+    BigInteger[] dc = (BigInteger[]) d.terms.get(dlead);
+    BigInteger[] dcinv = new BigInteger[] { dc[1], dc[0] };
+
+    SymbolicPolynomial quot = new SymbolicPolynomial(atoms);
+    SymbolicPolynomial rem = new SymbolicPolynomial(atoms);
+    rem.terms.putAll(terms);
+
+    while (!rem.isZero())
+    { Monomial rlead = (Monomial) rem.terms.firstKey();
+      Monomial m = rlead.divide(dlead);
+      if (m == null)
+      { return null; }
+      BigInteger[] c =
+        multiplyFractions((BigInteger[]) rem.terms.get(rlead), dcinv);
+      quot.addTerm(m, c);
+
+      java.util.Iterator iter = d.terms.entrySet().iterator();
+      while (iter.hasNext())
+      { java.util.Map.Entry ent = (java.util.Map.Entry) iter.next();
+        BigInteger[] s = multiplyFractions(c, (BigInteger[]) ent.getValue());
+        rem.addTerm(m.multiply((Monomial) ent.getKey()),
+                    new BigInteger[] { s[0].negate(), s[1] });
+      }
+      rem.terms.remove(rlead); // exactly cancelled
+    }
+    return quot;
+  }
+
+
+  /* Determinant */
+
+  public static SymbolicPolynomial determinant(Vector rows, Vector atms)
+  { // rows: Vector of Vector of ASTTerm, String or Number.
+
+    int n = rows.size();
+    if (n == 0)
+    { return constant(atms, BigInteger.ONE, BigInteger.ONE); }
+
+    SymbolicPolynomial[][] m = new SymbolicPolynomial[n][n];
+    for (int i = 0; i < n; i++)
+    { Vector row = (Vector) rows.get(i);
+      for (int j = 0; j < n; j++)
+      { if (j < row.size())
+        { m[i][j] = fromElement(row.get(j), atms); }
+        else
+        { m[i][j] = new SymbolicPolynomial(atms); }
+      }
+    }
+
+    if (n <= minorExpansionSize)
+    { return minorsDeterminant(m, atms); }
+    return bareissDeterminant(m, atms);
+  }
+
+  private static SymbolicPolynomial minorsDeterminant(
+                        SymbolicPolynomial[][] m, Vector atms)
+  { // Laplace expansion along the rows, from the last row
+    // upwards. The minor of rows k..n-1 and a set of n-k
+    // columns is computed once and shared by all the larger
+    // minors which contain it. Fully symbolic matrices do
+    // not swell as in elimination, and zero entries and
+    // zero minors are skipped.
+
+    int n = m.length;
+    java.util.Map minors = new java.util.HashMap();
+      // Integer column set --> SymbolicPolynomial
+    for (int j = 0; j < n; j++)
+    { if (!m[n-1][j].isZero())
+      { minors.put(Integer.valueOf(1 << j), m[n-1][j]); }
+    }
+
+    for (int k = n - 2; k >= 0; k--)
+    { java.util.Map larger = new java.util.HashMap();
+      int size = n - k;
+      for (int cols = 0; cols < (1 << n); cols++)
+      { if (Integer.bitCount(cols) != size)
+        { continue; }
+        SymbolicPolynomial res = new SymbolicPolynomial(atms);
+        int pos = 0;
+        for (int j = 0; j < n; j++)
+        { if ((cols & (1 << j)) == 0)
+          { continue; }
+          SymbolicPolynomial minor =
+            (SymbolicPolynomial) minors.get(Integer.valueOf(cols & ~(1 << j)));
+          if (minor != null && !m[k][j].isZero())
+          { res.addProduct(m[k][j], minor, pos % 2 == 1); }
+          pos++;
+        }
+        if (!res.isZero())
+        { larger.put(Integer.valueOf(cols), res); }
+      }
+      minors = larger;
+    }
+
+    SymbolicPolynomial det =
+      (SymbolicPolynomial) minors.get(Integer.valueOf((1 << n) - 1));
+    if (det == null)
+    { return new SymbolicPolynomial(atms); }
+    return det;
+  }
+
+  private static SymbolicPolynomial bareissDeterminant(
+                        SymbolicPolynomial[][] m, Vector atms)
+  { // Bareiss fraction-free elimination: each step k
+    // replaces the entries below and right of the pivot by
+    //   (m[k][k]*m[i][j] - m[i][k]*m[k][j]) / previous pivot
+    // which is an exact division. The intermediate minors
+    // are shared by all later entries, instead of being
+    // recomputed. Used for larger matrices, which are
+    // mostly numeric.
+
+    int n = m.length;
+    boolean negated = false;
+    SymbolicPolynomial prev = constant(atms, BigInteger.ONE, BigInteger.ONE);
+
+    for (int k = 0; k < n - 1; k++)
+    { if (m[k][k].isZero())
+      { int r = k + 1;
+        while (r < n && m[r][k].isZero())
+        { r++; }
+        if (r == n)
+        { return new SymbolicPolynomial(atms); }
+        SymbolicPolynomial[] tmp = m[r];
+        m[r] = m[k];
+        m[k] = tmp;
+        negated = !negated;
+      }
+
+      SymbolicPolynomial pivot = m[k][k];
+      for (int i = k + 1; i < n; i++)
+      { for (int j = k + 1; j < n; j++)
+        { SymbolicPolynomial v =
+            pivot.multiply(m[i][j]).subtract(m[i][k].multiply(m[k][j]));
+          SymbolicPolynomial q = v.divideExact(prev);
+          if (q == null) // cannot happen for exact arithmetic
+          { throw new ArithmeticException("Inexact Bareiss step"); }
+          m[i][j] = q;
+        }
+      }
+      prev = pivot;
+    }
+
+    SymbolicPolynomial res = m[n-1][n-1];
+    if (negated)
+    { return res.negate(); }
+    return res;
+  }
+
+
+  /* Printing as MathOCL */
+
+  public String toMathOCL()
+  { if (isZero())
+    { return "0"; }
+
+    StringBuffer sb = new StringBuffer();
+    boolean first = true;
+    java.util.Iterator iter = terms.entrySet().iterator();
+    while (iter.hasNext())
+    { java.util.Map.Entry ent = (java.util.Map.Entry) iter.next();
+      Monomial mon = (Monomial) ent.getKey();
+      BigInteger[] c = (BigInteger[]) ent.getValue();
+      boolean neg = c[0].signum() < 0;
+      if (first)
+      { if (neg)
+        { sb.append("-"); }
+      }
+      else
+      { sb.append(neg ? " - " : " + "); }
+      first = false;
+
+      BigInteger num = c[0].abs();
+      String mons = mon.toMathOCL(atoms);
+      String cf;
+      if (c[1].equals(BigInteger.ONE))
+      { cf = num.toString(); }
+      else if (mons.length() == 0)
+      { cf = num + "/" + c[1]; }
+      else
+      { cf = "(" + num + "/" + c[1] + ")"; }
+
+      if (mons.length() == 0)
+      { sb.append(cf); }
+      else if ("1".equals(cf))
+      { sb.append(mons); }
+      else
+      { sb.append(cf + "*" + mons); }
+    }
+    return sb.toString();
+  }
+
+  public String toString()
+  { return toMathOCL(); }
+
+
+  static class Monomial implements Comparable
+  { // Exponents of the atoms, without trailing zeros
+
+    int[] exps;
+    int degree;
+    int hash;
+
+    Monomial(int[] es)
+    { int len = es.length;
+      while (len > 0 && es[len-1] == 0)
+      { len--; }
+      if (len < es.length)
+      { int[] trimmed = new int[len];
+        System.arraycopy(es, 0, trimmed, 0, len);
+        es = trimmed;
+      }
+      exps = es;
+      degree = 0;
+      for (int i = 0; i < exps.length; i++)
+      { degree += exps[i]; }
+      hash = java.util.Arrays.hashCode(exps);
+    }
+
+    Monomial multiply(Monomial m)
+    { int len = Math.max(exps.length, m.exps.length);
+      int[] res = new int[len];
+      for (int i = 0; i < len; i++)
+      { res[i] = (i < exps.length ? exps[i] : 0) +
+                 (i < m.exps.length ? m.exps[i] : 0);
+      }
+      return new Monomial(res);
+    }
+
+    Monomial divide(Monomial m)
+    { // this/m, or null if m does not divide this
+
+      if (m.exps.length > exps.length)
+      { return null; }
+      int[] res = new int[exps.length];
+      for (int i = 0; i < exps.length; i++)
+      { res[i] = exps[i] - (i < m.exps.length ? m.exps[i] : 0);
+        if (res[i] < 0)
+        { return null; }
+      }
+      return new Monomial(res);
+    }
+
+    public int compareTo(Object obj)
+    { // Descending graded lexicographic order: terms of
+      // higher degree first
+
+      Monomial m = (Monomial) obj;
+      if (degree != m.degree)
+      { return m.degree - degree; }
+      int len = Math.max(exps.length, m.exps.length);
+      for (int i = 0; i < len; i++)
+      { int e1 = (i < exps.length ? exps[i] : 0);
+        int e2 = (i < m.exps.length ? m.exps[i] : 0);
+        if (e1 != e2)
+        { return e2 - e1; }
+      }
+      return 0;
+    }
+
+    public boolean equals(Object obj)
+    { return (obj instanceof Monomial) &&
+             java.util.Arrays.equals(exps, ((Monomial) obj).exps);
+    }
+
+    public int hashCode()
+    { return hash; }
+
+    String toMathOCL(Vector atoms)
+    { StringBuffer sb = new StringBuffer();
+      for (int i = 0; i < exps.length; i++)
+      { if (exps[i] == 0)
+        { continue; }
+        if (sb.length() > 0)
+        { sb.append("*"); }
+        String a = (String) atoms.get(i);
+        if (!ASTTerm.isMathOCLIdentifier(a))
+        { a = "(" + a + ")"; }
+        sb.append(a);
+        if (exps[i] > 1)
+        { sb.append("^{" + exps[i] + "}"); }
+      }
+      return sb.toString();
+    }
+  }
+}
@@ -0,0 +1,172 @@
+/******************************
+* Copyright (c) 2003--2025 Kevin Lano
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0
+*
+* SPDX-License-Identifier: EPL-2.0
+* *****************************/
+
+import java.util.Vector;
+
+/* Compact form of the lexicals of a Compiler2. The lexers
+   of Compiler2 write each token here as they read it: its
+   characters are appended to one char array, and its start
+   and source offset are recorded in parallel int arrays.
+   lexicals() then gives the token texts, interned so that
+   each distinct text is one String, and their kinds; the
+   Vector of texts is the Compiler2 lexicals read by older
+   code. Parsers read tokens through
+   Compiler2.lexicalText(i). A StringBuffer of a token is
+   only made by buffer(i), for callers which need one.
+
+   A TokenStream can also be made for an existing Vector
+   of lexicals (of String or StringBuffer), eg., from an
+   ASTDumpReader or copyLexicals. */
+
+public class TokenStream
+{ public static final byte SYMBOL = 0;
+  public static final byte IDENTIFIER = 1;
+  public static final byte NUMBER = 2;
+  public static final byte STRING = 3;
+
+  Vector source = null; // the lexicals which this describes
+
+  // While lexing:
+  char[] chars; // characters of the tokens
+  int length = 0;
+  int[] starts; // start of each token in chars
+  int count = 0;
+
+  int[] offsets; // source offset of each token, or -1
+  String[] texts = null;
+  byte[] kinds = null;
+
+  public TokenStream(int capacity)
+  { // For a lexer of a text of length capacity
+
+    chars = new char[Math.max(16,capacity)];
+    starts = new int[16];
+    offsets = new int[16];
+  }
+
+  public TokenStream(Vector lexicals)
+  { int n = lexicals.size();
+    texts = new String[n];
+    kinds = new byte[n];
+    offsets = new int[n];
+    for (int i = 0; i < n; i++)
+    { String tok = (lexicals.get(i) + "").intern();
+      texts[i] = tok;
+      kinds[i] = kindOf(tok);
+      offsets[i] = -1;
+    }
+    count = n;
+    source = lexicals;
+  }
+
+  public TokenStream startToken(int pos)
+  { // The lexer has started a new token at pos, the
+    // following characters are appended to it
+
+    if (count == starts.length)
+    { int[] newstarts = new int[2*count];
+      System.arraycopy(starts,0,newstarts,0,count);
+      starts = newstarts;
+      int[] newoffsets = new int[2*count];
+      System.arraycopy(offsets,0,newoffsets,0,count);
+      offsets = newoffsets;
+    }
+    starts[count] = length;
+    offsets[count] = pos;
+    count++;
+    return this;
+  }
+
+  public TokenStream append(char c)
+  { if (length == chars.length)
+    { char[] newchars = new char[2*length];
+      System.arraycopy(chars,0,newchars,0,length);
+      chars = newchars;
+    }
+    chars[length] = c;
+    length++;
+    return this;
+  }
+
+  public TokenStream append(String s)
+  { for (int i = 0; i < s.length(); i++)
+    { append(s.charAt(i)); }
+    return this;
+  }
+
+  public Vector lexicals()
+  { // Ends lexing: the texts of the tokens, in order
+
+    if (texts != null)
+    { return source; }
+
+    texts = new String[count];
+    kinds = new byte[count];
+    source = new Vector(count);
+    for (int i = 0; i < count; i++)
+    { int end = length;
+      if (i + 1 < count)
+      { end = starts[i+1]; }
+      String tok = new String(chars,starts[i],end - starts[i]).intern();
+      texts[i] = tok;
+      kinds[i] = kindOf(tok);
+      source.add(tok);
+    }
+    chars = null;
+    starts = null;
+    return source;
+  }
+
+  public boolean isFor(Vector lexicals)
+  { // Still describes lexicals, which are only read
+    // once lexical analysis is complete.
+
+    return texts != null && source == lexicals &&
+           texts.length == lexicals.size();
+  }
+
+  private static byte kindOf(String tok)
+  { if (tok.length() == 0)
+    { return SYMBOL; }
+    char c = tok.charAt(0);
+    if (c == '"' || c == '\'' || c == '`')
+    { return STRING; }
+    if (Character.isDigit(c))
+    { return NUMBER; }
+    if (Character.isLetter(c) || c == '_' || c == '$')
+    { return IDENTIFIER; }
+    return SYMBOL;
+  }
+
+  public int size()
+  { return count; }
+
+  public String text(int i)
+  { if (texts == null)
+    { lexicals(); }
+    return texts[i];
+  }
+
+  public byte kind(int i)
+  { if (texts == null)
+    { lexicals(); }
+    return kinds[i];
+  }
+
+  public int offset(int i)
+  { // -1 if not known
+    return offsets[i];
+  }
+
+  public StringBuffer buffer(int i)
+  { return new StringBuffer(text(i)); }
+
+  public boolean isText(int i, String s)
+  { return text(i).equals(s); }
+}
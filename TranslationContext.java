@@ -0,0 +1,499 @@
+/******************************
+* Copyright (c) 2003--2025 Kevin Lano
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0
+*
+* SPDX-License-Identifier: EPL-2.0
+* *****************************/
+
+import java.util.Vector;
+
+/* The state of one reverse-engineering or CSTL
+   translation job, used by ASTTerm and its subclasses
+   via ASTTerm.ctx(). A context can be bound to the
+   current thread, so that several jobs can run
+   concurrently in one JVM. Threads with no bound context
+   share the default context. */
+
+public class TranslationContext
+{ Vector requiredLibraries = new Vector();
+
+  String packageName = null;
+  Vector enumtypes;
+  Vector entities;
+  Vector functionsInScope;
+
+  Vector cobolClasses = new Vector();
+
+  Entity currentClass = null; // Current context class
+
+  java.util.Map metafeatures = new StateMap();
+     // String --> Vector(String),
+     // eg., recording the conceptual
+     // type of the element & stereotypes.
+
+  java.util.Map types = new StateMap();
+     // String --> String for general type of identifiers
+     // valid at the scope of the current term.
+
+  java.util.Map elementTypes = new StateMap();
+     // String --> String for general elementType
+     // of identifiers
+     // valid at the scope of the current term.
+
+  java.util.Map cg_cache = new java.util.HashMap();
+     // CGSpec --> (ASTTerm --> [String, String])
+     // Entries of a term itself are keyed by identity.
+     // Frozen terms whose translation did not change the
+     // context also have an entry for all equal terms.
+     // But invalid to do this if the denotation needs to
+     // change, eg., a[x] is different for array/map a.
+     // So each such entry also records the
+     // cgContextSignature of the term, and is only reused
+     // if this is unchanged.
+
+  java.util.Map mathoclvars = new StateMap();
+     // String --> ASTTerm
+
+  java.util.Map symbolicEvaluationMemo = new java.util.HashMap();
+     // ASTTerm --> String, results of symbolicEvaluation
+
+  Vector mathocltheorems = new Vector();
+     // pairs [concl,premise]
+
+  Vector mathoclrewrites = new Vector();
+     // pairs [lhs,rhs]
+
+  MathOCLTheoryIndex mathocltheoremIndex =
+    new MathOCLTheoryIndex(mathocltheorems);
+
+  MathOCLTheoryIndex mathoclrewriteIndex =
+    new MathOCLTheoryIndex(mathoclrewrites);
+
+  java.util.Map exampleCorpora = new java.util.WeakHashMap();
+     // ModelSpecification --> ASTExampleCorpus, the example
+     // correspondences of MTBE models
+
+  int mathoclfunctionIndex;
+
+  String cobolHyphenReplacement = "_"; // or "$" for Java
+
+  String cobolCommaReplacement = ".";
+
+  int cobolFillerCount = 0;
+
+  Vector cobolDataDescriptionDataNames = new Vector();
+
+  Vector cobolAmbiguousDataNames = new Vector();
+
+
+  TranslationContext parent = null;
+    // For a context made by child(), the context whose
+    // state it copies and whose cg_cache it also reads.
+
+  long parentVersion = -1;
+  String parentPackageName = null;
+  Vector parentFunctions = null;
+  Entity parentClass = null;
+  Vector parentShared = null;
+    // The state of the parent when this was made
+
+
+  static TranslationContext defaultContext =
+    new TranslationContext();
+
+  static ThreadLocal boundContext = new ThreadLocal();
+    // TranslationContext of the current thread, if any
+
+  public static TranslationContext current()
+  { TranslationContext res =
+      (TranslationContext) boundContext.get();
+    if (res == null)
+    { return defaultContext; }
+    return res;
+  }
+
+  public static TranslationContext getDefault()
+  { return defaultContext; }
+
+  public static TranslationContext bind(TranslationContext c)
+  { // Makes c the context of this thread, returning the
+    // previously bound context (or null) for restore.
+
+    TranslationContext old =
+      (TranslationContext) boundContext.get();
+    boundContext.set(c);
+    return old;
+  }
+
+  public static void restore(TranslationContext old)
+  { if (old == null)
+    { boundContext.remove(); }
+    else
+    { boundContext.set(old); }
+  }
+
+  public void run(Runnable r)
+  { // Runs r with this as the context of this thread
+
+    TranslationContext old = TranslationContext.bind(this);
+    try
+    { r.run(); }
+    finally
+    { TranslationContext.restore(old); }
+  }
+
+  public TranslationContext child()
+  { // A copy of the translation state of this context,
+    // for a task which runs concurrently with the
+    // owner of this context. Its changes are logged, to
+    // be copied back by mergeChild. The lists of
+    // entities, MathOCL & COBOL data and the fresh name
+    // counters are copies, so that a task which is not
+    // merged leaves no changes in them. The Entity and
+    // Type objects are model elements, and are shared.
+
+    TranslationContext res = new TranslationContext();
+    res.parent = this;
+    res.parentVersion = stateVersion();
+    res.parentPackageName = packageName;
+    res.parentClass = currentClass;
+    res.parentShared = sharedState(true);
+    res.packageName = packageName;
+    res.enumtypes = copyOf(enumtypes);
+    res.entities = copyOf(entities);
+    if (functionsInScope != null)
+    { res.parentFunctions = new Vector(functionsInScope);
+      res.functionsInScope = new Vector(functionsInScope);
+    }
+    res.currentClass = currentClass;
+    res.cobolClasses = new Vector(cobolClasses);
+    res.mathoclvars.putAll(mathoclvars);
+    res.mathocltheorems = new Vector(mathocltheorems);
+    res.mathoclrewrites = new Vector(mathoclrewrites);
+    res.mathocltheoremIndex =
+      new MathOCLTheoryIndex(res.mathocltheorems);
+    res.mathoclrewriteIndex =
+      new MathOCLTheoryIndex(res.mathoclrewrites);
+    res.exampleCorpora = exampleCorpora;
+    res.mathoclfunctionIndex = mathoclfunctionIndex;
+    res.cobolHyphenReplacement = cobolHyphenReplacement;
+    res.cobolCommaReplacement = cobolCommaReplacement;
+    res.cobolFillerCount = cobolFillerCount;
+    res.cobolDataDescriptionDataNames =
+      new Vector(cobolDataDescriptionDataNames);
+    res.cobolAmbiguousDataNames = new Vector(cobolAmbiguousDataNames);
+
+    StateMap.copyState(metafeatures, res.metafeatures);
+    StateMap.copyState(types, res.types);
+    StateMap.copyState(elementTypes, res.elementTypes);
+    return res;
+  }
+
+  public boolean isCurrentFor(TranslationContext c)
+  { // c = child() has seen the current state of this:
+    // nothing has been changed here since c was made.
+
+    if (c.parent != this || c.parentVersion < 0 ||
+        c.parentVersion != stateVersion())
+    { return false; }
+    if (c.parentClass != currentClass)
+    { return false; }
+    if (c.parentPackageName == null ?
+          packageName != null :
+          !c.parentPackageName.equals(packageName))
+    { return false; }
+    if (c.parentFunctions == null ?
+          functionsInScope != null :
+          !c.parentFunctions.equals(functionsInScope))
+    { return false; }
+    return c.parentShared != null &&
+           c.parentShared.equals(sharedState(false));
+  }
+
+  Vector sharedState(boolean copy)
+  { // The lists, maps and counters of the state other
+    // than the StateMaps, in a fixed order; copies of the
+    // lists and maps if copy.
+
+    Vector res = new Vector();
+    if (copy)
+    { res.add(copyOf(entities));
+      res.add(copyOf(enumtypes));
+      res.add(new Vector(cobolClasses));
+      res.add(new java.util.HashMap(mathoclvars));
+      res.add(new Vector(mathocltheorems));
+      res.add(new Vector(mathoclrewrites));
+      res.add(new Vector(cobolDataDescriptionDataNames));
+      res.add(new Vector(cobolAmbiguousDataNames));
+    }
+    else
+    { res.add(entities);
+      res.add(enumtypes);
+      res.add(cobolClasses);
+      res.add(mathoclvars);
+      res.add(mathocltheorems);
+      res.add(mathoclrewrites);
+      res.add(cobolDataDescriptionDataNames);
+      res.add(cobolAmbiguousDataNames);
+    }
+    res.add(Integer.valueOf(mathoclfunctionIndex));
+    res.add(Integer.valueOf(cobolFillerCount));
+    res.add(cobolHyphenReplacement);
+    res.add(cobolCommaReplacement);
+    return res;
+  }
+
+  private static Vector copyOf(Vector v)
+  { if (v == null)
+    { return null; }
+    return new Vector(v);
+  }
+
+  private static Vector replaceContents(Vector trg, Vector src)
+  { // trg with the elements of src, keeping trg itself as
+    // other objects may refer to it
+
+    if (src == null)
+    { return null; }
+    if (trg == null)
+    { return new Vector(src); }
+    if (!trg.equals(src))
+    { trg.clear();
+      trg.addAll(src);
+    }
+    return trg;
+  }
+
+  public void mergeChild(TranslationContext c)
+  { // Copies the changes of c = child() to this, as if
+    // its task had been done here. Only valid if
+    // isCurrentFor(c) held when c finished.
+
+    StateMap.copyChanges(c.metafeatures, metafeatures);
+    StateMap.copyChanges(c.types, types);
+    StateMap.copyChanges(c.elementTypes, elementTypes);
+
+    packageName = c.packageName;
+    currentClass = c.currentClass;
+    if (c.functionsInScope != null &&
+        !c.functionsInScope.equals(c.parentFunctions))
+    { if (functionsInScope == null)
+      { functionsInScope = new Vector(); }
+      functionsInScope.clear();
+      functionsInScope.addAll(c.functionsInScope);
+    }
+
+    entities = replaceContents(entities, c.entities);
+    enumtypes = replaceContents(enumtypes, c.enumtypes);
+    replaceContents(cobolClasses, c.cobolClasses);
+    if (!mathoclvars.equals(c.mathoclvars))
+    { mathoclvars.clear();
+      mathoclvars.putAll(c.mathoclvars);
+    }
+    if (!mathocltheorems.equals(c.mathocltheorems))
+    { replaceContents(mathocltheorems, c.mathocltheorems);
+      mathocltheoremIndex = new MathOCLTheoryIndex(mathocltheorems);
+    }
+    if (!mathoclrewrites.equals(c.mathoclrewrites))
+    { replaceContents(mathoclrewrites, c.mathoclrewrites);
+      mathoclrewriteIndex = new MathOCLTheoryIndex(mathoclrewrites);
+    }
+    replaceContents(cobolDataDescriptionDataNames,
+                    c.cobolDataDescriptionDataNames);
+    replaceContents(cobolAmbiguousDataNames,
+                    c.cobolAmbiguousDataNames);
+    mathoclfunctionIndex = c.mathoclfunctionIndex;
+    cobolFillerCount = c.cobolFillerCount;
+    cobolHyphenReplacement = c.cobolHyphenReplacement;
+    cobolCommaReplacement = c.cobolCommaReplacement;
+
+    addRequiredLibraries(c);
+
+    synchronized (c.cg_cache)
+    { java.util.Iterator iter = c.cg_cache.keySet().iterator();
+      while (iter.hasNext())
+      { Object cgs = iter.next();
+        java.util.Map entries = (java.util.Map) c.cg_cache.get(cgs);
+        synchronized (cg_cache)
+        { java.util.Map cgsmap = (java.util.Map) cg_cache.get(cgs);
+          if (cgsmap == null)
+          { cgsmap = new java.util.HashMap();
+            cg_cache.put(cgs, cgsmap);
+          }
+          cgsmap.putAll(entries);
+        }
+      }
+    }
+  }
+
+  public void addRequiredLibraries(TranslationContext c)
+  { // The libraries required by c, in order
+
+    synchronized (requiredLibraries)
+    { for (int i = 0; i < c.requiredLibraries.size(); i++)
+      { Object lib = c.requiredLibraries.get(i);
+        if (!requiredLibraries.contains(lib))
+        { requiredLibraries.add(lib); }
+      }
+    }
+  }
+
+  public long stateVersion()
+  { // Changes whenever metafeatures, types or
+    // elementTypes are changed, -1 if this is not known.
+
+    if (metafeatures instanceof StateMap &&
+        types instanceof StateMap &&
+        elementTypes instanceof StateMap)
+    { return ((StateMap) metafeatures).version +
+             ((StateMap) types).version +
+             ((StateMap) elementTypes).version;
+    }
+    return -1;
+  }
+
+  public String contextKey()
+  { // The state other than the StateMaps which CSTL
+    // translations read: the package, class and
+    // functions in scope, the versions of the MathOCL
+    // variables and entities, and the fresh name
+    // counters.
+
+    StringBuffer res = new StringBuffer();
+    res.append(packageName);
+    res.append(":");
+    if (currentClass != null)
+    { res.append(currentClass.getName()); }
+    res.append(":");
+    if (functionsInScope != null)
+    { res.append(functionsInScope.size() + "/" +
+                 functionsInScope.hashCode());
+    }
+    res.append(":" + mathoclvarsVersion());
+    res.append(":" + (entities == null ? 0 : entities.size()));
+    res.append(":" + mathoclfunctionIndex + ":" + cobolFillerCount);
+    return res.toString();
+  }
+
+  public long effectVersion()
+  { // Changes whenever a translation changes the state
+    // which other translations can read or produce: the
+    // StateMaps, contextKey, the lists of MathOCL & COBOL
+    // data and the required libraries; -1 if this is not
+    // known.
+
+    long version = stateVersion();
+    long vars = mathoclvarsVersion();
+    if (version < 0 || vars < 0)
+    { return -1; }
+    return version + vars + 31*contextKey().hashCode() +
+           cobolClasses.size() + mathocltheorems.size() +
+           mathoclrewrites.size() + requiredLibraries.size() +
+           cobolDataDescriptionDataNames.size() +
+           cobolAmbiguousDataNames.size();
+  }
+
+  private long mathoclvarsVersion()
+  { if (mathoclvars instanceof StateMap)
+    { return ((StateMap) mathoclvars).version; }
+    return -1;
+  }
+
+  public Vector getRequiredLibraries()
+  { return requiredLibraries; }
+
+  public Vector getEntities()
+  { return entities; }
+
+  public void setEntities(Vector ents)
+  { entities = ents; }
+
+  public Vector getEnumtypes()
+  { return enumtypes; }
+
+  public void setEnumtypes(Vector etypes)
+  { enumtypes = etypes; }
+
+  public Vector getCobolClasses()
+  { return cobolClasses; }
+
+  public java.util.Map getMetafeatures()
+  { return metafeatures; }
+
+
+  static class StateMap extends java.util.HashMap
+  { // Counts its changes, so that values derived from
+    // the map (eg., ASTTerm.cgContextSignature) can be
+    // kept while it is unchanged.
+
+    long version = 0;
+    java.util.Set changed = null;
+      // keys changed since copyState, in order
+    boolean cleared = false;
+
+    void changed(Object key)
+    { if (changed != null)
+      { changed.add(key); }
+    }
+
+    public Object put(Object key, Object value)
+    { version++;
+      changed(key);
+      return super.put(key,value);
+    }
+
+    public void putAll(java.util.Map m)
+    { version++;
+      if (changed != null)
+      { changed.addAll(m.keySet()); }
+      super.putAll(m);
+    }
+
+    public Object remove(Object key)
+    { version++;
+      changed(key);
+      return super.remove(key);
+    }
+
+    public void clear()
+    { version++;
+      if (changed != null)
+      { cleared = true;
+        changed.clear();
+      }
+      super.clear();
+    }
+
+    static void copyState(java.util.Map src, java.util.Map trg)
+    { // trg is a new StateMap. Vector values (eg., of
+      // stereotypes) are copied as they are changed in
+      // place.
+
+      java.util.Iterator iter = src.entrySet().iterator();
+      while (iter.hasNext())
+      { java.util.Map.Entry ent = (java.util.Map.Entry) iter.next();
+        Object val = ent.getValue();
+        if (val instanceof Vector)
+        { val = new Vector((Vector) val); }
+        trg.put(ent.getKey(), val);
+      }
+      ((StateMap) trg).changed = new java.util.LinkedHashSet();
+    }
+
+    static void copyChanges(java.util.Map src, java.util.Map trg)
+    { StateMap sm = (StateMap) src;
+      if (sm.cleared)
+      { trg.clear(); }
+      java.util.Iterator iter = sm.changed.iterator();
+      while (iter.hasNext())
+      { Object key = iter.next();
+        if (sm.containsKey(key))
+        { trg.put(key, sm.get(key)); }
+        else
+        { trg.remove(key); }
+      }
+    }
+  }
+}
@@ -0,0 +1,278 @@
+/******************************
+* Copyright (c) 2003--2025 Kevin Lano
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0
+*
+* SPDX-License-Identifier: EPL-2.0
+* *****************************/
+
+import java.util.Vector;
+import java.io.*;
+import java.util.concurrent.*;
+
+/* Type checking of the operations of the entities and of
+   the use cases of a model in dependency order. An entity
+   depends on its superclasses and interfaces, and on the
+   entities of the operations which its operations call,
+   according to BehaviouralFeature.getCallGraph. The
+   strongly connected components of these dependencies are
+   checked one at a time, each after the components which
+   it depends on, with its entities in model order. The use
+   cases are checked after all the entities.
+
+   The checks themselves are sequential: they set the
+   types and element types of expressions and of Type
+   objects shared between entities, and print to
+   System.out and System.err, so they are not independent.
+   Only the dependency analysis, which reads the operation
+   bodies, runs in parallel, one task for each entity on a
+   work-stealing pool.
+
+   Errors of a check or of the analysis of an entity are
+   printed to the given stream, in model order; other
+   entities are still checked. */
+
+public class TypeCheckScheduler
+{ static boolean enabled = false;
+  static int parallelism =
+    Runtime.getRuntime().availableProcessors();
+
+  Vector types;
+  Vector entities;
+  Vector useCases;
+
+  Vector[] dependencies; // of Integer, for each entity
+  Vector components = new Vector(); // of Vector of Integer
+  int[] componentOf;
+
+  public TypeCheckScheduler(Vector typs, Vector ents, Vector ucs)
+  { types = typs;
+    entities = ents;
+    useCases = ucs;
+  }
+
+  public static void setEnabled(boolean b)
+  { enabled = b; }
+
+  public static boolean isEnabled()
+  { return enabled; }
+
+  public static void setParallelism(int n)
+  { parallelism = Math.max(1,n); }
+
+  public void typeCheck()
+  { typeCheck(System.err); }
+
+  public void typeCheck(PrintStream err)
+  { checkEntities(err);
+
+    for (int j = 0; j < useCases.size(); j++)
+    { if (useCases.get(j) instanceof UseCase)
+      { UseCase uc = (UseCase) useCases.get(j);
+        try
+        { uc.typeCheck(types,entities); }
+        catch (RuntimeException ex)
+        { err.println("!! Error type-checking use case " +
+                      uc.getName() + ": " + ex);
+        }
+      }
+    }
+  }
+
+  public void typeCheckOps()
+  { typeCheckOps(System.err); }
+
+  public void typeCheckOps(PrintStream err)
+  { checkEntities(err); }
+
+  private void checkEntities(PrintStream err)
+  { findDependencies(err);
+    findComponents();
+
+    // Tarjan's algorithm finds each component after all
+    // the components which it depends on.
+
+    for (int c = 0; c < components.size(); c++)
+    { Vector comp = (Vector) components.get(c);
+      for (int k = 0; k < comp.size(); k++)
+      { int i = ((Integer) comp.get(k)).intValue();
+        Entity ent = (Entity) entities.get(i);
+        try
+        { ent.typeCheckOps(types,entities); }
+        catch (RuntimeException ex)
+        { err.println("!! Error type-checking operations of " +
+                      ent.getName() + ": " + ex);
+        }
+      }
+    }
+  }
+
+  private void findDependencies(PrintStream err)
+  { final int n = entities.size();
+    dependencies = new Vector[n];
+    if (n == 0)
+    { return; }
+
+    final java.util.Map indexOf = new java.util.HashMap();
+      // Entity name --> Integer
+    for (int i = 0; i < n; i++)
+    { Entity ent = (Entity) entities.get(i);
+      if (!indexOf.containsKey(ent.getName()))
+      { indexOf.put(ent.getName(), Integer.valueOf(i)); }
+    }
+
+    final String[] failures = new String[n];
+    final CountDownLatch done = new CountDownLatch(n);
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try
+    { for (int i = 0; i < n; i++)
+      { final int ind = i;
+        pool.execute(new Runnable()
+          { public void run()
+            { try
+              { dependencies[ind] = entityDependencies(ind,indexOf); }
+              catch (RuntimeException ex)
+              { failures[ind] = ex + "";
+                dependencies[ind] = new Vector();
+              }
+              finally
+              { done.countDown(); }
+            }
+          });
+      }
+      await(done,err);
+    }
+    finally
+    { pool.shutdown(); }
+
+    for (int i = 0; i < n; i++)
+    { if (failures[i] != null)
+      { err.println("! Unable to find the dependencies of " +
+                    ((Entity) entities.get(i)).getName() + ": " +
+                    failures[i]);
+      }
+      if (dependencies[i] == null) // interrupted
+      { dependencies[i] = new Vector(); }
+    }
+  }
+
+  private Vector entityDependencies(int i, java.util.Map indexOf)
+  { // Reads only the entity and its operations
+
+    Entity ent = (Entity) entities.get(i);
+    java.util.Set deps = new java.util.LinkedHashSet();
+
+    Vector sups = new Vector();
+    sups.addAll(ent.getSuperclasses());
+    if (ent.getInterfaces() != null)
+    { sups.addAll(ent.getInterfaces()); }
+    for (int k = 0; k < sups.size(); k++)
+    { Entity sup = (Entity) sups.get(k);
+      addDependency(deps, indexOf.get(sup.getName()), i);
+    }
+
+    Vector ops = ent.getOperations();
+    for (int k = 0; k < ops.size(); k++)
+    { BehaviouralFeature bf = (BehaviouralFeature) ops.get(k);
+      Map calls = new Map();
+      bf.getCallGraph(calls);
+      for (int m = 0; m < calls.size(); m++)
+      { String called = calls.get(m).getTarget() + "";
+        int sep = called.indexOf("::");
+        if (sep > 0)
+        { String ename = called.substring(0,sep);
+          addDependency(deps, indexOf.get(ename), i);
+        }
+      }
+    }
+
+    return new Vector(deps);
+  }
+
+  private static void await(CountDownLatch done, PrintStream err)
+  { try
+    { done.await(); }
+    catch (InterruptedException ex)
+    { err.println("!! Type checking interrupted: " + ex);
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void addDependency(java.util.Set deps, Object ind, int i)
+  { if (ind != null && ((Integer) ind).intValue() != i)
+    { deps.add(ind); }
+  }
+
+  private void findComponents()
+  { // Tarjan's algorithm, with an explicit stack of
+    // (entity, next dependency) frames. Components are
+    // found in reverse topological order, each with its
+    // entities in model order.
+
+    int n = entities.size();
+    int[] index = new int[n];
+    int[] lowlink = new int[n];
+    boolean[] onStack = new boolean[n];
+    java.util.Arrays.fill(index,-1);
+    componentOf = new int[n];
+    components = new Vector();
+
+    Vector stack = new Vector(); // of Integer
+    int counter = 0;
+
+    for (int root = 0; root < n; root++)
+    { if (index[root] >= 0)
+      { continue; }
+
+      Vector frames = new Vector(); // of int[] {entity, next}
+      frames.add(new int[] { root, 0 });
+      index[root] = counter;
+      lowlink[root] = counter;
+      counter++;
+      stack.add(Integer.valueOf(root));
+      onStack[root] = true;
+
+      while (frames.size() > 0)
+      { int[] frame = (int[]) frames.get(frames.size() - 1);
+        int v = frame[0];
+        Vector deps = dependencies[v];
+
+        if (frame[1] < deps.size())
+        { int w = ((Integer) deps.get(frame[1])).intValue();
+          frame[1]++;
+          if (index[w] < 0)
+          { index[w] = counter;
+            lowlink[w] = counter;
+            counter++;
+            stack.add(Integer.valueOf(w));
+            onStack[w] = true;
+            frames.add(new int[] { w, 0 });
+          }
+          else if (onStack[w])
+          { lowlink[v] = Math.min(lowlink[v],index[w]); }
+          continue;
+        }
+
+        frames.remove(frames.size() - 1);
+        if (frames.size() > 0)
+        { int u = ((int[]) frames.get(frames.size() - 1))[0];
+          lowlink[u] = Math.min(lowlink[u],lowlink[v]);
+        }
+
+        if (lowlink[v] == index[v])
+        { Vector comp = new Vector();
+          int w;
+          do
+          { w = ((Integer) stack.remove(stack.size() - 1)).intValue();
+            onStack[w] = false;
+            componentOf[w] = components.size();
+            comp.add(Integer.valueOf(w));
+          } while (w != v);
+          java.util.Collections.sort(comp);
+          components.add(comp);
+        }
+      }
+    }
+  }
+}
@@ -124,13 +124,13 @@ public class UCDArea extends JPanel
       // all actuator statemachines
     private Vector processes = new Vector();   
       // all controller, general use case visuals
-    private Vector types = new Vector(); // of Type 
-    private Vector entities = new Vector(); // of Entity
+    private Vector types = new ModelSymbolTable(); // of Type 
+    private Vector entities = new ModelSymbolTable(); // of Entity
     private Vector associations = new Vector(); // of Association
     private Vector invariants = new Vector(); // SafetyInvariant
     private Vector constraints = new Vector(); // of Constraint
     private Vector generalisations = new Vector(); // of Generalisation
-    private Vector useCases = new Vector(); // of OperationDescription or UseCase
+    private Vector useCases = new ModelSymbolTable(); // of OperationDescription or UseCase
     private Vector activities = new Vector(); // of Behaviour
 
     private BComponent bcontroller = null;  // The B Controller
@@ -287,7 +287,12 @@ public class UCDArea extends JPanel
 
 
   public void typeCheck()
-  { for (int i = 0; i < entities.size(); i++) 
+  { if (TypeCheckScheduler.isEnabled())
+    { new TypeCheckScheduler(types,entities,useCases).typeCheck();
+      return;
+    }
+
+    for (int i = 0; i < entities.size(); i++) 
     { Entity e = (Entity) entities.get(i); 
       e.typeCheckOps(types,entities); 
     } 
@@ -5254,15 +5259,15 @@ public class UCDArea extends JPanel
   }
 
   public void clearAllData()
-  { entities = new Vector();
+  { entities = new ModelSymbolTable();
     associations = new Vector(); 
     visuals = new Vector(); 
-    types = new Vector(); 
+    types = new ModelSymbolTable(); 
     generalisations = new Vector(); 
     constraints = new Vector(); 
     invariants = new Vector(); 
     componentNames = new Vector(); 
-    useCases = new Vector(); 
+    useCases = new ModelSymbolTable(); 
   } 
 
   public void setDrawMode(int mode) 
@@ -9732,6 +9737,11 @@ public void produceCUI(PrintWriter out)
 
   public void typeCheckOps()
   { System.out.println("Rechecking operations"); 
+    if (TypeCheckScheduler.isEnabled())
+    { new TypeCheckScheduler(types,entities,useCases).typeCheckOps();
+      return;
+    }
+
     for (int i = 0; i < entities.size(); i++) 
     { Entity ent = (Entity) entities.get(i); 
       ent.typeCheckOps(types,entities); 